@@ -1,8 +1,22 @@
 package com.example.transfers_service.advice;
 
+import com.example.transfers_service.exception.AccountBusyException;
+import com.example.transfers_service.exception.AccountInactiveException;
+import com.example.transfers_service.exception.AccountNotFoundException;
+import com.example.transfers_service.exception.AccountOwnershipException;
+import com.example.transfers_service.exception.BusinessException;
+import com.example.transfers_service.exception.FraudSuspectedException;
 import com.example.transfers_service.exception.InsufficientBalanceException;
+import com.example.transfers_service.exception.InvalidTransferException;
+import com.example.transfers_service.exception.RateLimitExceededException;
+import com.example.transfers_service.exception.ReconciliationRunNotFoundException;
+import com.example.transfers_service.exception.RetryableException;
+import com.example.transfers_service.exception.ServiceOverloadedException;
+import com.example.transfers_service.exception.TransferLimitExceededException;
+import com.example.transfers_service.exception.TransferNotFoundException;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -36,6 +50,73 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleRateLimitExceeded(RateLimitExceededException ex) {
+        return retryableError(HttpStatus.TOO_MANY_REQUESTS, "demasiadas solicitudes", ex);
+    }
+
+    @ExceptionHandler(AccountBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleAccountBusy(AccountBusyException ex) {
+        return retryableError(HttpStatus.SERVICE_UNAVAILABLE, "cuenta ocupada", ex);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceOverloaded(ServiceOverloadedException ex) {
+        return retryableError(HttpStatus.SERVICE_UNAVAILABLE, "servicio saturado", ex);
+    }
+
+    @ExceptionHandler(InvalidTransferException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidTransfer(InvalidTransferException ex) {
+        return businessError(HttpStatus.BAD_REQUEST, "solicitud inválida", ex);
+    }
+
+    @ExceptionHandler(AccountOwnershipException.class)
+    public ResponseEntity<Map<String, Object>> handleAccountOwnership(AccountOwnershipException ex) {
+        return businessError(HttpStatus.FORBIDDEN, "cuenta no pertenece al cliente", ex);
+    }
+
+    @ExceptionHandler(AccountNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleAccountNotFound(AccountNotFoundException ex) {
+        return businessError(HttpStatus.NOT_FOUND, "cuenta no encontrada", ex);
+    }
+
+    @ExceptionHandler(TransferNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleTransferNotFound(TransferNotFoundException ex) {
+        return businessError(HttpStatus.NOT_FOUND, "transferencia no encontrada", ex);
+    }
+
+    @ExceptionHandler(ReconciliationRunNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleReconciliationRunNotFound(ReconciliationRunNotFoundException ex) {
+        return businessError(HttpStatus.NOT_FOUND, "corrida de conciliación no encontrada", ex);
+    }
+
+    @ExceptionHandler(AccountInactiveException.class)
+    public ResponseEntity<Map<String, Object>> handleAccountInactive(AccountInactiveException ex) {
+        return businessError(HttpStatus.UNPROCESSABLE_ENTITY, "cuenta inactiva", ex);
+    }
+
+    @ExceptionHandler(TransferLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleTransferLimitExceeded(TransferLimitExceededException ex) {
+        return businessError(HttpStatus.UNPROCESSABLE_ENTITY, "límite de transferencias excedido", ex);
+    }
+
+    @ExceptionHandler(FraudSuspectedException.class)
+    public ResponseEntity<Map<String, Object>> handleFraudSuspected(FraudSuspectedException ex) {
+        return businessError(HttpStatus.UNPROCESSABLE_ENTITY, "transferencia rechazada por riesgo", ex);
+    }
+
+    // Cualquier otro rechazo de negocio sigue siendo culpa del cliente, nunca un 500
+    @ExceptionHandler(BusinessException.class)
+    public ResponseEntity<Map<String, Object>> handleBusiness(BusinessException ex) {
+        return businessError(HttpStatus.BAD_REQUEST, "operación rechazada", ex);
+    }
+
+    // Cualquier otro rechazo temporal por carga: reintentable, nunca un 500
+    @ExceptionHandler(RetryableException.class)
+    public ResponseEntity<Map<String, Object>> handleRetryable(RetryableException ex) {
+        return retryableError(HttpStatus.SERVICE_UNAVAILABLE, "servicio no disponible", ex);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGeneric(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
@@ -43,4 +124,20 @@ public class GlobalExceptionHandler {
                 "message", ex.getMessage()
         ));
     }
-}
\ No newline at end of file
+
+    private static ResponseEntity<Map<String, Object>> businessError(HttpStatus status, String error, BusinessException ex) {
+        return ResponseEntity.status(status).body(Map.of(
+                "error", error,
+                "message", ex.getMessage()
+        ));
+    }
+
+    private static ResponseEntity<Map<String, Object>> retryableError(HttpStatus status, String error, RetryableException ex) {
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(Map.of(
+                        "error", error,
+                        "message", ex.getMessage()
+                ));
+    }
+}
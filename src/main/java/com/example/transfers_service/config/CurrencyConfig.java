@@ -0,0 +1,16 @@
+package com.example.transfers_service.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Construye el CurrencyRegistry desde transfers.currency.*; los servicios lo reciben por constructor
+@Configuration
+@EnableConfigurationProperties(CurrencyProperties.class)
+public class CurrencyConfig {
+
+    @Bean
+    public CurrencyRegistry currencyRegistry(CurrencyProperties properties) {
+        return properties.toRegistry();
+    }
+}
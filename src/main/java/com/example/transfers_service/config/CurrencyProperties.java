@@ -0,0 +1,42 @@
+package com.example.transfers_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// transfers.currency.* : moneda base y lista de monedas soportadas con su tipo de cambio contra la base
+@Getter
+@Setter
+@ConfigurationProperties("transfers.currency")
+public class CurrencyProperties {
+
+    private String base = "PEN";
+
+    // vacía = PEN/USD por defecto (CurrencyRegistry.defaults())
+    private List<Definition> definitions = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Definition {
+        private String code;
+        // decimales ISO 4217 (0 a 2)
+        private int minorUnits = 2;
+        // divisa -> base: multiplicar
+        private BigDecimal buyRate;
+        // base -> divisa: dividir
+        private BigDecimal sellRate;
+    }
+
+    CurrencyRegistry toRegistry() {
+        if (definitions.isEmpty()) {
+            return CurrencyRegistry.defaults();
+        }
+        return new CurrencyRegistry(base, definitions.stream()
+                .map(d -> new CurrencyRegistry.Definition(d.getCode(), d.getMinorUnits(), d.getBuyRate(), d.getSellRate()))
+                .toList());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.transfers_service.config;
+
+import com.example.transfers_service.dto.CurrencyCode;
+import com.example.transfers_service.exception.InvalidTransferException;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Monedas soportadas y sus tipos de cambio contra la moneda base, indexados por CurrencyCode.index().
+ * Cada código se resuelve una sola vez (al leer la solicitud o la cuenta) y a partir de ahí
+ * las reglas comparan índices y leen arreglos, sin equalsIgnoreCase ni toUpperCase.
+ * Es un bean (CurrencyConfig, desde transfers.currency.*) que se inyecta en los servicios;
+ * las pruebas sin Spring usan defaults() (PEN/USD).
+ */
+public final class CurrencyRegistry {
+
+    // saldos y movimientos se guardan con 2 decimales (DECIMAL(19,2) y céntimos en el motor)
+    public static final int MAX_MINOR_UNITS = 2;
+
+    private final CurrencyCode base;
+    private final CurrencyCode[] byIndex;
+    private final Map<String, CurrencyCode> byCode;
+    // moneda -> base: multiplicar (el banco compra la divisa)
+    private final BigDecimal[] buyRates;
+    // base -> moneda: dividir (el banco vende la divisa)
+    private final BigDecimal[] sellRates;
+
+    public CurrencyRegistry(String baseCode, List<Definition> definitions) {
+        int size = definitions.size();
+        this.byIndex = new CurrencyCode[size];
+        this.byCode = new HashMap<>(size * 4);
+        this.buyRates = new BigDecimal[size];
+        this.sellRates = new BigDecimal[size];
+
+        for (int i = 0; i < size; i++) {
+            Definition definition = definitions.get(i);
+            String code = definition.code().toUpperCase(Locale.ROOT);
+            if (definition.minorUnits() < 0 || definition.minorUnits() > MAX_MINOR_UNITS) {
+                throw new IllegalArgumentException("Moneda " + code + ": minor-units debe estar entre 0 y "
+                        + MAX_MINOR_UNITS + " (los saldos se guardan con 2 decimales)");
+            }
+            if (byCode.containsKey(code)) {
+                throw new IllegalArgumentException("Moneda repetida: " + code);
+            }
+            CurrencyCode currency = new CurrencyCode(code, i, definition.minorUnits());
+            byIndex[i] = currency;
+            // mayúsculas y minúsculas precargadas: la búsqueda habitual no crea Strings
+            byCode.put(code, currency);
+            byCode.put(code.toLowerCase(Locale.ROOT), currency);
+            buyRates[i] = definition.buyRate();
+            sellRates[i] = definition.sellRate();
+        }
+
+        CurrencyCode resolvedBase = byCode.get(baseCode.toUpperCase(Locale.ROOT));
+        if (resolvedBase == null) {
+            throw new IllegalArgumentException("La moneda base " + baseCode + " no está en la lista de monedas");
+        }
+        this.base = resolvedBase;
+        buyRates[base.index()] = BigDecimal.ONE;
+        sellRates[base.index()] = BigDecimal.ONE;
+        for (CurrencyCode currency : byIndex) {
+            if (!currency.is(base) && (buyRates[currency.index()] == null || sellRates[currency.index()] == null
+                    || buyRates[currency.index()].signum() <= 0 || sellRates[currency.index()].signum() <= 0)) {
+                throw new IllegalArgumentException("Moneda " + currency.code() + ": buy-rate y sell-rate deben ser positivos");
+            }
+        }
+    }
+
+    // Definición de una moneda tal como viene de la configuración
+    public record Definition(String code, int minorUnits, BigDecimal buyRate, BigDecimal sellRate) {
+    }
+
+    public static CurrencyRegistry defaults() {
+        return new CurrencyRegistry("PEN", List.of(
+                new Definition("PEN", 2, BigDecimal.ONE, BigDecimal.ONE),
+                new Definition("USD", 2, BigDecimal.valueOf(3.50), BigDecimal.valueOf(3.80))));
+    }
+
+    // null si la moneda no está configurada
+    public CurrencyCode lookup(String code) {
+        if (code == null) {
+            return null;
+        }
+        CurrencyCode currency = byCode.get(code);
+        return currency != null ? currency : byCode.get(code.toUpperCase(Locale.ROOT));
+    }
+
+    public CurrencyCode require(String code) {
+        CurrencyCode currency = lookup(code);
+        if (currency == null) {
+            throw new InvalidTransferException("Moneda no soportada: " + code);
+        }
+        return currency;
+    }
+
+    public CurrencyCode base() {
+        return base;
+    }
+
+    public BigDecimal buyRate(CurrencyCode currency) {
+        return buyRates[currency.index()];
+    }
+
+    public BigDecimal sellRate(CurrencyCode currency) {
+        return sellRates[currency.index()];
+    }
+
+    public int size() {
+        return byIndex.length;
+    }
+}
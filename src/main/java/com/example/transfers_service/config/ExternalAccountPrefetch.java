@@ -0,0 +1,52 @@
+package com.example.transfers_service.config;
+
+import com.example.transfers_service.dto.external.ExternalAccountResponse;
+import com.example.transfers_service.exception.ExternalAccountValidationException;
+
+import java.util.function.Supplier;
+
+/**
+ * Cuenta destino externa ya validada en el hilo actual, antes de tomar locks de cuenta o de BD.
+ * La llamada al banco externo puede tardar cientos de ms: hecha dentro de los locks retendría
+ * la franja y la fila origen todo ese tiempo. La ruta de escritura usa lo precargado y solo
+ * llama al banco si la cuenta no se precargó.
+ */
+public final class ExternalAccountPrefetch {
+
+    private static final ThreadLocal<Prefetched> CURRENT = new ThreadLocal<>();
+
+    private ExternalAccountPrefetch() {
+    }
+
+    // Respuesta del banco o el rechazo con el que falló la validación (uno de los dos)
+    private record Prefetched(String accountId, ExternalAccountResponse response,
+                              ExternalAccountValidationException failure) {
+    }
+
+    public static <T> T call(String accountId, ExternalAccountResponse response,
+                             ExternalAccountValidationException failure, Supplier<T> action) {
+        Prefetched previous = CURRENT.get();
+        CURRENT.set(new Prefetched(accountId, response, failure));
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    // Lo precargado para accountId (relanzando el mismo rechazo) o, si no hay, 'validate'
+    public static ExternalAccountResponse orElseValidate(String accountId, Supplier<ExternalAccountResponse> validate) {
+        Prefetched prefetched = CURRENT.get();
+        if (prefetched == null || !prefetched.accountId().equals(accountId)) {
+            return validate.get();
+        }
+        if (prefetched.failure() != null) {
+            throw prefetched.failure();
+        }
+        return prefetched.response();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.transfers_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Dimensiona el pool de Hikari a partir de la concurrencia de los workers.
+ * Una transferencia ocupa una conexión durante toda la transacción, así que más conexiones
+ * que hilos de Tomcat no sirven de nada; y más de (núcleos * 2 + 1) solo añade contención
+ * en la BD. Se usa un pool de tamaño fijo (minimumIdle = maximumPoolSize).
+ */
+@Configuration
+@ConditionalOnProperty(name = "transfers.db.pool-sizing.auto", havingValue = "true")
+public class HikariPoolSizingConfig {
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizingPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari && !hikari.isReadOnly()) {
+                    int workerThreads = environment.getProperty(
+                            "transfers.db.pool-sizing.worker-threads", Integer.class, 200);
+                    int explicitMax = environment.getProperty(
+                            "transfers.db.pool-sizing.max", Integer.class, 0);
+                    int poolSize = resolvePoolSize(workerThreads, explicitMax,
+                            Runtime.getRuntime().availableProcessors());
+                    hikari.setMaximumPoolSize(poolSize);
+                    hikari.setMinimumIdle(poolSize);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static int resolvePoolSize(int workerThreads, int explicitMax, int cpus) {
+        if (explicitMax > 0) {
+            return explicitMax;
+        }
+        return Math.max(2, Math.min(workerThreads, cpus * 2 + 1));
+    }
+}
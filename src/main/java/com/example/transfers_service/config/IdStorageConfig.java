@@ -0,0 +1,22 @@
+package com.example.transfers_service.config;
+
+import com.example.transfers_service.entity.PrefixedUlidType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Pasa transfers.ids.mode a Hibernate para que PrefixedUlidType elija el tipo de columna
+ * de transfer_id / movement_id (VARCHAR con el texto o BINARY(16) con el ULID).
+ */
+@Configuration
+public class IdStorageConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer idStorageModeCustomizer(
+            @Value("${transfers.ids.mode:text}") String mode) {
+        PrefixedUlidType.isBinary(mode); // falla al arrancar si el valor no es válido
+        return properties -> properties.put(PrefixedUlidType.MODE_SETTING, mode);
+    }
+}
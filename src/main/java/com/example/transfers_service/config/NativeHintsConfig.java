@@ -0,0 +1,96 @@
+package com.example.transfers_service.config;
+
+import com.example.transfers_service.dto.AccountMetadataDto;
+import com.example.transfers_service.dto.TransferEventDto;
+import com.example.transfers_service.dto.external.ExternalAccountBulkRequest;
+import com.example.transfers_service.dto.external.ExternalAccountBulkResponse;
+import com.example.transfers_service.dto.external.ExternalAccountErrorResponse;
+import com.example.transfers_service.dto.external.ExternalAccountResponse;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.dto.response.TransferResponse;
+import com.example.transfers_service.entity.Account;
+import com.example.transfers_service.entity.AccountBalanceCheckpoint;
+import com.example.transfers_service.entity.AccountMetadataListener;
+import com.example.transfers_service.entity.AppliedCredit;
+import com.example.transfers_service.entity.JournalEntry;
+import com.example.transfers_service.entity.Movement;
+import com.example.transfers_service.entity.PrefixedUlidType;
+import com.example.transfers_service.entity.Transfer;
+import com.example.transfers_service.entity.TransferIntent;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+/**
+ * Hints de reflexión para la imagen nativa (-Pnative) y el arranque con AOT (-Pfast-startup).
+ * Spring AOT infiere los beans y los @RequestBody, pero no lo que Jackson, Hibernate o MapStruct
+ * crean por reflexión fuera de esas rutas: DTOs del cliente REST externo, los eventos que serializan
+ * los sinks NDJSON/HTTP, el UserType de ids, la proyección JPQL "select new" y las implementaciones
+ * generadas de los mappers.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.TransferRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static final List<Class<?>> JSON_TYPES = List.of(
+            TransferRequest.class,
+            TransferResponse.class,
+            ExternalAccountResponse.class,
+            ExternalAccountErrorResponse.class,
+            ExternalAccountBulkRequest.class,
+            ExternalAccountBulkResponse.class,
+            TransferEventDto.class);
+
+    static final List<Class<?>> ENTITIES = List.of(
+            Account.class,
+            AccountBalanceCheckpoint.class,
+            AppliedCredit.class,
+            JournalEntry.class,
+            Movement.class,
+            Transfer.class,
+            TransferIntent.class);
+
+    static final List<String> MAPPER_IMPLEMENTATIONS = List.of(
+            "com.example.transfers_service.mapper.TransferMapperImpl",
+            "com.example.transfers_service.mapper.MovementMapperImpl");
+
+    static class TransferRuntimeHints implements RuntimeHintsRegistrar {
+
+        private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Jackson: getters/setters/constructores de cada DTO y de sus tipos anidados
+            bindingRegistrar.registerReflectionHints(hints.reflection(), JSON_TYPES.toArray(Class<?>[]::new));
+
+            // Hibernate: acceso a campos, constructor sin argumentos y proxies de las entidades
+            for (Class<?> entity : ENTITIES) {
+                hints.reflection().registerType(entity,
+                        MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+            hints.reflection().registerType(PrefixedUlidType.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(AccountMetadataListener.class,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+            hints.reflection().registerType(AccountMetadataDto.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+            // MapStruct: las implementaciones generadas se registran como beans por nombre
+            for (String mapper : MAPPER_IMPLEMENTATIONS) {
+                hints.reflection().registerType(TypeReference.of(mapper),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+
+            // Scripts de esquema usados por los arranques contra H2 (RUNSCRIPT FROM 'classpath:...')
+            hints.resources().registerPattern("db/migration/*.sql");
+        }
+    }
+}
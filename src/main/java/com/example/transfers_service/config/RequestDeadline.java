@@ -0,0 +1,39 @@
+package com.example.transfers_service.config;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Deadline de la solicitud en curso en el hilo actual (System.nanoTime() absoluto).
+ * Se fija al entrar al controller; las llamadas salientes esperan como mucho lo que queda.
+ * Un call() anidado nunca extiende el deadline del externo, solo puede acortarlo.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    // Tiempo restante (puede ser cero o negativo si ya venció); vacío si no hay deadline
+    public static Optional<Duration> remaining() {
+        Long deadline = CURRENT.get();
+        return deadline == null ? Optional.empty() : Optional.of(Duration.ofNanos(deadline - System.nanoTime()));
+    }
+
+    public static <T> T call(Duration budget, Supplier<T> action) {
+        Long previous = CURRENT.get();
+        long deadline = System.nanoTime() + budget.toNanos();
+        CURRENT.set(previous == null ? deadline : Math.min(previous, deadline));
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
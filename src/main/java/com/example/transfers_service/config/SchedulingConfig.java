@@ -0,0 +1,10 @@
+package com.example.transfers_service.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Habilita las tareas @Scheduled (limpieza de buckets del rate limiter, etc.)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,40 @@
+package com.example.transfers_service.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard activo del hilo actual. Debe fijarse ANTES de abrir la transacción:
+ * la conexión se obtiene del shard activo al comenzar la transacción.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T call(String shard, Supplier<T> action) {
+        String previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void run(String shard, Runnable action) {
+        call(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
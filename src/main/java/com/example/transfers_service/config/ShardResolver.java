@@ -0,0 +1,71 @@
+package com.example.transfers_service.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hashing consistente de accountId sobre N shards con nodos virtuales.
+ * El anillo se guarda en arrays ordenados (búsqueda binaria, sin objetos por consulta).
+ * Agregar un shard solo mueve ~1/N de las cuentas.
+ */
+public class ShardResolver {
+
+    private final long[] ringHashes;
+    private final String[] ringShards;
+    private final List<String> shardNames;
+
+    public ShardResolver(List<String> shardNames, int virtualNodes) {
+        if (shardNames.isEmpty() || virtualNodes <= 0) {
+            throw new IllegalArgumentException("Se requiere al menos un shard y nodos virtuales positivos");
+        }
+        this.shardNames = List.copyOf(shardNames);
+
+        int size = shardNames.size() * virtualNodes;
+        long[][] points = new long[size][2];
+        int i = 0;
+        for (int shard = 0; shard < shardNames.size(); shard++) {
+            for (int vnode = 0; vnode < virtualNodes; vnode++) {
+                points[i][0] = hash(shardNames.get(shard) + "#" + vnode);
+                points[i][1] = shard;
+                i++;
+            }
+        }
+        Arrays.sort(points, (a, b) -> Long.compare(a[0], b[0]));
+
+        this.ringHashes = new long[size];
+        this.ringShards = new String[size];
+        for (int p = 0; p < size; p++) {
+            ringHashes[p] = points[p][0];
+            ringShards[p] = shardNames.get((int) points[p][1]);
+        }
+    }
+
+    public String shardFor(String accountId) {
+        long h = hash(accountId);
+        int idx = Arrays.binarySearch(ringHashes, h);
+        if (idx < 0) {
+            idx = -idx - 1;
+        }
+        return ringShards[idx == ringHashes.length ? 0 : idx];
+    }
+
+    public List<String> getShardNames() {
+        return shardNames;
+    }
+
+    // FNV-1a de 64 bits + finalizador de MurmurHash3 para repartir bien claves parecidas
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.transfers_service.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Elige el DataSource del shard fijado en ShardContext (el primero si no hay ninguno)
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ShardResolver resolver;
+    private final Map<String, DataSource> shards;
+
+    public ShardRoutingDataSource(ShardResolver resolver, Map<String, DataSource> shards) {
+        this.resolver = resolver;
+        this.shards = new LinkedHashMap<>(shards);
+        setTargetDataSources(new LinkedHashMap<>(shards));
+        setDefaultTargetDataSource(shards.values().iterator().next());
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    public ShardResolver getResolver() {
+        return resolver;
+    }
+
+    public DataSource dataSourceFor(String shard) {
+        DataSource dataSource = shards.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Shard desconocido: " + shard);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.transfers_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Un pool de Hikari por shard detrás de un ShardRoutingDataSource.
+ * No se combina con la réplica de lectura (transfers.datasource.replica.url).
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(name = "transfers.sharding.enabled", havingValue = "true")
+public class ShardingDataSourceConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(ShardingProperties properties, DataSourceProperties defaults) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("transfers.sharding.enabled=true requiere transfers.sharding.shards");
+        }
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(defaults.determineDriverClassName())
+                    .url(shard.getUrl())
+                    .username(shard.getUsername() != null ? shard.getUsername() : defaults.getUsername())
+                    .password(shard.getPassword() != null ? shard.getPassword() : defaults.getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + shard.getName());
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+            shards.put(shard.getName(), dataSource);
+        }
+        ShardResolver resolver = new ShardResolver(shards.keySet().stream().toList(), properties.getVirtualNodes());
+        return new ShardRoutingDataSource(resolver, shards);
+    }
+}
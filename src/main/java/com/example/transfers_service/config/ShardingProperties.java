@@ -0,0 +1,33 @@
+package com.example.transfers_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// transfers.sharding.* : lista de BDs (shards) entre las que se reparten las cuentas
+@Getter
+@Setter
+@ConfigurationProperties("transfers.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    // puntos por shard en el anillo de hashing consistente
+    private int virtualNodes = 128;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Shard {
+        // identificador estable: el anillo se construye sobre el nombre, no sobre la posición
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.transfers_service.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+/**
+ * Formato binario CBOR para los productores batch internos, elegido por negociación de contenido
+ * (Content-Type / Accept: application/cbor). JSON sigue siendo el formato por defecto.
+ * El ObjectMapper sale del mismo builder de Spring Boot que el de JSON, así ambos formatos
+ * comparten módulos y propiedades spring.jackson.*; solo cambia la codificación.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.transfers_service.controller;
+
+import com.example.transfers_service.dto.OperationalStatsDto;
+import com.example.transfers_service.service.OperationalStatsService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Contadores de las protecciones de carga para monitoreo (contrapresión de eventos, 503, deadlines)
+@RestController
+@RequestMapping("/ops")
+public class OperationalStatsController {
+
+    private final OperationalStatsService operationalStatsService;
+
+    public OperationalStatsController(OperationalStatsService operationalStatsService) {
+        this.operationalStatsService = operationalStatsService;
+    }
+
+    @GetMapping(value = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OperationalStatsDto> stats() {
+        return ResponseEntity.ok(operationalStatsService.snapshot());
+    }
+}
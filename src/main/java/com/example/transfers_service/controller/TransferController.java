@@ -1,26 +1,90 @@
 package com.example.transfers_service.controller;
+import com.example.transfers_service.config.RequestDeadline;
+import com.example.transfers_service.dto.request.AccountRef;
 import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.dto.response.TransferDetailResponse;
 import com.example.transfers_service.dto.response.TransferResponse;
+import com.example.transfers_service.service.AccountLockService;
+import com.example.transfers_service.service.ConcurrencyLimiterService;
+import com.example.transfers_service.service.RateLimiterService;
+import com.example.transfers_service.service.TransferQueryService;
 import com.example.transfers_service.service.TransferService;
+import com.example.transfers_service.service.TransferValidationService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+
 @RestController
 @RequestMapping("/transfers")
 public class TransferController {
 
     private final TransferService transferService;
+    private final RateLimiterService rateLimiterService;
+    private final TransferQueryService transferQueryService;
+    private final AccountLockService accountLockService;
+    private final ConcurrencyLimiterService concurrencyLimiterService;
+    private final TransferValidationService transferValidationService;
+    private final long requestTimeoutMs;
 
     // Spring inyecta automáticamente la implementación correcta
-    public TransferController(TransferService transferService) {
+    public TransferController(TransferService transferService,
+                              RateLimiterService rateLimiterService,
+                              TransferQueryService transferQueryService,
+                              AccountLockService accountLockService,
+                              ConcurrencyLimiterService concurrencyLimiterService,
+                              TransferValidationService transferValidationService,
+                              @Value("${transfers.request.timeout-ms:5000}") long requestTimeoutMs) {
         this.transferService = transferService;
+        this.rateLimiterService = rateLimiterService;
+        this.transferQueryService = transferQueryService;
+        this.accountLockService = accountLockService;
+        this.concurrencyLimiterService = concurrencyLimiterService;
+        this.transferValidationService = transferValidationService;
+        this.requestTimeoutMs = requestTimeoutMs;
     }
 
-    @PostMapping("/create")
-    public ResponseEntity<TransferResponse> createTransfer(@Valid @RequestBody TransferRequest request) {
-        TransferResponse response = transferService.createTransfer(request);
+    // JSON por defecto; los productores batch pueden enviar y recibir CBOR (ver WireFormatConfig)
+    @PostMapping(value = "/create",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<TransferResponse> createTransfer(
+            @Valid @RequestBody TransferRequest request,
+            @RequestHeader(value = "X-Request-Timeout-Ms", required = false) Long clientTimeoutMs) {
+        // Rechazar clientes/cuentas saturados antes de llegar a la BD
+        rateLimiterService.checkTransferAllowed(request);
+        // Presupuesto del cliente (sin superar el del servicio): las llamadas salientes no esperan más
+        Duration budget = Duration.ofMillis(clientTimeoutMs != null && clientTimeoutMs > 0
+                ? Math.min(clientTimeoutMs, requestTimeoutMs) : requestTimeoutMs);
+        // La cuenta destino externa se valida antes de los locks: un banco lento no retiene la franja.
+        // Las solicitudes a una misma cuenta esperan aquí, sin conexión, y no dentro de MySQL.
+        // El límite de concurrencia adaptativo se toma ya con las cuentas: mide solo el trabajo en BD,
+        // así la cola de una cuenta caliente no reduce el límite para las demás (503 al instante, sin cola)
+        TransferResponse response = RequestDeadline.call(budget, () -> transferValidationService.withExternalDestination(
+                request, () -> accountLockService.withAccountLocks(
+                        accountId(request.getSourceAccount()),
+                        accountId(request.getDestinationAccount()),
+                        () -> concurrencyLimiterService.execute(request,
+                                () -> transferService.createTransfer(request)))));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
+
+    // Detalle de montos (enviado, debitado, comisión, ITF, acreditado) armado al consultar.
+    // Solo para el cliente dueño: sin customerId es 400 y con otro cliente, 404
+    @GetMapping(value = "/{transferId}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<TransferDetailResponse> getTransfer(
+            @PathVariable String transferId,
+            @RequestParam(value = "customerId", required = false) String customerId) {
+        return ResponseEntity.ok(transferQueryService.getTransfer(transferId, customerId));
+    }
+
+    // Solicitudes incompletas pasan sin lock: las rechaza la validación del servicio
+    private static String accountId(AccountRef ref) {
+        return ref == null ? null : ref.getAccountId();
+    }
 }
@@ -0,0 +1,13 @@
+package com.example.transfers_service.dto;
+
+// Cola por cuenta delante de los locks de fila: waiting es la profundidad actual (hilos sin conexión de BD)
+public record AccountLockStatsDto(
+        int stripes,
+        boolean fair,
+        int waiting,
+        int maxQueueDepth,
+        long acquired,
+        long timeouts,
+        double avgWaitMicros,
+        double maxWaitMicros
+) {}
@@ -0,0 +1,9 @@
+package com.example.transfers_service.dto;
+
+// Datos de la cuenta que no cambian con cada transferencia (sin saldo): se pueden cachear
+public record AccountMetadataDto(
+        String accountId,
+        String customerId,
+        String currency,
+        String status
+) {}
@@ -0,0 +1,14 @@
+package com.example.transfers_service.dto;
+
+// Estado del limitador adaptativo: limit es la concurrencia admitida hoy, bulk solo usa una fracción
+public record ConcurrencyLimitStatsDto(
+        int limit,
+        int bulkLimit,
+        int inFlight,
+        long accepted,
+        long rejectedRetail,
+        long rejectedBulk,
+        long dropped,
+        double shortRttMillis,
+        double longRttMillis
+) {}
@@ -0,0 +1,18 @@
+package com.example.transfers_service.dto;
+
+// Moneda ISO 4217 ya resuelta por CurrencyRegistry: una instancia por moneda, 'index' es su
+// posición en las tablas de tipo de cambio y 'minorUnits' los decimales de la moneda (PEN/USD: 2)
+public record CurrencyCode(
+        String code,
+        int index,
+        int minorUnits
+) {
+    public boolean is(CurrencyCode other) {
+        return other != null && index == other.index;
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+}
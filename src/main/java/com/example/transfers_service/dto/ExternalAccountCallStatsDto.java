@@ -0,0 +1,12 @@
+package com.example.transfers_service.dto;
+
+// Llamadas a accountDestiny: hedged = segundas solicitudes enviadas, hedgeWins = las que respondieron primero,
+// hedgesDenied = coberturas que el tope de tasa no permitió
+public record ExternalAccountCallStatsDto(
+        long calls,
+        long hedged,
+        long hedgeWins,
+        long hedgesDenied,
+        long deadlineExceeded,
+        double hedgeDelayMillis
+) {}
@@ -0,0 +1,11 @@
+package com.example.transfers_service.dto;
+
+import java.util.List;
+
+// Resultado de la etapa de riesgo en línea: puntaje 0-100, decisión y señales que lo explican
+public record FraudAssessmentDto(
+        int score,
+        String decision,
+        List<String> signals,
+        long elapsedNanos
+) {}
@@ -0,0 +1,21 @@
+package com.example.transfers_service.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Builder
+public record LedgerPostingDto(
+        String transferId,
+        String sourceAccountId,
+        String sourceCurrency,
+        BigDecimal amountToDebit,
+        BigDecimal commission,
+        BigDecimal itf,
+        String destinationAccountId,
+        String destCurrency,
+        BigDecimal amountToCredit,
+        boolean externalDestination,
+        LocalDateTime dateTime
+) {}
@@ -0,0 +1,9 @@
+package com.example.transfers_service.dto;
+
+// Foto de las protecciones de carga: cola por cuenta, limitador, flujo de eventos y banco externo
+public record OperationalStatsDto(
+        AccountLockStatsDto accountLocks,
+        ConcurrencyLimitStatsDto limiter,
+        TransferEventStatsDto events,
+        ExternalAccountCallStatsDto externalAccounts
+) {}
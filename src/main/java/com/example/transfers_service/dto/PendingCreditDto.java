@@ -0,0 +1,17 @@
+package com.example.transfers_service.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+@Builder
+public record PendingCreditDto(
+        String transferId,
+        String sourceAccountId,
+        String sourceCurrency,
+        BigDecimal totalDebit,
+        String destAccountId,
+        String destCurrency,
+        BigDecimal amountToCredit,
+        String description
+) {}
@@ -0,0 +1,12 @@
+package com.example.transfers_service.dto;
+
+import java.math.BigDecimal;
+
+// Cuenta cuyo saldo no cuadra con apertura + movements; balance null = movements sin cuenta
+public record ReconciliationDiscrepancyDto(
+        String accountId,
+        BigDecimal balance,
+        BigDecimal expected,
+        BigDecimal difference,
+        long movementCount
+) {}
@@ -0,0 +1,17 @@
+package com.example.transfers_service.dto;
+
+import java.util.List;
+
+// Resultado acumulado de una corrida; discrepancies trae como máximo las de mayor diferencia
+public record ReconciliationReportDto(
+        String runId,
+        String status,
+        int rangesTotal,
+        int rangesDone,
+        long accounts,
+        long movements,
+        long discrepancyCount,
+        List<ReconciliationDiscrepancyDto> discrepancies,
+        long elapsedMs,
+        double movementsPerSecond
+) {}
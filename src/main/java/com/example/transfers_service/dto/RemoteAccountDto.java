@@ -0,0 +1,8 @@
+package com.example.transfers_service.dto;
+
+// Cuenta interna que vive en otro shard
+public record RemoteAccountDto(
+        String accountId,
+        String currency,
+        String shard
+) {}
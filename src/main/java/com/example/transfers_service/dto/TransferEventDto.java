@@ -0,0 +1,32 @@
+package com.example.transfers_service.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Evento de transferencia para sistemas externos (notificaciones, contabilidad, analítica).
+// Se publica solo después del commit: lo que llega a los sinks ya está en transfers
+@Builder
+public record TransferEventDto(
+        String type,
+        String transferId,
+        String customerId,
+        String sourceAccountId,
+        String destAccountId,
+        BigDecimal amount,
+        String currency,
+        BigDecimal totalDebit,
+        String sourceCurrency,
+        String transferType,
+        String status,
+        LocalDateTime occurredAt
+) {
+    public static final String TYPE_CREATED = "TransferCreated";
+    public static final String TYPE_SETTLED = "TransferSettled";
+
+    public TransferEventDto withType(String newType) {
+        return new TransferEventDto(newType, transferId, customerId, sourceAccountId, destAccountId, amount,
+                currency, totalDebit, sourceCurrency, transferType, status, occurredAt);
+    }
+}
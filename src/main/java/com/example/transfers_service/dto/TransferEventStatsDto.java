@@ -0,0 +1,14 @@
+package com.example.transfers_service.dto;
+
+import java.util.Map;
+
+// Contadores del flujo de eventos: lo descartado por ring buffer lleno es la contrapresión visible
+public record TransferEventStatsDto(
+        long published,
+        long dropped,
+        long pending,
+        int capacity,
+        long batches,
+        Map<String, Long> delivered,
+        Map<String, Long> failed
+) {}
@@ -0,0 +1,14 @@
+package com.example.transfers_service.dto.external;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExternalAccountBulkRequest {
+    private List<String> accountIds;
+}
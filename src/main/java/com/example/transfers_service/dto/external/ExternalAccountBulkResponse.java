@@ -0,0 +1,11 @@
+package com.example.transfers_service.dto.external;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ExternalAccountBulkResponse {
+    // las cuentas que no existen simplemente no vienen en la lista
+    private List<ExternalAccountResponse> accounts;
+}
@@ -1,6 +1,8 @@
 package com.example.transfers_service.dto.request;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 @Data
@@ -10,7 +12,10 @@ public class TransferData {
     private String currency;
 
     @NotNull(message = "El monto no puede ser nulo")
+    @Positive(message = "El monto debe ser mayor que cero")
     private Double amount;
 
+    // transfers.description es VARCHAR(200): más largo fallaría al insertar (500) en vez de un 400
+    @Size(max = 200, message = "La descripción no puede superar los 200 caracteres")
     private String description;
 }
@@ -0,0 +1,29 @@
+package com.example.transfers_service.dto.response;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class TransferDetailResponse {
+    private String transferId;
+    private String customerId;
+    private String sourceAccountId;
+    private String sourceCurrency;
+    private String destAccountNumber;
+    private String destCurrency;
+    private BigDecimal amountSent;
+    private String currencySent;
+    private BigDecimal totalDebit;
+    private BigDecimal commission;
+    private BigDecimal itf;
+    private BigDecimal amountCredited;
+    private BigDecimal fxRateUsed;
+    private LocalDateTime transferDatetime;
+    private String transferType;
+    private String status;
+    private String description;
+    // detalle legible de montos, armado al consultar desde las columnas tipadas
+    private String summary;
+}
@@ -6,6 +6,7 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "accounts")
+@EntityListeners(AccountMetadataListener.class)
 @Getter
 @Setter
 public class Account {
@@ -0,0 +1,32 @@
+package com.example.transfers_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Saldo consolidado de una cuenta hasta "cutoff". El saldo actual es
+ * balance + suma de journal_entries con created_at >= cutoff.
+ */
+@Entity
+@Table(name = "account_balance_checkpoints")
+@Getter
+@Setter
+public class AccountBalanceCheckpoint {
+
+    @Id
+    @Column(name = "account_id", length = 40, nullable = false)
+    private String accountId;
+
+    @Column(name = "balance", precision = 19, scale = 2, nullable = false)
+    private BigDecimal balance;
+
+    @Column(name = "cutoff", nullable = false)
+    private LocalDateTime cutoff;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
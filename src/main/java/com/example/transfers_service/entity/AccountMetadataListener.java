@@ -0,0 +1,31 @@
+package com.example.transfers_service.entity;
+
+import com.example.transfers_service.dto.AccountMetadataDto;
+import com.example.transfers_service.service.AccountMetadataService;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// Invalida la caché de metadatos cuando JPA cambia el titular, la moneda o el estado de una cuenta
+@Component
+public class AccountMetadataListener {
+
+    // ObjectProvider: el listener se crea junto al EntityManagerFactory, antes que los repositorios
+    private final ObjectProvider<AccountMetadataService> accountMetadataService;
+
+    public AccountMetadataListener(ObjectProvider<AccountMetadataService> accountMetadataService) {
+        this.accountMetadataService = accountMetadataService;
+    }
+
+    @PostUpdate
+    void onUpdate(Account account) {
+        accountMetadataService.ifAvailable(service -> service.onAccountChanged(new AccountMetadataDto(
+                account.getAccountId(), account.getCustomerId(), account.getCurrency(), account.getStatus())));
+    }
+
+    @PostRemove
+    void onRemove(Account account) {
+        accountMetadataService.ifAvailable(service -> service.invalidate(account.getAccountId()));
+    }
+}
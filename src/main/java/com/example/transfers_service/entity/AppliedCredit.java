@@ -0,0 +1,55 @@
+package com.example.transfers_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// Marca en el shard destino que el abono de una transferencia ya se aplicó (idempotencia)
+// o que se canceló antes de compensar el débito en el origen
+@Entity
+@Table(name = "applied_credits")
+@Getter
+@Setter
+public class AppliedCredit implements Persistable<String> {
+
+    public static final String OUTCOME_APPLIED = "APLICADO";
+    public static final String OUTCOME_CANCELLED = "CANCELADO";
+
+    @Id
+    @Column(name = "transfer_id", length = 40, nullable = false)
+    private String transferId;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+
+    @Column(name = "outcome", length = 12, nullable = false)
+    private String outcome;
+
+    // El id es el de la transferencia: sin esto save() haría merge (SELECT y luego INSERT o UPDATE)
+    // y podría pisar con APLICADO una marca CANCELADO recién escrita por otra transacción. Siempre
+    // INSERT: la segunda marca falla por clave duplicada.
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newEntity = true;
+
+    @Override
+    public String getId() {
+        return transferId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.transfers_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Asiento del libro mayor (partida doble). Solo se insertan, nunca se actualizan:
+ * por transferencia y por moneda la suma de los montos es cero.
+ * Los montos van en DECIMAL para que el cuadre sea exacto.
+ */
+@Entity
+@Table(name = "journal_entries",
+        indexes = @Index(name = "idx_journal_account_created", columnList = "account_id, created_at"))
+@Getter
+@Setter
+public class JournalEntry implements Persistable<String> {
+
+    @Id
+    @Column(name = "entry_id", length = 40, nullable = false)
+    private String entryId;
+
+    @Column(name = "transfer_id", length = 40, nullable = false)
+    private String transferId;
+
+    // cuenta de cliente (accounts.account_id) o cuenta interna del banco (LEDGER:...)
+    @Column(name = "account_id", length = 40, nullable = false)
+    private String accountId;
+
+    @Column(name = "leg_type", length = 20, nullable = false)
+    private String legType; // DEBIT, CREDIT, FEE, ITF, FX
+
+    @Column(name = "amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal amount; // negativo = cargo, positivo = abono
+
+    @Column(name = "currency", length = 3, nullable = false)
+    private String currency;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newEntity = true;
+
+    @Override
+    public String getId() {
+        return entryId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.transfers_service.entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.Type;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 
@@ -10,16 +14,18 @@ import java.time.LocalDateTime;
 @Table(name = "movements")
 @Getter
 @Setter
-public class Movement {
+public class Movement implements Persistable<String> {
 
     @Id
-    @Column(name = "movement_id", length = 40, nullable = false)
+    @Type(value = PrefixedUlidType.class, parameters = @Parameter(name = "prefix", value = "MOV-"))
+    @Column(name = "movement_id", nullable = false)
     private String movementId;
 
     @Column(name = "account_id", length = 30, nullable = false)
     private String accountId;
 
-    @Column(name = "transfer_id", length = 40)
+    @Type(value = PrefixedUlidType.class, parameters = @Parameter(name = "prefix", value = "TRX-"))
+    @Column(name = "transfer_id")
     private String transferId; // para agrupar los 3 movimientos de la misma transferencia
 
     @Column(name = "amount", nullable = false)
@@ -36,4 +42,27 @@ public class Movement {
 
     @Column(name = "movement_dt", nullable = false)
     private LocalDateTime movementDt;
+
+    // El id (ULID) se asigna en la aplicación: sin esto save() haría merge (SELECT previo)
+    // en lugar de persist, y Hibernate no podría agrupar los INSERT en batch.
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newEntity = true;
+
+    @Override
+    public String getId() {
+        return movementId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
 }
@@ -0,0 +1,122 @@
+package com.example.transfers_service.entity;
+
+import com.github.f4b6a3.ulid.Ulid;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.BasicJavaType;
+import org.hibernate.type.descriptor.java.StringJavaType;
+import org.hibernate.type.descriptor.jdbc.JdbcType;
+import org.hibernate.type.spi.TypeConfiguration;
+import org.hibernate.type.spi.TypeConfigurationAware;
+import org.hibernate.usertype.BaseUserTypeSupport;
+import org.hibernate.usertype.ParameterizedType;
+
+import java.sql.Types;
+import java.util.Properties;
+import java.util.function.BiConsumer;
+
+/**
+ * Ids con prefijo (TRX-, MOV-) cuyo almacenamiento depende de transfers.ids.mode:
+ * en "text" se guardan tal cual (VARCHAR), en "binary" solo los 16 bytes del ULID (BINARY(16)),
+ * sin el prefijo, que se vuelve a poner al leer. La API sigue viendo siempre el texto con prefijo.
+ * No es un AttributeConverter porque el tipo de columna cambia según la configuración.
+ * Lectura y escritura van por el JdbcType elegido y PrefixedUlidJavaType (sin nullSafeGet propio).
+ */
+public class PrefixedUlidType extends BaseUserTypeSupport<String> implements ParameterizedType, TypeConfigurationAware {
+
+    // propiedad de Hibernate que fija IdStorageConfig a partir de transfers.ids.mode
+    public static final String MODE_SETTING = "transfers.ids.mode";
+    public static final String MODE_TEXT = "text";
+    public static final String MODE_BINARY = "binary";
+
+    private static final int TEXT_LENGTH = 40;
+    private static final int BINARY_LENGTH = 16;
+
+    private TypeConfiguration typeConfiguration;
+    private String prefix = "";
+    private boolean binary;
+
+    @Override
+    public void setTypeConfiguration(TypeConfiguration typeConfiguration) {
+        this.typeConfiguration = typeConfiguration;
+        Object mode = typeConfiguration.getServiceRegistry()
+                .requireService(ConfigurationService.class)
+                .getSettings()
+                .get(MODE_SETTING);
+        this.binary = isBinary(mode == null ? MODE_TEXT : mode.toString());
+    }
+
+    @Override
+    public TypeConfiguration getTypeConfiguration() {
+        return typeConfiguration;
+    }
+
+    @Override
+    public void setParameterValues(Properties parameters) {
+        this.prefix = parameters.getProperty("prefix", "");
+    }
+
+    @Override
+    protected void resolve(BiConsumer<BasicJavaType<String>, JdbcType> resolutionConsumer) {
+        resolutionConsumer.accept(new PrefixedUlidJavaType(prefix),
+                typeConfiguration.getJdbcTypeRegistry().getDescriptor(binary ? Types.BINARY : Types.VARCHAR));
+    }
+
+    @Override
+    public long getDefaultSqlLength(Dialect dialect, JdbcType jdbcType) {
+        return binary ? BINARY_LENGTH : TEXT_LENGTH;
+    }
+
+    public static boolean isBinary(String mode) {
+        if (MODE_BINARY.equalsIgnoreCase(mode)) {
+            return true;
+        }
+        if (MODE_TEXT.equalsIgnoreCase(mode)) {
+            return false;
+        }
+        throw new IllegalArgumentException("transfers.ids.mode debe ser 'text' o 'binary': " + mode);
+    }
+
+    // "TRX-01JDXQ5G8W9V1Z3M7Q9H4M0R2S" -> 16 bytes del ULID
+    public static byte[] toBytes(String prefix, String id) {
+        if (!id.startsWith(prefix)) {
+            throw new IllegalArgumentException("Id sin el prefijo " + prefix + ": " + id);
+        }
+        String ulid = id.substring(prefix.length());
+        if (!Ulid.isValid(ulid)) {
+            throw new IllegalArgumentException("Id no es un ULID válido: " + id);
+        }
+        return Ulid.from(ulid).toBytes();
+    }
+
+    public static String fromBytes(String prefix, byte[] bytes) {
+        return prefix + Ulid.from(bytes).toString();
+    }
+
+    // String con prefijo <-> 16 bytes del ULID cuando el JdbcType es BINARY; el texto pasa tal cual
+    private static final class PrefixedUlidJavaType extends StringJavaType {
+
+        private final String prefix;
+
+        private PrefixedUlidJavaType(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public <X> X unwrap(String value, Class<X> type, WrapperOptions options) {
+            if (value != null && type == byte[].class) {
+                return type.cast(toBytes(prefix, value));
+            }
+            return super.unwrap(value, type, options);
+        }
+
+        @Override
+        public <X> String wrap(X value, WrapperOptions options) {
+            if (value instanceof byte[] bytes) {
+                return fromBytes(prefix, bytes);
+            }
+            return super.wrap(value, options);
+        }
+    }
+}
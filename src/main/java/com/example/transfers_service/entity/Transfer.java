@@ -1,19 +1,25 @@
 package com.example.transfers_service.entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.Type;
+import org.springframework.data.domain.Persistable;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "transfers")  // nombre exacto de la tabla en MySQL
 @Getter
 @Setter
-public class Transfer {
+public class Transfer implements Persistable<String> {
 
     @Id
-    @Column(name = "transfer_id", length = 40, nullable = false)
+    @Type(value = PrefixedUlidType.class, parameters = @Parameter(name = "prefix", value = "TRX-"))
+    @Column(name = "transfer_id", nullable = false)
     private String transferId;
 
     @Column(name = "customer_id", length = 30, nullable = false)
@@ -38,9 +44,39 @@ public class Transfer {
     @Column(name = "amount", nullable = false)
     private Double amount;
 
+    // solo el texto libre del cliente; el detalle de montos está en las columnas de abajo
     @Column(name = "description", length = 200)
     private String description;
 
+    @Column(name = "amount_sent", precision = 19, scale = 2)
+    private BigDecimal amountSent;
+
+    @Column(name = "currency_sent", length = 10)
+    private String currencySent;
+
+    @Column(name = "total_debit", precision = 19, scale = 2)
+    private BigDecimal totalDebit;
+
+    // moneda de la cuenta origen al debitar: total_debit, commission e itf están en esta moneda
+    @Column(name = "debit_currency", length = 10)
+    private String debitCurrency;
+
+    @Column(name = "commission", precision = 19, scale = 2)
+    private BigDecimal commission;
+
+    @Column(name = "itf", precision = 19, scale = 2)
+    private BigDecimal itf;
+
+    @Column(name = "fx_rate_used", precision = 19, scale = 6)
+    private BigDecimal fxRateUsed;
+
+    // decisión de la etapa de riesgo en línea; REVIEW y FALLBACK los recorre el batch de revisión
+    @Column(name = "fraud_decision", length = 10)
+    private String fraudDecision;
+
+    @Column(name = "fraud_score")
+    private Integer fraudScore;
+
     @Column(name = "transfer_datetime", nullable = false)
     private LocalDateTime transferDatetime;
 
@@ -49,4 +85,27 @@ public class Transfer {
 
     @Column(name = "status", length = 20, nullable = false)
     private String status;        // EJECUTADA o PENDIENTE
+
+    // El id (ULID) se asigna en la aplicación: sin esto save() haría merge (SELECT previo)
+    // en lugar de persist, y Hibernate no podría agrupar los INSERT en batch.
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newEntity = true;
+
+    @Override
+    public String getId() {
+        return transferId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
 }
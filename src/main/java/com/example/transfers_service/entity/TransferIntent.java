@@ -0,0 +1,68 @@
+package com.example.transfers_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Intención de abono entre shards. Se guarda en el shard de origen, en la misma
+ * transacción que el débito; el abono en el shard destino se aplica después y,
+ * si no puede aplicarse, se compensa el débito.
+ */
+@Entity
+@Table(name = "transfer_intents",
+        indexes = @Index(name = "idx_intents_status_updated", columnList = "status, updated_at"))
+@Getter
+@Setter
+public class TransferIntent {
+
+    public static final String STATUS_PENDING = "PENDIENTE";
+    public static final String STATUS_COMPLETED = "COMPLETADA";
+    public static final String STATUS_COMPENSATED = "COMPENSADA";
+
+    @Id
+    @Column(name = "transfer_id", length = 40, nullable = false)
+    private String transferId;
+
+    @Column(name = "source_shard", length = 30, nullable = false)
+    private String sourceShard;
+
+    @Column(name = "dest_shard", length = 30, nullable = false)
+    private String destShard;
+
+    @Column(name = "source_account_id", length = 30, nullable = false)
+    private String sourceAccountId;
+
+    @Column(name = "source_currency", length = 3, nullable = false)
+    private String sourceCurrency;
+
+    @Column(name = "total_debit", precision = 19, scale = 2, nullable = false)
+    private BigDecimal totalDebit;
+
+    @Column(name = "dest_account_id", length = 30, nullable = false)
+    private String destAccountId;
+
+    @Column(name = "dest_currency", length = 3, nullable = false)
+    private String destCurrency;
+
+    @Column(name = "amount_to_credit", precision = 19, scale = 2, nullable = false)
+    private BigDecimal amountToCredit;
+
+    @Column(name = "description", length = 200)
+    private String description;
+
+    @Column(name = "status", length = 20, nullable = false)
+    private String status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,8 @@
+package com.example.transfers_service.exception;
+
+public class AccountBusyException extends RetryableException {
+
+    public AccountBusyException(String message, long retryAfterSeconds) {
+        super(message, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.transfers_service.exception;
+
+// La cuenta existe pero no admite operaciones (bloqueada, cerrada...): 422
+public class AccountInactiveException extends BusinessException {
+    public AccountInactiveException(String message) {
+        super(message);
+    }
+}
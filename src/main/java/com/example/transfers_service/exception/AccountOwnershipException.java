@@ -0,0 +1,8 @@
+package com.example.transfers_service.exception;
+
+// La cuenta origen no pertenece al cliente de la solicitud: 403
+public class AccountOwnershipException extends BusinessException {
+    public AccountOwnershipException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.transfers_service.exception;
+
+/**
+ * Rechazo de negocio (4xx): sin stack trace ni supresiones, así que crearla cuesta lo mismo
+ * que cualquier objeto y se puede preasignar cuando el mensaje es fijo. Solo para errores
+ * esperados del cliente; los fallos técnicos siguen usando excepciones normales.
+ */
+public abstract class BusinessException extends RuntimeException {
+
+    protected BusinessException(String message) {
+        super(message, null, false, false);
+    }
+
+    protected BusinessException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
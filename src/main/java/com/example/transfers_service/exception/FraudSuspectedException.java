@@ -0,0 +1,8 @@
+package com.example.transfers_service.exception;
+
+// La etapa de riesgo en línea bloqueó la transferencia (velocidad, destino, divisa...): 422
+public class FraudSuspectedException extends BusinessException {
+    public FraudSuspectedException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,6 @@
 package com.example.transfers_service.exception;
 
-public class InsufficientBalanceException extends RuntimeException {
+public class InsufficientBalanceException extends BusinessException {
     public InsufficientBalanceException(String message) {
         super(message);
     }
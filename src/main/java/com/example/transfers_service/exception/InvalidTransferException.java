@@ -0,0 +1,8 @@
+package com.example.transfers_service.exception;
+
+// Solicitud mal formada o no soportada (monto, moneda, cliente): 400
+public class InvalidTransferException extends BusinessException {
+    public InvalidTransferException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.transfers_service.exception;
+
+public class RateLimitExceededException extends RetryableException {
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.transfers_service.exception;
+
+public class ReconciliationRunNotFoundException extends BusinessException {
+    public ReconciliationRunNotFoundException(String message) {
+        super(message);
+    }
+}
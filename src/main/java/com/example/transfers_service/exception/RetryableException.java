@@ -0,0 +1,21 @@
+package com.example.transfers_service.exception;
+
+/**
+ * Rechazo temporal por carga (429/503): la solicitud era válida y puede reintentarse pasados
+ * retryAfterSeconds (cabecera Retry-After). Igual que BusinessException no captura stack trace,
+ * pero no es un error del cliente y no se trata como tal.
+ */
+public abstract class RetryableException extends RuntimeException {
+
+    // segundos sugeridos al cliente para reintentar (cabecera Retry-After)
+    private final long retryAfterSeconds;
+
+    protected RetryableException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
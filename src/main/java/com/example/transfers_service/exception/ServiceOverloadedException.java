@@ -0,0 +1,8 @@
+package com.example.transfers_service.exception;
+
+public class ServiceOverloadedException extends RetryableException {
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.transfers_service.exception;
+
+// Se superó el monto acumulado permitido por hora o por día (cliente o cuenta origen): 422
+public class TransferLimitExceededException extends BusinessException {
+    public TransferLimitExceededException(String message) {
+        super(message);
+    }
+}
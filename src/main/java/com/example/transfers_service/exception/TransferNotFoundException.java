@@ -0,0 +1,7 @@
+package com.example.transfers_service.exception;
+
+public class TransferNotFoundException extends BusinessException {
+    public TransferNotFoundException(String message) {
+        super(message);
+    }
+}
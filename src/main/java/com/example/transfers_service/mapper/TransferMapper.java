@@ -1,5 +1,6 @@
 package com.example.transfers_service.mapper;
 
+import com.example.transfers_service.dto.response.TransferDetailResponse;
 import com.example.transfers_service.dto.response.TransferResponse;
 import com.example.transfers_service.entity.Transfer;
 import org.mapstruct.Mapper;
@@ -15,4 +16,10 @@ public interface TransferMapper {
     @Mapping(target = "status", source = "transfer.status")
     @Mapping(target = "transferType", source = "transfer.transferType")
     TransferResponse toResponse(Transfer transfer);
+
+    // summary lo completa TransferQueryService
+    @Mapping(target = "amountCredited", source = "amount")
+    @Mapping(target = "sourceCurrency", source = "debitCurrency")
+    @Mapping(target = "summary", ignore = true)
+    TransferDetailResponse toDetailResponse(Transfer transfer);
 }
@@ -3,6 +3,7 @@ package com.example.transfers_service.mapper;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Getter
@@ -16,6 +17,15 @@ public class TransferParams {
     private String destCurrency;
     private Double amount;
     private String description;
+    private BigDecimal amountSent;
+    private String currencySent;
+    private BigDecimal totalDebit;
+    private String debitCurrency;
+    private BigDecimal commission;
+    private BigDecimal itf;
+    private BigDecimal fxRateUsed;
+    private String fraudDecision;
+    private Integer fraudScore;
     private LocalDateTime transferDatetime;
     private String transferType;
     private String status;
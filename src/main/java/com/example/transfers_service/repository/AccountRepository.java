@@ -1,5 +1,6 @@
 package com.example.transfers_service.repository;
 
+import com.example.transfers_service.dto.AccountMetadataDto;
 import com.example.transfers_service.entity.Account;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -16,4 +17,9 @@ public interface AccountRepository extends JpaRepository<Account, String> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select a from Account a where a.accountId = :accountId")
     Optional<Account> findAndLockByAccountId(@Param("accountId") String accountId);
+
+    // Lectura sin lock ni saldo para las validaciones previas (AccountMetadataService)
+    @Query("select new com.example.transfers_service.dto.AccountMetadataDto(a.accountId, a.customerId, a.currency, a.status)"
+            + " from Account a where a.accountId = :accountId")
+    Optional<AccountMetadataDto> findMetadataByAccountId(@Param("accountId") String accountId);
 }
@@ -0,0 +1,9 @@
+package com.example.transfers_service.repository;
+
+import com.example.transfers_service.entity.AppliedCredit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AppliedCreditRepository extends JpaRepository<AppliedCredit, String> {
+}
@@ -0,0 +1,33 @@
+package com.example.transfers_service.repository;
+
+import com.example.transfers_service.entity.JournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface JournalEntryRepository extends JpaRepository<JournalEntry, String> {
+
+    @Query("select coalesce(sum(j.amount), 0) from JournalEntry j " +
+            "where j.accountId = :accountId and j.createdAt >= :from")
+    BigDecimal sumSince(@Param("accountId") String accountId, @Param("from") LocalDateTime from);
+
+    @Query("select coalesce(sum(j.amount), 0) from JournalEntry j " +
+            "where j.accountId = :accountId and j.createdAt >= :from and j.createdAt < :to")
+    BigDecimal sumBetween(@Param("accountId") String accountId,
+                          @Param("from") LocalDateTime from,
+                          @Param("to") LocalDateTime to);
+
+    // Cuentas con asientos anteriores a "cutoff" que aún no están consolidados en su checkpoint
+    @Query("select distinct j.accountId from JournalEntry j where j.createdAt < :cutoff " +
+            "and not exists (select c from AccountBalanceCheckpoint c " +
+            "where c.accountId = j.accountId and c.cutoff > j.createdAt)")
+    List<String> findAccountIdsPendingCheckpoint(@Param("cutoff") LocalDateTime cutoff);
+
+    List<JournalEntry> findByTransferId(String transferId);
+}
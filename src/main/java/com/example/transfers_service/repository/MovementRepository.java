@@ -2,8 +2,27 @@ package com.example.transfers_service.repository;
 
 import com.example.transfers_service.entity.Movement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface MovementRepository extends JpaRepository<Movement, String> {
+
+    // movements está particionada por movement_dt: acotar siempre el rango para que MySQL
+    // solo lea las particiones [from, to) (partition pruning)
+    @Query("select m from Movement m where m.accountId = :accountId " +
+            "and m.movementDt >= :from and m.movementDt < :to order by m.movementDt desc")
+    List<Movement> findAccountHistory(@Param("accountId") String accountId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+
+    @Query("select m from Movement m where m.transferId = :transferId " +
+            "and m.movementDt >= :from and m.movementDt < :to")
+    List<Movement> findByTransferInRange(@Param("transferId") String transferId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
 }
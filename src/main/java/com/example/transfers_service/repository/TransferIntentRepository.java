@@ -0,0 +1,33 @@
+package com.example.transfers_service.repository;
+
+import com.example.transfers_service.entity.TransferIntent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TransferIntentRepository extends JpaRepository<TransferIntent, String> {
+
+    List<TransferIntent> findByStatusAndUpdatedAtBefore(String status, LocalDateTime updatedAt);
+
+    // CAS sobre el estado: de dos cierres concurrentes (COMPLETADA / COMPENSADA) solo uno actualiza la fila
+    @Modifying
+    @Query("update TransferIntent i set i.status = :status, i.updatedAt = :now " +
+            "where i.transferId = :transferId and i.status = :expected")
+    int updateStatus(@Param("transferId") String transferId,
+                     @Param("expected") String expected,
+                     @Param("status") String status,
+                     @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update TransferIntent i set i.attempts = i.attempts + 1, i.updatedAt = :now " +
+            "where i.transferId = :transferId and i.status = :expected")
+    int incrementAttempts(@Param("transferId") String transferId,
+                          @Param("expected") String expected,
+                          @Param("now") LocalDateTime now);
+}
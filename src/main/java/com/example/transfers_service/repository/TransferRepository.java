@@ -2,8 +2,28 @@ package com.example.transfers_service.repository;
 
 import com.example.transfers_service.entity.Transfer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface TransferRepository extends JpaRepository<Transfer, String> {
-  }
+
+    // transfers está particionada por transfer_datetime: el rango permite el partition pruning
+    @Query("select t from Transfer t where t.sourceAccountId = :accountId " +
+            "and t.transferDatetime >= :from and t.transferDatetime < :to order by t.transferDatetime desc")
+    List<Transfer> findBySourceAccountInRange(@Param("accountId") String accountId,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    // findById no acota transfer_datetime y recorre todas las particiones: el rango sale del ULID del id
+    @Query("select t from Transfer t where t.transferId = :transferId " +
+            "and t.transferDatetime >= :from and t.transferDatetime < :to")
+    Optional<Transfer> findByIdInRange(@Param("transferId") String transferId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,14 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.AccountLockStatsDto;
+
+import java.util.function.Supplier;
+
+public interface AccountLockService {
+
+    // Ejecuta 'work' con las cuentas origen y destino tomadas en esta JVM, antes de pedir conexión a la BD.
+    // Si no se obtienen dentro del timeout lanza AccountBusyException sin ejecutar 'work'
+    <T> T withAccountLocks(String sourceAccountId, String destAccountId, Supplier<T> work);
+
+    AccountLockStatsDto stats();
+}
@@ -0,0 +1,16 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.AccountMetadataDto;
+
+import java.util.Optional;
+
+public interface AccountMetadataService {
+
+    // Titular, moneda y estado de la cuenta, desde caché o con una lectura sin lock
+    Optional<AccountMetadataDto> find(String accountId);
+
+    void invalidate(String accountId);
+
+    // Descarta la entrada solo si titular, moneda o estado ya no coinciden (los cambios de saldo no cuentan)
+    void onAccountChanged(AccountMetadataDto current);
+}
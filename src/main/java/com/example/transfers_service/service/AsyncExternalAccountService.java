@@ -0,0 +1,20 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.external.ExternalAccountResponse;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncExternalAccountService {
+
+    // Usa el deadline por defecto configurado
+    CompletableFuture<ExternalAccountResponse> validateExternalAccountAsync(String accountId);
+
+    // El future se completa con ExternalAccountValidationException si se supera el deadline
+    CompletableFuture<ExternalAccountResponse> validateExternalAccountAsync(String accountId, Duration deadline);
+
+    // Una sola llamada POST accountDestiny/bulk; el mapa se indexa por externalAccountId
+    CompletableFuture<Map<String, ExternalAccountResponse>> validateExternalAccountsBulkAsync(Collection<String> accountIds);
+}
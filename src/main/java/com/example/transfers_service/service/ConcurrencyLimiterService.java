@@ -0,0 +1,15 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.ConcurrencyLimitStatsDto;
+import com.example.transfers_service.dto.request.TransferRequest;
+
+import java.util.function.Supplier;
+
+public interface ConcurrencyLimiterService {
+
+    // Ejecuta 'work' si hay cupo; si no, lanza ServiceOverloadedException de inmediato (sin cola).
+    // Las transferencias grandes (bulk) solo usan una parte del cupo: bajo carga se rechazan primero
+    <T> T execute(TransferRequest request, Supplier<T> work);
+
+    ConcurrencyLimitStatsDto stats();
+}
@@ -0,0 +1,11 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.external.ExternalAccountResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface ExternalAccountBatchService {
+
+    // Encola la consulta; se envía junto con las demás que lleguen dentro de la ventana
+    CompletableFuture<ExternalAccountResponse> lookup(String accountId);
+}
@@ -1,10 +1,15 @@
 package com.example.transfers_service.service;
 
+import com.example.transfers_service.dto.ExternalAccountCallStatsDto;
 import com.example.transfers_service.dto.external.ExternalAccountResponse;
 import com.example.transfers_service.exception.ExternalAccountValidationException;
 
 import java.util.Optional;
 
 public interface ExternalAccountService {
+
+    // Espera como mucho el timeout configurado o lo que quede de RequestDeadline, lo que sea menor
     ExternalAccountResponse validateExternalAccount(String accountId) throws ExternalAccountValidationException;
-}
\ No newline at end of file
+
+    ExternalAccountCallStatsDto stats();
+}
@@ -0,0 +1,15 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.AccountMetadataDto;
+import com.example.transfers_service.dto.FraudAssessmentDto;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.FraudSuspectedException;
+
+public interface FraudScoringService {
+
+    // Puntúa la solicitud con las señales en memoria de la cuenta origen; las actualiza solo si la
+    // transacción de la transferencia confirma.
+    // Lanza FraudSuspectedException si la decisión es BLOCK; si se pasa del presupuesto de latencia
+    // devuelve FALLBACK y la transferencia sigue (la revisa el batch posterior)
+    FraudAssessmentDto screen(TransferRequest request, AccountMetadataDto source) throws FraudSuspectedException;
+}
@@ -0,0 +1,16 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.LedgerPostingDto;
+
+import java.math.BigDecimal;
+
+public interface LedgerService {
+
+    // true si los saldos salen del libro mayor en lugar de accounts.balance
+    boolean isEnabled();
+
+    BigDecimal currentBalance(String accountId);
+
+    // Inserta en un solo batch los asientos cuadrados de la transferencia
+    void postTransfer(LedgerPostingDto posting);
+}
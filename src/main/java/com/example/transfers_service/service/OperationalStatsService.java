@@ -0,0 +1,8 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.OperationalStatsDto;
+
+public interface OperationalStatsService {
+
+    OperationalStatsDto snapshot();
+}
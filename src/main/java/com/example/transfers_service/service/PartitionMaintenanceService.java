@@ -0,0 +1,7 @@
+package com.example.transfers_service.service;
+
+public interface PartitionMaintenanceService {
+
+    // Crea las particiones de los próximos meses y archiva las que superan la retención
+    void maintainPartitions();
+}
@@ -0,0 +1,8 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.RateLimitExceededException;
+
+public interface RateLimiterService {
+    void checkTransferAllowed(TransferRequest request) throws RateLimitExceededException;
+}
@@ -0,0 +1,12 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.ReconciliationReportDto;
+
+public interface ReconciliationService {
+
+    // Nueva corrida sobre todo el espacio de cuentas
+    ReconciliationReportDto reconcile();
+
+    // Continúa una corrida interrumpida procesando solo los rangos que no quedaron terminados
+    ReconciliationReportDto resume(String runId);
+}
@@ -0,0 +1,26 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.PendingCreditDto;
+import com.example.transfers_service.dto.RemoteAccountDto;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ShardingService {
+
+    boolean isEnabled();
+
+    String shardFor(String accountId);
+
+    // Busca la cuenta en su shard si no es el shard activo (lectura simple, sin lock)
+    Optional<RemoteAccountDto> findRemoteDestination(String accountId);
+
+    // Guarda la intención de abono en la transacción actual (shard origen)
+    void registerPendingCredit(PendingCreditDto pendingCredit);
+
+    // Intenciones registradas por el hilo actual desde la última llamada
+    List<String> drainRegisteredCredits();
+
+    // Aplica el abono en el shard destino o compensa el débito; idempotente
+    void completePendingCredit(String sourceShard, String transferId);
+}
@@ -0,0 +1,13 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.TransferEventDto;
+import com.example.transfers_service.dto.TransferEventStatsDto;
+
+public interface TransferEventPublisher {
+
+    // Encola el evento cuando la transacción actual confirma (de inmediato si no hay transacción).
+    // Nunca bloquea al hilo de la solicitud: si el ring buffer está lleno el evento se descarta y se cuenta
+    void publishAfterCommit(TransferEventDto event);
+
+    TransferEventStatsDto stats();
+}
@@ -0,0 +1,22 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.TransferEventDto;
+
+import java.util.List;
+
+// Destino de eventos: cada bean que implemente esta interfaz recibe los lotes en el hilo consumidor
+public interface TransferEventSink {
+
+    String name();
+
+    // Un lote en orden de publicación; una excepción cuenta el lote como fallido para este sink
+    void write(List<TransferEventDto> batch) throws Exception;
+
+    // true para destinos remotos: los lotes se entregan desde un hilo propio y no frenan a los demás sinks
+    default boolean isolated() {
+        return false;
+    }
+
+    default void close() {
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.TransferLimitExceededException;
+
+public interface TransferLimitService {
+
+    // Suma el monto a los acumulados por hora/día del cliente y de la cuenta origen, o rechaza sin sumar nada.
+    // Dentro de una transacción, si esta no confirma el monto se devuelve
+    void reserve(TransferRequest request) throws TransferLimitExceededException;
+}
@@ -0,0 +1,9 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.response.TransferDetailResponse;
+
+public interface TransferQueryService {
+
+    // customerId: dueño de la transferencia; para otro cliente es TransferNotFoundException
+    TransferDetailResponse getTransfer(String transferId, String customerId);
+}
@@ -0,0 +1,17 @@
+package com.example.transfers_service.service;
+
+import com.example.transfers_service.dto.AccountMetadataDto;
+import com.example.transfers_service.dto.request.TransferRequest;
+
+import java.util.function.Supplier;
+
+public interface TransferValidationService {
+
+    // Comprobaciones baratas previas a cualquier lock de BD (solicitud, monto, monedas, titular, estado).
+    // Lanza BusinessException (sin stack trace); devuelve los metadatos de la cuenta origen
+    AccountMetadataDto validateBeforeLock(TransferRequest request);
+
+    // Etapa previa a los locks que sí sale de la JVM: si la cuenta destino no es nuestra la valida en el
+    // banco externo y ejecuta 'work' con el resultado disponible en ExternalAccountPrefetch
+    <T> T withExternalDestination(TransferRequest request, Supplier<T> work);
+}
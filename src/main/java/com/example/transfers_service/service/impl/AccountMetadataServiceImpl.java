@@ -0,0 +1,126 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.AccountMetadataDto;
+import com.example.transfers_service.repository.AccountRepository;
+import com.example.transfers_service.service.AccountMetadataService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché en memoria de accountId -> (cliente, moneda, estado), sin el saldo.
+ * Permite rechazar dueño, moneda o estado incorrectos antes de tomar el lock PESSIMISTIC_WRITE
+ * de la cuenta. Las entradas son inmutables, caducan por TTL (cambios hechos fuera de la app)
+ * y AccountMetadataListener las invalida cuando JPA actualiza esos campos.
+ * Tamaño acotado: al llenarse se descartan primero las caducadas y luego las más antiguas.
+ */
+@Service
+public class AccountMetadataServiceImpl implements AccountMetadataService {
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Function<String, Optional<AccountMetadataDto>> loader;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AccountMetadataServiceImpl(AccountRepository accountRepository,
+                                      @Value("${transfers.account-cache.enabled:true}") boolean enabled,
+                                      @Value("${transfers.account-cache.max-size:10000}") int maxSize,
+                                      @Value("${transfers.account-cache.ttl-ms:300000}") long ttlMs) {
+        this(enabled, maxSize, ttlMs, accountRepository::findMetadataByAccountId, System::nanoTime);
+    }
+
+    AccountMetadataServiceImpl(boolean enabled,
+                               int maxSize,
+                               long ttlMs,
+                               Function<String, Optional<AccountMetadataDto>> loader,
+                               LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.loader = loader;
+        this.nanoClock = nanoClock;
+    }
+
+    // Entrada inmutable: metadatos + instante de caducidad
+    private record Entry(AccountMetadataDto metadata, long expiresAt) {
+    }
+
+    @Override
+    public Optional<AccountMetadataDto> find(String accountId) {
+        if (accountId == null) {
+            return Optional.empty();
+        }
+        if (!enabled) {
+            return loader.apply(accountId);
+        }
+        long now = nanoClock.getAsLong();
+        Entry entry = cache.get(accountId);
+        if (entry != null && now - entry.expiresAt() < 0) {
+            return Optional.of(entry.metadata());
+        }
+
+        // Las cuentas inexistentes no se cachean: pueden darse de alta en cualquier momento
+        Optional<AccountMetadataDto> loaded = loader.apply(accountId);
+        if (loaded.isPresent()) {
+            if (cache.size() >= maxSize) {
+                evict(now);
+            }
+            cache.put(accountId, new Entry(loaded.get(), now + ttlNanos));
+        } else {
+            cache.remove(accountId);
+        }
+        return loaded;
+    }
+
+    @Override
+    public void invalidate(String accountId) {
+        if (accountId != null) {
+            cache.remove(accountId);
+        }
+    }
+
+    @Override
+    public void onAccountChanged(AccountMetadataDto current) {
+        Entry entry = cache.get(current.accountId());
+        if (entry != null && !entry.metadata().equals(current)) {
+            cache.remove(current.accountId(), entry);
+        }
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    // Primero las caducadas; si no alcanza, las de caducidad más próxima (= cargadas antes)
+    private void evict(long now) {
+        cache.values().removeIf(e -> now - e.expiresAt() >= 0);
+        int excess = cache.size() - maxSize + Math.max(1, maxSize / 10);
+        if (excess <= 0) {
+            return;
+        }
+        long cutoff = cache.values().stream()
+                .mapToLong(Entry::expiresAt)
+                .sorted()
+                .skip(Math.min(excess, cache.size()) - 1L)
+                .findFirst()
+                .orElse(Long.MIN_VALUE);
+        Iterator<Entry> it = cache.values().iterator();
+        while (it.hasNext() && excess > 0) {
+            if (it.next().expiresAt() - cutoff <= 0) {
+                it.remove();
+                excess--;
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.dto.ConcurrencyLimitStatsDto;
+import com.example.transfers_service.dto.request.TransferData;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.BusinessException;
+import com.example.transfers_service.exception.RetryableException;
+import com.example.transfers_service.exception.ServiceOverloadedException;
+import com.example.transfers_service.service.ConcurrencyLimiterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Límite de concurrencia adaptativo para createTransfer (algoritmo de gradiente): compara la
+ * latencia reciente (shortRtt) con la de referencia (longRtt, media larga). Mientras la reciente
+ * no supere rtt-tolerance veces la de referencia el límite crece (+ sqrt(limit)); si la supera,
+ * se reduce en proporción, porque las solicitudes ya están haciendo cola en el pool de Hikari
+ * o en los locks de fila. Un timeout de BD (lock o conexión) reduce el límite un 10% de una vez.
+ * Lo que excede el límite se rechaza al instante con 503: no hay cola, así lo admitido sigue
+ * dentro de su latencia normal y el goodput se mantiene pasada la saturación.
+ * Carril de prioridad: una transferencia con monto (en moneda base) >= bulk-threshold solo entra
+ * mientras haya menos de bulk-share * limit en curso; las pequeñas pueden usar el límite entero.
+ * Se ejecuta ya con los locks por cuenta tomados: la espera detrás de una cuenta caliente no entra
+ * en las muestras y no reduce el límite para el resto de cuentas.
+ */
+@Service
+public class AdaptiveConcurrencyLimiterServiceImpl implements ConcurrencyLimiterService {
+
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final Settings settings;
+    private final TransferPricing pricing;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejectedRetail = new LongAdder();
+    private final LongAdder rejectedBulk = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    // estado del algoritmo: inmutable, se reemplaza entero con compareAndSet (sin monitor por solicitud)
+    private final AtomicReference<State> state;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiterServiceImpl(
+            CurrencyRegistry currencyRegistry,
+            @Value("${transfers.limiter.enabled:true}") boolean enabled,
+            @Value("${transfers.limiter.initial-limit:20}") int initialLimit,
+            @Value("${transfers.limiter.min-limit:4}") int minLimit,
+            @Value("${transfers.limiter.max-limit:200}") int maxLimit,
+            @Value("${transfers.limiter.rtt-tolerance:2.0}") double rttTolerance,
+            @Value("${transfers.limiter.smoothing:0.2}") double smoothing,
+            @Value("${transfers.limiter.short-window:10}") int shortWindow,
+            @Value("${transfers.limiter.long-window:600}") int longWindow,
+            @Value("${transfers.limiter.bulk-share:0.5}") double bulkShare,
+            @Value("${transfers.limiter.bulk-threshold:5000}") BigDecimal bulkThreshold,
+            @Value("${transfers.limiter.retry-after-seconds:1}") long retryAfterSeconds) {
+        this(new Settings(enabled, initialLimit, minLimit, maxLimit, rttTolerance, smoothing, shortWindow,
+                        longWindow, bulkShare, TransferPricing.toCents(bulkThreshold), retryAfterSeconds),
+                currencyRegistry, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiterServiceImpl(Settings settings, CurrencyRegistry currencyRegistry, LongSupplier nanoClock) {
+        if (settings.minLimit() < 1 || settings.minLimit() > settings.maxLimit()) {
+            throw new IllegalArgumentException("transfers.limiter: se requiere 1 <= min-limit <= max-limit");
+        }
+        this.settings = settings;
+        this.pricing = new TransferPricing(currencyRegistry);
+        this.nanoClock = nanoClock;
+        this.state = new AtomicReference<>(new State(
+                Math.max(settings.minLimit(), Math.min(settings.maxLimit(), settings.initialLimit())), 0, 0));
+    }
+
+    record Settings(boolean enabled, int initialLimit, int minLimit, int maxLimit, double rttTolerance,
+                    double smoothing, int shortWindow, int longWindow, double bulkShare, long bulkThresholdCents,
+                    long retryAfterSeconds) {
+    }
+
+    private record State(double limit, double shortRtt, double longRtt) {
+    }
+
+    @Override
+    public <T> T execute(TransferRequest request, Supplier<T> work) {
+        if (!settings.enabled()) {
+            return work.get();
+        }
+        boolean bulk = isBulk(request);
+        int inFlightAtStart = admit(bulk);
+        long start = nanoClock.getAsLong();
+        try {
+            T result = work.get();
+            onSample(nanoClock.getAsLong() - start, inFlightAtStart);
+            return result;
+        } catch (DataAccessException e) {
+            // timeout de lock o de conexión: señal directa de sobrecarga
+            onDropped();
+            throw e;
+        } catch (BusinessException | RetryableException e) {
+            // rechazos de negocio (saldo, validación...) o de otra protección son rápidos y no dicen
+            // nada de la carga de la BD
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private int admit(boolean bulk) {
+        double limit = state.get().limit();
+        int allowed = bulk ? bulkLimit(limit) : (int) limit;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                (bulk ? rejectedBulk : rejectedRetail).increment();
+                throw new ServiceOverloadedException("Servicio de transferencias saturado; reintentar en "
+                        + settings.retryAfterSeconds() + " s", settings.retryAfterSeconds());
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return current + 1;
+            }
+        }
+    }
+
+    private int bulkLimit(double limit) {
+        return Math.max(1, (int) (limit * settings.bulkShare()));
+    }
+
+    // Montos inválidos o monedas desconocidas van por el carril normal: los rechaza la validación
+    private boolean isBulk(TransferRequest request) {
+        TransferData data = request.getTransferData();
+        if (settings.bulkThresholdCents() <= 0 || data == null || data.getAmount() == null) {
+            return false;
+        }
+        try {
+            return pricing.baseCents(data) >= settings.bulkThresholdCents();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    void onSample(long rttNanos, int inFlightAtStart) {
+        double rtt = Math.max(1, rttNanos);
+        State current;
+        State next;
+        do {
+            current = state.get();
+            next = next(current, rtt, inFlightAtStart);
+        } while (!state.compareAndSet(current, next));
+    }
+
+    private State next(State current, double rtt, int inFlightAtStart) {
+        double limit = current.limit();
+        if (current.longRtt() == 0) {
+            return new State(limit, rtt, rtt);
+        }
+        double shortRtt = current.shortRtt() + (rtt - current.shortRtt()) * 2 / (settings.shortWindow() + 1);
+        double longRtt = current.longRtt();
+        // la referencia no aprende de muestras con cola (si no, sube con ella y el límite nunca baja);
+        // en min-limit ya no hay cola que quitar: si la latencia sigue alta es la del propio backend
+        if (shortRtt <= settings.rttTolerance() * longRtt || limit <= settings.minLimit()) {
+            longRtt += (shortRtt - longRtt) * 2 / (settings.longWindow() + 1);
+        }
+        // la referencia quedó alta tras un pico: acercarla a la latencia actual
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, settings.rttTolerance() * longRtt / shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        // con menos de la mitad del límite en uso la latencia no dice si cabe más: bajar sí, crecer no
+        if (target > limit && inFlightAtStart < limit / 2) {
+            return new State(limit, shortRtt, longRtt);
+        }
+        return new State(clamp(limit * (1 - settings.smoothing()) + target * settings.smoothing()), shortRtt, longRtt);
+    }
+
+    void onDropped() {
+        dropped.increment();
+        state.updateAndGet(current -> new State(clamp(current.limit() * DROP_BACKOFF), current.shortRtt(),
+                current.longRtt()));
+    }
+
+    private double clamp(double value) {
+        return Math.max(settings.minLimit(), Math.min(settings.maxLimit(), value));
+    }
+
+    @Override
+    public ConcurrencyLimitStatsDto stats() {
+        State current = state.get();
+        return new ConcurrencyLimitStatsDto((int) current.limit(), bulkLimit(current.limit()), inFlight.get(),
+                accepted.sum(), rejectedRetail.sum(), rejectedBulk.sum(), dropped.sum(), current.shortRtt() / 1e6,
+                current.longRtt() / 1e6);
+    }
+}
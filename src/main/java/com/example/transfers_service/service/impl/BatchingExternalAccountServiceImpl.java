@@ -0,0 +1,77 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.RequestDeadline;
+import com.example.transfers_service.dto.ExternalAccountCallStatsDto;
+import com.example.transfers_service.dto.external.ExternalAccountResponse;
+import com.example.transfers_service.exception.ExternalAccountValidationException;
+import com.example.transfers_service.service.ExternalAccountBatchService;
+import com.example.transfers_service.service.ExternalAccountService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Valida la cuenta destino de createTransfer a través del micro-batching (POST accountDestiny/bulk)
+ * en lugar de una llamada por transferencia. La espera es la misma que la del cliente directo:
+ * el timeout configurado o lo que quede de RequestDeadline, lo que sea menor.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "external.account.batch.enabled", havingValue = "true")
+public class BatchingExternalAccountServiceImpl implements ExternalAccountService {
+
+    private final ExternalAccountBatchService externalAccountBatchService;
+    private final ExternalAccountService externalAccountService;
+    private final Duration timeout;
+
+    public BatchingExternalAccountServiceImpl(
+            ExternalAccountBatchService externalAccountBatchService,
+            @Qualifier("externalAccountServiceImpl") ExternalAccountService externalAccountService,
+            @Value("${external.account.timeout-ms:2000}") long timeoutMs) {
+        this.externalAccountBatchService = externalAccountBatchService;
+        this.externalAccountService = externalAccountService;
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    @Override
+    public ExternalAccountResponse validateExternalAccount(String accountId)
+            throws ExternalAccountValidationException {
+        Duration budget = RequestDeadline.remaining()
+                .filter(remaining -> remaining.compareTo(timeout) < 0)
+                .orElse(timeout);
+        if (budget.isNegative() || budget.isZero()) {
+            throw new ExternalAccountValidationException(
+                    "Sin tiempo restante de la solicitud para validar la cuenta externa");
+        }
+        CompletableFuture<ExternalAccountResponse> lookup = externalAccountBatchService.lookup(accountId);
+        try {
+            return lookup.get(budget.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new ExternalAccountValidationException(
+                    "Tiempo de espera agotado al validar la cuenta externa", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ExternalAccountValidationException validationException) {
+                throw validationException;
+            }
+            throw new ExternalAccountValidationException(
+                    "Error al validar la cuenta externa: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalAccountValidationException("Validación de cuenta externa interrumpida", e);
+        }
+    }
+
+    // Las llamadas por lote no pasan por el cliente directo; sus estadísticas son las de ese cliente
+    @Override
+    public ExternalAccountCallStatsDto stats() {
+        return externalAccountService.stats();
+    }
+}
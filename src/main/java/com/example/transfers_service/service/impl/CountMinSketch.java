@@ -0,0 +1,60 @@
+package com.example.transfers_service.service.impl;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch compartido entre hilos: 'depth' filas de 'width' contadores (potencia de 2).
+ * Nunca subestima: un 0 significa que la clave no se vio jamás; un valor positivo puede ser una
+ * colisión. Incrementos sin locks (AtomicIntegerArray), memoria fija = depth * width * 4 bytes.
+ */
+final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final AtomicIntegerArray counters;
+
+    CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Count-min: depth > 0 y width potencia de 2");
+        }
+        this.depth = depth;
+        this.mask = width - 1;
+        this.counters = new AtomicIntegerArray(depth * width);
+    }
+
+    void add(long hash) {
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(row, hash);
+            // satura en lugar de desbordar
+            if (counters.get(cell) < Integer.MAX_VALUE) {
+                counters.incrementAndGet(cell);
+            }
+        }
+    }
+
+    int estimate(long hash) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(cell(row, hash)));
+        }
+        return min;
+    }
+
+    // Kirsch-Mitzenmacher: h1 + fila * h2 a partir de las dos mitades del hash de 64 bits
+    private int cell(int row, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+
+    // Mezcla de 64 bits (finalizador de MurmurHash3) para claves compuestas de Strings
+    static long hash(String a, String b) {
+        long h = a.hashCode() * 0x9E3779B97F4A7C15L + b.hashCode();
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.transfers_service.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cuenta residente en el motor en memoria. Solo el secuenciador dueño de la cuenta la debita;
+ * los abonos pueden llegar desde cualquier secuenciador (suman, así que no invalidan
+ * la validación de saldo del dueño).
+ */
+final class EngineAccount {
+
+    private final String accountId;
+    private final String customerId;
+    private final String currency;
+    private final String status;
+    private final AtomicLong balanceMinor;
+
+    EngineAccount(String accountId, String customerId, String currency, String status, long balanceMinor) {
+        this.accountId = accountId;
+        this.customerId = customerId;
+        this.currency = currency;
+        this.status = status;
+        this.balanceMinor = new AtomicLong(balanceMinor);
+    }
+
+    String getAccountId() {
+        return accountId;
+    }
+
+    String getCustomerId() {
+        return customerId;
+    }
+
+    String getCurrency() {
+        return currency;
+    }
+
+    String getStatus() {
+        return status;
+    }
+
+    long getBalanceMinor() {
+        return balanceMinor.get();
+    }
+
+    void add(long deltaMinor) {
+        balanceMinor.addAndGet(deltaMinor);
+    }
+
+    static long toMinor(BigDecimal amount) {
+        return amount.setScale(TransferPricing.SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromMinor(long minor) {
+        return BigDecimal.valueOf(minor, TransferPricing.SCALE);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.entity.PrefixedUlidType;
+import com.example.transfers_service.service.IdGeneratorService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Acceso JDBC del motor en memoria: carga de cuentas, checkpoints por partición y volcado
+ * asíncrono en lotes. Cada volcado escribe transfers, movements, los deltas de saldo y el
+ * último seq aplicado en una sola transacción, así la reproducción del journal no duplica nada.
+ */
+final class EngineStore {
+
+    private static final String INSERT_TRANSFER = "insert into transfers (transfer_id, customer_id, source_account_id,"
+            + " dest_account_number, dest_currency, amount, description, amount_sent, currency_sent, total_debit,"
+            + " debit_currency, commission, itf, fx_rate_used, transfer_datetime, transfer_type, status, fraud_decision,"
+            + " fraud_score) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_MOVEMENT = "insert into movements (movement_id, account_id, transfer_id,"
+            + " amount, currency, type, description, movement_dt) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdGeneratorService idGeneratorService;
+    private final TransferPricing pricing;
+    // transfers.ids.mode=binary: transfer_id / movement_id son BINARY(16), igual que en PrefixedUlidType
+    private final boolean binaryIds;
+
+    EngineStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                IdGeneratorService idGeneratorService, TransferPricing pricing, boolean binaryIds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.idGeneratorService = idGeneratorService;
+        this.pricing = pricing;
+        this.binaryIds = binaryIds;
+    }
+
+    Optional<EngineAccount> loadAccount(String accountId) {
+        return jdbcTemplate.query(
+                        "select account_id, customer_id, currency, status, balance from accounts where account_id = ?",
+                        (rs, rowNum) -> new EngineAccount(
+                                rs.getString(1),
+                                rs.getString(2),
+                                rs.getString(3),
+                                rs.getString(4),
+                                EngineAccount.toMinor(rs.getBigDecimal(5))),
+                        accountId)
+                .stream()
+                .findFirst();
+    }
+
+    Map<Integer, Long> checkpoints() {
+        Map<Integer, Long> checkpoints = new HashMap<>();
+        jdbcTemplate.query("select partition_id, last_seq from engine_checkpoints",
+                rs -> {
+                    checkpoints.put(rs.getInt(1), rs.getLong(2));
+                });
+        return checkpoints;
+    }
+
+    void flush(int partition, List<EngineTransfer> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Object[]> transfers = new ArrayList<>(batch.size());
+        List<Object[]> movements = new ArrayList<>(batch.size() * 4);
+        // orden fijo de cuentas: dos volcados concurrentes no se bloquean en cruz
+        Map<String, Long> deltas = new TreeMap<>();
+
+        for (EngineTransfer t : batch) {
+            Timestamp at = Timestamp.valueOf(t.dateTime());
+            transfers.add(new Object[]{
+                    id("TRX-", t.transferId()), t.customerId(), t.sourceAccountId(), t.destAccountId(), t.destCurrency(),
+                    EngineAccount.fromMinor(t.amountToCreditMinor()).doubleValue(), t.description(),
+                    EngineAccount.fromMinor(t.amountUserMinor()), t.userCurrency(),
+                    EngineAccount.fromMinor(t.totalDebitMinor()), t.sourceCurrency(),
+                    EngineAccount.fromMinor(t.commissionMinor()),
+                    EngineAccount.fromMinor(t.itfMinor()), fxRateUsed(t), at, t.transferType(), t.status(),
+                    t.fraudDecision(), t.fraudDecision() == null ? null : t.fraudScore()});
+
+            movements.add(movement(t.sourceAccountId(), t, -t.amountToDebitMinor(), t.sourceCurrency(),
+                    "OUT", "monto transferencia", at));
+            movements.add(movement(t.sourceAccountId(), t, -t.commissionMinor(), t.sourceCurrency(),
+                    "OUT", "comisión por transferencia " + t.transferType(), at));
+            if (t.itfMinor() > 0) {
+                movements.add(movement(t.sourceAccountId(), t, -t.itfMinor(), t.sourceCurrency(), "OUT", "ITF", at));
+            }
+            deltas.merge(t.sourceAccountId(), -t.totalDebitMinor(), Long::sum);
+
+            if (!t.externalDestination()) {
+                movements.add(movement(t.destAccountId(), t, t.amountToCreditMinor(), t.destCurrency(),
+                        "IN", t.description(), at));
+                deltas.merge(t.destAccountId(), t.amountToCreditMinor(), Long::sum);
+            }
+        }
+
+        List<Object[]> balanceUpdates = new ArrayList<>(deltas.size());
+        deltas.forEach((accountId, delta) ->
+                balanceUpdates.add(new Object[]{EngineAccount.fromMinor(delta), accountId}));
+        long lastSeq = batch.get(batch.size() - 1).seq();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_TRANSFER, transfers);
+            jdbcTemplate.batchUpdate(INSERT_MOVEMENT, movements);
+            jdbcTemplate.batchUpdate("update accounts set balance = round(balance + ?, 2) where account_id = ?",
+                    balanceUpdates);
+            saveCheckpoint(partition, lastSeq);
+        });
+    }
+
+    // Solo avanza el checkpoint: para un registro apartado que no se vuelca (ver TransferJournal.park)
+    void skip(int partition, long seq) {
+        transactionTemplate.executeWithoutResult(status -> saveCheckpoint(partition, seq));
+    }
+
+    private void saveCheckpoint(int partition, long lastSeq) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int updated = jdbcTemplate.update(
+                "update engine_checkpoints set last_seq = ?, updated_at = ? where partition_id = ?",
+                lastSeq, now, partition);
+        if (updated == 0) {
+            jdbcTemplate.update(
+                    "insert into engine_checkpoints (partition_id, last_seq, updated_at) values (?, ?, ?)",
+                    partition, lastSeq, now);
+        }
+    }
+
+    private Object[] movement(String accountId, EngineTransfer t, long amountMinor, String currency,
+                              String type, String description, Timestamp at) {
+        return new Object[]{
+                id("MOV-", "MOV-" + idGeneratorService.nextMovementId()), accountId, id("TRX-", t.transferId()),
+                EngineAccount.fromMinor(amountMinor).doubleValue(), currency, type, description, at};
+    }
+
+    private Object id(String prefix, String id) {
+        return binaryIds ? PrefixedUlidType.toBytes(prefix, id) : id;
+    }
+
+    // Los tipos de cambio solo cambian con un reinicio (CurrencyRegistry), así que calcularlo al
+    // volcar da el mismo valor que vio el secuenciador sin agrandar el registro del journal
+    private BigDecimal fxRateUsed(EngineTransfer t) {
+        return pricing.fxRateUsed(pricing.currency(t.sourceCurrency()), pricing.currency(t.destCurrency()));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.transfers_service.service.impl;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transferencia aceptada por un secuenciador del motor en memoria: es el registro del
+ * journal y lo que luego se vuelca a transfers/movements/accounts.
+ * Los montos van en unidades mínimas (céntimos) para que la aplicación sea exacta al reproducirla.
+ */
+record EngineTransfer(
+        long seq,
+        String transferId,
+        String customerId,
+        String sourceAccountId,
+        String sourceCurrency,
+        String destAccountId,
+        String destCurrency,
+        boolean externalDestination,
+        String userCurrency,
+        long amountUserMinor,
+        long amountToDebitMinor,
+        long commissionMinor,
+        long itfMinor,
+        long totalDebitMinor,
+        long amountToCreditMinor,
+        String transferType,
+        String status,
+        String description,
+        LocalDateTime dateTime,
+        String fraudDecision,
+        int fraudScore
+) {
+
+    EngineTransfer withSeq(long newSeq) {
+        return new EngineTransfer(newSeq, transferId, customerId, sourceAccountId, sourceCurrency,
+                destAccountId, destCurrency, externalDestination, userCurrency, amountUserMinor,
+                amountToDebitMinor, commissionMinor, itfMinor, totalDebitMinor, amountToCreditMinor,
+                transferType, status, description, dateTime, fraudDecision, fraudScore);
+    }
+}
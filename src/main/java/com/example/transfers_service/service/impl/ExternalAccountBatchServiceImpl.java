@@ -0,0 +1,159 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.external.ExternalAccountResponse;
+import com.example.transfers_service.exception.ExternalAccountValidationException;
+import com.example.transfers_service.service.AsyncExternalAccountService;
+import com.example.transfers_service.service.ExternalAccountBatchService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-batching de validaciones de cuentas externas.
+ * Agrupa las consultas que llegan dentro de una ventana corta (o hasta maxBatchSize ids)
+ * en una sola llamada POST accountDestiny/bulk y reparte el resultado a cada llamador.
+ * Lo usa BatchingExternalAccountServiceImpl cuando external.account.batch.enabled=true.
+ */
+@Service
+@ConditionalOnProperty(name = "external.account.batch.enabled", havingValue = "true")
+public class ExternalAccountBatchServiceImpl implements ExternalAccountBatchService {
+
+    private final AsyncExternalAccountService asyncExternalAccountService;
+    private final long windowMs;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private List<PendingLookup> pending = new ArrayList<>();
+    // ventana abierta y su envío programado: un lote vaciado por tamaño cancela el suyo
+    private long window;
+    private ScheduledFuture<?> scheduledFlush;
+
+    public ExternalAccountBatchServiceImpl(
+            AsyncExternalAccountService asyncExternalAccountService,
+            @Value("${external.account.batch.window-ms:5}") long windowMs,
+            @Value("${external.account.batch.max-size:100}") int maxBatchSize) {
+        this.asyncExternalAccountService = asyncExternalAccountService;
+        this.windowMs = windowMs;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "external-account-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CompletableFuture<ExternalAccountResponse> lookup(String accountId) {
+        PendingLookup lookup = new PendingLookup(accountId);
+        List<PendingLookup> batchToSend = null;
+
+        synchronized (lock) {
+            pending.add(lookup);
+            if (pending.size() >= maxBatchSize) {
+                batchToSend = drainPending();
+            } else if (pending.size() == 1) {
+                // primera consulta de la ventana: programar el envío de esta ventana
+                long current = window;
+                scheduledFlush = scheduler.schedule(() -> flush(current), windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (batchToSend != null) {
+            send(batchToSend);
+        }
+        return lookup.future;
+    }
+
+    // Envío por tiempo: si la ventana ya se envió por tamaño, las consultas actuales son de la siguiente
+    private void flush(long expectedWindow) {
+        List<PendingLookup> batchToSend;
+        synchronized (lock) {
+            if (window != expectedWindow) {
+                return;
+            }
+            batchToSend = drainPending();
+        }
+        if (!batchToSend.isEmpty()) {
+            send(batchToSend);
+        }
+    }
+
+    void flush() {
+        List<PendingLookup> batchToSend;
+        synchronized (lock) {
+            batchToSend = drainPending();
+        }
+        if (!batchToSend.isEmpty()) {
+            send(batchToSend);
+        }
+    }
+
+    // Cierra la ventana actual: la siguiente consulta abre otra con su propio envío programado
+    private List<PendingLookup> drainPending() {
+        List<PendingLookup> drained = pending;
+        pending = new ArrayList<>();
+        window++;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return drained;
+    }
+
+    private void send(List<PendingLookup> batch) {
+        // ids repetidos en la misma ventana se consultan una sola vez
+        Set<String> accountIds = new LinkedHashSet<>();
+        for (PendingLookup lookup : batch) {
+            accountIds.add(lookup.accountId);
+        }
+
+        asyncExternalAccountService.validateExternalAccountsBulkAsync(accountIds)
+                .whenComplete((results, ex) -> {
+                    for (PendingLookup lookup : batch) {
+                        if (ex != null) {
+                            lookup.future.completeExceptionally(ex);
+                        } else {
+                            complete(lookup, results);
+                        }
+                    }
+                });
+    }
+
+    private static void complete(PendingLookup lookup, Map<String, ExternalAccountResponse> results) {
+        ExternalAccountResponse response = results.get(lookup.accountId);
+        if (response == null) {
+            lookup.future.completeExceptionally(new ExternalAccountValidationException(
+                    "Cuenta externa no existe: " + lookup.accountId));
+        } else {
+            lookup.future.complete(response);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        scheduler.shutdown();
+    }
+
+    private static final class PendingLookup {
+        private final String accountId;
+        private final CompletableFuture<ExternalAccountResponse> future = new CompletableFuture<>();
+
+        private PendingLookup(String accountId) {
+            this.accountId = accountId;
+        }
+    }
+}
@@ -1,63 +1,395 @@
 package com.example.transfers_service.service.impl;
 
+import com.example.transfers_service.config.RequestDeadline;
+import com.example.transfers_service.dto.ExternalAccountCallStatsDto;
+import com.example.transfers_service.dto.external.ExternalAccountBulkRequest;
+import com.example.transfers_service.dto.external.ExternalAccountBulkResponse;
 import com.example.transfers_service.dto.external.ExternalAccountErrorResponse;
 import com.example.transfers_service.dto.external.ExternalAccountResponse;
 import com.example.transfers_service.exception.ExternalAccountValidationException;
+import com.example.transfers_service.service.AsyncExternalAccountService;
 import com.example.transfers_service.service.ExternalAccountService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatusCode;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
 
 import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Cliente de accountDestiny/{id} con solicitudes de cobertura (hedging): si la primera no respondió
+ * pasado el percentil hedge.percentile de las latencias recientes, se envía una segunda y gana la
+ * que responda primero (la otra se cancela). Las coberturas tienen tope: cada llamada suma
+ * hedge.max-ratio créditos y cada cobertura gasta uno, así nunca superan esa fracción del tráfico.
+ * La espera total es el timeout o lo que quede de RequestDeadline, lo que sea menor; el restante
+ * también viaja al banco externo en la cabecera X-Request-Timeout-Ms.
+ * Es también el cliente no bloqueante (sendAsync): un solo HttpClient y un solo pool de hilos,
+ * que además agenda las coberturas; las llamadas en vuelo no ocupan un hilo mientras esperan.
+ */
 @Service
-public class ExternalAccountServiceImpl implements ExternalAccountService {
+public class ExternalAccountServiceImpl implements ExternalAccountService, AsyncExternalAccountService {
+
+    static final String DEADLINE_HEADER = "X-Request-Timeout-Ms";
+
+    private static final int LATENCY_SAMPLES = 1024;
+    private static final int MIN_SAMPLES = 50;
+    private static final int RECOMPUTE_EVERY = 32;
+    private static final double MAX_HEDGE_CREDITS = 10;
 
-    //Usa RestClient para hacer peticiones HTTP.
-    private final RestClient restClient;
     private final String externalAccountServiceUrl;
     private final ObjectMapper objectMapper;
+    private final Settings settings;
+    private final ScheduledThreadPoolExecutor executor;
+    private final HttpClient httpClient;
+
+    // latencias recientes de respuestas del banco (circular), para el retraso de la cobertura
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private long latencyCount;
+    private volatile long hedgeDelayNanos;
+    private double hedgeCredits; // bajo el monitor de 'this'
 
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder hedgesDenied = new LongAdder();
+    private final LongAdder deadlineExceeded = new LongAdder();
+
+    @Autowired
     public ExternalAccountServiceImpl(
             @Value("${external.account.service.url}") String externalAccountServiceUrl,
+            @Value("${external.account.threads:4}") int threads,
+            @Value("${external.account.timeout-ms:2000}") long timeoutMs,
+            @Value("${external.account.hedge.enabled:true}") boolean hedgeEnabled,
+            @Value("${external.account.hedge.percentile:95}") double hedgePercentile,
+            @Value("${external.account.hedge.initial-delay-ms:100}") long initialDelayMs,
+            @Value("${external.account.hedge.min-delay-ms:5}") long minDelayMs,
+            @Value("${external.account.hedge.max-ratio:0.1}") double maxHedgeRatio,
             ObjectMapper objectMapper) {
+        this(externalAccountServiceUrl, objectMapper, new Settings(threads, Duration.ofMillis(timeoutMs), hedgeEnabled,
+                hedgePercentile, Duration.ofMillis(initialDelayMs), Duration.ofMillis(minDelayMs), maxHedgeRatio));
+    }
+
+    ExternalAccountServiceImpl(String externalAccountServiceUrl, ObjectMapper objectMapper, Settings settings) {
+        if (settings.hedgePercentile() <= 0 || settings.hedgePercentile() > 100) {
+            throw new IllegalArgumentException("external.account.hedge.percentile debe estar en (0, 100]");
+        }
         this.externalAccountServiceUrl = externalAccountServiceUrl.endsWith("/") ?
                 externalAccountServiceUrl : externalAccountServiceUrl + "/";
-        this.restClient = RestClient.create();
         this.objectMapper = objectMapper;
+        this.settings = settings;
+        this.hedgeDelayNanos = Math.max(settings.initialDelay().toNanos(), settings.minDelay().toNanos());
+        this.executor = new ScheduledThreadPoolExecutor(settings.threads(), daemonThreadFactory());
+        // una cobertura cancelada sale de la cola en lugar de esperar a su hora
+        this.executor.setRemoveOnCancelPolicy(true);
+        this.httpClient = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(settings.timeout())
+                .build();
+    }
+
+    record Settings(int threads, Duration timeout, boolean hedgeEnabled, double hedgePercentile,
+                    Duration initialDelay, Duration minDelay, double maxHedgeRatio) {
     }
 
     @Override
     public ExternalAccountResponse validateExternalAccount(String accountId)
             throws ExternalAccountValidationException {
+        Duration budget = RequestDeadline.remaining()
+                .filter(remaining -> remaining.compareTo(settings.timeout()) < 0)
+                .orElse(settings.timeout());
+        if (budget.isNegative() || budget.isZero()) {
+            deadlineExceeded.increment();
+            throw new ExternalAccountValidationException(
+                    "Sin tiempo restante de la solicitud para validar la cuenta externa");
+        }
+        CompletableFuture<ExternalAccountResponse> result = call(accountId, budget);
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw toValidationException(e.getCause());
+        } catch (InterruptedException e) {
+            // el llamador ya no espera: cancelar solicitudes en curso y la cobertura pendiente
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ExternalAccountValidationException("Validación de cuenta externa interrumpida", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<ExternalAccountResponse> validateExternalAccountAsync(String accountId) {
+        return validateExternalAccountAsync(accountId, settings.timeout());
+    }
+
+    @Override
+    public CompletableFuture<ExternalAccountResponse> validateExternalAccountAsync(String accountId, Duration deadline) {
+        return call(accountId, deadline).exceptionally(ex -> {
+            throw toValidationException(unwrap(ex));
+        });
+    }
+
+    // El resultado vence solo al agotar el plazo; al completarse (como sea) se cancela lo que quede en curso
+    private CompletableFuture<ExternalAccountResponse> call(String accountId, Duration budget) {
+        calls.increment();
+        HedgedCall call = new HedgedCall(accountId, System.nanoTime() + budget.toNanos());
+        call.result.orTimeout(budget.toNanos(), TimeUnit.NANOSECONDS)
+                .whenComplete((response, ex) -> call.cancel());
+        call.start();
+        return call.result;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, ExternalAccountResponse>> validateExternalAccountsBulkAsync(
+            Collection<String> accountIds) {
+        byte[] body;
         try {
-            return restClient.get()
-                    .uri(externalAccountServiceUrl + "accountDestiny/" + accountId)
-                    .accept(MediaType.APPLICATION_JSON)
-                    .retrieve()
-                    .onStatus(HttpStatusCode::is4xxClientError, (request, response) -> {
-                        try {
-                            ExternalAccountErrorResponse errorResponse = objectMapper.readValue(
-                                    response.getBody(),
-                                    ExternalAccountErrorResponse.class
-                            );
-                            String errorMessage = errorResponse != null ?
-                                    errorResponse.getMessage() : "Error al validar la cuenta externa";
-                            throw new ExternalAccountValidationException(errorMessage);
-                        } catch (IOException e) {
-                            throw new ExternalAccountValidationException("Error al procesar la respuesta del servicio externo");
-                        }
-                    })
-                    .onStatus(HttpStatusCode::is5xxServerError, (request, response) -> {
+            body = objectMapper.writeValueAsBytes(new ExternalAccountBulkRequest(new ArrayList<>(accountIds)));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(
+                    new ExternalAccountValidationException("Error al construir la solicitud masiva", e));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(externalAccountServiceUrl + "accountDestiny/bulk"))
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .timeout(settings.timeout())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .orTimeout(settings.timeout().toNanos(), TimeUnit.NANOSECONDS)
+                .thenApply(response -> {
+                    if (response.statusCode() >= 500) {
                         throw new ExternalAccountValidationException(
                                 "Error en el servicio de validación de cuentas externas");
-                    })
-                    .body(ExternalAccountResponse.class);
-        } catch (Exception e) {
-            throw new ExternalAccountValidationException("Error al validar la cuenta externa: " + e.getMessage(), e);
+                    }
+                    return readBody(response, ExternalAccountBulkResponse.class);
+                })
+                .thenApply(ExternalAccountServiceImpl::indexByAccountId)
+                .exceptionally(ex -> {
+                    throw toValidationException(unwrap(ex));
+                });
+    }
+
+    private static Map<String, ExternalAccountResponse> indexByAccountId(ExternalAccountBulkResponse bulk) {
+        Map<String, ExternalAccountResponse> byId = new HashMap<>();
+        if (bulk != null && bulk.getAccounts() != null) {
+            for (ExternalAccountResponse account : bulk.getAccounts()) {
+                byId.put(account.getExternalAccountId(), account);
+            }
+        }
+        return byId;
+    }
+
+    /**
+     * Una llamada lógica: la solicitud original y, si hace falta, su cobertura.
+     * Un 2xx o un 4xx es una respuesta definitiva y gana; un 5xx o error de red solo
+     * se propaga cuando no queda otra solicitud en curso.
+     */
+    private final class HedgedCall {
+        private final String accountId;
+        private final long deadlineNanos;
+        private final CompletableFuture<ExternalAccountResponse> result = new CompletableFuture<>();
+        private final List<CompletableFuture<?>> attempts = new CopyOnWriteArrayList<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile ScheduledFuture<?> hedgeTimer;
+        private long startNanos;
+
+        private HedgedCall(String accountId, long deadlineNanos) {
+            this.accountId = accountId;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        private void start() {
+            startNanos = System.nanoTime();
+            earnHedgeCredit();
+            send(false);
+            long delay = hedgeDelayNanos;
+            // una cobertura que no alcanzaría a responder antes del deadline no se envía
+            if (settings.hedgeEnabled() && delay < deadlineNanos - System.nanoTime()) {
+                hedgeTimer = executor.schedule(this::hedge, delay, TimeUnit.NANOSECONDS);
+                if (result.isDone()) {
+                    hedgeTimer.cancel(false);
+                }
+            }
         }
+
+        private void hedge() {
+            if (result.isDone()) {
+                return;
+            }
+            if (!tryTakeHedgeCredit()) {
+                hedgesDenied.increment();
+                return;
+            }
+            hedged.increment();
+            send(true);
+        }
+
+        private void send(boolean hedge) {
+            long remaining = deadlineNanos - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(externalAccountServiceUrl + "accountDestiny/" + accountId))
+                    .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                    .header(DEADLINE_HEADER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining))))
+                    .timeout(Duration.ofNanos(remaining))
+                    .GET()
+                    .build();
+            pending.incrementAndGet();
+            CompletableFuture<HttpResponse<byte[]>> attempt =
+                    httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            attempts.add(attempt);
+            attempt.whenComplete((response, ex) -> onResponse(response, ex, hedge));
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+        }
+
+        private void onResponse(HttpResponse<byte[]> response, Throwable ex, boolean hedge) {
+            boolean last = pending.decrementAndGet() == 0;
+            if (result.isDone()) {
+                return;
+            }
+            if (ex != null || response.statusCode() >= 500) {
+                if (last) {
+                    result.completeExceptionally(ex != null ? unwrap(ex)
+                            : new ExternalAccountValidationException(
+                                    "Error en el servicio de validación de cuentas externas"));
+                }
+                return;
+            }
+            // latencia de la llamada desde el envío original: si ganó la cobertura la muestra queda
+            // por encima del retraso (la original tardaba al menos eso) y el percentil no se hunde
+            recordLatency(System.nanoTime() - startNanos);
+            ExternalAccountResponse body;
+            try {
+                body = readBody(response, ExternalAccountResponse.class);
+            } catch (ExternalAccountValidationException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            // se cuenta antes de completar: quien espera el resultado ya ve la estadística
+            if (hedge) {
+                hedgeWins.increment();
+            }
+            if (!result.complete(body) && hedge) {
+                hedgeWins.decrement();
+            }
+        }
+
+        private void cancel() {
+            ScheduledFuture<?> timer = hedgeTimer;
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    private synchronized void earnHedgeCredit() {
+        hedgeCredits = Math.min(MAX_HEDGE_CREDITS, hedgeCredits + settings.maxHedgeRatio());
+    }
+
+    private synchronized boolean tryTakeHedgeCredit() {
+        if (hedgeCredits < 1) {
+            return false;
+        }
+        hedgeCredits -= 1;
+        return true;
+    }
+
+    // El percentil se recalcula cada RECOMPUTE_EVERY muestras sobre las últimas LATENCY_SAMPLES
+    private void recordLatency(long nanos) {
+        synchronized (latencies) {
+            latencies[(int) (latencyCount++ % LATENCY_SAMPLES)] = nanos;
+            if (latencyCount < MIN_SAMPLES || latencyCount % RECOMPUTE_EVERY != 0) {
+                return;
+            }
+            long[] sorted = Arrays.copyOf(latencies, (int) Math.min(latencyCount, LATENCY_SAMPLES));
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(settings.hedgePercentile() / 100 * sorted.length) - 1;
+            hedgeDelayNanos = Math.max(settings.minDelay().toNanos(), sorted[Math.max(0, index)]);
+        }
+    }
+
+    private <T> T readBody(HttpResponse<byte[]> response, Class<T> type) {
+        try {
+            if (response.statusCode() >= 400) {
+                ExternalAccountErrorResponse errorResponse = objectMapper.readValue(
+                        response.body(), ExternalAccountErrorResponse.class);
+                String errorMessage = errorResponse != null && errorResponse.getMessage() != null ?
+                        errorResponse.getMessage() : "Error al validar la cuenta externa";
+                throw new ExternalAccountValidationException(errorMessage);
+            }
+            return objectMapper.readValue(response.body(), type);
+        } catch (IOException e) {
+            throw new ExternalAccountValidationException("Error al procesar la respuesta del servicio externo", e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    // Se llama una vez por llamada fallida: también cuenta las cortadas por deadline
+    private ExternalAccountValidationException toValidationException(Throwable ex) {
+        if (ex instanceof ExternalAccountValidationException validationException) {
+            return validationException;
+        }
+        if (ex instanceof TimeoutException || ex instanceof HttpTimeoutException) {
+            deadlineExceeded.increment();
+            return new ExternalAccountValidationException(
+                    "Tiempo de espera agotado al validar la cuenta externa", ex);
+        }
+        return new ExternalAccountValidationException("Error al validar la cuenta externa: " + ex.getMessage(), ex);
+    }
+
+    @Override
+    public ExternalAccountCallStatsDto stats() {
+        return new ExternalAccountCallStatsDto(calls.sum(), hedged.sum(), hedgeWins.sum(), hedgesDenied.sum(),
+                deadlineExceeded.sum(), hedgeDelayNanos / 1e6);
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "external-account-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.TransferEventDto;
+import com.example.transfers_service.service.TransferEventSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Envía cada lote como un único POST application/x-ndjson (un evento por línea).
+ * Un error HTTP o un timeout hace fallar el lote completo para este sink; no hay reintentos.
+ * Es un sink aislado: el publicador lo atiende desde su propio hilo y cola.
+ */
+@Service
+@ConditionalOnProperty(name = "transfers.events.sinks.http.enabled", havingValue = "true")
+public class HttpTransferEventSink implements TransferEventSink {
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ObjectMapper objectMapper;
+    private final RestClient restClient;
+    private final String url;
+
+    public HttpTransferEventSink(ObjectMapper objectMapper,
+                                 @Value("${transfers.events.sinks.http.url:http://localhost:8090/events}") String url,
+                                 @Value("${transfers.events.sinks.http.timeout-ms:2000}") long timeoutMs) {
+        this.objectMapper = objectMapper;
+        this.url = url;
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMs));
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    @Override
+    public boolean isolated() {
+        return true;
+    }
+
+    @Override
+    public void write(List<TransferEventDto> batch) throws IOException {
+        StringBuilder body = new StringBuilder(batch.size() * 256);
+        for (TransferEventDto event : batch) {
+            body.append(objectMapper.writeValueAsString(event)).append('\n');
+        }
+        restClient.post()
+                .uri(url)
+                .contentType(NDJSON)
+                .body(body.toString())
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
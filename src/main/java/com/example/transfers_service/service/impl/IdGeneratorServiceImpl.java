@@ -1,19 +1,33 @@
 package com.example.transfers_service.service.impl;
 
+import com.example.transfers_service.entity.PrefixedUlidType;
 import com.example.transfers_service.service.IdGeneratorService;
 import com.github.f4b6a3.ulid.UlidCreator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class IdGeneratorServiceImpl implements IdGeneratorService {
 
+    // con claves BINARY(16) los ULID monótonos dan inserciones siempre al final del índice,
+    // incluso dentro del mismo milisegundo
+    private final boolean monotonic;
+
+    public IdGeneratorServiceImpl(@Value("${transfers.ids.mode:text}") String mode) {
+        this.monotonic = PrefixedUlidType.isBinary(mode);
+    }
+
     @Override
     public String nextMovementId() {
-        return UlidCreator.getUlid().toString(); // p.ej. 01JDXQ5G8W9V1Z3M7Q9H4M0R2S
+        return next(); // p.ej. 01JDXQ5G8W9V1Z3M7Q9H4M0R2S
     }
 
     @Override
     public String nextTransferId() {
-        return UlidCreator.getUlid().toString();
+        return next();
+    }
+
+    private String next() {
+        return monotonic ? UlidCreator.getMonotonicUlid().toString() : UlidCreator.getUlid().toString();
     }
-}
\ No newline at end of file
+}
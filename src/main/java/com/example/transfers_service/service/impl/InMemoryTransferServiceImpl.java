@@ -0,0 +1,468 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.config.ExternalAccountPrefetch;
+import com.example.transfers_service.dto.AccountMetadataDto;
+import com.example.transfers_service.dto.CurrencyCode;
+import com.example.transfers_service.dto.FraudAssessmentDto;
+import com.example.transfers_service.dto.external.ExternalAccountResponse;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.dto.response.TransferResponse;
+import com.example.transfers_service.entity.PrefixedUlidType;
+import com.example.transfers_service.exception.AccountNotFoundException;
+import com.example.transfers_service.exception.ExternalAccountValidationException;
+import com.example.transfers_service.exception.ServiceOverloadedException;
+import com.example.transfers_service.service.ExternalAccountService;
+import com.example.transfers_service.service.FraudScoringService;
+import com.example.transfers_service.service.IdGeneratorService;
+import com.example.transfers_service.service.TransferEventPublisher;
+import com.example.transfers_service.service.TransferLimitService;
+import com.example.transfers_service.service.TransferService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Motor de transferencias en memoria (transfers.engine.enabled=true), pensado para horas pico.
+ *
+ * Las cuentas se reparten en particiones fijas; cada partición tiene un secuenciador de un solo
+ * hilo alimentado por un ring buffer sin locks que aplica las mismas reglas de TransferPricing
+ * que la ruta JPA, sin locks de BD. La durabilidad la da un journal mapeado en memoria por
+ * partición; las tablas accounts/movements/transfers se actualizan después, en lotes.
+ * Al arrancar se reproducen los registros del journal posteriores al último checkpoint volcado.
+ * Un registro que la BD rechaza por sus datos se aparta (TransferJournal.park) y el volcado sigue:
+ * no bloquea la partición, y queda un ERROR para repararlo a mano.
+ *
+ * Es el único escritor de saldos mientras está activo: no se combina con el libro mayor ni con sharding.
+ * Pasa por las mismas etapas que la ruta JPA (riesgo en línea, límites acumulados, eventos). Cada
+ * solicitud corre en un ámbito transaccional sin conexión (SUPPORTS): "confirmar" es que el
+ * secuenciador la aceptó en el journal, y un rechazo devuelve lo reservado igual que un rollback.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "transfers.engine.enabled", havingValue = "true")
+public class InMemoryTransferServiceImpl implements TransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryTransferServiceImpl.class);
+
+    private final EngineStore store;
+    private final IdGeneratorService idGeneratorService;
+    private final ExternalAccountService externalAccountService;
+    private final TransferLimitService transferLimitService;
+    private final FraudScoringService fraudScoringService;
+    private final TransferEventPublisher transferEventPublisher;
+    private final TransferPricing pricing;
+    private final TransactionTemplate acceptance;
+    private final Path journalDir;
+    private final int partitions;
+    private final int ringSize;
+    private final int segmentBytes;
+    private final boolean fsync;
+    private final long flushIntervalMs;
+    private final int flushBatchSize;
+    private final long submitTimeoutMs;
+
+    private final Map<String, EngineAccount> accounts = new ConcurrentHashMap<>();
+    private final List<TransferSequencer> sequencers = new ArrayList<>();
+    private final List<TransferJournal> journals = new ArrayList<>();
+    // lo drenado de cada partición que aún no se pudo volcar (o lo reproducido del journal)
+    private final List<List<EngineTransfer>> unflushed = new ArrayList<>();
+    private ScheduledExecutorService flusher;
+
+    public InMemoryTransferServiceImpl(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       IdGeneratorService idGeneratorService,
+                                       ExternalAccountService externalAccountService,
+                                       TransferLimitService transferLimitService,
+                                       FraudScoringService fraudScoringService,
+                                       TransferEventPublisher transferEventPublisher,
+                                       CurrencyRegistry currencyRegistry,
+                                       @Value("${transfers.engine.journal.dir:./data/journal}") String journalDir,
+                                       @Value("${transfers.engine.partitions:4}") int partitions,
+                                       @Value("${transfers.engine.ring-size:8192}") int ringSize,
+                                       @Value("${transfers.engine.journal.segment-mb:64}") int segmentMb,
+                                       @Value("${transfers.engine.journal.fsync:true}") boolean fsync,
+                                       @Value("${transfers.engine.flush.interval-ms:20}") long flushIntervalMs,
+                                       @Value("${transfers.engine.flush.batch-size:500}") int flushBatchSize,
+                                       @Value("${transfers.engine.submit-timeout-ms:2000}") long submitTimeoutMs,
+                                       @Value("${transfers.ledger.enabled:false}") boolean ledgerEnabled,
+                                       @Value("${transfers.sharding.enabled:false}") boolean shardingEnabled,
+                                       @Value("${transfers.ids.mode:text}") String idsMode) {
+        if (ledgerEnabled || shardingEnabled) {
+            throw new IllegalStateException(
+                    "transfers.engine.enabled no se combina con transfers.ledger.enabled ni con transfers.sharding.enabled");
+        }
+        this.pricing = new TransferPricing(currencyRegistry);
+        this.store = new EngineStore(jdbcTemplate, new TransactionTemplate(transactionManager), idGeneratorService,
+                pricing, PrefixedUlidType.isBinary(idsMode));
+        this.idGeneratorService = idGeneratorService;
+        this.externalAccountService = externalAccountService;
+        this.transferLimitService = transferLimitService;
+        this.fraudScoringService = fraudScoringService;
+        this.transferEventPublisher = transferEventPublisher;
+        // sin conexión ni BEGIN: solo activa las sincronizaciones de límites, riesgo y eventos
+        this.acceptance = new TransactionTemplate(transactionManager);
+        this.acceptance.setPropagationBehavior(TransactionDefinition.PROPAGATION_SUPPORTS);
+        this.journalDir = Path.of(journalDir);
+        this.partitions = partitions;
+        this.ringSize = ringSize;
+        this.segmentBytes = segmentMb * 1024 * 1024;
+        this.fsync = fsync;
+        this.flushIntervalMs = flushIntervalMs;
+        this.flushBatchSize = flushBatchSize;
+        this.submitTimeoutMs = submitTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        Map<Integer, Long> checkpoints = store.checkpoints();
+        checkPartitionCount(checkpoints);
+
+        for (int p = 0; p < partitions; p++) {
+            TransferJournal journal = new TransferJournal(journalDir, p, segmentBytes, fsync);
+            List<EngineTransfer> replayed = journal.open(checkpoints.getOrDefault(p, 0L));
+            // reproducción: mismos deltas que aplicó el secuenciador, sin volver a validar
+            replayed.forEach(this::reapply);
+            if (!replayed.isEmpty()) {
+                log.info("Partición {}: {} transferencias reproducidas del journal", p, replayed.size());
+            }
+            reapplyParked(p, checkpoints.getOrDefault(p, 0L));
+            journals.add(journal);
+            unflushed.add(new ArrayList<>(replayed));
+            sequencers.add(new TransferSequencer(p, ringSize, journal, this::account));
+        }
+
+        sequencers.forEach(TransferSequencer::start);
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "transfer-engine-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAll, 0, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Mismos deltas que aplicó el secuenciador, sin volver a validar
+    private void reapply(EngineTransfer t) {
+        account(t.sourceAccountId()).add(-t.totalDebitMinor());
+        if (!t.externalDestination()) {
+            account(t.destAccountId()).add(t.amountToCreditMinor());
+        }
+    }
+
+    // Los apartados se aceptaron (201) pero no están en BD: la memoria los mantiene hasta repararlos.
+    // Uno con seq > checkpoint se cortó antes de saltarlo y ya llega de nuevo por el journal
+    private void reapplyParked(int partition, long checkpoint) {
+        Map<Long, EngineTransfer> parked = new TreeMap<>();
+        try {
+            TransferJournal.parked(journalDir, partition).forEach(t -> parked.putIfAbsent(t.seq(), t));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        parked.values().removeIf(t -> t.seq() > checkpoint);
+        parked.values().forEach(this::reapply);
+        if (!parked.isEmpty()) {
+            log.error("Partición {}: {} transferencias apartadas sin volcar a BD ({}); repararlas a mano", partition,
+                    parked.size(), TransferJournal.parkedFile(journalDir, partition));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sequencers.forEach(TransferSequencer::stop);
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushAll();
+        journals.forEach(TransferJournal::close);
+    }
+
+    // Simula una caída: se detienen los hilos sin volcar a BD (solo para pruebas)
+    void halt() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            try {
+                flusher.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sequencers.forEach(TransferSequencer::stop);
+        journals.forEach(TransferJournal::close);
+    }
+
+    @Override
+    public TransferResponse createTransfer(TransferRequest request) {
+        return acceptance.execute(status -> accept(request));
+    }
+
+    private TransferResponse accept(TransferRequest request) {
+        // 1) Origen, dueño y estado (las cuentas ya están en memoria: no hay lock que evitar)
+        TransferValidationServiceImpl.requirePositiveAmount(request.getTransferData().getAmount());
+        TransferValidationServiceImpl.requireDescriptionLength(request.getTransferData().getDescription());
+        String sourceAccountId = request.getSourceAccount().getAccountId();
+        EngineAccount source = findAccount(sourceAccountId)
+                .orElseThrow(() -> new AccountNotFoundException("Cuenta no existe: " + sourceAccountId));
+        validateSourceAccountOwner(source, request);
+        TransferValidationServiceImpl.requireActive(sourceAccountId, source.getStatus());
+
+        // 1.1) Riesgo en línea y límites acumulados, como en la ruta JPA (lo reservado vuelve si se rechaza)
+        FraudAssessmentDto fraudAssessment = fraudScoringService.screen(request, new AccountMetadataDto(sourceAccountId, source.getCustomerId(),
+                source.getCurrency(), source.getStatus()));
+        transferLimitService.reserve(request);
+
+        // 2) Destino (interno o externo); la llamada externa se hace aquí, nunca en el secuenciador
+        String destAccountId = request.getDestinationAccount().getAccountId();
+        Optional<EngineAccount> internal = findAccount(destAccountId);
+        String destCurrencyRaw;
+        boolean external;
+        if (internal.isPresent()) {
+            destCurrencyRaw = internal.get().getCurrency();
+            external = false;
+        } else {
+            destCurrencyRaw = fetchExternalCurrency(destAccountId)
+                    .orElseThrow(() -> new AccountNotFoundException(
+                            "Cuenta destino no existe en nuestra bd ni en el servicio externo: " + destAccountId));
+            external = true;
+        }
+
+        // 3) Monedas, montos y cargos: mismas reglas que la ruta JPA
+        CurrencyCode sourceCode = pricing.currency(source.getCurrency());
+        CurrencyCode destCode = pricing.currency(destCurrencyRaw);
+        CurrencyCode userCode = pricing.currency(request.getTransferData().getCurrency());
+        String sourceCurrency = sourceCode.code();
+        String destCurrency = destCode.code();
+        String userCurrency = userCode.code();
+
+        BigDecimal amountUser = TransferPricing.userAmount(request.getTransferData().getAmount());
+        BigDecimal amountToDebit = pricing.amountToDebit(amountUser, userCode, sourceCode);
+        BigDecimal amountToCredit = pricing.amountToCredit(amountUser, userCode, destCode);
+        LocalDateTime dateTime = LocalDateTime.now();
+        TransferServiceImpl.ChargesData charges = pricing.charges(sourceCode, amountToDebit, dateTime);
+        String status = TransferPricing.isOnline(dateTime) ? TransferPricing.STATUS_EXECUTED : TransferPricing.STATUS_PENDING;
+
+        EngineTransfer transfer = new EngineTransfer(
+                0L,
+                "TRX-" + idGeneratorService.nextTransferId(),
+                source.getCustomerId(),
+                sourceAccountId,
+                sourceCurrency,
+                destAccountId,
+                destCurrency,
+                external,
+                userCurrency,
+                EngineAccount.toMinor(amountUser),
+                EngineAccount.toMinor(amountToDebit),
+                EngineAccount.toMinor(charges.getCommission()),
+                EngineAccount.toMinor(charges.getItf()),
+                EngineAccount.toMinor(charges.getTotalDebit()),
+                EngineAccount.toMinor(amountToCredit),
+                charges.getTransferType().toUpperCase(),
+                status,
+                request.getTransferData().getDescription(),
+                dateTime,
+                fraudAssessment.decision(),
+                fraudAssessment.score());
+
+        // 4) Secuenciador dueño de la cuenta origen
+        EngineTransfer done = submit(transfer);
+        publishEvents(done);
+
+        TransferResponse response = new TransferResponse();
+        response.setTransferId(done.transferId());
+        response.setStatus(done.status());
+        response.setTransferType(done.transferType());
+        response.setCommissionApplied(
+                charges.getCommission()
+                        .add(charges.getItf())
+                        .setScale(TransferPricing.SCALE, RoundingMode.HALF_UP)
+                        .doubleValue()
+        );
+        return response;
+    }
+
+    // Mismo criterio que TransferServiceImpl: el abono interno lo aplicó el secuenciador junto con el débito
+    private void publishEvents(EngineTransfer done) {
+        transferEventPublisher.publishAfterCommit(TransferEvents.created(done));
+        if (!done.externalDestination() || TransferPricing.STATUS_EXECUTED.equals(done.status())) {
+            transferEventPublisher.publishAfterCommit(TransferEvents.settled(done));
+        }
+    }
+
+    private EngineTransfer submit(EngineTransfer transfer) {
+        TransferSequencer sequencer = sequencers.get(partitionOf(transfer.sourceAccountId()));
+        var submission = new TransferSequencer.Submission(transfer, new CompletableFuture<>());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(submitTimeoutMs);
+
+        if (sequencer.isTerminated()) {
+            throw new ServiceOverloadedException("Motor de transferencias detenido, intente nuevamente", 1);
+        }
+        while (!sequencer.offer(submission)) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new ServiceOverloadedException("Motor de transferencias saturado, intente nuevamente", 1);
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+        // Ya está en el ring: el secuenciador la aplicará o rechazará aunque tarde. Cortar la espera
+        // aquí devolvería lo reservado y callaría los eventos de un débito que sí se hizo, así que
+        // solo se deja de esperar si el secuenciador terminó sin tomarla (apagado)
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return submission.result().get(submitTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    if (sequencer.isTerminated() && !submission.result().isDone()) {
+                        throw new ServiceOverloadedException("Motor de transferencias detenido, intente nuevamente", 1);
+                    }
+                    log.warn("Transferencia {} esperando al secuenciador de la partición {} más de {} ms",
+                            transfer.transferId(), sequencer.getPartition(), submitTimeoutMs);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    int partitionOf(String accountId) {
+        return Math.floorMod(accountId.hashCode(), partitions);
+    }
+
+    // Vuelca a BD lo aceptado por cada secuenciador; ante un error se reintenta en la siguiente vuelta
+    void flushAll() {
+        for (TransferSequencer sequencer : sequencers) {
+            int p = sequencer.getPartition();
+            List<EngineTransfer> pending = unflushed.get(p);
+            try {
+                do {
+                    sequencer.flushQueue().drainTo(pending, flushBatchSize - pending.size());
+                    if (pending.isEmpty()) {
+                        break;
+                    }
+                    long lastSeq = pending.get(pending.size() - 1).seq();
+                    try {
+                        store.flush(p, pending);
+                        pending.clear();
+                    } catch (DataIntegrityViolationException e) {
+                        // reintentar el mismo lote fallaría siempre: se aísla el registro que la BD rechaza
+                        flushOneByOne(p, pending);
+                    }
+                    journals.get(p).truncateUpTo(lastSeq);
+                } while (true);
+            } catch (RuntimeException e) {
+                log.warn("No se pudo volcar la partición {} a BD, se reintentará: {}", p, e.getMessage());
+            }
+        }
+    }
+
+    // Otros errores (BD caída) cortan aquí y lo que queda en pending se reintenta en la siguiente vuelta
+    private void flushOneByOne(int partition, List<EngineTransfer> pending) {
+        while (!pending.isEmpty()) {
+            EngineTransfer t = pending.get(0);
+            try {
+                store.flush(partition, List.of(t));
+            } catch (DataIntegrityViolationException e) {
+                journals.get(partition).park(t);
+                store.skip(partition, t.seq());
+                log.error("Partición {}: la BD rechazó la transferencia {} (seq {}); se aparta en {} para repararla"
+                                + " a mano: {}", partition, t.transferId(), t.seq(),
+                        TransferJournal.parkedFile(journalDir, partition), e.getMessage());
+            }
+            pending.remove(0);
+        }
+    }
+
+    // Cuenta en memoria; la primera vez se carga de BD (solo el motor la modifica después).
+    // El estado queda el de la carga: bloquear una cuenta con el motor activo requiere reiniciarlo
+    Optional<EngineAccount> findAccount(String accountId) {
+        EngineAccount cached = accounts.get(accountId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return store.loadAccount(accountId)
+                .map(loaded -> {
+                    EngineAccount previous = accounts.putIfAbsent(accountId, loaded);
+                    return previous != null ? previous : loaded;
+                });
+    }
+
+    private EngineAccount account(String accountId) {
+        return findAccount(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Cuenta no existe: " + accountId));
+    }
+
+    private void validateSourceAccountOwner(EngineAccount source, TransferRequest request) {
+        TransferValidationServiceImpl.requireOwner(source.getCustomerId(), request.getCustomer());
+    }
+
+    private Optional<String> fetchExternalCurrency(String accountId) {
+        try {
+            ExternalAccountResponse response = ExternalAccountPrefetch.orElseValidate(accountId,
+                    () -> externalAccountService.validateExternalAccount(accountId));
+            if (response != null && "ACTIVE".equals(response.getStatus())) {
+                return Optional.of(response.getCurrency());
+            }
+            return Optional.empty();
+        } catch (ExternalAccountValidationException e) {
+            return Optional.empty();
+        }
+    }
+
+    // Un journal con registros sin volcar de una partición que ya no existe no podría reproducirse
+    private void checkPartitionCount(Map<Integer, Long> checkpoints) {
+        try {
+            for (int p : TransferJournal.partitionsOnDisk(journalDir)) {
+                if (p >= partitions && TransferJournal.lastSeqOnDisk(journalDir, p) > checkpoints.getOrDefault(p, 0L)) {
+                    throw new IllegalStateException("El journal tiene segmentos de la partición " + p
+                            + " pero transfers.engine.partitions=" + partitions
+                            + "; vuelque el journal antes de cambiar el número de particiones");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.dto.CurrencyCode;
+import com.example.transfers_service.dto.LedgerPostingDto;
+import com.example.transfers_service.entity.AccountBalanceCheckpoint;
+import com.example.transfers_service.entity.JournalEntry;
+import com.example.transfers_service.repository.AccountBalanceCheckpointRepository;
+import com.example.transfers_service.repository.AccountRepository;
+import com.example.transfers_service.repository.JournalEntryRepository;
+import com.example.transfers_service.service.IdGeneratorService;
+import com.example.transfers_service.service.LedgerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Libro mayor de partida doble (modo opcional, transfers.ledger.enabled=true).
+ *
+ * Cada transferencia inserta sus asientos en un solo batch; ninguna fila se actualiza,
+ * así que los abonos no compiten por el lock de la cuenta destino. El saldo de una cuenta
+ * es su último checkpoint más los asientos posteriores; sin checkpoint se parte de
+ * accounts.balance (saldo de apertura, que deja de actualizarse en este modo).
+ *
+ * Por moneda, la suma de asientos de una transferencia es cero: lo cobrado por comisión,
+ * ITF y diferencia cambiaria va a cuentas internas (LEDGER:...).
+ */
+@Service
+public class JournalLedgerServiceImpl implements LedgerService {
+
+    public static final String LEG_DEBIT = "DEBIT";
+    public static final String LEG_CREDIT = "CREDIT";
+    public static final String LEG_FEE = "FEE";
+    public static final String LEG_ITF = "ITF";
+    public static final String LEG_FX = "FX";
+
+    static final String FEE_INCOME_ACCOUNT = "LEDGER:FEE_INCOME:";
+    static final String ITF_PAYABLE_ACCOUNT = "LEDGER:ITF_PAYABLE:";
+    static final String FX_POSITION_ACCOUNT = "LEDGER:FX_POSITION:";
+    static final String EXTERNAL_CLEARING_ACCOUNT = "LEDGER:EXTERNAL_CLEARING:";
+
+    private static final int SCALE = 2;
+    private static final LocalDateTime OPENING_CUTOFF = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final boolean enabled;
+    private final Duration checkpointSafetyMargin;
+    private final JournalEntryRepository journalEntryRepository;
+    private final AccountBalanceCheckpointRepository checkpointRepository;
+    private final AccountRepository accountRepository;
+    private final IdGeneratorService idGeneratorService;
+    private final CurrencyRegistry currencyRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    public JournalLedgerServiceImpl(
+            @Value("${transfers.ledger.enabled:false}") boolean enabled,
+            @Value("${transfers.ledger.checkpoint-safety-margin-ms:60000}") long checkpointSafetyMarginMs,
+            JournalEntryRepository journalEntryRepository,
+            AccountBalanceCheckpointRepository checkpointRepository,
+            AccountRepository accountRepository,
+            IdGeneratorService idGeneratorService,
+            CurrencyRegistry currencyRegistry,
+            PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        this.checkpointSafetyMargin = Duration.ofMillis(checkpointSafetyMarginMs);
+        this.journalEntryRepository = journalEntryRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.accountRepository = accountRepository;
+        this.idGeneratorService = idGeneratorService;
+        this.currencyRegistry = currencyRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public BigDecimal currentBalance(String accountId) {
+        AccountBalanceCheckpoint checkpoint = checkpointRepository.findById(accountId).orElse(null);
+        if (checkpoint != null) {
+            return checkpoint.getBalance().add(journalEntryRepository.sumSince(accountId, checkpoint.getCutoff()));
+        }
+        return openingBalance(accountId).add(journalEntryRepository.sumSince(accountId, OPENING_CUTOFF));
+    }
+
+    @Override
+    public void postTransfer(LedgerPostingDto posting) {
+        journalEntryRepository.saveAll(buildEntries(posting));
+    }
+
+    List<JournalEntry> buildEntries(LedgerPostingDto posting) {
+        List<JournalEntry> entries = new ArrayList<>();
+        CurrencyCode sourceCode = currencyRegistry.require(posting.sourceCurrency());
+        CurrencyCode destCode = currencyRegistry.require(posting.destCurrency());
+        String sourceCurrency = sourceCode.code();
+        String destCurrency = destCode.code();
+        BigDecimal debit = scaled(posting.amountToDebit());
+        BigDecimal credit = scaled(posting.amountToCredit());
+        BigDecimal commission = scaled(posting.commission());
+        BigDecimal itf = scaled(posting.itf());
+
+        String creditAccount = posting.externalDestination()
+                ? EXTERNAL_CLEARING_ACCOUNT + destCurrency
+                : posting.destinationAccountId();
+
+        // Principal: si no hay cambio de moneda ni diferencia, va directo de origen a destino;
+        // en otro caso pasa por la posición de cambio de cada moneda.
+        entries.add(entry(posting, posting.sourceAccountId(), LEG_DEBIT, debit.negate(), sourceCurrency));
+        if (sourceCode.is(destCode) && debit.compareTo(credit) == 0) {
+            entries.add(entry(posting, creditAccount, LEG_CREDIT, credit, destCurrency));
+        } else {
+            entries.add(entry(posting, FX_POSITION_ACCOUNT + sourceCurrency, LEG_FX, debit, sourceCurrency));
+            entries.add(entry(posting, FX_POSITION_ACCOUNT + destCurrency, LEG_FX, credit.negate(), destCurrency));
+            entries.add(entry(posting, creditAccount, LEG_CREDIT, credit, destCurrency));
+        }
+
+        // Comisión
+        entries.add(entry(posting, posting.sourceAccountId(), LEG_FEE, commission.negate(), sourceCurrency));
+        entries.add(entry(posting, FEE_INCOME_ACCOUNT + sourceCurrency, LEG_FEE, commission, sourceCurrency));
+
+        // ITF (si aplica)
+        if (itf.compareTo(BigDecimal.ZERO) > 0) {
+            entries.add(entry(posting, posting.sourceAccountId(), LEG_ITF, itf.negate(), sourceCurrency));
+            entries.add(entry(posting, ITF_PAYABLE_ACCOUNT + sourceCurrency, LEG_ITF, itf, sourceCurrency));
+        }
+        return entries;
+    }
+
+    private JournalEntry entry(LedgerPostingDto posting, String accountId, String legType,
+                               BigDecimal amount, String currency) {
+        JournalEntry entry = new JournalEntry();
+        entry.setEntryId("JRN-" + idGeneratorService.nextMovementId());
+        entry.setTransferId(posting.transferId());
+        entry.setAccountId(accountId);
+        entry.setLegType(legType);
+        entry.setAmount(amount);
+        entry.setCurrency(currency);
+        entry.setCreatedAt(posting.dateTime());
+        return entry;
+    }
+
+    /**
+     * Consolida los asientos anteriores a (ahora - margen) en el checkpoint de cada cuenta.
+     * El margen debe ser mayor que la duración máxima de una transacción para no dejar
+     * fuera asientos que aún no hicieron commit.
+     */
+    @Scheduled(fixedDelayString = "${transfers.ledger.checkpoint-interval-ms:300000}")
+    public void checkpointBalances() {
+        if (!enabled) {
+            return;
+        }
+        checkpointBalances(LocalDateTime.now().minus(checkpointSafetyMargin));
+    }
+
+    int checkpointBalances(LocalDateTime cutoff) {
+        List<String> accountIds = journalEntryRepository.findAccountIdsPendingCheckpoint(cutoff);
+        for (String accountId : accountIds) {
+            transactionTemplate.executeWithoutResult(status -> checkpointAccount(accountId, cutoff));
+        }
+        return accountIds.size();
+    }
+
+    private void checkpointAccount(String accountId, LocalDateTime cutoff) {
+        AccountBalanceCheckpoint checkpoint = checkpointRepository.findById(accountId).orElseGet(() -> {
+            AccountBalanceCheckpoint opening = new AccountBalanceCheckpoint();
+            opening.setAccountId(accountId);
+            opening.setBalance(openingBalance(accountId));
+            opening.setCutoff(OPENING_CUTOFF);
+            return opening;
+        });
+        if (!checkpoint.getCutoff().isBefore(cutoff)) {
+            return;
+        }
+        BigDecimal delta = journalEntryRepository.sumBetween(accountId, checkpoint.getCutoff(), cutoff);
+        checkpoint.setBalance(checkpoint.getBalance().add(delta));
+        checkpoint.setCutoff(cutoff);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+    }
+
+    // Las cuentas internas (LEDGER:...) no existen en accounts y abren en cero
+    private BigDecimal openingBalance(String accountId) {
+        return accountRepository.findById(accountId)
+                .map(account -> account.getBalance() == null
+                        ? BigDecimal.ZERO
+                        : BigDecimal.valueOf(account.getBalance()))
+                .map(JournalLedgerServiceImpl::scaled)
+                .orElse(BigDecimal.ZERO.setScale(SCALE));
+    }
+
+    private static BigDecimal scaled(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.TransferEventDto;
+import com.example.transfers_service.service.TransferEventSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// Una línea por evento en el logger "transfers.events" (se puede enrutar a su propio appender)
+@Service
+@ConditionalOnProperty(name = "transfers.events.sinks.log.enabled", havingValue = "true")
+public class LoggingTransferEventSink implements TransferEventSink {
+
+    private static final Logger log = LoggerFactory.getLogger("transfers.events");
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public void write(List<TransferEventDto> batch) {
+        for (TransferEventDto event : batch) {
+            log.info("{} {} cliente={} origen={} destino={} monto={} {} estado={}", event.type(),
+                    event.transferId(), event.customerId(), event.sourceAccountId(), event.destAccountId(),
+                    event.amount(), event.currency(), event.status());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.transfers_service.service.impl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cola acotada multi-productor / un consumidor sin locks (esquema de Vyukov):
+ * cada celda lleva un número de secuencia que indica si está libre o publicada.
+ * offer() devuelve false si está llena; poll() y drainTo() solo los llama el hilo consumidor.
+ */
+final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // solo el consumidor
+
+    MpscRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("La capacidad debe ser potencia de 2: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(E element) {
+        long pos = tail.get();
+        while (true) {
+            int idx = (int) (pos & mask);
+            long diff = sequences.get(idx) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.lazySet(idx, element);
+                    sequences.lazySet(idx, pos + 1); // publica la celda
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // llena
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    E poll() {
+        int idx = (int) (head & mask);
+        if (sequences.get(idx) != head + 1) {
+            return null;
+        }
+        E element = slots.get(idx);
+        slots.lazySet(idx, null);
+        sequences.lazySet(idx, head + mask + 1); // libera la celda para la siguiente vuelta
+        head++;
+        return element;
+    }
+
+    int drainTo(List<? super E> sink, int max) {
+        int drained = 0;
+        E element;
+        while (drained < max && (element = poll()) != null) {
+            sink.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.TransferEventDto;
+import com.example.transfers_service.service.TransferEventSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Un evento JSON por línea (NDJSON) en modo append. Un solo flush por lote: el coste de E/S
+ * se reparte entre todos los eventos del lote. Solo lo usa el hilo consumidor.
+ */
+@Service
+@ConditionalOnProperty(name = "transfers.events.sinks.file.enabled", havingValue = "true")
+public class NdjsonFileTransferEventSink implements TransferEventSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private BufferedWriter writer;
+
+    @Autowired
+    public NdjsonFileTransferEventSink(ObjectMapper objectMapper,
+                                       @Value("${transfers.events.sinks.file.path:transfer-events.ndjson}") String path) {
+        this(objectMapper, Path.of(path));
+    }
+
+    NdjsonFileTransferEventSink(ObjectMapper objectMapper, Path path) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public void write(List<TransferEventDto> batch) throws IOException {
+        if (writer == null) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        for (TransferEventDto event : batch) {
+            writer.write(objectMapper.writeValueAsString(event));
+            writer.newLine();
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer = null;
+        }
+    }
+}
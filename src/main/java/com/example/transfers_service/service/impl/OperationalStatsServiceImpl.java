@@ -0,0 +1,79 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.AccountLockStatsDto;
+import com.example.transfers_service.dto.ConcurrencyLimitStatsDto;
+import com.example.transfers_service.dto.ExternalAccountCallStatsDto;
+import com.example.transfers_service.dto.OperationalStatsDto;
+import com.example.transfers_service.dto.TransferEventStatsDto;
+import com.example.transfers_service.service.AccountLockService;
+import com.example.transfers_service.service.ConcurrencyLimiterService;
+import com.example.transfers_service.service.ExternalAccountService;
+import com.example.transfers_service.service.OperationalStatsService;
+import com.example.transfers_service.service.TransferEventPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Un solo reporte periódico para las protecciones de carga. Cada componente expone un contador
+ * acumulado de lo que rechazó o descartó (timeouts de lock, 503 del limitador, eventos perdidos,
+ * llamadas cortadas por deadline); se avisa en WARN solo si alguno creció desde el reporte anterior.
+ */
+@Service
+public class OperationalStatsServiceImpl implements OperationalStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(OperationalStatsServiceImpl.class);
+
+    private final AccountLockService accountLockService;
+    private final ConcurrencyLimiterService concurrencyLimiterService;
+    private final TransferEventPublisher transferEventPublisher;
+    private final ExternalAccountService externalAccountService;
+
+    // último total visto por componente; solo lo toca el hilo del scheduler
+    private final Map<String, Long> lastTotals = new HashMap<>();
+
+    public OperationalStatsServiceImpl(AccountLockService accountLockService,
+                                       ConcurrencyLimiterService concurrencyLimiterService,
+                                       TransferEventPublisher transferEventPublisher,
+                                       ExternalAccountService externalAccountService) {
+        this.accountLockService = accountLockService;
+        this.concurrencyLimiterService = concurrencyLimiterService;
+        this.transferEventPublisher = transferEventPublisher;
+        this.externalAccountService = externalAccountService;
+    }
+
+    @Override
+    public OperationalStatsDto snapshot() {
+        return new OperationalStatsDto(accountLockService.stats(), concurrencyLimiterService.stats(),
+                transferEventPublisher.stats(), externalAccountService.stats());
+    }
+
+    @Scheduled(fixedDelayString = "${transfers.stats.interval-ms:60000}")
+    public void report() {
+        OperationalStatsDto stats = snapshot();
+        AccountLockStatsDto locks = stats.accountLocks();
+        ConcurrencyLimitStatsDto limiter = stats.limiter();
+        TransferEventStatsDto events = stats.events();
+        ExternalAccountCallStatsDto external = stats.externalAccounts();
+        warnIfGrew("Locks por cuenta", "timeouts", locks.timeouts(), locks);
+        warnIfGrew("Limitador de concurrencia", "solicitudes rechazadas",
+                limiter.rejectedRetail() + limiter.rejectedBulk(), limiter);
+        warnIfGrew("Eventos de transferencias", "descartados por ring buffer lleno", events.dropped(), events);
+        warnIfGrew("Validación de cuentas externas", "llamadas sin respuesta dentro del deadline",
+                external.deadlineExceeded(), external);
+    }
+
+    private void warnIfGrew(String component, String what, long total, Object detail) {
+        Long previous = lastTotals.put(component, total);
+        long grown = total - (previous == null ? 0 : previous);
+        if (grown > 0) {
+            log.warn("{}: {} {} desde el último reporte; {}", component, grown, what, detail);
+        } else if (log.isDebugEnabled()) {
+            log.debug("{}: {}", component, detail);
+        }
+    }
+}
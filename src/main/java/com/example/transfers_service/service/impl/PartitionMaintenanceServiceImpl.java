@@ -0,0 +1,195 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.ShardContext;
+import com.example.transfers_service.config.ShardRoutingDataSource;
+import com.example.transfers_service.service.PartitionMaintenanceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Mantenimiento de las particiones mensuales de transfers y movements (MySQL).
+ * - Parte "pmax" para tener siempre monthsAhead meses futuros.
+ * - Las particiones más antiguas que la retención se mueven a una tabla
+ *   {tabla}_archive_YYYYMM (EXCHANGE PARTITION, sin copiar filas) y se eliminan.
+ *   El archivado se puede reintentar: cada paso se salta si ya está hecho. Los archivos de
+ *   movements no se borran: la conciliación los suma (ReconciliationServiceImpl).
+ * Con sharding se mantiene cada shard (cada uno tiene sus propias particiones).
+ */
+@Service
+@ConditionalOnProperty(name = "transfers.partitioning.enabled", havingValue = "true")
+public class PartitionMaintenanceServiceImpl implements PartitionMaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintenanceServiceImpl.class);
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String PARTITION_PREFIX = "p";
+    private static final String MAX_PARTITION = "pmax";
+
+    // tablas particionadas por V3__partition_transfers_movements.sql
+    static final List<String> PARTITIONED_TABLES = List.of("transfers", "movements");
+
+    static final String TABLE_EXISTS_SQL = "SELECT COUNT(*) FROM information_schema.tables "
+            + "WHERE table_schema = DATABASE() AND table_name = ?";
+    static final String PARTITION_COUNT_SQL = "SELECT COUNT(*) FROM information_schema.partitions "
+            + "WHERE table_schema = DATABASE() AND table_name = ? AND partition_name IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final Clock clock;
+    // shards a mantener; un único null = DataSource sin sharding
+    private final List<String> shards;
+
+    public PartitionMaintenanceServiceImpl(
+            JdbcTemplate jdbcTemplate,
+            @Value("${transfers.partitioning.months-ahead:3}") int monthsAhead,
+            @Value("${transfers.partitioning.retention-months:24}") int retentionMonths) {
+        this(jdbcTemplate, monthsAhead, retentionMonths, Clock.systemDefaultZone(),
+                jdbcTemplate.getDataSource() instanceof ShardRoutingDataSource routing
+                        ? routing.getResolver().getShardNames()
+                        : Collections.singletonList(null));
+    }
+
+    PartitionMaintenanceServiceImpl(JdbcTemplate jdbcTemplate, int monthsAhead, int retentionMonths, Clock clock) {
+        this(jdbcTemplate, monthsAhead, retentionMonths, clock, Collections.singletonList(null));
+    }
+
+    PartitionMaintenanceServiceImpl(JdbcTemplate jdbcTemplate, int monthsAhead, int retentionMonths, Clock clock,
+                                    List<String> shards) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.clock = clock;
+        this.shards = shards;
+    }
+
+    @Override
+    @Scheduled(cron = "${transfers.partitioning.cron:0 30 2 * * *}")
+    public void maintainPartitions() {
+        YearMonth current = YearMonth.now(clock);
+        for (String shard : shards) {
+            // un shard que falla no deja sin mantenimiento a los demás; se reintenta en la próxima corrida
+            try {
+                ShardContext.run(shard, () -> maintainShard(current));
+            } catch (RuntimeException e) {
+                log.error("Mantenimiento de particiones falló en el shard {}", shard, e);
+            }
+        }
+    }
+
+    private void maintainShard(YearMonth current) {
+        for (String table : PARTITIONED_TABLES) {
+            List<String> partitionNames = jdbcTemplate.queryForList(
+                    "SELECT partition_name FROM information_schema.partitions " +
+                            "WHERE table_schema = DATABASE() AND table_name = ? AND partition_name IS NOT NULL",
+                    String.class, table);
+            if (!partitionNames.contains(MAX_PARTITION)) {
+                log.warn("La tabla {} no está particionada (falta {}); se omite", table, MAX_PARTITION);
+                continue;
+            }
+            SortedSet<YearMonth> existing = monthlyPartitions(partitionNames);
+
+            for (YearMonth month : monthsToCreate(current, existing, monthsAhead)) {
+                log.info("Creando partición {} en {}", partitionName(month), table);
+                jdbcTemplate.execute("ALTER TABLE " + table + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO ("
+                        + "PARTITION " + partitionName(month) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "'), "
+                        + "PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+            }
+
+            for (YearMonth month : monthsToArchive(current, existing, retentionMonths)) {
+                archivePartition(table, month);
+            }
+        }
+    }
+
+    // Cada paso mira antes el estado en information_schema y en las filas: si una corrida anterior
+    // se cortó a medias, la siguiente sigue desde el paso pendiente en vez de fallar o deshacerlo
+    private void archivePartition(String table, YearMonth month) {
+        String partition = partitionName(month);
+        String archiveTable = table + "_archive_" + month.format(PARTITION_SUFFIX);
+        log.info("Archivando partición {} de {} en {}", partition, table, archiveTable);
+
+        if (count(TABLE_EXISTS_SQL, archiveTable) == 0) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + archiveTable + " LIKE " + table);
+        }
+        if (count(PARTITION_COUNT_SQL, archiveTable) > 0) {
+            jdbcTemplate.execute("ALTER TABLE " + archiveTable + " REMOVE PARTITIONING");
+        }
+        // el archivo solo recibe filas por el EXCHANGE: si ya tiene, el intercambio está hecho
+        // y repetirlo devolvería las filas a la partición
+        if (!hasRows(archiveTable)) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " EXCHANGE PARTITION " + partition + " WITH TABLE " + archiveTable);
+        }
+        if (hasRows(table + " PARTITION (" + partition + ")")) {
+            log.warn("La partición {} de {} sigue con filas y {} ya tiene las archivadas; no se elimina",
+                    partition, table, archiveTable);
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + table + " DROP PARTITION " + partition);
+    }
+
+    private int count(String sql, String table) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, table);
+        return count == null ? 0 : count;
+    }
+
+    private boolean hasRows(String from) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + from + ")", Boolean.class));
+    }
+
+    static SortedSet<YearMonth> monthlyPartitions(List<String> partitionNames) {
+        SortedSet<YearMonth> months = new TreeSet<>();
+        for (String name : partitionNames) {
+            YearMonth month = parsePartitionName(name);
+            if (month != null) {
+                months.add(month);
+            }
+        }
+        return months;
+    }
+
+    // Solo se pueden crear meses posteriores a la última partición mensual (se parte pmax)
+    static List<YearMonth> monthsToCreate(YearMonth current, SortedSet<YearMonth> existing, int monthsAhead) {
+        List<YearMonth> result = new ArrayList<>();
+        YearMonth horizon = current.plusMonths(monthsAhead);
+        YearMonth next = existing.isEmpty() ? current : existing.last().plusMonths(1);
+        if (next.isBefore(current)) {
+            next = current;
+        }
+        for (YearMonth month = next; !month.isAfter(horizon); month = month.plusMonths(1)) {
+            result.add(month);
+        }
+        return result;
+    }
+
+    static List<YearMonth> monthsToArchive(YearMonth current, SortedSet<YearMonth> existing, int retentionMonths) {
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        return new ArrayList<>(existing.headSet(oldestKept));
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    // p202610 -> 2026-10; p_history / pmax -> null
+    static YearMonth parsePartitionName(String name) {
+        if (name == null || !name.matches("p\\d{6}")) {
+            return null;
+        }
+        return YearMonth.parse(name.substring(1), PARTITION_SUFFIX);
+    }
+}
@@ -0,0 +1,440 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.ShardContext;
+import com.example.transfers_service.config.ShardRoutingDataSource;
+import com.example.transfers_service.dto.ReconciliationDiscrepancyDto;
+import com.example.transfers_service.dto.ReconciliationReportDto;
+import com.example.transfers_service.exception.ReconciliationRunNotFoundException;
+import com.example.transfers_service.service.ReconciliationService;
+import com.github.f4b6a3.ulid.UlidCreator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concilia accounts.balance contra saldo de apertura + SUM(movements.amount), al céntimo.
+ * El espacio de account_id se corta en rangos de rangeSize cuentas; un ForkJoinPool los reparte
+ * y cada rango se lee en una sola transacción REPEATABLE READ (saldos y movements de la misma foto)
+ * agregando los movements por cuenta en streaming. Los movements de particiones ya archivadas
+ * (movements_archive_YYYYMM, ver PartitionMaintenanceServiceImpl) se suman igual que los vivos, así
+ * el archivado no descuadra ninguna cuenta. Las diferencias y el estado DONE del rango se
+ * guardan en la misma transacción: ese es el checkpoint con el que resume() continúa una corrida.
+ * Con sharding cada shard concilia sus propias cuentas bajo el mismo runId (las tablas de la
+ * corrida viven en cada shard) y el reporte suma los de todos.
+ * En modo libro mayor accounts.balance no se actualiza y esta conciliación no aplica.
+ */
+@Service
+public class ReconciliationServiceImpl implements ReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationServiceImpl.class);
+
+    static final String STATUS_PENDING = "PENDING";
+    static final String STATUS_RUNNING = "RUNNING";
+    static final String STATUS_DONE = "DONE";
+    static final String STATUS_FAILED = "FAILED";
+
+    private static final int SCALE = TransferPricing.SCALE;
+
+    // SCHEMA() y no DATABASE(): en MySQL son sinónimos y H2 solo resuelve el esquema con SCHEMA()
+    static final String ARCHIVE_TABLES_SQL = "SELECT table_name FROM information_schema.tables"
+            + " WHERE table_schema = SCHEMA() AND LOWER(table_name) LIKE 'movements\\_archive\\_%'"
+            + " ORDER BY table_name";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate readTx;
+    private final TransactionTemplate writeTx;
+    private final int rangeSize;
+    private final int parallelism;
+    private final int reportLimit;
+    // shards a conciliar; un único null = DataSource sin sharding
+    private final List<String> shards;
+
+    @Autowired
+    public ReconciliationServiceImpl(DataSource dataSource,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${transfers.reconciliation.range-size:5000}") int rangeSize,
+                                     @Value("${transfers.reconciliation.parallelism:4}") int parallelism,
+                                     @Value("${transfers.reconciliation.fetch-size:1000}") int fetchSize,
+                                     @Value("${transfers.reconciliation.report-limit:1000}") int reportLimit) {
+        this(streamingJdbc(dataSource, fetchSize), transactionManager, rangeSize, parallelism, reportLimit,
+                dataSource instanceof ShardRoutingDataSource routing
+                        ? routing.getResolver().getShardNames()
+                        : Collections.singletonList(null));
+    }
+
+    ReconciliationServiceImpl(JdbcTemplate jdbc,
+                              PlatformTransactionManager transactionManager,
+                              int rangeSize,
+                              int parallelism,
+                              int reportLimit,
+                              List<String> shards) {
+        if (rangeSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("transfers.reconciliation.range-size y parallelism deben ser >= 1");
+        }
+        this.jdbc = jdbc;
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setReadOnly(true);
+        this.readTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.rangeSize = rangeSize;
+        this.parallelism = parallelism;
+        this.reportLimit = reportLimit;
+        this.shards = shards;
+    }
+
+    // JdbcTemplate propio: el fetch size no debe afectar al resto de la aplicación
+    private static JdbcTemplate streamingJdbc(DataSource dataSource, int fetchSize) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        return template;
+    }
+
+    // Rango [fromAccount, toAccount) del espacio de account_id; null = sin límite
+    record AccountRange(int rangeNo, String fromAccount, String toAccount) {
+    }
+
+    @Override
+    public ReconciliationReportDto reconcile() {
+        String runId = "REC-" + UlidCreator.getUlid();
+        List<ReconciliationReportDto> reports = new ArrayList<>(shards.size());
+        for (String shard : shards) {
+            reports.add(ShardContext.call(shard, () -> {
+                prepareRun(runId);
+                return execute(shard, runId);
+            }));
+        }
+        return combine(runId, reports);
+    }
+
+    // Se reanuda en los shards donde la corrida llegó a registrarse
+    @Override
+    public ReconciliationReportDto resume(String runId) {
+        List<ReconciliationReportDto> reports = new ArrayList<>(shards.size());
+        for (String shard : shards) {
+            ReconciliationReportDto report = ShardContext.call(shard, () -> {
+                Integer runs = jdbc.queryForObject("SELECT COUNT(*) FROM reconciliation_runs WHERE run_id = ?",
+                        Integer.class, runId);
+                return runs == null || runs == 0 ? null : execute(shard, runId);
+            });
+            if (report != null) {
+                reports.add(report);
+            }
+        }
+        if (reports.isEmpty()) {
+            throw new ReconciliationRunNotFoundException("Corrida de conciliación no existe: " + runId);
+        }
+        return combine(runId, reports);
+    }
+
+    // Deshabilitado por defecto ("-"); p. ej. transfers.reconciliation.cron=0 0 3 * * *
+    @Scheduled(cron = "${transfers.reconciliation.cron:-}")
+    public void scheduledReconcile() {
+        ReconciliationReportDto report = reconcile();
+        log.info("Conciliación {}: {} cuentas, {} movements, {} discrepancias, {} movements/s",
+                report.runId(), report.accounts(), report.movements(), report.discrepancyCount(),
+                Math.round(report.movementsPerSecond()));
+    }
+
+    // Corta el espacio de cuentas del shard activo cada rangeSize ids y registra la corrida con sus
+    // rangos pendientes
+    void prepareRun(String runId) {
+        List<String> boundaries = new ArrayList<>();
+        AtomicInteger seen = new AtomicInteger();
+        jdbc.query("SELECT account_id FROM accounts ORDER BY account_id", rs -> {
+            int index = seen.getAndIncrement();
+            if (index > 0 && index % rangeSize == 0) {
+                boundaries.add(rs.getString(1));
+            }
+        });
+
+        List<Object[]> ranges = new ArrayList<>();
+        String from = null;
+        for (int i = 0; i <= boundaries.size(); i++) {
+            String to = i < boundaries.size() ? boundaries.get(i) : null;
+            ranges.add(new Object[]{runId, i, from, to, STATUS_PENDING});
+            from = to;
+        }
+
+        writeTx.executeWithoutResult(status -> {
+            jdbc.update("INSERT INTO reconciliation_runs (run_id, status, ranges_total, started_at) VALUES (?, ?, ?, ?)",
+                    runId, STATUS_PENDING, ranges.size(), Timestamp.valueOf(LocalDateTime.now()));
+            jdbc.batchUpdate("INSERT INTO reconciliation_ranges (run_id, range_no, from_account, to_account, status)"
+                    + " VALUES (?, ?, ?, ?, ?)", ranges);
+        });
+    }
+
+    // Con auto-commit desactivado (prod) un UPDATE fuera de transacción se pierde al devolver la
+    // conexión: los cambios de estado de la corrida también van por writeTx
+    private ReconciliationReportDto execute(String shard, String runId) {
+        List<AccountRange> pending = jdbc.query(
+                "SELECT range_no, from_account, to_account FROM reconciliation_ranges"
+                        + " WHERE run_id = ? AND status <> ? ORDER BY range_no",
+                (rs, i) -> new AccountRange(rs.getInt(1), rs.getString(2), rs.getString(3)),
+                runId, STATUS_DONE);
+        writeTx.executeWithoutResult(status ->
+                jdbc.update("UPDATE reconciliation_runs SET status = ? WHERE run_id = ?", STATUS_RUNNING, runId));
+
+        // tablas leídas por cada rango: movements y los archivos que existan en el shard
+        List<String> movementTables = new ArrayList<>();
+        movementTables.add("movements");
+        movementTables.addAll(jdbc.queryForList(ARCHIVE_TABLES_SQL, String.class));
+
+        LongAdder scanned = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long begin = System.nanoTime();
+        if (!pending.isEmpty()) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new RangeTask(shard, runId, movementTables, pending, 0, pending.size(), scanned, failed));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+
+        String finalStatus = failed.sum() > 0 ? STATUS_FAILED : STATUS_DONE;
+        writeTx.executeWithoutResult(status ->
+                jdbc.update("UPDATE reconciliation_runs SET status = ?, finished_at = ? WHERE run_id = ?",
+                        finalStatus, Timestamp.valueOf(LocalDateTime.now()), runId));
+        return report(runId, finalStatus, elapsedNanos, scanned.sum());
+    }
+
+    // Divide la lista de rangos a la mitad hasta llegar a un rango por tarea. Los hilos del pool no
+    // heredan ShardContext: cada tarea lo fija antes de abrir sus transacciones
+    private final class RangeTask extends RecursiveAction {
+        private final String shard;
+        private final String runId;
+        private final List<String> movementTables;
+        private final List<AccountRange> ranges;
+        private final int from;
+        private final int to;
+        private final LongAdder scanned;
+        private final LongAdder failed;
+
+        RangeTask(String shard, String runId, List<String> movementTables, List<AccountRange> ranges, int from,
+                  int to, LongAdder scanned, LongAdder failed) {
+            this.shard = shard;
+            this.runId = runId;
+            this.movementTables = movementTables;
+            this.ranges = ranges;
+            this.from = from;
+            this.to = to;
+            this.scanned = scanned;
+            this.failed = failed;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                AccountRange range = ranges.get(from);
+                try {
+                    scanned.add(ShardContext.call(shard, () -> processRange(runId, range, movementTables)));
+                } catch (RuntimeException e) {
+                    // el rango queda pendiente y la corrida en FAILED: resume() lo vuelve a intentar
+                    failed.increment();
+                    log.error("Conciliación {}: falló el rango {} [{}, {})", runId, range.rangeNo(),
+                            range.fromAccount(), range.toAccount(), e);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(shard, runId, movementTables, ranges, from, mid, scanned, failed),
+                    new RangeTask(shard, runId, movementTables, ranges, mid, to, scanned, failed));
+        }
+    }
+
+    // Devuelve los movements leídos en el rango
+    long processRange(String runId, AccountRange range, List<String> movementTables) {
+        RangeResult result = readTx.execute(status -> scanRange(range, movementTables));
+        writeTx.executeWithoutResult(status -> {
+            jdbc.update("DELETE FROM reconciliation_discrepancies WHERE run_id = ? AND range_no = ?",
+                    runId, range.rangeNo());
+            List<Object[]> rows = new ArrayList<>(result.discrepancies().size());
+            for (ReconciliationDiscrepancyDto d : result.discrepancies()) {
+                rows.add(new Object[]{runId, d.accountId(), range.rangeNo(), d.balance(), d.expected(),
+                        d.difference(), d.movementCount()});
+            }
+            if (!rows.isEmpty()) {
+                jdbc.batchUpdate("INSERT INTO reconciliation_discrepancies"
+                        + " (run_id, account_id, range_no, balance, expected, difference, movement_count)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+            }
+            jdbc.update("UPDATE reconciliation_ranges SET status = ?, accounts = ?, movements = ?, discrepancies = ?,"
+                            + " completed_at = ? WHERE run_id = ? AND range_no = ?",
+                    STATUS_DONE, result.accounts(), result.movements(), rows.size(),
+                    Timestamp.valueOf(LocalDateTime.now()), runId, range.rangeNo());
+        });
+        return result.movements();
+    }
+
+    private record RangeResult(long accounts, long movements, List<ReconciliationDiscrepancyDto> discrepancies) {
+    }
+
+    private RangeResult scanRange(AccountRange range, List<String> movementTables) {
+        List<Object> params = new ArrayList<>(2);
+        String accountsWhere = rangePredicate("a.account_id", range, params);
+        Object[] args = params.toArray();
+
+        // saldo actual y de apertura de las cuentas del rango (acotado por rangeSize)
+        Map<String, BigDecimal[]> balances = new HashMap<>();
+        jdbc.query("SELECT a.account_id, a.balance, o.balance FROM accounts a"
+                        + " LEFT JOIN account_opening_balances o ON o.account_id = a.account_id" + accountsWhere,
+                rs -> {
+                    BigDecimal opening = rs.getBigDecimal(3);
+                    balances.put(rs.getString(1), new BigDecimal[]{
+                            cents(rs.getDouble(2)), opening == null ? BigDecimal.ZERO.setScale(SCALE) : cents(opening)});
+                }, args);
+        long accounts = balances.size();
+
+        List<ReconciliationDiscrepancyDto> discrepancies = new ArrayList<>();
+        long[] movements = {0};
+        // agregados por cuenta en streaming; cubierto por idx_movements_account_amount (CREATE TABLE
+        // ... LIKE copia el índice a los archivos)
+        List<Object> movementParams = new ArrayList<>();
+        jdbc.query(movementSums(range, movementTables, movementParams),
+                rs -> {
+                    String accountId = rs.getString(1);
+                    BigDecimal sum = cents(rs.getDouble(2));
+                    long count = rs.getLong(3);
+                    movements[0] += count;
+                    BigDecimal[] balance = balances.remove(accountId);
+                    if (balance == null) {
+                        discrepancies.add(new ReconciliationDiscrepancyDto(accountId, null, sum, sum.negate(), count));
+                    } else {
+                        compare(accountId, balance[0], balance[1].add(sum), count, discrepancies);
+                    }
+                }, movementParams.toArray());
+
+        // cuentas sin movements: el saldo debe ser el de apertura
+        balances.forEach((accountId, balance) -> compare(accountId, balance[0], balance[1], 0, discrepancies));
+        return new RangeResult(accounts, movements[0], discrepancies);
+    }
+
+    // Una tabla: agregado directo. Con archivos: agregado por tabla y suma de los parciales por cuenta
+    private static String movementSums(AccountRange range, List<String> tables, List<Object> params) {
+        if (tables.size() == 1) {
+            return "SELECT account_id, SUM(amount), COUNT(*) FROM " + tables.get(0)
+                    + rangePredicate("account_id", range, params) + " GROUP BY account_id";
+        }
+        List<String> parts = new ArrayList<>(tables.size());
+        for (String table : tables) {
+            parts.add("SELECT account_id, SUM(amount) AS total, COUNT(*) AS n FROM " + table
+                    + rangePredicate("account_id", range, params) + " GROUP BY account_id");
+        }
+        return "SELECT account_id, SUM(total), SUM(n) FROM (" + String.join(" UNION ALL ", parts) + ") m"
+                + " GROUP BY account_id";
+    }
+
+    private static void compare(String accountId, BigDecimal balance, BigDecimal expected, long count,
+                                List<ReconciliationDiscrepancyDto> discrepancies) {
+        if (balance.compareTo(expected) != 0) {
+            discrepancies.add(new ReconciliationDiscrepancyDto(accountId, balance, expected,
+                    balance.subtract(expected), count));
+        }
+    }
+
+    private static String rangePredicate(String column, AccountRange range, List<Object> params) {
+        List<String> conditions = new ArrayList<>(2);
+        if (range.fromAccount() != null) {
+            conditions.add(column + " >= ?");
+            params.add(range.fromAccount());
+        }
+        if (range.toAccount() != null) {
+            conditions.add(column + " < ?");
+            params.add(range.toAccount());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private ReconciliationReportDto report(String runId, String status, long elapsedNanos, long scanned) {
+        Map<String, Object> totals = jdbc.queryForMap(
+                "SELECT COUNT(*) AS total, SUM(CASE WHEN status = ? THEN 1 ELSE 0 END) AS done,"
+                        + " COALESCE(SUM(accounts), 0) AS accounts, COALESCE(SUM(movements), 0) AS movements,"
+                        + " COALESCE(SUM(discrepancies), 0) AS discrepancies"
+                        + " FROM reconciliation_ranges WHERE run_id = ?", STATUS_DONE, runId);
+        List<ReconciliationDiscrepancyDto> top = jdbc.query(
+                "SELECT account_id, balance, expected, difference, movement_count FROM reconciliation_discrepancies"
+                        + " WHERE run_id = ? ORDER BY ABS(difference) DESC, account_id LIMIT ?",
+                (rs, i) -> new ReconciliationDiscrepancyDto(rs.getString(1), rs.getBigDecimal(2),
+                        rs.getBigDecimal(3), rs.getBigDecimal(4), rs.getLong(5)),
+                runId, reportLimit);
+        long elapsedMs = elapsedNanos / 1_000_000;
+        return new ReconciliationReportDto(
+                runId,
+                status,
+                ((Number) totals.get("total")).intValue(),
+                ((Number) totals.get("done")).intValue(),
+                ((Number) totals.get("accounts")).longValue(),
+                ((Number) totals.get("movements")).longValue(),
+                ((Number) totals.get("discrepancies")).longValue(),
+                top,
+                elapsedMs,
+                elapsedNanos == 0 ? 0 : scanned / (elapsedNanos / 1e9));
+    }
+
+    // Un reporte por shard: se suman totales y se vuelven a ordenar las mayores diferencias
+    private ReconciliationReportDto combine(String runId, List<ReconciliationReportDto> reports) {
+        if (reports.size() == 1) {
+            return reports.get(0);
+        }
+        String status = STATUS_DONE;
+        int rangesTotal = 0;
+        int rangesDone = 0;
+        long accounts = 0;
+        long movements = 0;
+        long discrepancyCount = 0;
+        long elapsedMs = 0;
+        double scanned = 0;
+        List<ReconciliationDiscrepancyDto> discrepancies = new ArrayList<>();
+        for (ReconciliationReportDto report : reports) {
+            if (STATUS_FAILED.equals(report.status())) {
+                status = STATUS_FAILED;
+            }
+            rangesTotal += report.rangesTotal();
+            rangesDone += report.rangesDone();
+            accounts += report.accounts();
+            movements += report.movements();
+            discrepancyCount += report.discrepancyCount();
+            elapsedMs += report.elapsedMs();
+            scanned += report.movementsPerSecond() * report.elapsedMs() / 1000.0;
+            discrepancies.addAll(report.discrepancies());
+        }
+        discrepancies.sort(Comparator
+                .comparing((ReconciliationDiscrepancyDto d) -> d.difference().abs()).reversed()
+                .thenComparing(ReconciliationDiscrepancyDto::accountId));
+        return new ReconciliationReportDto(runId, status, rangesTotal, rangesDone, accounts, movements,
+                discrepancyCount, List.copyOf(discrepancies.subList(0, Math.min(reportLimit, discrepancies.size()))),
+                elapsedMs, elapsedMs == 0 ? 0 : scanned / (elapsedMs / 1000.0));
+    }
+
+    private static BigDecimal cents(double value) {
+        return BigDecimal.valueOf(value).setScale(SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal cents(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP);
+    }
+}
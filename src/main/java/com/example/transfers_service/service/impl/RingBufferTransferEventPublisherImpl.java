@@ -0,0 +1,235 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.TransferEventDto;
+import com.example.transfers_service.dto.TransferEventStatsDto;
+import com.example.transfers_service.service.TransferEventPublisher;
+import com.example.transfers_service.service.TransferEventSink;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Flujo de eventos de transferencias en proceso: el hilo de la solicitud solo hace un offer()
+ * sin locks sobre un MpscRingBuffer (después del commit), y un único hilo consumidor drena en
+ * lotes hacia los sinks registrados (cualquier bean TransferEventSink).
+ * Si el ring buffer está lleno el evento se descarta y se cuenta: la solicitud nunca espera a
+ * un sink lento. Entrega "como mucho una vez"; lo que deba ser exacto se reconstruye desde transfers.
+ * Los sinks remotos (isolated()) reciben los lotes en su propia cola acotada y su propio hilo: un
+ * endpoint lento no frena al resto; si su cola está llena el lote se cuenta como fallido para ese sink.
+ */
+@Service
+public class RingBufferTransferEventPublisherImpl implements TransferEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(RingBufferTransferEventPublisherImpl.class);
+
+    private static final int SPINS_BEFORE_PARK = 100;
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final int isolatedQueueBatches;
+    private final MpscRingBuffer<TransferEventDto> ring;
+    private final List<SinkChannel> sinks;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile long consumed; // solo lo escribe el consumidor
+
+    private volatile boolean running;
+    private volatile boolean sinksRunning;
+    private volatile Thread consumer;
+
+    public RingBufferTransferEventPublisherImpl(List<TransferEventSink> sinks,
+                                                @Value("${transfers.events.enabled:true}") boolean enabled,
+                                                @Value("${transfers.events.capacity:65536}") int capacity,
+                                                @Value("${transfers.events.batch-size:256}") int batchSize,
+                                                @Value("${transfers.events.isolated-queue-batches:64}") int isolatedQueueBatches) {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.isolatedQueueBatches = isolatedQueueBatches;
+        this.ring = new MpscRingBuffer<>(capacity);
+        this.sinks = sinks.stream().map(sink -> new SinkChannel(sink, isolatedQueueBatches)).toList();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        sinksRunning = true;
+        for (SinkChannel channel : sinks) {
+            if (channel.queue != null) {
+                Thread worker = new Thread(() -> drainIsolated(channel), "transfer-events-" + channel.sink.name());
+                worker.setDaemon(true);
+                channel.worker = worker;
+                worker.start();
+            }
+        }
+        Thread t = new Thread(this::consume, "transfer-events");
+        t.setDaemon(true);
+        consumer = t;
+        t.start();
+        log.info("Flujo de eventos de transferencias activo: capacidad {}, sinks {} (aislados con cola de {} lotes: {})",
+                ring.capacity(), sinks.stream().map(s -> s.sink.name()).toList(), isolatedQueueBatches,
+                sinks.stream().filter(s -> s.queue != null).map(s -> s.sink.name()).toList());
+    }
+
+    // Deja de aceptar, entrega lo que quedó en el ring buffer y en las colas aisladas, y cierra los sinks
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Thread t = consumer;
+        if (t != null) {
+            LockSupport.unpark(t);
+            join(t);
+        }
+        sinksRunning = false;
+        for (SinkChannel channel : sinks) {
+            if (channel.worker != null) {
+                join(channel.worker);
+            }
+        }
+        sinks.forEach(s -> s.sink.close());
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void publishAfterCommit(TransferEventDto event) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(event);
+            return;
+        }
+        // un rollback no publica nada: el evento solo existe si la transferencia existe
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(event);
+            }
+        });
+    }
+
+    private void enqueue(TransferEventDto event) {
+        if (!running || !ring.offer(event)) {
+            dropped.increment();
+            return;
+        }
+        published.increment();
+    }
+
+    @Override
+    public TransferEventStatsDto stats() {
+        Map<String, Long> delivered = new LinkedHashMap<>();
+        Map<String, Long> failed = new LinkedHashMap<>();
+        for (SinkChannel channel : sinks) {
+            delivered.put(channel.sink.name(), channel.delivered.sum());
+            failed.put(channel.sink.name(), channel.failed.sum());
+        }
+        long accepted = published.sum();
+        return new TransferEventStatsDto(accepted, dropped.sum(), Math.max(0, accepted - consumed),
+                ring.capacity(), batches.sum(), delivered, failed);
+    }
+
+    private void consume() {
+        List<TransferEventDto> batch = new ArrayList<>(batchSize);
+        int idle = 0;
+        while (true) {
+            batch.clear();
+            int drained = ring.drainTo(batch, batchSize);
+            if (drained == 0) {
+                if (!running) {
+                    return;
+                }
+                if (++idle < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                continue;
+            }
+            idle = 0;
+            deliver(List.copyOf(batch));
+            consumed += drained;
+            batches.increment();
+        }
+    }
+
+    // Un sink que falla no detiene a los demás ni al consumidor; los aislados solo reciben el lote en su cola
+    private void deliver(List<TransferEventDto> batch) {
+        for (SinkChannel channel : sinks) {
+            if (channel.queue == null) {
+                write(channel, batch);
+            } else if (!channel.queue.offer(batch)) {
+                channel.failed.add(batch.size());
+            }
+        }
+    }
+
+    private void drainIsolated(SinkChannel channel) {
+        while (true) {
+            List<TransferEventDto> batch;
+            try {
+                batch = channel.queue.poll(PARK_NANOS, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch != null) {
+                write(channel, batch);
+            } else if (!sinksRunning) {
+                return;
+            }
+        }
+    }
+
+    private static void write(SinkChannel channel, List<TransferEventDto> batch) {
+        try {
+            channel.sink.write(batch);
+            channel.delivered.add(batch.size());
+        } catch (Exception e) {
+            channel.failed.add(batch.size());
+            log.warn("Sink de eventos {} falló con un lote de {}: {}", channel.sink.name(), batch.size(),
+                    e.toString());
+        }
+    }
+
+    private static final class SinkChannel {
+        private final TransferEventSink sink;
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        // solo sinks aislados: lotes pendientes y el hilo que los entrega
+        private final BlockingQueue<List<TransferEventDto>> queue;
+        private volatile Thread worker;
+
+        private SinkChannel(TransferEventSink sink, int isolatedQueueBatches) {
+            this.sink = sink;
+            this.queue = sink.isolated() ? new ArrayBlockingQueue<>(isolatedQueueBatches) : null;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.ShardContext;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.dto.response.TransferResponse;
+import com.example.transfers_service.service.ShardingService;
+import com.example.transfers_service.service.TransferService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+/**
+ * Ejecuta cada transferencia en el shard de la cuenta origen (una sola transacción) y,
+ * si el destino vive en otro shard, aplica el abono después del commit.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "transfers.sharding.enabled", havingValue = "true")
+public class ShardedTransferServiceImpl implements TransferService {
+
+    private final TransferService transferService;
+    private final ShardingService shardingService;
+
+    public ShardedTransferServiceImpl(@Qualifier("transferServiceImpl") TransferService transferService,
+                                      ShardingService shardingService) {
+        this.transferService = transferService;
+        this.shardingService = shardingService;
+    }
+
+    @Override
+    public TransferResponse createTransfer(TransferRequest request) {
+        String sourceShard = shardingService.shardFor(request.getSourceAccount().getAccountId());
+
+        shardingService.drainRegisteredCredits();
+        TransferResponse response = ShardContext.call(sourceShard, () -> transferService.createTransfer(request));
+
+        // el débito ya hizo commit: aplicar los abonos en los shards destino
+        for (String transferId : shardingService.drainRegisteredCredits()) {
+            shardingService.completePendingCredit(sourceShard, transferId);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.config.ShardContext;
+import com.example.transfers_service.config.ShardRoutingDataSource;
+import com.example.transfers_service.dto.PendingCreditDto;
+import com.example.transfers_service.dto.RemoteAccountDto;
+import com.example.transfers_service.entity.Account;
+import com.example.transfers_service.entity.AppliedCredit;
+import com.example.transfers_service.entity.TransferIntent;
+import com.example.transfers_service.exception.AccountNotFoundException;
+import com.example.transfers_service.exception.BusinessException;
+import com.example.transfers_service.exception.InvalidTransferException;
+import com.example.transfers_service.mapper.MovementMapper;
+import com.example.transfers_service.mapper.MovementParams;
+import com.example.transfers_service.repository.AccountRepository;
+import com.example.transfers_service.repository.AppliedCreditRepository;
+import com.example.transfers_service.repository.MovementRepository;
+import com.example.transfers_service.repository.TransferIntentRepository;
+import com.example.transfers_service.repository.TransferRepository;
+import com.example.transfers_service.service.IdGeneratorService;
+import com.example.transfers_service.service.ShardingService;
+import com.example.transfers_service.service.TransferEventPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Protocolo entre shards (transfers.sharding.enabled=true):
+ * 1) shard origen, una transacción: débito + transfer + movimientos OUT + intención PENDIENTE.
+ * 2) shard destino, otra transacción: abono + movimiento IN + marca applied_credits (idempotente).
+ * 3) shard origen: intención COMPLETADA.
+ * Si el abono no puede aplicarse (cuenta inexistente, moneda distinta) se compensa el débito
+ * en el origen. Si falla por un error técnico la intención queda PENDIENTE y la reintenta
+ * recoverPendingCredits(). Agotados los reintentos, antes de compensar se cierra el abono en el
+ * destino (marca CANCELADO en applied_credits): si ya estaba aplicado se completa, no se devuelve.
+ * COMPLETADA y COMPENSADA se fijan con un CAS sobre PENDIENTE: solo uno de los dos cierres gana.
+ */
+@Service
+public class ShardingServiceImpl implements ShardingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardingServiceImpl.class);
+
+    static final String STATUS_REVERSED = "REVERTIDA";
+    private static final int SCALE = 2;
+
+    private final ShardRoutingDataSource routingDataSource;
+    private final TransferIntentRepository intentRepository;
+    private final AppliedCreditRepository appliedCreditRepository;
+    private final AccountRepository accountRepository;
+    private final MovementRepository movementRepository;
+    private final TransferRepository transferRepository;
+    private final IdGeneratorService idGeneratorService;
+    private final MovementMapper movementMapper;
+    private final TransferEventPublisher transferEventPublisher;
+    private final CurrencyRegistry currencyRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retryDelay;
+    private final int maxAttempts;
+
+    private final ThreadLocal<List<String>> registeredCredits = ThreadLocal.withInitial(ArrayList::new);
+
+    public ShardingServiceImpl(ObjectProvider<ShardRoutingDataSource> routingDataSource,
+                               TransferIntentRepository intentRepository,
+                               AppliedCreditRepository appliedCreditRepository,
+                               AccountRepository accountRepository,
+                               MovementRepository movementRepository,
+                               TransferRepository transferRepository,
+                               IdGeneratorService idGeneratorService,
+                               MovementMapper movementMapper,
+                               TransferEventPublisher transferEventPublisher,
+                               CurrencyRegistry currencyRegistry,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${transfers.sharding.retry-delay-ms:30000}") long retryDelayMs,
+                               @Value("${transfers.sharding.max-attempts:10}") int maxAttempts,
+                               @Value("${transfers.ledger.enabled:false}") boolean ledgerEnabled) {
+        this.routingDataSource = routingDataSource.getIfAvailable();
+        if (this.routingDataSource != null && ledgerEnabled) {
+            throw new IllegalStateException("El modo libro mayor no está soportado junto con sharding");
+        }
+        this.intentRepository = intentRepository;
+        this.appliedCreditRepository = appliedCreditRepository;
+        this.accountRepository = accountRepository;
+        this.movementRepository = movementRepository;
+        this.transferRepository = transferRepository;
+        this.idGeneratorService = idGeneratorService;
+        this.movementMapper = movementMapper;
+        this.transferEventPublisher = transferEventPublisher;
+        this.currencyRegistry = currencyRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retryDelay = Duration.ofMillis(retryDelayMs);
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return routingDataSource != null;
+    }
+
+    @Override
+    public String shardFor(String accountId) {
+        return routingDataSource.getResolver().shardFor(accountId);
+    }
+
+    @Override
+    public Optional<RemoteAccountDto> findRemoteDestination(String accountId) {
+        String targetShard = shardFor(accountId);
+        if (targetShard.equals(ShardContext.current())) {
+            return Optional.empty();
+        }
+        JdbcTemplate jdbc = new JdbcTemplate(routingDataSource.dataSourceFor(targetShard));
+        return jdbc.query("select account_id, currency from accounts where account_id = ?",
+                        (rs, rowNum) -> new RemoteAccountDto(rs.getString(1), rs.getString(2), targetShard),
+                        accountId)
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public void registerPendingCredit(PendingCreditDto pendingCredit) {
+        LocalDateTime now = LocalDateTime.now();
+        TransferIntent intent = new TransferIntent();
+        intent.setTransferId(pendingCredit.transferId());
+        intent.setSourceShard(ShardContext.current());
+        intent.setDestShard(shardFor(pendingCredit.destAccountId()));
+        intent.setSourceAccountId(pendingCredit.sourceAccountId());
+        intent.setSourceCurrency(pendingCredit.sourceCurrency());
+        intent.setTotalDebit(scaled(pendingCredit.totalDebit()));
+        intent.setDestAccountId(pendingCredit.destAccountId());
+        intent.setDestCurrency(pendingCredit.destCurrency());
+        intent.setAmountToCredit(scaled(pendingCredit.amountToCredit()));
+        intent.setDescription(pendingCredit.description());
+        intent.setStatus(TransferIntent.STATUS_PENDING);
+        intent.setAttempts(0);
+        intent.setCreatedAt(now);
+        intent.setUpdatedAt(now);
+        intentRepository.save(intent);
+        registeredCredits.get().add(pendingCredit.transferId());
+    }
+
+    @Override
+    public List<String> drainRegisteredCredits() {
+        List<String> drained = new ArrayList<>(registeredCredits.get());
+        registeredCredits.remove();
+        return drained;
+    }
+
+    @Override
+    public void completePendingCredit(String sourceShard, String transferId) {
+        TransferIntent intent = ShardContext.call(sourceShard, () -> transactionTemplate.execute(
+                status -> intentRepository.findById(transferId).orElse(null)));
+        if (intent == null || !TransferIntent.STATUS_PENDING.equals(intent.getStatus())) {
+            return;
+        }
+
+        try {
+            ShardContext.run(intent.getDestShard(),
+                    () -> transactionTemplate.executeWithoutResult(status -> applyCredit(intent)));
+        } catch (BusinessException | IllegalArgumentException e) {
+            // el abono no es posible: devolver el débito en el origen
+            log.warn("No se pudo abonar la transferencia {} en {}: {}", transferId, intent.getDestShard(), e.getMessage());
+            compensate(sourceShard, transferId);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Error técnico abonando la transferencia {}, se reintentará: {}", transferId, e.getMessage());
+            ShardContext.run(sourceShard, () -> transactionTemplate.executeWithoutResult(status ->
+                    intentRepository.incrementAttempts(transferId, TransferIntent.STATUS_PENDING, LocalDateTime.now())));
+            return;
+        }
+
+        markCompleted(sourceShard, intent);
+    }
+
+    // El abono ya está en el destino: TransferSettled sale junto con el commit de COMPLETADA,
+    // y solo si este cierre ganó el CAS (otro hilo o nodo pudo completarla antes)
+    private void markCompleted(String sourceShard, TransferIntent intent) {
+        ShardContext.run(sourceShard, () -> transactionTemplate.executeWithoutResult(status -> {
+            if (intentRepository.updateStatus(intent.getTransferId(), TransferIntent.STATUS_PENDING,
+                    TransferIntent.STATUS_COMPLETED, LocalDateTime.now()) == 0) {
+                return;
+            }
+            transferRepository.findById(intent.getTransferId()).ifPresent(transfer -> transferEventPublisher
+                    .publishAfterCommit(TransferEvents.settled(transfer, intent.getSourceCurrency(),
+                            intent.getTotalDebit())));
+        }));
+    }
+
+    // Shard destino: abono idempotente
+    private void applyCredit(TransferIntent intent) {
+        Optional<AppliedCredit> existing = appliedCreditRepository.findById(intent.getTransferId());
+        if (existing.isPresent()) {
+            if (AppliedCredit.OUTCOME_CANCELLED.equals(existing.get().getOutcome())) {
+                throw new InvalidTransferException("El abono de la transferencia " + intent.getTransferId()
+                        + " fue cancelado al agotar sus reintentos");
+            }
+            return;
+        }
+        Account destination = accountRepository.findAndLockByAccountId(intent.getDestAccountId())
+                .orElseThrow(() -> new AccountNotFoundException(
+                        "Cuenta destino no existe en su shard: " + intent.getDestAccountId()));
+        if (!currencyRegistry.require(destination.getCurrency()).is(currencyRegistry.require(intent.getDestCurrency()))) {
+            throw new InvalidTransferException("La moneda de la cuenta destino en BD ("
+                    + destination.getCurrency() + ") no coincide con la solicitada (" + intent.getDestCurrency() + ")");
+        }
+
+        destination.setBalance(scaled(BigDecimal.valueOf(destination.getBalance()))
+                .add(intent.getAmountToCredit())
+                .doubleValue());
+        saveMovement(destination.getAccountId(), intent.getTransferId(),
+                intent.getAmountToCredit().doubleValue(), intent.getDestCurrency(), intent.getDescription());
+
+        AppliedCredit applied = new AppliedCredit();
+        applied.setTransferId(intent.getTransferId());
+        applied.setAppliedAt(LocalDateTime.now());
+        applied.setOutcome(AppliedCredit.OUTCOME_APPLIED);
+        appliedCreditRepository.save(applied);
+    }
+
+    // Shard destino: true si el abono ya se aplicó; si no, deja la marca CANCELADO en la misma
+    // fila que escribiría applyCredit, así un reintento en curso falla por clave duplicada o ve la
+    // marca y ya no abona. Solo con false es seguro devolver el débito.
+    private boolean fenceCredit(String transferId) {
+        Optional<AppliedCredit> existing = appliedCreditRepository.findById(transferId);
+        if (existing.isPresent()) {
+            return AppliedCredit.OUTCOME_APPLIED.equals(existing.get().getOutcome());
+        }
+        AppliedCredit cancelled = new AppliedCredit();
+        cancelled.setTransferId(transferId);
+        cancelled.setAppliedAt(LocalDateTime.now());
+        cancelled.setOutcome(AppliedCredit.OUTCOME_CANCELLED);
+        appliedCreditRepository.saveAndFlush(cancelled);
+        return false;
+    }
+
+    private void expire(String sourceShard, TransferIntent intent) {
+        Boolean credited = ShardContext.call(intent.getDestShard(),
+                () -> transactionTemplate.execute(status -> fenceCredit(intent.getTransferId())));
+        if (Boolean.TRUE.equals(credited)) {
+            log.warn("La transferencia {} agotó sus reintentos con el abono ya aplicado en {}; se completa",
+                    intent.getTransferId(), intent.getDestShard());
+            markCompleted(sourceShard, intent);
+        } else {
+            compensate(sourceShard, intent.getTransferId());
+        }
+    }
+
+    // Shard origen: devolver el total debitado y marcar la transferencia como revertida
+    void compensate(String sourceShard, String transferId) {
+        ShardContext.run(sourceShard, () -> transactionTemplate.executeWithoutResult(status -> {
+            TransferIntent intent = intentRepository.findById(transferId).orElse(null);
+            if (intent == null || intentRepository.updateStatus(transferId, TransferIntent.STATUS_PENDING,
+                    TransferIntent.STATUS_COMPENSATED, LocalDateTime.now()) == 0) {
+                return;
+            }
+            Account source = accountRepository.findAndLockByAccountId(intent.getSourceAccountId())
+                    .orElseThrow(() -> new AccountNotFoundException("Cuenta no existe: " + intent.getSourceAccountId()));
+            source.setBalance(scaled(BigDecimal.valueOf(source.getBalance()))
+                    .add(intent.getTotalDebit())
+                    .doubleValue());
+            saveMovement(source.getAccountId(), transferId, intent.getTotalDebit().doubleValue(),
+                    intent.getSourceCurrency(), "reverso transferencia");
+            transferRepository.findById(transferId).ifPresent(transfer -> transfer.setStatus(STATUS_REVERSED));
+        }));
+    }
+
+    // Reintenta intenciones que quedaron pendientes (caída entre el paso 1 y el 3)
+    @Scheduled(fixedDelayString = "${transfers.sharding.recovery-interval-ms:30000}")
+    public void recoverPendingCredits() {
+        if (!isEnabled()) {
+            return;
+        }
+        LocalDateTime olderThan = LocalDateTime.now().minus(retryDelay);
+        for (String shard : routingDataSource.getResolver().getShardNames()) {
+            List<TransferIntent> pending = ShardContext.call(shard, () -> transactionTemplate.execute(status ->
+                    intentRepository.findByStatusAndUpdatedAtBefore(TransferIntent.STATUS_PENDING, olderThan)));
+            for (TransferIntent intent : pending) {
+                // una intención que falla no frena al resto; vuelve a intentarse en la próxima corrida
+                try {
+                    if (intent.getAttempts() >= maxAttempts) {
+                        expire(shard, intent);
+                    } else {
+                        completePendingCredit(shard, intent.getTransferId());
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo recuperar la transferencia {} del shard {}: {}",
+                            intent.getTransferId(), shard, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void saveMovement(String accountId, String transferId, double amount, String currency, String description) {
+        var params = new MovementParams();
+        params.setMovementId("MOV-" + idGeneratorService.nextMovementId());
+        params.setAccountId(accountId);
+        params.setTransferId(transferId);
+        params.setAmount(amount);
+        params.setCurrency(currency);
+        params.setType("IN");
+        params.setDescription(description);
+        params.setMovementDt(LocalDateTime.now());
+        movementRepository.save(movementMapper.toMovement(params));
+    }
+
+    private static BigDecimal scaled(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP);
+    }
+}
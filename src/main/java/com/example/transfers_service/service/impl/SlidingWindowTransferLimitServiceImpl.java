@@ -0,0 +1,319 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.config.ShardContext;
+import com.example.transfers_service.config.ShardRoutingDataSource;
+import com.example.transfers_service.dto.CurrencyCode;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.TransferLimitExceededException;
+import com.example.transfers_service.service.TransferLimitService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Límites acumulados por hora y por día, por cliente y por cuenta origen, sin SUM(amount) sobre
+ * transfers en cada solicitud. Cada clave tiene dos anillos de buckets con los montos en céntimos
+ * de la moneda base (12 x 5 min y 24 x 1 h): comprobar y sumar es O(1) y la memoria por clave es fija.
+ * Un bucket sale de la ventana entero, así que una transferencia puede contar hasta un bucket más
+ * de la cuenta, nunca menos. Al arrancar se reconstruye con las transferencias de las últimas 24 h
+ * (con sharding, las de todos los shards: cada transferencia vive en el de su cuenta origen).
+ * Como el token bucket, los contadores son de esta instancia.
+ */
+@Service
+public class SlidingWindowTransferLimitServiceImpl implements TransferLimitService, SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SlidingWindowTransferLimitServiceImpl.class);
+
+    private static final String PREFIX_CUSTOMER = "C:";
+    private static final String PREFIX_ACCOUNT = "A:";
+
+    static final long HOUR_BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    static final int HOUR_BUCKETS = 12;
+    static final long DAY_BUCKET_MILLIS = TimeUnit.HOURS.toMillis(1);
+    static final int DAY_BUCKETS = 24;
+
+    static final int OK = 0;
+    static final int HOURLY_EXCEEDED = 1;
+    static final int DAILY_EXCEEDED = 2;
+    static final int EVICTED = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransferPricing pricing;
+    private final boolean enabled;
+    private final Limits customerLimits;
+    private final Limits accountLimits;
+    private final LongSupplier clock;
+    private final ZoneId zone = ZoneId.systemDefault();
+    // shards a leer al reconstruir; un único null = DataSource sin sharding
+    private final List<String> shards;
+
+    private final ConcurrentHashMap<String, Counters> counters = new ConcurrentHashMap<>();
+    private volatile boolean rebuilt;
+
+    @Autowired
+    public SlidingWindowTransferLimitServiceImpl(
+            JdbcTemplate jdbcTemplate,
+            CurrencyRegistry currencyRegistry,
+            @Value("${transfers.limits.enabled:true}") boolean enabled,
+            @Value("${transfers.limits.customer.hourly:0}") BigDecimal customerHourly,
+            @Value("${transfers.limits.customer.daily:0}") BigDecimal customerDaily,
+            @Value("${transfers.limits.account.hourly:0}") BigDecimal accountHourly,
+            @Value("${transfers.limits.account.daily:0}") BigDecimal accountDaily) {
+        this(jdbcTemplate, currencyRegistry, enabled,
+                new Limits(TransferPricing.toCents(customerHourly), TransferPricing.toCents(customerDaily)),
+                new Limits(TransferPricing.toCents(accountHourly), TransferPricing.toCents(accountDaily)),
+                System::currentTimeMillis,
+                jdbcTemplate != null && jdbcTemplate.getDataSource() instanceof ShardRoutingDataSource routing
+                        ? routing.getResolver().getShardNames()
+                        : Collections.singletonList(null));
+    }
+
+    SlidingWindowTransferLimitServiceImpl(JdbcTemplate jdbcTemplate,
+                                          CurrencyRegistry currencyRegistry,
+                                          boolean enabled,
+                                          Limits customerLimits,
+                                          Limits accountLimits,
+                                          LongSupplier clock) {
+        this(jdbcTemplate, currencyRegistry, enabled, customerLimits, accountLimits, clock,
+                Collections.singletonList(null));
+    }
+
+    SlidingWindowTransferLimitServiceImpl(JdbcTemplate jdbcTemplate,
+                                          CurrencyRegistry currencyRegistry,
+                                          boolean enabled,
+                                          Limits customerLimits,
+                                          Limits accountLimits,
+                                          LongSupplier clock,
+                                          List<String> shards) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pricing = new TransferPricing(currencyRegistry);
+        this.enabled = enabled;
+        this.customerLimits = customerLimits;
+        this.accountLimits = accountLimits;
+        this.clock = clock;
+        this.shards = shards;
+    }
+
+    // Montos en moneda base; 0 (o negativo) = sin límite en esa ventana
+    record Limits(long hourlyCents, long dailyCents) {
+    }
+
+    // Después de crear todos los singletons (esquema JPA incluido) y antes de aceptar tráfico.
+    // Sin BD al arrancar no se bloquea el arranque: se reintenta en la primera transferencia
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Límites de transferencia: no se pudo reconstruir al arrancar, se reintentará ({})",
+                    e.getMessage());
+        }
+    }
+
+    private void ensureRebuilt() {
+        if (!rebuilt) {
+            synchronized (this) {
+                if (!rebuilt) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    synchronized int rebuild() {
+        counters.clear();
+        long now = clock.getAsLong();
+        LocalDateTime from = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(now - DAY_BUCKET_MILLIS * DAY_BUCKETS), zone);
+        int[] loaded = {0};
+        if (jdbcTemplate == null) {
+            // sin BD (pruebas): se parte de contadores vacíos
+            rebuilt = true;
+            return 0;
+        }
+        // un shard que falla hace fallar la reconstrucción entera (y se reintenta): contadores con un
+        // shard de menos dejarían pasar montos por encima del límite
+        for (String shard : shards) {
+            ShardContext.run(shard, () -> loadTransfers(from, now, loaded));
+        }
+        rebuilt = true;
+        log.info("Límites de transferencia: {} transferencias de las últimas 24 h, {} claves activas",
+                loaded[0], counters.size());
+        return loaded[0];
+    }
+
+    private void loadTransfers(LocalDateTime from, long now, int[] loaded) {
+        // reserve() cuenta lo que envió el usuario en su moneda, no lo acreditado en la del destino;
+        // las filas anteriores a amount_sent solo tienen el monto acreditado
+        jdbcTemplate.query("select customer_id, source_account_id, coalesce(amount_sent, amount),"
+                        + " coalesce(currency_sent, dest_currency), transfer_datetime"
+                        + " from transfers where transfer_datetime >= ?",
+                rs -> {
+                    CurrencyCode currency = pricing.registry().lookup(rs.getString(4));
+                    Timestamp at = rs.getTimestamp(5);
+                    if (currency == null || at == null) {
+                        return;
+                    }
+                    long cents = pricing.baseCents(rs.getBigDecimal(3), currency);
+                    long atMillis = Math.min(now, at.toLocalDateTime().atZone(zone).toInstant().toEpochMilli());
+                    counters(PREFIX_CUSTOMER + rs.getString(1), now).add(atMillis, cents);
+                    counters(PREFIX_ACCOUNT + rs.getString(2), now).add(atMillis, cents);
+                    loaded[0]++;
+                },
+                Timestamp.valueOf(from));
+    }
+
+    @Override
+    public void reserve(TransferRequest request) {
+        if (!enabled || request == null || request.getTransferData() == null
+                || request.getCustomer() == null || request.getSourceAccount() == null) {
+            return;
+        }
+        ensureRebuilt();
+        long cents = pricing.baseCents(request.getTransferData());
+        long now = clock.getAsLong();
+        String customerId = request.getCustomer().getCustomerId();
+        String accountId = request.getSourceAccount().getAccountId();
+
+        Counters customer = tryAdd(PREFIX_CUSTOMER + customerId, now, cents, customerLimits,
+                "el cliente " + customerId);
+        Counters account;
+        try {
+            account = tryAdd(PREFIX_ACCOUNT + accountId, now, cents, accountLimits, "la cuenta " + accountId);
+        } catch (TransferLimitExceededException e) {
+            customer.add(now, -cents);
+            throw e;
+        }
+
+        // Si la transferencia falla después (saldo, destino...), el monto no debe quedar contado
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        customer.add(now, -cents);
+                        account.add(now, -cents);
+                    }
+                }
+            });
+        }
+    }
+
+    // Quita las claves sin montos en las últimas 24 h: equivalen a una clave nueva
+    @Scheduled(fixedDelayString = "${transfers.limits.eviction-interval-ms:300000}")
+    public void evictIdleCounters() {
+        long now = clock.getAsLong();
+        counters.forEach((key, value) -> {
+            if (value.evictIfIdle(now)) {
+                counters.remove(key, value);
+            }
+        });
+    }
+
+    int activeCounters() {
+        return counters.size();
+    }
+
+    long customerTotal(String customerId, boolean daily) {
+        Counters c = counters.get(PREFIX_CUSTOMER + customerId);
+        return c == null ? 0 : c.total(clock.getAsLong(), daily);
+    }
+
+    long accountTotal(String accountId, boolean daily) {
+        Counters c = counters.get(PREFIX_ACCOUNT + accountId);
+        return c == null ? 0 : c.total(clock.getAsLong(), daily);
+    }
+
+    // Una clave desalojada entre computeIfAbsent y tryAdd se vuelve a crear
+    private Counters tryAdd(String key, long now, long cents, Limits limits, String owner) {
+        while (true) {
+            Counters c = counters(key, now);
+            int result = c.tryAdd(now, cents, limits);
+            if (result == OK) {
+                return c;
+            }
+            if (result != EVICTED) {
+                throw exceeded(result, owner, limits);
+            }
+            counters.remove(key, c);
+        }
+    }
+
+    private Counters counters(String key, long now) {
+        return counters.computeIfAbsent(key, k -> new Counters(now));
+    }
+
+    private TransferLimitExceededException exceeded(int result, String owner, Limits limits) {
+        boolean hourly = result == HOURLY_EXCEEDED;
+        long limit = hourly ? limits.hourlyCents() : limits.dailyCents();
+        return new TransferLimitExceededException("Límite " + (hourly ? "horario" : "diario")
+                + " de transferencias excedido para " + owner + " (máximo "
+                + BigDecimal.valueOf(limit, 2) + " " + pricing.registry().base().code() + ")");
+    }
+
+    // Acumulados de una clave: las dos ventanas se comprueban y actualizan juntas bajo el monitor
+    static final class Counters {
+        private final TimeBucketRing hourly;
+        private final TimeBucketRing daily;
+        private boolean evicted;
+
+        Counters(long now) {
+            this.hourly = new TimeBucketRing(HOUR_BUCKET_MILLIS, HOUR_BUCKETS, now);
+            this.daily = new TimeBucketRing(DAY_BUCKET_MILLIS, DAY_BUCKETS, now);
+        }
+
+        synchronized int tryAdd(long now, long cents, Limits limits) {
+            if (evicted) {
+                return EVICTED;
+            }
+            if (limits.hourlyCents() > 0 && hourly.total(now) + cents > limits.hourlyCents()) {
+                return HOURLY_EXCEEDED;
+            }
+            if (limits.dailyCents() > 0 && daily.total(now) + cents > limits.dailyCents()) {
+                return DAILY_EXCEEDED;
+            }
+            hourly.add(now, cents);
+            daily.add(now, cents);
+            return OK;
+        }
+
+        // Sin comprobar límites: reconstrucción y devoluciones (cents negativo)
+        synchronized void add(long at, long cents) {
+            hourly.add(at, cents);
+            daily.add(at, cents);
+        }
+
+        synchronized long total(long now, boolean dayWindow) {
+            return dayWindow ? daily.total(now) : hourly.total(now);
+        }
+
+        // Una vez desalojada ya no acepta montos: quien la tenía en mano crea una nueva
+        synchronized boolean evictIfIdle(long now) {
+            evicted = daily.total(now) == 0;
+            return evicted;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.AccountLockStatsDto;
+import com.example.transfers_service.exception.AccountBusyException;
+import com.example.transfers_service.service.AccountLockService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializa en la JVM el trabajo sobre una misma cuenta antes de abrir la transacción.
+ * Sin esto, N solicitudes a una cuenta caliente toman N conexiones del pool y N-1 esperan
+ * dentro de MySQL en el SELECT ... FOR UPDATE; aquí esperan en un ReentrantLock sin conexión
+ * y el pool queda para las demás cuentas. El lock de fila sigue siendo la garantía entre
+ * instancias: esto solo evita que las esperas de una misma instancia ocupen conexiones.
+ * Stripes fijos (hash de accountId): la memoria no crece con las cuentas; dos cuentas en el
+ * mismo stripe se serializan entre sí, lo que solo cuesta algo de paralelismo. Origen y destino
+ * se toman en orden de stripe para que dos transferencias cruzadas A->B / B->A no se bloqueen.
+ */
+@Service
+public class StripedAccountLockServiceImpl implements AccountLockService {
+
+    private final boolean enabled;
+    private final boolean fair;
+    private final long timeoutNanos;
+    private final int mask;
+    private final ReentrantLock[] stripes;
+    // hilos esperando por stripe: la profundidad de cola sin recorrer los locks
+    private final AtomicIntegerArray waitingByStripe;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public StripedAccountLockServiceImpl(@Value("${transfers.account-locks.enabled:true}") boolean enabled,
+                                         @Value("${transfers.account-locks.fair:true}") boolean fair,
+                                         @Value("${transfers.account-locks.stripes:1024}") int stripes,
+                                         @Value("${transfers.account-locks.timeout-ms:2000}") long timeoutMs) {
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("transfers.account-locks.stripes debe ser potencia de 2: " + stripes);
+        }
+        this.enabled = enabled;
+        this.fair = fair;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        this.mask = stripes - 1;
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock(fair);
+        }
+        this.waitingByStripe = new AtomicIntegerArray(stripes);
+    }
+
+    @Override
+    public <T> T withAccountLocks(String sourceAccountId, String destAccountId, Supplier<T> work) {
+        if (!enabled || sourceAccountId == null) {
+            return work.get();
+        }
+        int source = stripe(sourceAccountId);
+        int dest = destAccountId == null ? source : stripe(destAccountId);
+        int first = Math.min(source, dest);
+        int second = Math.max(source, dest);
+
+        long deadline = System.nanoTime() + timeoutNanos;
+        acquire(first, deadline, sourceAccountId);
+        try {
+            if (second != first) {
+                acquire(second, deadline, sourceAccountId);
+            }
+            try {
+                return work.get();
+            } finally {
+                if (second != first) {
+                    stripes[second].unlock();
+                }
+            }
+        } finally {
+            stripes[first].unlock();
+        }
+    }
+
+    private void acquire(int stripe, long deadline, String accountId) {
+        ReentrantLock lock = stripes[stripe];
+        if (lock.tryLock()) { // sin contención: ni contadores de cola ni reloj
+            acquired.increment();
+            return;
+        }
+        int depth = waitingByStripe.incrementAndGet(stripe);
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+        waiting.incrementAndGet();
+        long start = System.nanoTime();
+        boolean locked = false;
+        try {
+            // tryLock(timeout) respeta el orden FIFO de un lock justo (tryLock() sin timeout no)
+            locked = lock.tryLock(Math.max(0, deadline - start), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waiting.decrementAndGet();
+            waitingByStripe.decrementAndGet(stripe);
+        }
+        long waited = System.nanoTime() - start;
+        waitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (!locked) {
+            timeouts.increment();
+            throw new AccountBusyException("Cuenta con demasiadas operaciones en curso: " + accountId, 1);
+        }
+        acquired.increment();
+    }
+
+    private int stripe(String accountId) {
+        int h = accountId.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    @Override
+    public AccountLockStatsDto stats() {
+        long count = acquired.sum() + timeouts.sum();
+        return new AccountLockStatsDto(stripes.length, fair, waiting.get(), maxQueueDepth.get(), acquired.sum(),
+                timeouts.sum(), count == 0 ? 0 : waitNanos.sum() / 1e3 / count, maxWaitNanos.get() / 1e3);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.transfers_service.service.impl;
+
+/**
+ * Ventana deslizante de tamaño fijo: un anillo de buckets de 'bucketMillis' con el total de la
+ * ventana mantenido al día. Sumar y consultar es O(1) amortizado (como mucho un paso por bucket
+ * que sale) y la memoria no depende de cuántos valores se sumen. No es thread-safe: quien lo
+ * usa lo protege con su propio lock.
+ */
+final class TimeBucketRing {
+
+    private final long bucketMillis;
+    private final long[] values;
+    private long head;
+    private long total;
+
+    TimeBucketRing(long bucketMillis, int buckets, long now) {
+        this.bucketMillis = bucketMillis;
+        this.values = new long[buckets];
+        this.head = now / bucketMillis;
+    }
+
+    long total(long now) {
+        advance(now / bucketMillis);
+        return total;
+    }
+
+    // Si el bucket de 'at' ya salió de la ventana no se suma (ni se resta) nada
+    void add(long at, long amount) {
+        long index = at / bucketMillis;
+        advance(index);
+        if (index <= head - values.length) {
+            return;
+        }
+        values[(int) Math.floorMod(index, (long) values.length)] += amount;
+        total += amount;
+    }
+
+    // Vacía los buckets que salen de la ventana: como mucho values.length pasos
+    private void advance(long index) {
+        if (index <= head) {
+            return;
+        }
+        long steps = Math.min(index - head, values.length);
+        for (long i = 1; i <= steps; i++) {
+            int slot = (int) Math.floorMod(head + i, (long) values.length);
+            total -= values[slot];
+            values[slot] = 0;
+        }
+        head = index;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.RateLimitExceededException;
+import com.example.transfers_service.service.RateLimiterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitador token-bucket en memoria por cliente y por cuenta origen.
+ * Cada bucket es un único AtomicLong (algoritmo GCRA: "theoretical arrival time"),
+ * así que no hay locks: el ConcurrentHashMap reparte las claves en stripes y
+ * cada bucket se actualiza con CAS. Se evalúa antes de tocar la BD.
+ */
+@Service
+public class TokenBucketRateLimiterServiceImpl implements RateLimiterService {
+
+    private static final String PREFIX_CUSTOMER = "C:";
+    private static final String PREFIX_ACCOUNT = "A:";
+
+    private final boolean enabled;
+    private final BucketConfig customerConfig;
+    private final BucketConfig accountConfig;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenBucketRateLimiterServiceImpl(
+            @Value("${transfers.ratelimit.enabled:true}") boolean enabled,
+            @Value("${transfers.ratelimit.customer.capacity:20}") int customerCapacity,
+            @Value("${transfers.ratelimit.customer.refill-per-second:10}") double customerRefillPerSecond,
+            @Value("${transfers.ratelimit.account.capacity:10}") int accountCapacity,
+            @Value("${transfers.ratelimit.account.refill-per-second:5}") double accountRefillPerSecond) {
+        this(enabled,
+                new BucketConfig(customerCapacity, customerRefillPerSecond),
+                new BucketConfig(accountCapacity, accountRefillPerSecond),
+                System::nanoTime);
+    }
+
+    TokenBucketRateLimiterServiceImpl(boolean enabled,
+                                      BucketConfig customerConfig,
+                                      BucketConfig accountConfig,
+                                      LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.customerConfig = customerConfig;
+        this.accountConfig = accountConfig;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public void checkTransferAllowed(TransferRequest request) {
+        if (!enabled || request == null) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+
+        Bucket customerBucket = null;
+        if (request.getCustomer() != null && request.getCustomer().getCustomerId() != null) {
+            customerBucket = acquireOrThrow(PREFIX_CUSTOMER + request.getCustomer().getCustomerId(), customerConfig,
+                    now, "Demasiadas solicitudes para el cliente " + request.getCustomer().getCustomerId());
+        }
+        if (request.getSourceAccount() != null && request.getSourceAccount().getAccountId() != null) {
+            try {
+                acquireOrThrow(PREFIX_ACCOUNT + request.getSourceAccount().getAccountId(), accountConfig, now,
+                        "Demasiadas solicitudes para la cuenta " + request.getSourceAccount().getAccountId());
+            } catch (RateLimitExceededException e) {
+                // la solicitud no pasa: el token del cliente se devuelve para no gastar su cuota
+                if (customerBucket != null) {
+                    customerBucket.refund();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private Bucket acquireOrThrow(String key, BucketConfig config, long now, String message) {
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(config, now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            throw new RateLimitExceededException(message, retryAfter);
+        }
+        return bucket;
+    }
+
+    // Elimina los buckets que ya están llenos (inactivos): equivalen a un bucket nuevo.
+    @Scheduled(fixedDelayString = "${transfers.ratelimit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = nanoClock.getAsLong();
+        buckets.forEach((key, bucket) -> {
+            if (bucket.isFull(now)) {
+                buckets.remove(key, bucket);
+            }
+        });
+    }
+
+    int activeBuckets() {
+        return buckets.size();
+    }
+
+    // Capacidad (ráfaga) y ritmo de recarga de un bucket
+    static final class BucketConfig {
+        private final long intervalNanos;
+        private final long burstNanos;
+
+        BucketConfig(int capacity, double refillPerSecond) {
+            if (capacity <= 0 || refillPerSecond <= 0) {
+                throw new IllegalArgumentException("La configuración del rate limit debe ser positiva");
+            }
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+            this.burstNanos = intervalNanos * (capacity - 1);
+        }
+    }
+
+    // Bucket GCRA: "tat" es el instante en que el bucket vuelve a estar lleno
+    static final class Bucket {
+        private final BucketConfig config;
+        private final AtomicLong tat;
+
+        Bucket(BucketConfig config, long now) {
+            this.config = config;
+            this.tat = new AtomicLong(now);
+        }
+
+        // Devuelve 0 si se consumió un token, o los nanos a esperar hasta el siguiente
+        long tryAcquire(long now) {
+            while (true) {
+                long current = tat.get();
+                long base = Math.max(current, now);
+                long allowAt = base - config.burstNanos;
+                if (allowAt > now) {
+                    return allowAt - now;
+                }
+                if (tat.compareAndSet(current, base + config.intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        // Devuelve un token consumido: retrocede tat un intervalo (si queda en el pasado, el bucket está lleno)
+        void refund() {
+            tat.addAndGet(-config.intervalNanos);
+        }
+
+        boolean isFull(long now) {
+            return tat.get() <= now;
+        }
+    }
+}
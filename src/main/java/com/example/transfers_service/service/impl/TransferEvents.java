@@ -0,0 +1,59 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.TransferEventDto;
+import com.example.transfers_service.entity.Transfer;
+
+import java.math.BigDecimal;
+
+/**
+ * Arma los eventos de una transferencia guardada. Lo usan TransferServiceImpl al crearla,
+ * ShardingServiceImpl al confirmar un abono entre shards y el motor en memoria al aceptarla,
+ * así los tres publican los mismos campos.
+ */
+final class TransferEvents {
+
+    private TransferEvents() {
+    }
+
+    static TransferEventDto created(Transfer transfer, String sourceCurrency, BigDecimal totalDebit) {
+        return TransferEventDto.builder()
+                .type(TransferEventDto.TYPE_CREATED)
+                .transferId(transfer.getTransferId())
+                .customerId(transfer.getCustomerId())
+                .sourceAccountId(transfer.getSourceAccountId())
+                .destAccountId(transfer.getDestAccountNumber())
+                .amount(transfer.getAmount() != null ? BigDecimal.valueOf(transfer.getAmount()) : null)
+                .currency(transfer.getDestCurrency())
+                .totalDebit(totalDebit)
+                .sourceCurrency(sourceCurrency)
+                .transferType(transfer.getTransferType())
+                .status(transfer.getStatus())
+                .occurredAt(transfer.getTransferDatetime())
+                .build();
+    }
+
+    static TransferEventDto settled(Transfer transfer, String sourceCurrency, BigDecimal totalDebit) {
+        return created(transfer, sourceCurrency, totalDebit).withType(TransferEventDto.TYPE_SETTLED);
+    }
+
+    static TransferEventDto created(EngineTransfer transfer) {
+        return TransferEventDto.builder()
+                .type(TransferEventDto.TYPE_CREATED)
+                .transferId(transfer.transferId())
+                .customerId(transfer.customerId())
+                .sourceAccountId(transfer.sourceAccountId())
+                .destAccountId(transfer.destAccountId())
+                .amount(EngineAccount.fromMinor(transfer.amountToCreditMinor()))
+                .currency(transfer.destCurrency())
+                .totalDebit(EngineAccount.fromMinor(transfer.totalDebitMinor()))
+                .sourceCurrency(transfer.sourceCurrency())
+                .transferType(transfer.transferType())
+                .status(transfer.status())
+                .occurredAt(transfer.dateTime())
+                .build();
+    }
+
+    static TransferEventDto settled(EngineTransfer transfer) {
+        return created(transfer).withType(TransferEventDto.TYPE_SETTLED);
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.transfers_service.service.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead journal de una partición del motor en memoria, en segmentos de tamaño fijo
+ * mapeados en memoria. Registro: [int largo][int crc32c][cuerpo]; un largo 0 marca el final
+ * de lo escrito en el segmento. Un registro a medio escribir (crc inválido) se descarta al reproducir.
+ *
+ * append()/sync() los llama solo el secuenciador; truncateUpTo() y park() el hilo que vuelca a BD.
+ * park() aparta, en partition-NN.parked y con el mismo formato, los registros que la BD rechazó.
+ */
+final class TransferJournal implements Closeable {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("partition-(\\d+)-(\\d+)\\.wal");
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 16 * 1024;
+
+    private final Path directory;
+    private final int partition;
+    private final int segmentBytes;
+    private final boolean fsync;
+
+    // primer seq de cada segmento -> archivo
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_RECORD_BYTES);
+    private final CRC32C crc = new CRC32C();
+
+    private MappedByteBuffer active;
+    private volatile long activeFirstSeq;
+    private long lastSeq;
+    private boolean dirty;
+
+    TransferJournal(Path directory, int partition, int segmentBytes, boolean fsync) {
+        this.directory = directory;
+        this.partition = partition;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Reproduce los segmentos existentes y devuelve los registros con seq mayor a checkpointSeq
+     * (los que aún no llegaron a BD). Después abre un segmento nuevo para seguir escribiendo.
+     */
+    List<EngineTransfer> open(long checkpointSeq) {
+        try {
+            Files.createDirectories(directory);
+            segments.putAll(existingSegments(directory, partition));
+
+            List<EngineTransfer> pending = new ArrayList<>();
+            lastSeq = checkpointSeq;
+            for (Path segment : segments.values()) {
+                for (EngineTransfer transfer : readSegment(segment)) {
+                    if (transfer.seq() > lastSeq) {
+                        pending.add(transfer);
+                        lastSeq = transfer.seq();
+                    }
+                }
+            }
+            roll(lastSeq + 1);
+            return pending;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el journal de la partición " + partition, e);
+        }
+    }
+
+    long lastSeq() {
+        return lastSeq;
+    }
+
+    void append(EngineTransfer transfer) {
+        scratch.clear();
+        encode(transfer, scratch);
+        scratch.flip();
+        int length = scratch.remaining();
+
+        crc.reset();
+        crc.update(scratch.duplicate());
+        int checksum = (int) crc.getValue();
+
+        try {
+            // deja siempre lugar para el marcador de fin (largo 0)
+            if (active.remaining() < HEADER_BYTES + length + Integer.BYTES) {
+                sync();
+                roll(transfer.seq());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear un segmento del journal", e);
+        }
+        int start = active.position();
+        active.position(start + HEADER_BYTES);
+        active.put(scratch);
+        active.putInt(start + Integer.BYTES, checksum);
+        // el largo se escribe al final: hasta entonces el registro no es visible al reproducir
+        active.putInt(start, length);
+        lastSeq = transfer.seq();
+        dirty = true;
+    }
+
+    // Group commit: un force() por lote de registros del secuenciador
+    void sync() {
+        if (fsync && dirty) {
+            active.force();
+        }
+        dirty = false;
+    }
+
+    // Borra los segmentos cuyos registros ya están todos en BD (nunca el activo)
+    void truncateUpTo(long flushedSeq) {
+        for (Map.Entry<Long, Path> entry : segments.entrySet()) {
+            Long nextFirstSeq = segments.higherKey(entry.getKey());
+            if (nextFirstSeq == null || entry.getKey() >= activeFirstSeq || nextFirstSeq - 1 > flushedSeq) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(entry.getValue());
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo borrar el segmento " + entry.getValue(), e);
+            }
+            segments.remove(entry.getKey());
+        }
+    }
+
+    // Registro que la BD no acepta (dato inválido): queda fuera de los segmentos para repararlo a mano,
+    // así el volcado sigue con el resto y truncateUpTo() puede borrar el segmento que lo contenía
+    void park(EngineTransfer transfer) {
+        ByteBuffer body = ByteBuffer.allocate(MAX_RECORD_BYTES);
+        encode(transfer, body);
+        body.flip();
+        CRC32C check = new CRC32C();
+        check.update(body.duplicate());
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + body.remaining());
+        record.putInt(body.remaining()).putInt((int) check.getValue()).put(body).flip();
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(parkedFile(directory, partition), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo apartar la transferencia " + transfer.transferId(), e);
+        }
+    }
+
+    static Path parkedFile(Path directory, int partition) {
+        return directory.resolve(String.format("partition-%02d.parked", partition));
+    }
+
+    // Registros apartados de una partición (vacío si no hay archivo)
+    static List<EngineTransfer> parked(Path directory, int partition) throws IOException {
+        Path file = parkedFile(directory, partition);
+        return Files.exists(file) ? readSegment(file) : List.of();
+    }
+
+    @Override
+    public void close() {
+        if (active != null) {
+            sync();
+            active = null;
+        }
+    }
+
+    private void roll(long firstSeq) throws IOException {
+        Path file = directory.resolve(segmentName(partition, firstSeq));
+        // un segmento con el mismo nombre solo puede traer restos de una caída anterior
+        Files.deleteIfExists(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(segmentBytes);
+            active = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        segments.put(firstSeq, file);
+        activeFirstSeq = firstSeq;
+    }
+
+    static String segmentName(int partition, long firstSeq) {
+        return String.format("partition-%02d-%020d.wal", partition, firstSeq);
+    }
+
+    static Map<Long, Path> existingSegments(Path directory, int partition) throws IOException {
+        Map<Long, Path> found = new ConcurrentSkipListMap<>();
+        if (!Files.isDirectory(directory)) {
+            return found;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher m = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (m.matches() && Integer.parseInt(m.group(1)) == partition) {
+                    found.put(Long.parseLong(m.group(2)), file);
+                }
+            });
+        }
+        return found;
+    }
+
+    // Último seq escrito en los segmentos de una partición (0 si no hay registros)
+    static long lastSeqOnDisk(Path directory, int partition) throws IOException {
+        long last = 0;
+        for (Path segment : existingSegments(directory, partition).values()) {
+            for (EngineTransfer transfer : readSegment(segment)) {
+                last = Math.max(last, transfer.seq());
+            }
+        }
+        return last;
+    }
+
+    // Particiones con segmentos en el directorio (para detectar un cambio en el número de particiones)
+    static List<Integer> partitionsOnDisk(Path directory) throws IOException {
+        List<Integer> partitions = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return partitions;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> SEGMENT_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(m -> Integer.parseInt(m.group(1)))
+                    .distinct()
+                    .forEach(partitions::add);
+        }
+        return partitions;
+    }
+
+    private static List<EngineTransfer> readSegment(Path segment) throws IOException {
+        List<EngineTransfer> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32C check = new CRC32C();
+            while (buffer.remaining() >= HEADER_BYTES) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                ByteBuffer body = buffer.slice(buffer.position(), length);
+                check.reset();
+                check.update(body.duplicate());
+                if ((int) check.getValue() != checksum) {
+                    break; // registro a medio escribir
+                }
+                records.add(decode(body));
+                buffer.position(buffer.position() + length);
+            }
+        }
+        return records;
+    }
+
+    // ---------- formato binario ----------
+
+    static void encode(EngineTransfer t, ByteBuffer out) {
+        out.putLong(t.seq());
+        putString(out, t.transferId());
+        putString(out, t.customerId());
+        putString(out, t.sourceAccountId());
+        putString(out, t.sourceCurrency());
+        putString(out, t.destAccountId());
+        putString(out, t.destCurrency());
+        out.put((byte) (t.externalDestination() ? 1 : 0));
+        putString(out, t.userCurrency());
+        out.putLong(t.amountUserMinor());
+        out.putLong(t.amountToDebitMinor());
+        out.putLong(t.commissionMinor());
+        out.putLong(t.itfMinor());
+        out.putLong(t.totalDebitMinor());
+        out.putLong(t.amountToCreditMinor());
+        putString(out, t.transferType());
+        putString(out, t.status());
+        putString(out, t.description());
+        out.putLong(t.dateTime().toEpochSecond(ZoneOffset.UTC));
+        out.putInt(t.dateTime().getNano());
+        putString(out, t.fraudDecision());
+        out.putInt(t.fraudScore());
+    }
+
+    static EngineTransfer decode(ByteBuffer in) {
+        long seq = in.getLong();
+        String transferId = getString(in);
+        String customerId = getString(in);
+        String sourceAccountId = getString(in);
+        String sourceCurrency = getString(in);
+        String destAccountId = getString(in);
+        String destCurrency = getString(in);
+        boolean external = in.get() == 1;
+        String userCurrency = getString(in);
+        long amountUser = in.getLong();
+        long amountToDebit = in.getLong();
+        long commission = in.getLong();
+        long itf = in.getLong();
+        long totalDebit = in.getLong();
+        long amountToCredit = in.getLong();
+        String transferType = getString(in);
+        String status = getString(in);
+        String description = getString(in);
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+        // los registros escritos antes de la evaluación de riesgo terminan en la fecha
+        String fraudDecision = in.hasRemaining() ? getString(in) : null;
+        int fraudScore = in.hasRemaining() ? in.getInt() : 0;
+        return new EngineTransfer(seq, transferId, customerId, sourceAccountId, sourceCurrency,
+                destAccountId, destCurrency, external, userCurrency, amountUser, amountToDebit,
+                commission, itf, totalDebit, amountToCredit, transferType, status, description, dateTime,
+                fraudDecision, fraudScore);
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
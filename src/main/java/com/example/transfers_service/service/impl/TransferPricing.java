@@ -0,0 +1,226 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.dto.CurrencyCode;
+import com.example.transfers_service.dto.request.TransferData;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reglas de tipo de cambio, comisión e ITF sin acceso a BD.
+ * Las usan TransferServiceImpl (ruta JPA) y los secuenciadores del motor en memoria,
+ * así ambos caminos calculan exactamente los mismos montos.
+ * Las monedas llegan ya resueltas como CurrencyCode; los tipos de cambio y los umbrales de ITF
+ * salen de arreglos por índice del CurrencyRegistry inyectado en cada servicio.
+ * Las variantes con String resuelven el código y delegan.
+ */
+final class TransferPricing {
+
+    static final String TRANSFER_TYPE_DEFERRED = "DIFERIDA";
+    static final String STATUS_EXECUTED = "EJECUTADA";
+    static final String STATUS_PENDING = "PENDIENTE";
+
+    // Escala final para mostrar/guardar montos (2 decimales)
+    static final int SCALE = 2;
+
+    // ITF: 0.005% del monto debitado desde este umbral, en la moneda de la cuenta origen;
+    // las monedas sin umbral no pagan ITF
+    private static final Map<String, BigDecimal> ITF_THRESHOLDS = Map.of(
+            "PEN", new BigDecimal("2000.00"),
+            "USD", new BigDecimal("500.00"));
+    private static final BigDecimal ITF_RATE = new BigDecimal("0.00005");
+
+    private final CurrencyRegistry registry;
+    // umbral de ITF por CurrencyCode.index(); null = no aplica
+    private final BigDecimal[] itfThresholds;
+
+    TransferPricing(CurrencyRegistry registry) {
+        this.registry = registry;
+        this.itfThresholds = new BigDecimal[registry.size()];
+        ITF_THRESHOLDS.forEach((code, threshold) -> {
+            CurrencyCode currency = registry.lookup(code);
+            if (currency != null) {
+                itfThresholds[currency.index()] = threshold;
+            }
+        });
+    }
+
+    CurrencyRegistry registry() {
+        return registry;
+    }
+
+    void validateSupportedCurrencies(String... currencies) {
+        for (String cur : currencies) {
+            registry.require(cur);
+        }
+    }
+
+    CurrencyCode currency(String code) {
+        return registry.require(code);
+    }
+
+    static BigDecimal userAmount(Double amount) {
+        return BigDecimal.valueOf(amount).setScale(SCALE + 4, RoundingMode.HALF_UP);
+    }
+
+    BigDecimal amountToDebit(BigDecimal amountUser, String userCurrency, String sourceCurrency) {
+        return amountToDebit(amountUser, currency(userCurrency), currency(sourceCurrency));
+    }
+
+    BigDecimal amountToDebit(BigDecimal amountUser, CurrencyCode userCurrency, CurrencyCode sourceCurrency) {
+        CurrencyCode base = registry.base();
+        BigDecimal amount;
+        if (sourceCurrency.is(base) && !userCurrency.is(base)) {
+            // Cliente compra la divisa con moneda base -> usar VENTA (base por divisa)
+            amount = amountUser.multiply(registry.sellRate(userCurrency)).setScale(SCALE + 4, RoundingMode.HALF_UP);
+        } else if (!sourceCurrency.is(base) && userCurrency.is(base)) {
+            // Cliente vende la divisa por moneda base -> usar COMPRA (divisa por base)
+            amount = amountUser.divide(registry.buyRate(sourceCurrency), SCALE + 4, RoundingMode.HALF_UP);
+        } else {
+            // Misma moneda u otros casos -> conversión genérica
+            amount = convert(amountUser, userCurrency, sourceCurrency);
+        }
+        return toMinorUnits(amount, sourceCurrency);
+    }
+
+    BigDecimal amountToCredit(BigDecimal amountUser, String userCurrency, String destCurrency) {
+        return amountToCredit(amountUser, currency(userCurrency), currency(destCurrency));
+    }
+
+    BigDecimal amountToCredit(BigDecimal amountUser, CurrencyCode userCurrency, CurrencyCode destCurrency) {
+        return toMinorUnits(convert(amountUser, userCurrency, destCurrency), destCurrency);
+    }
+
+    /**
+     * Convierte amount desde la moneda 'from' hacia la moneda 'to', pasando por la moneda base
+     * (compra de 'from', venta de 'to').
+     */
+    BigDecimal convert(BigDecimal amount, String from, String to) {
+        return convert(amount, currency(from), currency(to));
+    }
+
+    BigDecimal convert(BigDecimal amount, CurrencyCode from, CurrencyCode to) {
+        if (from.is(to)) {
+            return amount.setScale(SCALE + 4, RoundingMode.HALF_UP);
+        }
+        CurrencyCode base = registry.base();
+        // from -> base : multiplicar por la compra (USD -> PEN: 3.50)
+        BigDecimal inBase = from.is(base) ? amount : amount.multiply(registry.buyRate(from));
+        if (to.is(base)) {
+            return inBase.setScale(SCALE + 4, RoundingMode.HALF_UP);
+        }
+        // base -> to : dividir por la venta (PEN -> USD: 3.80)
+        return inBase.divide(registry.sellRate(to), SCALE + 4, RoundingMode.HALF_UP);
+    }
+
+    // Monto del usuario en céntimos de la moneda base (límites, fraude y carril del limitador)
+    long baseCents(TransferData data) {
+        return baseCents(userAmount(data.getAmount()), currency(data.getCurrency()));
+    }
+
+    long baseCents(BigDecimal amount, CurrencyCode currency) {
+        return toCents(convert(amount, currency, registry.base()));
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Monedas con menos decimales que SCALE (p.ej. JPY) se redondean a su unidad mínima;
+    // PEN/USD quedan intactas para no introducir doble redondeo
+    static BigDecimal toMinorUnits(BigDecimal amount, CurrencyCode currency) {
+        if (currency.minorUnits() >= SCALE) {
+            return amount;
+        }
+        return amount.setScale(currency.minorUnits(), RoundingMode.HALF_UP).setScale(SCALE + 4, RoundingMode.UNNECESSARY);
+    }
+
+    // Tipo, comisión, ITF y total a debitar
+    TransferServiceImpl.ChargesData charges(String sourceCurrency,
+                                                   BigDecimal amountToDebit,
+                                                   LocalDateTime dateTime) {
+        return charges(currency(sourceCurrency), amountToDebit, dateTime);
+    }
+
+    TransferServiceImpl.ChargesData charges(CurrencyCode sourceCurrency,
+                                                   BigDecimal amountToDebit,
+                                                   LocalDateTime dateTime) {
+        String transferType = isOnline(dateTime) ? TransferServiceImpl.TRANSFER_TYPE_ONLINE : TRANSFER_TYPE_DEFERRED;
+
+        BigDecimal commission = commission(amountToDebit, sourceCurrency.code());
+        BigDecimal itf = toMinorUnits(itf(amountToDebit, sourceCurrency), sourceCurrency);
+        BigDecimal totalDebit = amountToDebit.add(commission).add(itf);
+
+        return new TransferServiceImpl.ChargesData(transferType, commission, itf, totalDebit);
+    }
+
+    static BigDecimal commission(BigDecimal amount, String currency) {
+        // $2.00 para transferencias en línea, $1.00 para diferidas
+        return isOnline(LocalDateTime.now()) ?
+                new BigDecimal("2.00") :
+                new BigDecimal("1.00");
+    }
+
+    BigDecimal itf(BigDecimal amount, CurrencyCode currency) {
+        // 0.005% del monto si aplica
+        BigDecimal threshold = itfThresholds[currency.index()];
+        boolean appliesItf = threshold != null && amount.compareTo(threshold) >= 0;
+
+        return appliesItf ?
+                amount.multiply(ITF_RATE).setScale(2, RoundingMode.HALF_UP) :
+                BigDecimal.ZERO;
+    }
+
+    // true si es día hábil y está dentro del horario de atención (ONLINE), false si es DIFERIDA
+    static boolean isOnline(LocalDateTime dateTime) {
+        LocalTime now = dateTime.toLocalTime();
+        LocalTime startBusinessHours = LocalTime.of(8, 0);
+        LocalTime endBusinessHours = LocalTime.of(20, 0);
+
+        return dateTime.getDayOfWeek().getValue() <= 5 &&  // Lunes a Viernes
+                !now.isBefore(startBusinessHours) &&
+                now.isBefore(endBusinessHours);
+    }
+
+    /**
+     * Tipo de cambio cotizado entre la moneda de la cuenta origen y la de destino, tal como se
+     * guarda en transfers.fx_rate_used: venta de la divisa si el origen está en moneda base,
+     * compra si el destino está en moneda base, y cruzado (compra / venta) entre dos divisas.
+     * null si no hubo cambio de moneda.
+     */
+    BigDecimal fxRateUsed(CurrencyCode sourceCurrency, CurrencyCode destCurrency) {
+        if (sourceCurrency.is(destCurrency)) {
+            return null;
+        }
+        CurrencyCode base = registry.base();
+        if (sourceCurrency.is(base)) {
+            return registry.sellRate(destCurrency);
+        }
+        if (destCurrency.is(base)) {
+            return registry.buyRate(sourceCurrency);
+        }
+        return registry.buyRate(sourceCurrency).divide(registry.sellRate(destCurrency), SCALE + 4, RoundingMode.HALF_UP);
+    }
+
+    // Detalle legible de los montos; se arma solo cuando un cliente consulta la transferencia
+    static String describe(String baseDesc,
+                           BigDecimal amountSent, String currencySent,
+                           BigDecimal totalDebit, BigDecimal commission, BigDecimal itf, String sourceCurrency,
+                           BigDecimal amountCredited, String destCurrency) {
+        String detail = String.format(
+                Locale.US,
+                " | Usuario envió: %s %s -> Debitado: %s %s (Comisión: %s %s, ITF: %s %s) -> Acreditado: %s %s",
+                amountSent.setScale(SCALE, RoundingMode.HALF_UP).toPlainString(), currencySent,
+                totalDebit.setScale(SCALE, RoundingMode.HALF_UP).toPlainString(), sourceCurrency,
+                commission.setScale(SCALE, RoundingMode.HALF_UP).toPlainString(), sourceCurrency,
+                itf.setScale(SCALE, RoundingMode.HALF_UP).toPlainString(), sourceCurrency,
+                amountCredited.setScale(SCALE, RoundingMode.HALF_UP).toPlainString(), destCurrency
+        );
+        return (baseDesc == null ? "" : baseDesc) + detail;
+    }
+}
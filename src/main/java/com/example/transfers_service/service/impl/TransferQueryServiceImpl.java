@@ -0,0 +1,80 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.response.TransferDetailResponse;
+import com.example.transfers_service.entity.Transfer;
+import com.example.transfers_service.exception.InvalidTransferException;
+import com.example.transfers_service.exception.TransferNotFoundException;
+import com.example.transfers_service.mapper.TransferMapper;
+import com.example.transfers_service.repository.TransferRepository;
+import com.example.transfers_service.service.TransferQueryService;
+import com.github.f4b6a3.ulid.Ulid;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+/**
+ * Consulta de una transferencia con el detalle legible de montos. El texto se arma aquí, a
+ * partir de las columnas tipadas (amount_sent, total_debit, debit_currency, commission, itf...),
+ * y no al crear la transferencia. Las filas anteriores a V8 no tienen esas columnas: su detalle
+ * ya viene en description. Solo el cliente dueño la ve: para cualquier otro responde como
+ * inexistente. Con sharding se consulta el shard por defecto.
+ */
+@Service
+public class TransferQueryServiceImpl implements TransferQueryService {
+
+    private static final String TRANSFER_PREFIX = "TRX-";
+    // margen alrededor del instante del ULID: el id se genera justo antes de fijar transfer_datetime
+    private static final Duration ID_TIME_WINDOW = Duration.ofDays(1);
+
+    private final TransferRepository transferRepository;
+    private final TransferMapper transferMapper;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public TransferQueryServiceImpl(TransferRepository transferRepository,
+                                    TransferMapper transferMapper) {
+        this.transferRepository = transferRepository;
+        this.transferMapper = transferMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransferDetailResponse getTransfer(String transferId, String customerId) {
+        if (customerId == null || customerId.isBlank()) {
+            throw new InvalidTransferException("customerId es obligatorio");
+        }
+        Transfer transfer = find(transferId)
+                .filter(t -> customerId.equals(t.getCustomerId()))
+                .orElseThrow(() -> new TransferNotFoundException("Transferencia no existe: " + transferId));
+
+        TransferDetailResponse response = transferMapper.toDetailResponse(transfer);
+        response.setSummary(summary(transfer));
+        return response;
+    }
+
+    // El ULID lleva el instante de creación: acotar transfer_datetime deja una o dos particiones
+    private Optional<Transfer> find(String transferId) {
+        String ulid = transferId.startsWith(TRANSFER_PREFIX) ? transferId.substring(TRANSFER_PREFIX.length()) : "";
+        if (!Ulid.isValid(ulid)) {
+            return transferRepository.findById(transferId);
+        }
+        LocalDateTime createdAt = LocalDateTime.ofInstant(Ulid.from(ulid).getInstant(), zone);
+        return transferRepository.findByIdInRange(transferId,
+                createdAt.minus(ID_TIME_WINDOW), createdAt.plus(ID_TIME_WINDOW));
+    }
+
+    private static String summary(Transfer transfer) {
+        if (transfer.getAmountSent() == null || transfer.getDebitCurrency() == null) {
+            return transfer.getDescription();
+        }
+        return TransferPricing.describe(
+                transfer.getDescription(),
+                transfer.getAmountSent(), transfer.getCurrencySent(),
+                transfer.getTotalDebit(), transfer.getCommission(), transfer.getItf(), transfer.getDebitCurrency(),
+                BigDecimal.valueOf(transfer.getAmount()), transfer.getDestCurrency());
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.exception.InsufficientBalanceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Hilo único dueño de una partición de cuentas: valida saldo, aplica débito/abono en memoria
+ * y escribe el journal sin locks de BD. Procesa lo que haya en su ring buffer en lotes
+ * y hace un solo force() del journal por lote (group commit) antes de responder.
+ * Lo aceptado pasa a un segundo ring buffer que vacía el hilo de volcado a BD.
+ */
+final class TransferSequencer implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferSequencer.class);
+
+    private static final int MAX_BATCH = 256;
+    private static final int SPINS_BEFORE_PARK = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final int partition;
+    private final MpscRingBuffer<Submission> inbound;
+    private final MpscRingBuffer<EngineTransfer> toFlush;
+    private final TransferJournal journal;
+    private final Function<String, EngineAccount> accounts;
+
+    private final List<Submission> batch = new ArrayList<>(MAX_BATCH);
+    private final List<Submission> accepted = new ArrayList<>(MAX_BATCH);
+
+    private volatile boolean running = true;
+    private volatile Thread thread;
+    private long nextSeq;
+
+    TransferSequencer(int partition,
+                      int ringSize,
+                      TransferJournal journal,
+                      Function<String, EngineAccount> accounts) {
+        this.partition = partition;
+        this.inbound = new MpscRingBuffer<>(ringSize);
+        this.toFlush = new MpscRingBuffer<>(ringSize);
+        this.journal = journal;
+        this.accounts = accounts;
+        this.nextSeq = journal.lastSeq() + 1;
+    }
+
+    // Transferencia pendiente de secuenciar y su respuesta
+    record Submission(EngineTransfer transfer, CompletableFuture<EngineTransfer> result) {
+    }
+
+    void start() {
+        Thread t = new Thread(this, "transfer-sequencer-" + partition);
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+
+    boolean offer(Submission submission) {
+        return inbound.offer(submission);
+    }
+
+    MpscRingBuffer<EngineTransfer> flushQueue() {
+        return toFlush;
+    }
+
+    int getPartition() {
+        return partition;
+    }
+
+    // El hilo ya salió: lo que siga en el ring no se va a procesar
+    boolean isTerminated() {
+        Thread t = thread;
+        return t != null && !t.isAlive();
+    }
+
+    // Deja de aceptar y termina cuando vació lo que ya estaba en el ring buffer
+    void stop() {
+        running = false;
+        Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        int idle = 0;
+        while (true) {
+            batch.clear();
+            if (inbound.drainTo(batch, MAX_BATCH) == 0) {
+                if (!running) {
+                    return;
+                }
+                if (++idle < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                continue;
+            }
+            idle = 0;
+            processBatch();
+        }
+    }
+
+    private void processBatch() {
+        accepted.clear();
+        for (Submission submission : batch) {
+            try {
+                EngineTransfer sequenced = apply(submission.transfer());
+                accepted.add(new Submission(sequenced, submission.result()));
+            } catch (RuntimeException e) {
+                submission.result().completeExceptionally(e);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            journal.sync();
+        } catch (RuntimeException e) {
+            // el estado en memoria ya no coincide con lo durable: detener la partición
+            log.error("Falló el force() del journal de la partición {}; se detiene", partition, e);
+            running = false;
+            accepted.forEach(s -> s.result().completeExceptionally(
+                    new IllegalStateException("Journal no disponible en la partición " + partition, e)));
+            return;
+        }
+
+        for (Submission submission : accepted) {
+            while (!toFlush.offer(submission.transfer())) {
+                // el volcado a BD va atrasado: contrapresión hacia los productores
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            submission.result().complete(submission.transfer());
+        }
+    }
+
+    // Validación de saldo + journal + aplicación en memoria de una transferencia
+    private EngineTransfer apply(EngineTransfer transfer) {
+        if (!running) {
+            throw new IllegalStateException("Partición " + partition + " detenida");
+        }
+        EngineAccount source = accounts.apply(transfer.sourceAccountId());
+        long balance = source.getBalanceMinor();
+        if (balance < transfer.totalDebitMinor()) {
+            throw new InsufficientBalanceException(
+                    "Saldo insuficiente. tu saldo actual es: " + EngineAccount.fromMinor(balance) + " "
+                            + transfer.sourceCurrency() + ", y se necesita: "
+                            + EngineAccount.fromMinor(transfer.totalDebitMinor()) + " " + transfer.sourceCurrency());
+        }
+        EngineAccount destination = transfer.externalDestination() ? null : accounts.apply(transfer.destAccountId());
+
+        EngineTransfer sequenced = transfer.withSeq(nextSeq);
+        journal.append(sequenced);
+        nextSeq++;
+
+        source.add(-sequenced.totalDebitMinor());
+        if (destination != null) {
+            destination.add(sequenced.amountToCreditMinor());
+        }
+        return sequenced;
+    }
+}
@@ -1,5 +1,13 @@
 package com.example.transfers_service.service.impl;
 
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.config.ExternalAccountPrefetch;
+import com.example.transfers_service.dto.AccountMetadataDto;
+import com.example.transfers_service.dto.CurrencyCode;
+import com.example.transfers_service.dto.FraudAssessmentDto;
+import com.example.transfers_service.dto.LedgerPostingDto;
+import com.example.transfers_service.dto.PendingCreditDto;
+import com.example.transfers_service.dto.RemoteAccountDto;
 import com.example.transfers_service.dto.external.ExternalAccountResponse;
 import com.example.transfers_service.dto.request.TransferRequest;
 import com.example.transfers_service.dto.response.TransferResponse;
@@ -7,14 +15,21 @@ import com.example.transfers_service.entity.Transfer;
 import com.example.transfers_service.exception.AccountNotFoundException;
 import com.example.transfers_service.exception.ExternalAccountValidationException;
 import com.example.transfers_service.exception.InsufficientBalanceException;
+import com.example.transfers_service.exception.InvalidTransferException;
 import com.example.transfers_service.mapper.MovementParams;
 import com.example.transfers_service.mapper.TransferParams;
 import com.example.transfers_service.repository.AccountRepository;
 import com.example.transfers_service.repository.MovementRepository;
 import com.example.transfers_service.repository.TransferRepository;
 import com.example.transfers_service.service.ExternalAccountService;
+import com.example.transfers_service.service.FraudScoringService;
 import com.example.transfers_service.service.IdGeneratorService;
+import com.example.transfers_service.service.LedgerService;
+import com.example.transfers_service.service.ShardingService;
+import com.example.transfers_service.service.TransferEventPublisher;
+import com.example.transfers_service.service.TransferLimitService;
 import com.example.transfers_service.service.TransferService;
+import com.example.transfers_service.service.TransferValidationService;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -25,8 +40,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -40,6 +53,13 @@ public class TransferServiceImpl implements TransferService {
     private final com.example.transfers_service.mapper.TransferMapper transferMapper;
     private final com.example.transfers_service.mapper.MovementMapper movementMapper;
     private final ExternalAccountService externalAccountService;
+    private final LedgerService ledgerService;
+    private final ShardingService shardingService;
+    private final TransferValidationService transferValidationService;
+    private final TransferLimitService transferLimitService;
+    private final FraudScoringService fraudScoringService;
+    private final TransferEventPublisher transferEventPublisher;
+    private final TransferPricing pricing;
 
     public TransferServiceImpl(TransferRepository transferRepository,
                                MovementRepository movementRepository,
@@ -47,7 +67,14 @@ public class TransferServiceImpl implements TransferService {
                                IdGeneratorService idGeneratorService,
                                com.example.transfers_service.mapper.TransferMapper transferMapper,
                                com.example.transfers_service.mapper.MovementMapper movementMapper,
-                               ExternalAccountService externalAccountService) {
+                               ExternalAccountService externalAccountService,
+                               LedgerService ledgerService,
+                               ShardingService shardingService,
+                               TransferValidationService transferValidationService,
+                               TransferLimitService transferLimitService,
+                               FraudScoringService fraudScoringService,
+                               TransferEventPublisher transferEventPublisher,
+                               CurrencyRegistry currencyRegistry) {
         this.transferRepository = transferRepository;
         this.movementRepository = movementRepository;
         this.accountRepository = accountRepository;
@@ -55,55 +82,71 @@ public class TransferServiceImpl implements TransferService {
         this.transferMapper = transferMapper;
         this.movementMapper = movementMapper;
         this.externalAccountService = externalAccountService;
-
+        this.ledgerService = ledgerService;
+        this.shardingService = shardingService;
+        this.transferValidationService = transferValidationService;
+        this.transferLimitService = transferLimitService;
+        this.fraudScoringService = fraudScoringService;
+        this.transferEventPublisher = transferEventPublisher;
+        this.pricing = new TransferPricing(currencyRegistry);
     }
 
-    // DATOS PARA CONVERSION
-    private static final String CUR_PEN = "PEN";
-    private static final String CUR_USD = "USD";
     public static final String TRANSFER_TYPE_ONLINE = "ONLINE";
-    private static final BigDecimal FX_COMPRA_BD = BigDecimal.valueOf(3.50); // banco compra USD (USD -> PEN) -> multiplicar
-    private static final BigDecimal FX_VENTA_BD  = BigDecimal.valueOf(3.80); // banco vende USD (PEN -> USD) -> dividir
+    public static final String ACCOUNT_STATUS_ACTIVE = "ACTIVE";
 
     // Escala final para mostrar/guardar montos (2 decimales)
-    private static final int SCALE = 2;
+    private static final int SCALE = TransferPricing.SCALE;
 
     @Override
     @Transactional
     public TransferResponse createTransfer(TransferRequest request) {
-        // 1) Origen
+        // 0) Etapa previa al lock: solicitud, monto, monedas, titular y estado (metadatos cacheados)
+        AccountMetadataDto sourceMetadata = transferValidationService.validateBeforeLock(request);
+
+        // 0.1) Riesgo en línea (velocidad, destino nuevo, divisa) con presupuesto de latencia
+        FraudAssessmentDto fraudAssessment = fraudScoringService.screen(request, sourceMetadata);
+
+        // 0.2) Límites acumulados por hora/día (contadores en memoria; se devuelven si hay rollback)
+        transferLimitService.reserve(request);
+
+        // 1) Origen (antes, el destino interno si su account_id va primero: ver lockInAccountOrder)
+        lockInAccountOrder(request.getSourceAccount().getAccountId(), request.getDestinationAccount().getAccountId());
         var sourceAccountEntity = getAndLockSourceAccount(
                 request.getSourceAccount().getAccountId()
         );
 
         // 1.1) Validar que la cuenta origen pertenezca al cliente del JSON
+        //      (se repite sobre la fila bloqueada por si la caché estaba desactualizada)
         validateSourceAccountOwner(
                 sourceAccountEntity,
                 request.getCustomer()
         );
+        validateAccountActive(sourceAccountEntity.getAccountId(), sourceAccountEntity.getStatus());
 
         // 2) Destino (interno o externo)
         DestinationData destinationData = resolveDestinationAccount(
                 request.getDestinationAccount().getAccountId()
         );
 
-        // 3) Monedas
-        String sourceCurrency = sourceAccountEntity.getCurrency();
-        String destCurrency   = destinationData.getDestCurrency();
-        String userCurrency   = request.getTransferData().getCurrency();
+        // 3) Monedas: se resuelven una vez contra CurrencyRegistry; de aquí en adelante se comparan índices
+        CurrencyCode sourceCode = resolveCurrency(sourceAccountEntity.getCurrency());
+        CurrencyCode destCode   = resolveCurrency(destinationData.getDestCurrency());
+        CurrencyCode userCode   = resolveCurrency(request.getTransferData().getCurrency());
 
-        validateSupportedCurrencies(sourceCurrency, destCurrency, userCurrency);
+        String sourceCurrency = sourceCode.code();
+        String destCurrency   = destCode.code();
+        String userCurrency   = userCode.code();
 
         // 4) Monto ingresado por el usuario
         BigDecimal amountUser = buildUserAmount(request);
 
         // 5) Montos a debitar/acreditar
-        BigDecimal amountToDebit  = calculateAmountToDebit(amountUser, userCurrency, sourceCurrency);
-        BigDecimal amountToCredit = calculateAmountToCredit(amountUser, userCurrency, destCurrency);
+        BigDecimal amountToDebit  = calculateAmountToDebit(amountUser, userCode, sourceCode);
+        BigDecimal amountToCredit = calculateAmountToCredit(amountUser, userCode, destCode);
 
         // 6) Tipo de transferencia + comisión + ITF + total a debitar
         LocalDateTime dateTime = LocalDateTime.now();
-        ChargesData chargesData = calculateCharges(sourceCurrency, amountToDebit, dateTime);
+        ChargesData chargesData = calculateCharges(sourceCode, amountToDebit, dateTime);
 
         // 7) Validar saldo y actualizar cuenta origen
         updateSourceBalanceOrThrow(
@@ -124,7 +167,9 @@ public class TransferServiceImpl implements TransferService {
         buildParams.setAmountToCredit(amountToCredit);
         buildParams.setDestCurrency(destCurrency);
         buildParams.setUserCurrency(userCurrency);
+        buildParams.setFxRateUsed(pricing.fxRateUsed(sourceCode, destCode));
         buildParams.setChargesData(chargesData);
+        buildParams.setFraudAssessment(fraudAssessment);
         buildParams.setDateTime(dateTime);
         buildParams.setTransferId(transferId);
 
@@ -144,10 +189,44 @@ public class TransferServiceImpl implements TransferService {
                 destinationData,
                 transferId,
                 amountToCredit,
-                destCurrency,
+                destCode,
                 request.getTransferData().getDescription()
         );
 
+        // 10.1) Modo libro mayor: asientos de partida doble en un solo batch
+        if (isLedgerMode()) {
+            ledgerService.postTransfer(LedgerPostingDto.builder()
+                    .transferId(transferId)
+                    .sourceAccountId(sourceAccountEntity.getAccountId())
+                    .sourceCurrency(sourceCurrency)
+                    .amountToDebit(amountToDebit)
+                    .commission(chargesData.getCommission())
+                    .itf(chargesData.getItf())
+                    .destinationAccountId(transfer.getDestAccountNumber())
+                    .destCurrency(destCurrency)
+                    .amountToCredit(amountToCredit)
+                    .externalDestination(destinationData.isExternal())
+                    .dateTime(dateTime)
+                    .build());
+        }
+
+        // 10.2) Destino en otro shard: el abono se aplica después del commit del débito
+        if (destinationData.isCrossShard()) {
+            shardingService.registerPendingCredit(PendingCreditDto.builder()
+                    .transferId(transferId)
+                    .sourceAccountId(sourceAccountEntity.getAccountId())
+                    .sourceCurrency(sourceCurrency)
+                    .totalDebit(chargesData.getTotalDebit())
+                    .destAccountId(destinationData.getDestAccountId())
+                    .destCurrency(destCurrency)
+                    .amountToCredit(amountToCredit)
+                    .description(request.getTransferData().getDescription())
+                    .build());
+        }
+
+        // 10.3) Eventos: se encolan solo si la transacción confirma (sin esperar a los sinks)
+        publishEvents(transfer, sourceCurrency, chargesData.getTotalDebit(), destinationData);
+
         // 11) Respuesta
         TransferResponse response = transferMapper.toResponse(transfer);
         response.setCommissionApplied(
@@ -161,10 +240,36 @@ public class TransferServiceImpl implements TransferService {
 
     // 2. Helpers privados a agregar en la misma clase
 
+    // TransferCreated siempre; TransferSettled cuando el abono ya quedó aplicado en esta misma
+    // transacción: destino interno del mismo shard (EJECUTADA o PENDIENTE, el abono es inmediato) o
+    // externo EJECUTADA. El abono cross-shard lo confirma ShardingServiceImpl, que publica el suyo
+    private void publishEvents(Transfer transfer, String sourceCurrency, BigDecimal totalDebit,
+                               DestinationData destinationData) {
+        transferEventPublisher.publishAfterCommit(TransferEvents.created(transfer, sourceCurrency, totalDebit));
+        boolean creditApplied = !destinationData.isExternal()
+                || TransferPricing.STATUS_EXECUTED.equals(transfer.getStatus());
+        if (creditApplied && !destinationData.isCrossShard()) {
+            transferEventPublisher.publishAfterCommit(TransferEvents.settled(transfer, sourceCurrency, totalDebit));
+        }
+    }
+
     // 2.1 Resolver cuenta origen
+    // Las filas de origen y destino se bloquean siempre en orden de account_id: dos transferencias en
+    // sentidos opuestos entre las mismas cuentas (A->B y B->A) no se esperan en cruz. El segundo
+    // SELECT ... FOR UPDATE sobre una fila ya bloqueada por esta transacción no espera.
+    private void lockInAccountOrder(String sourceAccountId, String destinationAccountId) {
+        if (!isLedgerMode() && destinationAccountId.compareTo(sourceAccountId) < 0) {
+            accountRepository.findAndLockByAccountId(destinationAccountId);
+        }
+    }
+
     private com.example.transfers_service.entity.Account getAndLockSourceAccount(String sourceAccountId) {
         return accountRepository.findAndLockByAccountId(sourceAccountId)
-                .orElseThrow(() -> new RuntimeException("Cuenta no existe: " + sourceAccountId));
+                .orElseThrow(() -> new AccountNotFoundException("Cuenta no existe: " + sourceAccountId));
+    }
+
+    private void validateAccountActive(String accountId, String status) {
+        TransferValidationServiceImpl.requireActive(accountId, status);
     }
 
     // 2.3 Validar que la cuenta origen pertenezca al cliente del JSON
@@ -172,21 +277,14 @@ public class TransferServiceImpl implements TransferService {
             com.example.transfers_service.entity.Account sourceAccountEntity,
             com.example.transfers_service.dto.request.CustomerRef customerRef
     ) {
-        if (customerRef == null) {
-            throw new IllegalArgumentException("La información del cliente es obligatoria.");
-        }
-
-        String customerIdFromRequest = customerRef.getCustomerId();
-        if (customerIdFromRequest == null || customerIdFromRequest.isBlank()) {
-            throw new IllegalArgumentException("El customerId del request es obligatorio.");
-        }
+        validateSourceAccountOwner(sourceAccountEntity.getCustomerId(), customerRef);
+    }
 
-        String accountCustomerId = sourceAccountEntity.getCustomerId();
-        if (accountCustomerId == null || !accountCustomerId.equals(customerIdFromRequest)) {
-            throw new IllegalArgumentException(
-                    "La cuenta origen no pertenece al cliente indicado en la solicitud."
-            );
-        }
+    private void validateSourceAccountOwner(
+            String accountCustomerId,
+            com.example.transfers_service.dto.request.CustomerRef customerRef
+    ) {
+        TransferValidationServiceImpl.requireOwner(accountCustomerId, customerRef);
     }
 
     // 2.2. Clase para encapsular información del destino
@@ -196,21 +294,46 @@ public class TransferServiceImpl implements TransferService {
         private final com.example.transfers_service.entity.Account internalAccount;
         private final ExternalAccountInfo externalAccountInfo;
         private final String destCurrency;
+        private final RemoteAccountDto remoteAccount;
 
         DestinationData(boolean external,
                         com.example.transfers_service.entity.Account internalAccount,
                         ExternalAccountInfo externalAccountInfo,
                         String destCurrency) {
+            this(external, internalAccount, externalAccountInfo, destCurrency, null);
+        }
+
+        DestinationData(boolean external,
+                        com.example.transfers_service.entity.Account internalAccount,
+                        ExternalAccountInfo externalAccountInfo,
+                        String destCurrency,
+                        RemoteAccountDto remoteAccount) {
             this.external = external;
             this.internalAccount = internalAccount;
             this.externalAccountInfo = externalAccountInfo;
             this.destCurrency = destCurrency;
+            this.remoteAccount = remoteAccount;
+        }
+
+        // Cuenta interna que vive en otro shard
+        boolean isCrossShard() {
+            return remoteAccount != null;
+        }
+
+        String getDestAccountId() {
+            if (external) {
+                return externalAccountInfo.getAccountId();
+            }
+            return isCrossShard() ? remoteAccount.accountId() : internalAccount.getAccountId();
         }
     }
 
     // 2.3. Resolver cuenta destino (interna o externa)
     private DestinationData resolveDestinationAccount(String destinyAccountId) {
-        var destinyAccountEntityOpt = accountRepository.findAndLockByAccountId(destinyAccountId);
+        // En modo libro mayor el abono es solo un INSERT: no hace falta bloquear la cuenta destino
+        var destinyAccountEntityOpt = isLedgerMode()
+                ? accountRepository.findById(destinyAccountId)
+                : accountRepository.findAndLockByAccountId(destinyAccountId);
 
         if (destinyAccountEntityOpt.isPresent()) {
             var internal = destinyAccountEntityOpt.get();
@@ -222,6 +345,20 @@ public class TransferServiceImpl implements TransferService {
             );
         }
 
+        // Con sharding la cuenta puede ser nuestra pero vivir en otro shard
+        if (shardingService.isEnabled()) {
+            Optional<RemoteAccountDto> remote = shardingService.findRemoteDestination(destinyAccountId);
+            if (remote.isPresent()) {
+                return new DestinationData(
+                        false,
+                        null,
+                        null,
+                        remote.get().currency(),
+                        remote.get()
+                );
+            }
+        }
+
         // No existe en BD: intento servicio externo
         Optional<ExternalAccountInfo> ext = fetchExternalAccount(destinyAccountId);
         if (ext.isPresent()) {
@@ -237,42 +374,25 @@ public class TransferServiceImpl implements TransferService {
         throw new AccountNotFoundException("Cuenta destino no existe en nuestra bd ni en el servicio externo: " + destinyAccountId);
     }
 
-    private void validateSupportedCurrencies(String... currencies) {
-        for (String cur : currencies) {
-            if (!cur.equalsIgnoreCase(CUR_PEN) && !cur.equalsIgnoreCase(CUR_USD)) {
-                throw new IllegalArgumentException("Moneda no soportada: " + cur);
-            }
-        }
+    private CurrencyCode resolveCurrency(String currency) {
+        return pricing.currency(currency);
     }
 
     // 2.5. Construir monto ingresado por el usuario
     private BigDecimal buildUserAmount(TransferRequest request) {
-        return BigDecimal.valueOf(request.getTransferData().getAmount())
-                .setScale(SCALE + 4, RoundingMode.HALF_UP);
+        return TransferPricing.userAmount(request.getTransferData().getAmount());
     }
-    // 2.6. Cálculo de montos a debitar / acreditar
+    // 2.6. Cálculo de montos a debitar / acreditar (reglas en TransferPricing)
     private BigDecimal calculateAmountToDebit(BigDecimal amountUser,
-                                              String userCurrency,
-                                              String sourceCurrency) {
-
-        if (sourceCurrency.equalsIgnoreCase(CUR_PEN) && userCurrency.equalsIgnoreCase(CUR_USD)) {
-            // Cliente compra USD con PEN -> usar VENTA (PEN por USD)
-            return amountUser.multiply(FX_VENTA_BD).setScale(SCALE + 4, RoundingMode.HALF_UP);
-        }
-        if (sourceCurrency.equalsIgnoreCase(CUR_USD) && userCurrency.equalsIgnoreCase(CUR_PEN)) {
-            // Cliente vende USD por PEN -> usar COMPRA (USD por PEN)
-            return amountUser.divide(FX_COMPRA_BD, SCALE + 4, RoundingMode.HALF_UP);
-        }
-        // Misma moneda u otros casos -> conversión genérica
-        return convert(amountUser, userCurrency, sourceCurrency)
-                .setScale(SCALE + 4, RoundingMode.HALF_UP);
+                                              CurrencyCode userCurrency,
+                                              CurrencyCode sourceCurrency) {
+        return pricing.amountToDebit(amountUser, userCurrency, sourceCurrency);
     }
 
     private BigDecimal calculateAmountToCredit(BigDecimal amountUser,
-                                               String userCurrency,
-                                               String destCurrency) {
-        return convert(amountUser, userCurrency, destCurrency)
-                .setScale(SCALE + 4, RoundingMode.HALF_UP);
+                                               CurrencyCode userCurrency,
+                                               CurrencyCode destCurrency) {
+        return pricing.amountToCredit(amountUser, userCurrency, destCurrency);
     }
 
     // 2.7. Clase para encapsular los cargos (comisión, ITF, total, tipo)
@@ -292,51 +412,17 @@ public class TransferServiceImpl implements TransferService {
 
     }
 
-    private BigDecimal calculateCommission(BigDecimal amount, String currency) {
-        // Lógica para calcular la comisión
-        // Por ejemplo: $2.00 para transferencias en línea, $1.00 para diferidas
-        return determineTransferType(LocalDateTime.now()) ?
-                new BigDecimal("2.00") :
-                new BigDecimal("1.00");
-    }
-
-    private BigDecimal calculateItf(BigDecimal amount, LocalDateTime dateTime) {
-        // Lógica para calcular el ITF
-        // 0.005% del monto si aplica
-        boolean appliesItf = false;
-        String currency = "PEN"; // O la moneda correspondiente
-
-        if (CUR_PEN.equalsIgnoreCase(currency)) {
-            appliesItf = amount.compareTo(new BigDecimal("2000.00")) >= 0;
-        } else if (CUR_USD.equalsIgnoreCase(currency)) {
-            appliesItf = amount.compareTo(new BigDecimal("500.00")) >= 0;
-        }
-
-        return appliesItf ?
-                amount.multiply(new BigDecimal("0.00005")).setScale(2, RoundingMode.HALF_UP) :
-                BigDecimal.ZERO;
-    }
     // 2.8. Cálculo de tipo, comisión, ITF y total a debitar
     private ChargesData calculateCharges(String sourceCurrency,
                                          BigDecimal amountToDebit,
                                          LocalDateTime dateTime) {
-        // Determinar si es transferencia ONLINE (true) o DIFERIDA (false)
-        boolean isOnline = determineTransferType(dateTime);
-
-        // Asignar el tipo de transferencia
-        String transferType = isOnline ? TRANSFER_TYPE_ONLINE : "DIFERIDA";
-
-        // Calcular comisión, ITF y total a debitar
-        BigDecimal commission = calculateCommission(amountToDebit, sourceCurrency);
-        BigDecimal itf = calculateItf(amountToDebit, dateTime);
-        BigDecimal totalDebit = amountToDebit.add(commission).add(itf);
-
-        return new ChargesData(
-                transferType,  // Ahora es un String
-                commission,
-                itf,
-                totalDebit
-        );
+        return calculateCharges(resolveCurrency(sourceCurrency), amountToDebit, dateTime);
+    }
+
+    private ChargesData calculateCharges(CurrencyCode sourceCurrency,
+                                         BigDecimal amountToDebit,
+                                         LocalDateTime dateTime) {
+        return pricing.charges(sourceCurrency, amountToDebit, dateTime);
     }
 
     // 2.9. Validar y actualizar saldo origen
@@ -345,6 +431,19 @@ public class TransferServiceImpl implements TransferService {
                                             String sourceCurrency,
                                             String sourceAccountId) {
 
+        if (isLedgerMode()) {
+            // El saldo sale del libro mayor; el lock de la cuenta origen sigue serializando los cargos
+            BigDecimal ledgerBalance = ledgerService.currentBalance(sourceAccountId)
+                    .setScale(SCALE, RoundingMode.HALF_UP);
+            if (ledgerBalance.compareTo(totalDebit) < 0) {
+                throw new InsufficientBalanceException(
+                        "Saldo insuficiente. tu saldo actual es: " + ledgerBalance + " " + sourceCurrency +
+                                ", y se necesita: " + totalDebit + " " + sourceCurrency
+                );
+            }
+            return;
+        }
+
         if (sourceAccountEntity.getBalance() == null) {
             throw new InsufficientBalanceException("Saldo nulo en cuenta origen: " + sourceAccountId);
         }
@@ -376,7 +475,9 @@ public class TransferServiceImpl implements TransferService {
         private BigDecimal amountToCredit;
         private String destCurrency;
         private String userCurrency;
+        private BigDecimal fxRateUsed;
         private ChargesData chargesData;
+        private FraudAssessmentDto fraudAssessment;
         private LocalDateTime dateTime;
         private String transferId;
 
@@ -392,43 +493,35 @@ public class TransferServiceImpl implements TransferService {
         var amountToCredit      = buildParams.getAmountToCredit();
         var destCurrency        = buildParams.getDestCurrency();
         var userCurrency        = buildParams.getUserCurrency();
+        var fxRateUsed          = buildParams.getFxRateUsed();
         var chargesData         = buildParams.getChargesData();
+        var fraudAssessment     = buildParams.getFraudAssessment();
         var dateTime            = buildParams.getDateTime();
         var transferId          = buildParams.getTransferId();
 
-        // Cambia las líneas 380-387 por:
-        String status = determineTransferType(dateTime) ? "EJECUTADA" : "PENDIENTE";
-        String transferType = determineTransferType(dateTime) ? TRANSFER_TYPE_ONLINE : "DIFERIDA";
-
-        String baseDesc = request.getTransferData().getDescription();
-
-        String descInput = String.format(
-                Locale.US,
-                " | Usuario envió: %s %s -> Debitado: %s %s (Comisión: %s %s, ITF: %s %s) -> Acreditado: %s %s",
-                amountUser.setScale(SCALE, RoundingMode.HALF_UP).toPlainString(), userCurrency.toUpperCase(),
-                chargesData.getTotalDebit().setScale(SCALE, RoundingMode.HALF_UP).toPlainString(), sourceAccountEntity.getCurrency().toUpperCase(),
-                chargesData.getCommission().setScale(SCALE, RoundingMode.HALF_UP).toPlainString(), sourceAccountEntity.getCurrency().toUpperCase(),
-                chargesData.getItf().setScale(SCALE, RoundingMode.HALF_UP).toPlainString(), sourceAccountEntity.getCurrency().toUpperCase(),
-                amountToCredit.setScale(SCALE, RoundingMode.HALF_UP).toPlainString(), destCurrency.toUpperCase()
-        );
+        String status = determineTransferType(dateTime) ? TransferPricing.STATUS_EXECUTED : TransferPricing.STATUS_PENDING;
 
         // Armamos el TransferParams para el mapper
         TransferParams params = new TransferParams();
         params.setTransferId(transferId);
         params.setCustomerId(sourceAccountEntity.getCustomerId());
         params.setSourceAccountId(sourceAccountEntity.getAccountId());
-        params.setDestAccountNumber(
-                destinationData.isExternal()
-                        ? destinationData.getExternalAccountInfo().getAccountId()
-                        : destinationData.getInternalAccount().getAccountId()
-        );
+        params.setDestAccountNumber(destinationData.getDestAccountId());
         params.setDestCurrency(destCurrency);
         params.setAmount(
                 amountToCredit.setScale(SCALE, RoundingMode.HALF_UP).doubleValue()
         );
-        params.setDescription(
-                (baseDesc == null ? "" : baseDesc) + descInput
-        );
+        // Montos en columnas tipadas: el detalle legible se arma solo al consultar (TransferQueryService)
+        params.setDescription(request.getTransferData().getDescription());
+        params.setAmountSent(amountUser.setScale(SCALE, RoundingMode.HALF_UP));
+        params.setCurrencySent(userCurrency);
+        params.setTotalDebit(chargesData.getTotalDebit().setScale(SCALE, RoundingMode.HALF_UP));
+        params.setDebitCurrency(sourceAccountEntity.getCurrency());
+        params.setCommission(chargesData.getCommission().setScale(SCALE, RoundingMode.HALF_UP));
+        params.setItf(chargesData.getItf().setScale(SCALE, RoundingMode.HALF_UP));
+        params.setFxRateUsed(fxRateUsed);
+        params.setFraudDecision(fraudAssessment.decision());
+        params.setFraudScore(fraudAssessment.score());
         params.setTransferDatetime(dateTime);
         params.setTransferType(chargesData.getTransferType().toUpperCase());
         params.setStatus(status);
@@ -484,7 +577,7 @@ public class TransferServiceImpl implements TransferService {
     private void applyDestinationCredit(DestinationData destinationData,
                                         String transferId,
                                         BigDecimal amountToCredit,
-                                        String destCurrency,
+                                        CurrencyCode destCurrency,
                                         String originalDescription) {
 
         if (destinationData.isExternal()) {
@@ -493,9 +586,14 @@ public class TransferServiceImpl implements TransferService {
             return;
         }
 
+        if (destinationData.isCrossShard()) {
+            // El abono lo aplica ShardingService en el shard destino, tras el commit
+            return;
+        }
+
         var destEntity = destinationData.getInternalAccount();
-        if (!destEntity.getCurrency().equalsIgnoreCase(destCurrency)) {
-            throw new IllegalArgumentException("La moneda de la cuenta destino en BD ("
+        if (!resolveCurrency(destEntity.getCurrency()).is(destCurrency)) {
+            throw new InvalidTransferException("La moneda de la cuenta destino en BD ("
                     + destEntity.getCurrency() + ") no coincide con la solicitada (" + destCurrency + ")");
         }
 
@@ -503,11 +601,16 @@ public class TransferServiceImpl implements TransferService {
                 destEntity.getAccountId(),
                 transferId,
                 amountToCredit.setScale(SCALE, RoundingMode.HALF_UP).doubleValue(),
-                destCurrency,
+                destCurrency.code(),
                 "IN",
                 originalDescription
         );
 
+        if (isLedgerMode()) {
+            // el abono queda registrado como asiento del libro mayor
+            return;
+        }
+
         BigDecimal destBalanceBD = BigDecimal.valueOf(destEntity.getBalance())
                 .setScale(SCALE, RoundingMode.HALF_UP);
 
@@ -520,21 +623,10 @@ public class TransferServiceImpl implements TransferService {
 
     /**
      * Convierte amount (BigDecimal) desde la moneda 'from' hacia la moneda 'to'
-     * Soporta "PEN" y "USD".
+     * Soporta las monedas configuradas en CurrencyRegistry.
      */
     private BigDecimal convert(BigDecimal amount, String from, String to) {
-        if (from.equalsIgnoreCase(to)) {
-            return amount.setScale(SCALE + 4, RoundingMode.HALF_UP);
-        }
-        // USD -> PEN : multiplicar por FX_COMPRA_BD (3.50)
-        if (from.equalsIgnoreCase(CUR_USD) && to.equalsIgnoreCase(CUR_PEN)) {
-            return amount.multiply(FX_COMPRA_BD).setScale(SCALE + 4, RoundingMode.HALF_UP);
-        }
-        // PEN -> USD : dividir por FX_VENTA_BD (3.80)
-        if (from.equalsIgnoreCase(CUR_PEN) && to.equalsIgnoreCase(CUR_USD)) {
-            return amount.divide(FX_VENTA_BD, SCALE + 4, RoundingMode.HALF_UP);
-        }
-        throw new IllegalArgumentException("Conversión no soportada: " + from + " -> " + to);
+        return pricing.convert(amount, from, to);
     }
 
     // Guardar movimiento (refactor: usar MovementParams para cumplir regla de Sonar)
@@ -559,18 +651,13 @@ public class TransferServiceImpl implements TransferService {
         movementRepository.save(movement);
     }
 
+    private boolean isLedgerMode() {
+        return ledgerService.isEnabled();
+    }
+
     // Determina si la transferencia es ONLINE o DIFERIDA (mantengo tu implementación)
     private boolean determineTransferType(LocalDateTime dateTime) {
-        // Lógica para determinar si la transferencia es ONLINE o DIFERIDA
-        // Por ejemplo:
-        LocalTime now = dateTime.toLocalTime();
-        LocalTime startBusinessHours = LocalTime.of(8, 0); // 9:00 AM
-        LocalTime endBusinessHours = LocalTime.of(20, 0);   // 6:00 PM
-
-        // Devuelve true si es día hábil y está dentro del horario laboral
-        return dateTime.getDayOfWeek().getValue() <= 5 &&  // Lunes a Viernes
-                !now.isBefore(startBusinessHours) &&        // Después de las 9:00 AM
-                now.isBefore(endBusinessHours);              // Antes de las 6:00 PM
+        return TransferPricing.isOnline(dateTime);
     }
 
     // ---------- EXTERNAL ACCOUNT PLACEHOLDER ----------
@@ -594,7 +681,9 @@ public class TransferServiceImpl implements TransferService {
      //Reemplazar por llamada REST real (WebClient/RestTemplate) que retorne la moneda y validez.
      Optional<ExternalAccountInfo> fetchExternalAccount(String accountId) {
          try {
-             ExternalAccountResponse response = externalAccountService.validateExternalAccount(accountId);
+             // normalmente ya se validó antes de los locks (TransferValidationService.withExternalDestination)
+             ExternalAccountResponse response = ExternalAccountPrefetch.orElseValidate(accountId,
+                     () -> externalAccountService.validateExternalAccount(accountId));
              if (response != null && "ACTIVE".equals(response.getStatus())) {
                  return Optional.of(new ExternalAccountInfo(
                          response.getExternalAccountId(),
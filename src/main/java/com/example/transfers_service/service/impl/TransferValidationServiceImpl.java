@@ -0,0 +1,167 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.config.ExternalAccountPrefetch;
+import com.example.transfers_service.config.ShardContext;
+import com.example.transfers_service.dto.AccountMetadataDto;
+import com.example.transfers_service.dto.external.ExternalAccountResponse;
+import com.example.transfers_service.dto.request.CustomerRef;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.AccountInactiveException;
+import com.example.transfers_service.exception.AccountNotFoundException;
+import com.example.transfers_service.exception.AccountOwnershipException;
+import com.example.transfers_service.exception.ExternalAccountValidationException;
+import com.example.transfers_service.exception.InvalidTransferException;
+import com.example.transfers_service.service.AccountMetadataService;
+import com.example.transfers_service.service.ExternalAccountService;
+import com.example.transfers_service.service.ShardingService;
+import com.example.transfers_service.service.TransferValidationService;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Supplier;
+
+/**
+ * Etapa de validación previa al lock: primero lo que solo depende del JSON y después lo que
+ * sale de la caché de metadatos de cuenta. Un rechazo aquí no toca saldos ni bloquea filas,
+ * y al ser BusinessException sin stack trace cuesta microsegundos incluso con tráfico malicioso.
+ */
+@Service
+public class TransferValidationServiceImpl implements TransferValidationService {
+
+    // transfers.description y movements.description son VARCHAR(200)
+    static final int MAX_DESCRIPTION_LENGTH = 200;
+
+    // Mensaje fijo: se preasignan (sin stack trace son inmutables y se pueden compartir entre hilos)
+    private static final InvalidTransferException MISSING_CUSTOMER =
+            new InvalidTransferException("La información del cliente es obligatoria.");
+    private static final InvalidTransferException MISSING_CUSTOMER_ID =
+            new InvalidTransferException("El customerId del request es obligatorio.");
+    private static final InvalidTransferException MISSING_ACCOUNTS =
+            new InvalidTransferException("Las cuentas origen y destino son obligatorias.");
+    private static final InvalidTransferException MISSING_TRANSFER_DATA =
+            new InvalidTransferException("Los datos de la transferencia son obligatorios.");
+    private static final InvalidTransferException NON_POSITIVE_AMOUNT =
+            new InvalidTransferException("El monto debe ser mayor que cero.");
+    private static final InvalidTransferException DESCRIPTION_TOO_LONG =
+            new InvalidTransferException("La descripción no puede superar los 200 caracteres.");
+    private static final AccountOwnershipException NOT_OWNER =
+            new AccountOwnershipException("La cuenta origen no pertenece al cliente indicado en la solicitud.");
+
+    private final AccountMetadataService accountMetadataService;
+    private final ExternalAccountService externalAccountService;
+    private final ShardingService shardingService;
+    private final CurrencyRegistry currencyRegistry;
+
+    public TransferValidationServiceImpl(AccountMetadataService accountMetadataService,
+                                         ExternalAccountService externalAccountService,
+                                         ShardingService shardingService,
+                                         CurrencyRegistry currencyRegistry) {
+        this.accountMetadataService = accountMetadataService;
+        this.externalAccountService = externalAccountService;
+        this.shardingService = shardingService;
+        this.currencyRegistry = currencyRegistry;
+    }
+
+    @Override
+    public AccountMetadataDto validateBeforeLock(TransferRequest request) {
+        // 1) Solo el JSON: no hace falta ir a ningún lado
+        requireCustomerId(request.getCustomer());
+        if (request.getSourceAccount() == null || request.getSourceAccount().getAccountId() == null
+                || request.getDestinationAccount() == null || request.getDestinationAccount().getAccountId() == null) {
+            throw MISSING_ACCOUNTS;
+        }
+        if (request.getTransferData() == null || request.getTransferData().getCurrency() == null) {
+            throw MISSING_TRANSFER_DATA;
+        }
+        requirePositiveAmount(request.getTransferData().getAmount());
+        requireDescriptionLength(request.getTransferData().getDescription());
+        currencyRegistry.require(request.getTransferData().getCurrency());
+
+        // 2) Metadatos cacheados de la cuenta origen (sin saldo, sin lock)
+        String sourceAccountId = request.getSourceAccount().getAccountId();
+        AccountMetadataDto source = accountMetadataService.find(sourceAccountId)
+                .orElseThrow(() -> new AccountNotFoundException("Cuenta no existe: " + sourceAccountId));
+        requireOwner(source.customerId(), request.getCustomer());
+        requireActive(source.accountId(), source.status());
+        currencyRegistry.require(source.currency());
+
+        // 3) Destino interno de este shard: mismas comprobaciones; externo o remoto se resuelve después
+        accountMetadataService.find(request.getDestinationAccount().getAccountId())
+                .ifPresent(destination -> {
+                    requireActive(destination.accountId(), destination.status());
+                    currencyRegistry.require(destination.currency());
+                });
+        return source;
+    }
+
+    @Override
+    public <T> T withExternalDestination(TransferRequest request, Supplier<T> work) {
+        String destinationAccountId = request.getDestinationAccount() == null
+                ? null : request.getDestinationAccount().getAccountId();
+        boolean internal = onSourceShard(request, () -> {
+            // lo que se va a rechazar de todos modos no llega al banco externo
+            validateBeforeLock(request);
+            return accountMetadataService.find(destinationAccountId).isPresent()
+                    || (shardingService.isEnabled()
+                    && shardingService.findRemoteDestination(destinationAccountId).isPresent());
+        });
+        if (internal) {
+            return work.get();
+        }
+
+        ExternalAccountResponse response = null;
+        ExternalAccountValidationException failure = null;
+        try {
+            response = externalAccountService.validateExternalAccount(destinationAccountId);
+        } catch (ExternalAccountValidationException e) {
+            failure = e;
+        }
+        return ExternalAccountPrefetch.call(destinationAccountId, response, failure, work);
+    }
+
+    // Con sharding los metadatos se leen en el shard de la cuenta origen, igual que después en la
+    // transacción: sin ShardContext el DataSource cae en el primer shard y la cuenta "no existe"
+    private <T> T onSourceShard(TransferRequest request, Supplier<T> check) {
+        if (!shardingService.isEnabled() || request.getSourceAccount() == null
+                || request.getSourceAccount().getAccountId() == null) {
+            return check.get();
+        }
+        return ShardContext.call(shardingService.shardFor(request.getSourceAccount().getAccountId()), check);
+    }
+
+    static void requireCustomerId(CustomerRef customerRef) {
+        if (customerRef == null) {
+            throw MISSING_CUSTOMER;
+        }
+        String customerId = customerRef.getCustomerId();
+        if (customerId == null || customerId.isBlank()) {
+            throw MISSING_CUSTOMER_ID;
+        }
+    }
+
+    static void requireOwner(String accountCustomerId, CustomerRef customerRef) {
+        requireCustomerId(customerRef);
+        if (accountCustomerId == null || !accountCustomerId.equals(customerRef.getCustomerId())) {
+            throw NOT_OWNER;
+        }
+    }
+
+    static void requireActive(String accountId, String status) {
+        if (status != null && !TransferServiceImpl.ACCOUNT_STATUS_ACTIVE.equalsIgnoreCase(status)) {
+            throw new AccountInactiveException("La cuenta " + accountId + " no está activa (" + status + ").");
+        }
+    }
+
+    static void requirePositiveAmount(Double amount) {
+        if (amount == null || amount.isNaN() || amount.isInfinite() || amount <= 0) {
+            throw NON_POSITIVE_AMOUNT;
+        }
+    }
+
+    // Además de @Size en el DTO: el motor en memoria ya no podría volcar un texto más largo a BD
+    static void requireDescriptionLength(String description) {
+        if (description != null && description.length() > MAX_DESCRIPTION_LENGTH) {
+            throw DESCRIPTION_TOO_LONG;
+        }
+    }
+}
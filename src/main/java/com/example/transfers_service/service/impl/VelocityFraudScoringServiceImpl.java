@@ -0,0 +1,355 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.dto.AccountMetadataDto;
+import com.example.transfers_service.dto.CurrencyCode;
+import com.example.transfers_service.dto.FraudAssessmentDto;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.FraudSuspectedException;
+import com.example.transfers_service.service.FraudScoringService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Etapa de riesgo en línea, antes del lock de la cuenta, con señales en memoria por cuenta origen:
+ * velocidad en número (10 min) y en monto (1 h, frente al ticket típico), destino nunca visto
+ * (count-min global de pares cuenta-destino), muchos destinos distintos en el día (HyperLogLog de
+ * 64 bytes) y sentido de cambio de divisa nunca usado por la cuenta.
+ * Tiene un presupuesto de latencia: si no termina a tiempo (lock de la cuenta ocupado, pausa de GC)
+ * devuelve FALLBACK y la transferencia sigue; el batch revisa después las filas de transfers con
+ * fraud_decision REVIEW o FALLBACK. Las señales se actualizan recién al confirmar la transferencia.
+ */
+@Service
+public class VelocityFraudScoringServiceImpl implements FraudScoringService, SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(VelocityFraudScoringServiceImpl.class);
+
+    public static final String DECISION_ALLOW = "ALLOW";
+    public static final String DECISION_REVIEW = "REVIEW";
+    public static final String DECISION_BLOCK = "BLOCK";
+    public static final String DECISION_FALLBACK = "FALLBACK";
+
+    public static final String SIGNAL_COUNT_VELOCITY = "COUNT_VELOCITY";
+    public static final String SIGNAL_AMOUNT_VELOCITY = "AMOUNT_VELOCITY";
+    public static final String SIGNAL_NEW_DESTINATION = "NEW_DESTINATION";
+    public static final String SIGNAL_DESTINATION_FANOUT = "DESTINATION_FANOUT";
+    public static final String SIGNAL_UNUSUAL_FX = "UNUSUAL_FX";
+
+    private static final int POINTS_COUNT_VELOCITY = 35;
+    private static final int POINTS_AMOUNT_VELOCITY = 30;
+    private static final int POINTS_NEW_DESTINATION = 20;
+    private static final int POINTS_DESTINATION_FANOUT = 25;
+    private static final int POINTS_UNUSUAL_FX = 20;
+
+    static final long COUNT_BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    static final int COUNT_BUCKETS = 10;
+    static final long AMOUNT_BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    static final int AMOUNT_BUCKETS = 12;
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final int HLL_PRECISION = 6;
+    // peso del último monto en el ticket típico (media móvil exponencial)
+    private static final double TYPICAL_ALPHA = 0.1;
+
+    private static final FraudAssessmentDto DISABLED = new FraudAssessmentDto(0, DECISION_ALLOW, List.of(), 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransferPricing pricing;
+    private final Settings settings;
+    private final LongSupplier clock;
+    private final LongSupplier nanoClock;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final CountMinSketch knownDestinations;
+    private final ConcurrentHashMap<String, AccountState> accounts = new ConcurrentHashMap<>();
+    private final LongAdder assessments = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    @Autowired
+    public VelocityFraudScoringServiceImpl(
+            JdbcTemplate jdbcTemplate,
+            CurrencyRegistry currencyRegistry,
+            @Value("${transfers.fraud.enabled:true}") boolean enabled,
+            @Value("${transfers.fraud.budget-micros:200}") long budgetMicros,
+            @Value("${transfers.fraud.review-score:50}") int reviewScore,
+            @Value("${transfers.fraud.block-score:80}") int blockScore,
+            @Value("${transfers.fraud.count-threshold:5}") int countThreshold,
+            @Value("${transfers.fraud.amount-multiplier:10}") int amountMultiplier,
+            @Value("${transfers.fraud.fanout-threshold:10}") int fanoutThreshold,
+            @Value("${transfers.fraud.min-history:5}") int minHistory,
+            @Value("${transfers.fraud.sketch.depth:4}") int sketchDepth,
+            @Value("${transfers.fraud.sketch.width:65536}") int sketchWidth,
+            @Value("${transfers.fraud.warmup-days:30}") int warmupDays,
+            @Value("${transfers.fraud.idle-ttl-hours:168}") long idleTtlHours) {
+        this(jdbcTemplate, currencyRegistry,
+                new Settings(enabled, TimeUnit.MICROSECONDS.toNanos(budgetMicros), reviewScore, blockScore,
+                        countThreshold, amountMultiplier, fanoutThreshold, minHistory, sketchDepth, sketchWidth,
+                        warmupDays, TimeUnit.HOURS.toMillis(idleTtlHours)),
+                System::currentTimeMillis,
+                System::nanoTime);
+    }
+
+    VelocityFraudScoringServiceImpl(JdbcTemplate jdbcTemplate,
+                                    CurrencyRegistry currencyRegistry,
+                                    Settings settings,
+                                    LongSupplier clock,
+                                    LongSupplier nanoClock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pricing = new TransferPricing(currencyRegistry);
+        this.settings = settings;
+        this.clock = clock;
+        this.nanoClock = nanoClock;
+        this.knownDestinations = new CountMinSketch(settings.sketchDepth(), settings.sketchWidth());
+    }
+
+    record Settings(boolean enabled,
+                    long budgetNanos,
+                    int reviewScore,
+                    int blockScore,
+                    int countThreshold,
+                    int amountMultiplier,
+                    int fanoutThreshold,
+                    int minHistory,
+                    int sketchDepth,
+                    int sketchWidth,
+                    int warmupDays,
+                    long idleTtlMillis) {
+    }
+
+    // Los pares cuenta-destino recientes se cargan al arrancar para no marcar como nuevo todo destino
+    // tras un reinicio. Es opcional: sin BD la etapa funciona igual, con más falsos "destino nuevo"
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!settings.enabled() || settings.warmupDays() <= 0 || jdbcTemplate == null) {
+            return;
+        }
+        try {
+            LocalDateTime from = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(clock.getAsLong() - settings.warmupDays() * DAY_MILLIS), zone);
+            int[] loaded = {0};
+            jdbcTemplate.query("select source_account_id, dest_account_number from transfers"
+                            + " where transfer_datetime >= ?",
+                    rs -> {
+                        knownDestinations.add(CountMinSketch.hash(rs.getString(1), rs.getString(2)));
+                        loaded[0]++;
+                    },
+                    Timestamp.valueOf(from));
+            log.info("Riesgo en línea: {} pares cuenta-destino cargados de los últimos {} días",
+                    loaded[0], settings.warmupDays());
+        } catch (DataAccessException e) {
+            log.warn("Riesgo en línea: no se pudieron cargar los destinos conocidos ({})", e.getMessage());
+        }
+    }
+
+    @Override
+    public FraudAssessmentDto screen(TransferRequest request, AccountMetadataDto source) {
+        if (!settings.enabled() || request == null || request.getSourceAccount() == null
+                || request.getDestinationAccount() == null || request.getTransferData() == null) {
+            return DISABLED;
+        }
+        long start = nanoClock.getAsLong();
+        assessments.increment();
+        String accountId = request.getSourceAccount().getAccountId();
+        String destinationId = request.getDestinationAccount().getAccountId();
+        long cents = pricing.baseCents(request.getTransferData());
+        int fxDirection = fxDirection(source, request);
+        long pairHash = CountMinSketch.hash(accountId, destinationId);
+        boolean newDestination = knownDestinations.estimate(pairHash) == 0;
+        long now = clock.getAsLong();
+
+        AccountState state = accounts.computeIfAbsent(accountId, k -> new AccountState(now));
+        if (!lockWithinBudget(state, start)) {
+            learnAfterCommit(accountId, now, cents, pairHash, fxDirection);
+            return fallback(accountId, 0, List.of(), start);
+        }
+        // solo se lee el estado: lo aprende learn() cuando la transferencia confirma
+        int score = 0;
+        List<String> signals = new ArrayList<>(4);
+        try {
+            if (state.count.total(now) + 1 > settings.countThreshold()) {
+                score += POINTS_COUNT_VELOCITY;
+                signals.add(SIGNAL_COUNT_VELOCITY);
+            }
+            if (state.history >= settings.minHistory()
+                    && state.amount.total(now) + cents > settings.amountMultiplier() * state.typicalCents) {
+                score += POINTS_AMOUNT_VELOCITY;
+                signals.add(SIGNAL_AMOUNT_VELOCITY);
+            }
+            if (newDestination && state.history > 0) {
+                score += POINTS_NEW_DESTINATION;
+                signals.add(SIGNAL_NEW_DESTINATION);
+            }
+            if (state.destinationsWith(now, pairHash) > settings.fanoutThreshold()) {
+                score += POINTS_DESTINATION_FANOUT;
+                signals.add(SIGNAL_DESTINATION_FANOUT);
+            }
+            if (fxDirection >= 0 && state.history >= settings.minHistory()
+                    && (state.fxDirections & (1L << fxDirection)) == 0) {
+                score += POINTS_UNUSUAL_FX;
+                signals.add(SIGNAL_UNUSUAL_FX);
+            }
+        } finally {
+            state.lock.unlock();
+        }
+
+        // un BLOCK ya calculado se respeta aunque se haya pasado del presupuesto
+        score = Math.min(100, score);
+        if (score >= settings.blockScore()) {
+            throw new FraudSuspectedException("Transferencia bloqueada por la evaluación de riesgo: " + signals);
+        }
+        learnAfterCommit(accountId, now, cents, pairHash, fxDirection);
+        long elapsed = nanoClock.getAsLong() - start;
+        if (elapsed > settings.budgetNanos()) {
+            return fallback(accountId, score, signals, start);
+        }
+        String decision = score >= settings.reviewScore() ? DECISION_REVIEW : DECISION_ALLOW;
+        if (DECISION_REVIEW.equals(decision)) {
+            // debug: en ráfagas serían miles de líneas dentro del presupuesto; la decisión va en el resultado
+            log.debug("Transferencia de {} marcada para revisión (puntaje {}, {})", accountId, score, signals);
+        }
+        return new FraudAssessmentDto(score, decision, signals, elapsed);
+    }
+
+    // Las señales aprenden solo de transferencias que existen: una bloqueada, o rechazada después
+    // (límites, saldo, BD), no cuenta para la velocidad ni deja su destino como conocido
+    private void learnAfterCommit(String accountId, long now, long cents, long pairHash, int fxDirection) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            learn(accountId, now, cents, pairHash, fxDirection);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                learn(accountId, now, cents, pairHash, fxDirection);
+            }
+        });
+    }
+
+    // Ya fuera del presupuesto (después del commit): espera el lock de la cuenta sin límite
+    private void learn(String accountId, long now, long cents, long pairHash, int fxDirection) {
+        AccountState state = accounts.computeIfAbsent(accountId, k -> new AccountState(now));
+        state.lock.lock();
+        try {
+            state.learn(now, cents, pairHash, fxDirection);
+        } finally {
+            state.lock.unlock();
+        }
+        knownDestinations.add(pairHash);
+    }
+
+    // Elimina las cuentas sin transferencias durante idle-ttl; si justo llega una, empieza de cero
+    @Scheduled(fixedDelayString = "${transfers.fraud.eviction-interval-ms:3600000}")
+    public void evictIdleAccounts() {
+        long now = clock.getAsLong();
+        accounts.values().removeIf(state -> now - state.lastSeen > settings.idleTtlMillis());
+    }
+
+    int activeAccounts() {
+        return accounts.size();
+    }
+
+    long assessments() {
+        return assessments.sum();
+    }
+
+    long fallbacks() {
+        return fallbacks.sum();
+    }
+
+    // Espera por el lock de la cuenta como mucho lo que queda del presupuesto
+    private boolean lockWithinBudget(AccountState state, long start) {
+        long remaining = settings.budgetNanos() - (nanoClock.getAsLong() - start);
+        try {
+            return state.lock.tryLock(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private FraudAssessmentDto fallback(String accountId, int score, List<String> signals, long start) {
+        fallbacks.increment();
+        long elapsed = nanoClock.getAsLong() - start;
+        // camino caliente: bajo carga puede pasar en cada solicitud; el volumen lo da el contador
+        log.debug("Riesgo en línea fuera de presupuesto para {} ({} µs, puntaje parcial {} {}): se deja al batch",
+                accountId, TimeUnit.NANOSECONDS.toMicros(elapsed), score, signals);
+        return new FraudAssessmentDto(score, DECISION_FALLBACK, signals, elapsed);
+    }
+
+    // Sentido moneda de la cuenta -> moneda de la solicitud como bit (0..63), o -1 si no hay cambio
+    private int fxDirection(AccountMetadataDto source, TransferRequest request) {
+        if (source == null) {
+            return -1;
+        }
+        CurrencyRegistry registry = pricing.registry();
+        CurrencyCode from = registry.lookup(source.currency());
+        CurrencyCode to = registry.lookup(request.getTransferData().getCurrency());
+        if (from == null || to == null || from.is(to)) {
+            return -1;
+        }
+        int direction = from.index() * registry.size() + to.index();
+        return direction < Long.SIZE ? direction : -1;
+    }
+
+    // Señales de una cuenta: ~300 bytes fijos, protegidos por su propio lock
+    static final class AccountState {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final TimeBucketRing count;
+        private final TimeBucketRing amount;
+        private final HyperLogLog destinations = new HyperLogLog(HLL_PRECISION);
+        private long day;
+        private double typicalCents;
+        private long history;
+        private long fxDirections;
+        private volatile long lastSeen;
+
+        AccountState(long now) {
+            this.count = new TimeBucketRing(COUNT_BUCKET_MILLIS, COUNT_BUCKETS, now);
+            this.amount = new TimeBucketRing(AMOUNT_BUCKET_MILLIS, AMOUNT_BUCKETS, now);
+            this.day = now / DAY_MILLIS;
+            this.lastSeen = now;
+        }
+
+        // Destinos distintos del día (natural, UTC) contando el de la solicitud, sin registrarlo
+        long destinationsWith(long now, long pairHash) {
+            return now / DAY_MILLIS != day ? 1 : destinations.estimateWith(pairHash);
+        }
+
+        void learn(long now, long cents, long pairHash, int fxDirection) {
+            long today = now / DAY_MILLIS;
+            if (today != day) {
+                destinations.clear();
+                day = today;
+            }
+            destinations.add(pairHash);
+            if (fxDirection >= 0) {
+                fxDirections |= 1L << fxDirection;
+            }
+            count.add(now, 1);
+            amount.add(now, cents);
+            typicalCents = history == 0 ? cents : typicalCents + TYPICAL_ALPHA * (cents - typicalCents);
+            history++;
+            lastSeen = now;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+-- Claves ULID binarias (transfers.ids.mode=binary, MySQL 8). Migración opcional: no está en la
+-- secuencia de db/migration y en modo text no se aplica. Aplicar con el cliente mysql antes de
+-- arrancar con el modo binario, o con Flyway sumando esta carpeta a las ubicaciones:
+--   spring.flyway.locations=classpath:db/migration,classpath:db/ids-binary
+-- transfers.transfer_id, movements.movement_id y movements.transfer_id pasan de VARCHAR(40)
+-- ("TRX-01JD...") a BINARY(16) con solo el ULID; el prefijo lo añade PrefixedUlidType al leer.
+-- Las demás tablas (journal_entries, transfer_intents, ...) siguen guardando el texto.
+-- Es condicional: cada tabla se convierte solo si su id sigue siendo VARCHAR, así que puede volver a
+-- ejecutarse tras un fallo. No depende de V3: la PK conserva la forma que tenga ((id, fecha) con el
+-- particionado, solo el id sin él), igual que idx_movements_transfer, que solo existe con V3.
+
+DROP FUNCTION IF EXISTS ulid_to_bin;
+DROP FUNCTION IF EXISTS ulid_column_type;
+DROP FUNCTION IF EXISTS ulid_in_primary_key;
+DROP PROCEDURE IF EXISTS binary_ulid_keys;
+
+DELIMITER $$
+
+-- "TRX-01JDXQ5G8W9V1Z3M7Q9H4M0R2S" -> 16 bytes. Traduce el base32 de Crockford al alfabeto
+-- de CONV() y convierte en tramos de 2 + 12 + 12 caracteres (8 + 60 + 60 bits).
+CREATE FUNCTION ulid_to_bin(id VARCHAR(40)) RETURNS BINARY(16) DETERMINISTIC
+BEGIN
+    DECLARE ulid CHAR(26) DEFAULT UPPER(SUBSTRING_INDEX(id, '-', -1));
+    DECLARE digits VARCHAR(26) DEFAULT '';
+    DECLARE i INT DEFAULT 1;
+    WHILE i <= 26 DO
+        SET digits = CONCAT(digits, SUBSTRING('0123456789ABCDEFGHIJKLMNOPQRSTUV',
+                LOCATE(SUBSTRING(ulid, i, 1), '0123456789ABCDEFGHJKMNPQRSTVWXYZ'), 1));
+        SET i = i + 1;
+    END WHILE;
+    RETURN UNHEX(CONCAT(
+            LPAD(CONV(SUBSTRING(digits, 1, 2), 32, 16), 2, '0'),
+            LPAD(CONV(SUBSTRING(digits, 3, 12), 32, 16), 15, '0'),
+            LPAD(CONV(SUBSTRING(digits, 15, 12), 32, 16), 15, '0')));
+END$$
+
+-- NULL si la columna no existe
+CREATE FUNCTION ulid_column_type(tbl VARCHAR(64), col VARCHAR(64)) RETURNS VARCHAR(64) READS SQL DATA
+    RETURN (SELECT DATA_TYPE FROM information_schema.COLUMNS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = tbl AND COLUMN_NAME = col)$$
+
+CREATE FUNCTION ulid_in_primary_key(tbl VARCHAR(64), col VARCHAR(64)) RETURNS BOOLEAN READS SQL DATA
+    RETURN EXISTS (SELECT 1 FROM information_schema.KEY_COLUMN_USAGE
+                   WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = tbl
+                     AND CONSTRAINT_NAME = 'PRIMARY' AND COLUMN_NAME = col)$$
+
+CREATE PROCEDURE binary_ulid_keys()
+BEGIN
+    IF ulid_column_type('transfers', 'transfer_id') = 'varchar' THEN
+        IF ulid_column_type('transfers', 'transfer_id_bin') IS NULL THEN
+            ALTER TABLE transfers ADD COLUMN transfer_id_bin BINARY(16) NULL FIRST;
+        END IF;
+        UPDATE transfers SET transfer_id_bin = ulid_to_bin(transfer_id);
+        IF ulid_in_primary_key('transfers', 'transfer_datetime') THEN
+            ALTER TABLE transfers
+                DROP PRIMARY KEY,
+                DROP COLUMN transfer_id,
+                CHANGE COLUMN transfer_id_bin transfer_id BINARY(16) NOT NULL,
+                ADD PRIMARY KEY (transfer_id, transfer_datetime);
+        ELSE
+            ALTER TABLE transfers
+                DROP PRIMARY KEY,
+                DROP COLUMN transfer_id,
+                CHANGE COLUMN transfer_id_bin transfer_id BINARY(16) NOT NULL,
+                ADD PRIMARY KEY (transfer_id);
+        END IF;
+    END IF;
+
+    IF ulid_column_type('movements', 'movement_id') = 'varchar' THEN
+        IF ulid_column_type('movements', 'movement_id_bin') IS NULL THEN
+            ALTER TABLE movements
+                ADD COLUMN movement_id_bin BINARY(16) NULL FIRST,
+                ADD COLUMN transfer_id_bin BINARY(16) NULL AFTER account_id;
+        END IF;
+        UPDATE movements
+        SET movement_id_bin = ulid_to_bin(movement_id),
+            transfer_id_bin = IF(transfer_id IS NULL, NULL, ulid_to_bin(transfer_id));
+        IF ulid_in_primary_key('movements', 'movement_dt') THEN
+            ALTER TABLE movements
+                DROP PRIMARY KEY,
+                DROP INDEX idx_movements_transfer,
+                DROP COLUMN movement_id,
+                DROP COLUMN transfer_id,
+                CHANGE COLUMN movement_id_bin movement_id BINARY(16) NOT NULL,
+                CHANGE COLUMN transfer_id_bin transfer_id BINARY(16) NULL,
+                ADD PRIMARY KEY (movement_id, movement_dt),
+                ADD KEY idx_movements_transfer (transfer_id);
+        ELSE
+            ALTER TABLE movements
+                DROP PRIMARY KEY,
+                DROP COLUMN movement_id,
+                DROP COLUMN transfer_id,
+                CHANGE COLUMN movement_id_bin movement_id BINARY(16) NOT NULL,
+                CHANGE COLUMN transfer_id_bin transfer_id BINARY(16) NULL,
+                ADD PRIMARY KEY (movement_id);
+        END IF;
+    END IF;
+END$$
+
+DELIMITER ;
+
+CALL binary_ulid_keys();
+
+DROP PROCEDURE binary_ulid_keys;
+DROP FUNCTION ulid_in_primary_key;
+DROP FUNCTION ulid_column_type;
+DROP FUNCTION ulid_to_bin;
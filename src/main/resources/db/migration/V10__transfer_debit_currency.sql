@@ -0,0 +1,9 @@
+-- Moneda del débito guardada junto a total_debit, commission e itf (moneda de la cuenta origen
+-- al momento de la transferencia): GET /transfers/{transferId} ya no la lee de la fila actual de accounts.
+-- Las filas escritas desde V8 se completan una sola vez aquí; las anteriores a V8 no tienen montos tipados.
+
+ALTER TABLE transfers ADD COLUMN debit_currency VARCHAR(10);
+
+UPDATE transfers t
+SET debit_currency = (SELECT a.currency FROM accounts a WHERE a.account_id = t.source_account_id)
+WHERE total_debit IS NOT NULL AND debit_currency IS NULL;
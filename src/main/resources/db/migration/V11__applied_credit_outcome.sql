@@ -0,0 +1,5 @@
+-- applied_credits distingue el abono aplicado de la marca que lo cancela: cuando una intención
+-- agota sus reintentos, el origen escribe CANCELADO en el shard destino antes de devolver el
+-- débito, y un reintento que llegue tarde ya no puede aplicar el abono. Se aplica en cada shard.
+
+ALTER TABLE applied_credits ADD COLUMN outcome VARCHAR(12) NOT NULL DEFAULT 'APLICADO';
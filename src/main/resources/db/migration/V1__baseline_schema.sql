@@ -0,0 +1,39 @@
+-- Esquema base (MySQL 8) tal como lo mapean las entidades Account, Transfer y Movement.
+-- spring.jpa.hibernate.ddl-auto=none: estos scripts se aplican manualmente o con la herramienta de migraciones.
+
+CREATE TABLE IF NOT EXISTS accounts (
+    account_id   VARCHAR(30)  NOT NULL,
+    customer_id  VARCHAR(30)  NOT NULL,
+    currency     VARCHAR(10)  NOT NULL,
+    balance      DOUBLE       NOT NULL,
+    status       VARCHAR(20),
+    PRIMARY KEY (account_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS transfers (
+    transfer_id          VARCHAR(40)  NOT NULL,
+    customer_id          VARCHAR(30)  NOT NULL,
+    source_account_id    VARCHAR(30)  NOT NULL,
+    dest_account_number  VARCHAR(40)  NOT NULL,
+    dest_bank_name       VARCHAR(100),
+    dest_holder_name     VARCHAR(100),
+    dest_currency        VARCHAR(10),
+    amount               DOUBLE       NOT NULL,
+    description          VARCHAR(200),
+    transfer_datetime    DATETIME(6)  NOT NULL,
+    transfer_type        VARCHAR(20)  NOT NULL,
+    status               VARCHAR(20)  NOT NULL,
+    PRIMARY KEY (transfer_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS movements (
+    movement_id  VARCHAR(40)  NOT NULL,
+    account_id   VARCHAR(30)  NOT NULL,
+    transfer_id  VARCHAR(40),
+    amount       DOUBLE       NOT NULL,
+    currency     VARCHAR(3)   NOT NULL,
+    type         VARCHAR(30)  NOT NULL,
+    description  VARCHAR(200),
+    movement_dt  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (movement_id)
+) ENGINE = InnoDB;
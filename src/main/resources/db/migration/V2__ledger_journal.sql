@@ -0,0 +1,23 @@
+-- Libro mayor de partida doble (transfers.ledger.enabled=true).
+-- journal_entries es append-only; account_balance_checkpoints guarda saldos consolidados.
+
+CREATE TABLE IF NOT EXISTS journal_entries (
+    entry_id     VARCHAR(40)    NOT NULL,
+    transfer_id  VARCHAR(40)    NOT NULL,
+    account_id   VARCHAR(40)    NOT NULL,
+    leg_type     VARCHAR(20)    NOT NULL,
+    amount       DECIMAL(19, 2) NOT NULL,
+    currency     VARCHAR(3)     NOT NULL,
+    created_at   DATETIME(6)    NOT NULL,
+    PRIMARY KEY (entry_id),
+    KEY idx_journal_account_created (account_id, created_at),
+    KEY idx_journal_transfer (transfer_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS account_balance_checkpoints (
+    account_id  VARCHAR(40)    NOT NULL,
+    balance     DECIMAL(19, 2) NOT NULL,
+    cutoff      DATETIME(6)    NOT NULL,
+    updated_at  DATETIME(6)    NOT NULL,
+    PRIMARY KEY (account_id)
+) ENGINE = InnoDB;
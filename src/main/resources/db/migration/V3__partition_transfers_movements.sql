@@ -0,0 +1,34 @@
+-- Particionado mensual por rango de fecha de transfers y movements (MySQL 8).
+-- MySQL exige que la columna de partición forme parte de toda clave única, por eso
+-- la PK pasa a (id, fecha). Los ids siguen siendo únicos (ULID).
+-- Las particiones futuras y el archivado los mantiene PartitionMaintenanceService
+-- (transfers.partitioning.enabled=true). p_history agrupa los datos anteriores al particionado.
+
+ALTER TABLE movements
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (movement_id, movement_dt),
+    ADD KEY idx_movements_account_dt (account_id, movement_dt),
+    ADD KEY idx_movements_transfer (transfer_id);
+
+ALTER TABLE movements
+    PARTITION BY RANGE COLUMNS (movement_dt) (
+        PARTITION p_history VALUES LESS THAN ('2026-10-01'),
+        PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+        PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+        PARTITION p202612 VALUES LESS THAN ('2027-01-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+ALTER TABLE transfers
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (transfer_id, transfer_datetime),
+    ADD KEY idx_transfers_source_dt (source_account_id, transfer_datetime);
+
+ALTER TABLE transfers
+    PARTITION BY RANGE COLUMNS (transfer_datetime) (
+        PARTITION p_history VALUES LESS THAN ('2026-10-01'),
+        PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+        PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+        PARTITION p202612 VALUES LESS THAN ('2027-01-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
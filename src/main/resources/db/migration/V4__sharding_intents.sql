@@ -0,0 +1,28 @@
+-- Sharding por cuenta (transfers.sharding.enabled=true). Se aplica en cada shard.
+-- transfer_intents vive en el shard origen; applied_credits en el shard destino
+-- hace idempotente el abono cuando se reintenta.
+
+CREATE TABLE IF NOT EXISTS transfer_intents (
+    transfer_id        VARCHAR(40)    NOT NULL,
+    source_shard       VARCHAR(30)    NOT NULL,
+    dest_shard         VARCHAR(30)    NOT NULL,
+    source_account_id  VARCHAR(30)    NOT NULL,
+    source_currency    VARCHAR(3)     NOT NULL,
+    total_debit        DECIMAL(19, 2) NOT NULL,
+    dest_account_id    VARCHAR(30)    NOT NULL,
+    dest_currency      VARCHAR(3)     NOT NULL,
+    amount_to_credit   DECIMAL(19, 2) NOT NULL,
+    description        VARCHAR(200),
+    status             VARCHAR(20)    NOT NULL,
+    attempts           INT            NOT NULL,
+    created_at         DATETIME(6)    NOT NULL,
+    updated_at         DATETIME(6)    NOT NULL,
+    PRIMARY KEY (transfer_id),
+    KEY idx_intents_status_updated (status, updated_at)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS applied_credits (
+    transfer_id  VARCHAR(40) NOT NULL,
+    applied_at   DATETIME(6) NOT NULL,
+    PRIMARY KEY (transfer_id)
+) ENGINE = InnoDB;
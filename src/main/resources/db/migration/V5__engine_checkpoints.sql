@@ -0,0 +1,10 @@
+-- Motor de transferencias en memoria (transfers.engine.enabled=true).
+-- Último seq del journal de cada partición que ya está volcado en transfers/movements/accounts;
+-- se actualiza en la misma transacción que el volcado.
+
+CREATE TABLE IF NOT EXISTS engine_checkpoints (
+    partition_id  INT          NOT NULL,
+    last_seq      BIGINT       NOT NULL,
+    updated_at    DATETIME(6)  NOT NULL,
+    PRIMARY KEY (partition_id)
+) ENGINE = InnoDB;
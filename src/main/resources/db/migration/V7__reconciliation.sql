@@ -0,0 +1,51 @@
+-- Conciliación de accounts.balance contra la suma de movements (ReconciliationService).
+-- Cada corrida reparte el espacio de account_id en rangos; un rango terminado (DONE) es el
+-- checkpoint: al reanudar una corrida solo se procesan los rangos pendientes.
+
+-- Saldo con el que se dio de alta la cuenta (carga inicial o migración), que no tiene movements.
+-- Sin fila, el saldo de apertura es 0.
+CREATE TABLE IF NOT EXISTS account_opening_balances (
+    account_id  VARCHAR(30)    NOT NULL,
+    balance     DECIMAL(19, 2) NOT NULL,
+    as_of       DATETIME(6)    NOT NULL,
+    PRIMARY KEY (account_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS reconciliation_runs (
+    run_id        VARCHAR(40)  NOT NULL,
+    status        VARCHAR(20)  NOT NULL,
+    ranges_total  INT          NOT NULL,
+    started_at    DATETIME(6)  NOT NULL,
+    finished_at   DATETIME(6),
+    PRIMARY KEY (run_id)
+) ENGINE = InnoDB;
+
+-- from_account inclusivo, to_account exclusivo; NULL = sin límite
+CREATE TABLE IF NOT EXISTS reconciliation_ranges (
+    run_id         VARCHAR(40)  NOT NULL,
+    range_no       INT          NOT NULL,
+    from_account   VARCHAR(30),
+    to_account     VARCHAR(30),
+    status         VARCHAR(20)  NOT NULL,
+    accounts       BIGINT       NOT NULL DEFAULT 0,
+    movements      BIGINT       NOT NULL DEFAULT 0,
+    discrepancies  INT          NOT NULL DEFAULT 0,
+    completed_at   DATETIME(6),
+    PRIMARY KEY (run_id, range_no)
+) ENGINE = InnoDB;
+
+-- balance NULL: hay movements de una cuenta que no existe en accounts
+CREATE TABLE IF NOT EXISTS reconciliation_discrepancies (
+    run_id          VARCHAR(40)    NOT NULL,
+    account_id      VARCHAR(30)    NOT NULL,
+    range_no        INT            NOT NULL,
+    balance         DECIMAL(19, 2),
+    expected        DECIMAL(19, 2) NOT NULL,
+    difference      DECIMAL(19, 2) NOT NULL,
+    movement_count  BIGINT         NOT NULL,
+    PRIMARY KEY (run_id, account_id)
+) ENGINE = InnoDB;
+
+-- Índice cubriente: SUM(amount) ... GROUP BY account_id por rango sin leer la fila completa.
+-- Cuesta una entrada de índice más por movement insertado.
+CREATE INDEX idx_movements_account_amount ON movements (account_id, amount);
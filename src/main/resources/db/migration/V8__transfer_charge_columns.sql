@@ -0,0 +1,14 @@
+-- Montos de la transferencia en columnas tipadas en lugar del texto armado en description.
+-- description queda solo con el texto libre del cliente; el detalle legible se arma al
+-- consultar la transferencia (GET /transfers/{transferId}).
+-- Columnas nulas: las filas anteriores conservan el detalle en description.
+-- En MySQL 8 agregar columnas al final es ALGORITHM=INSTANT (también con particiones).
+
+ALTER TABLE transfers ADD COLUMN (
+    amount_sent    DECIMAL(19, 2),   -- monto ingresado por el cliente, en currency_sent
+    currency_sent  VARCHAR(10),
+    total_debit    DECIMAL(19, 2),   -- monto + comisión + ITF, en la moneda de la cuenta origen
+    commission     DECIMAL(19, 2),
+    itf            DECIMAL(19, 2),
+    fx_rate_used   DECIMAL(19, 6)    -- tipo de cambio origen -> destino; NULL si no hubo cambio
+);
@@ -0,0 +1,11 @@
+-- Resultado de la etapa de riesgo en línea (VelocityFraudScoringService) por transferencia.
+-- Las BLOCK no llegan a existir; el batch de revisión recorre REVIEW (puntaje alto) y FALLBACK
+-- (evaluación fuera de presupuesto, puntaje parcial) por rango de fecha con el índice.
+-- Columnas nulas: las filas anteriores y las de transfers.fraud.enabled=false no tienen evaluación.
+
+ALTER TABLE transfers ADD COLUMN (
+    fraud_decision  VARCHAR(10),   -- ALLOW, REVIEW o FALLBACK
+    fraud_score     SMALLINT       -- 0-100
+);
+
+ALTER TABLE transfers ADD KEY idx_transfers_fraud_dt (fraud_decision, transfer_datetime);
@@ -0,0 +1,42 @@
+package com.example.transfers_service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Migraciones de db/migration posteriores a V1 que H2 (MODE=MySQL) ejecuta tal cual, sin copias
+ * propias de H2. V1 va en el INIT de la URL (CREATE TABLE IF NOT EXISTS); estas no son idempotentes
+ * y se aplican una sola vez por base de datos.
+ */
+public final class H2Migrations {
+
+    public static final List<String> TRANSFER_COLUMNS = List.of(
+            "classpath:db/migration/V8__transfer_charge_columns.sql",
+            "classpath:db/migration/V9__transfer_fraud_decision.sql",
+            "classpath:db/migration/V10__transfer_debit_currency.sql");
+
+    // Requieren las tablas de V4 (transfer_intents, applied_credits): solo en las BDs de los shards
+    public static final List<String> SHARDING = List.of(
+            "classpath:db/migration/V11__applied_credit_outcome.sql");
+
+    private H2Migrations() {
+    }
+
+    // Para los contextos de Spring: se ejecutan al arrancar sobre la base recién creada
+    public static String[] sqlInitProperties() {
+        return new String[]{
+                "spring.sql.init.mode=always",
+                "spring.sql.init.schema-locations=" + String.join(",", TRANSFER_COLUMNS)};
+    }
+
+    public static void apply(DataSource dataSource) {
+        apply(dataSource, TRANSFER_COLUMNS);
+    }
+
+    public static void apply(DataSource dataSource, List<String> scripts) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        scripts.forEach(script -> jdbc.execute("RUNSCRIPT FROM '" + script + "'"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.transfers_service;
+
+import com.example.transfers_service.dto.request.AccountRef;
+import com.example.transfers_service.dto.request.CustomerRef;
+import com.example.transfers_service.dto.request.TransferData;
+import com.example.transfers_service.dto.request.TransferRequest;
+
+/**
+ * Solicitudes de transferencia para las pruebas. Un id null deja fuera su objeto (customer,
+ * sourceAccount o destinationAccount), igual que un JSON que no lo trae; sin moneda ni monto
+ * tampoco hay transferData.
+ */
+public final class TransferRequests {
+
+    private TransferRequests() {
+    }
+
+    public static TransferRequest request(String customerId, String source, String destination,
+                                          String currency, Double amount) {
+        return request(customerId, source, destination, currency, amount, null);
+    }
+
+    public static TransferRequest request(String customerId, String source, String destination,
+                                          String currency, Double amount, String description) {
+        TransferRequest request = new TransferRequest();
+        if (customerId != null) {
+            CustomerRef customer = new CustomerRef();
+            customer.setCustomerId(customerId);
+            request.setCustomer(customer);
+        }
+        request.setSourceAccount(account(source));
+        request.setDestinationAccount(account(destination));
+        if (currency != null || amount != null) {
+            TransferData data = new TransferData();
+            data.setCurrency(currency);
+            data.setAmount(amount);
+            data.setDescription(description);
+            request.setTransferData(data);
+        }
+        return request;
+    }
+
+    // Solo transferData: para lo que mira únicamente el monto (limitador de concurrencia)
+    public static TransferRequest amount(String currency, double amount) {
+        return request(null, null, null, currency, amount);
+    }
+
+    private static AccountRef account(String accountId) {
+        if (accountId == null) {
+            return null;
+        }
+        AccountRef account = new AccountRef();
+        account.setAccountId(accountId);
+        return account;
+    }
+}
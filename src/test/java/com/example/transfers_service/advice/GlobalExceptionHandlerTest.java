@@ -1,6 +1,11 @@
 package com.example.transfers_service.advice;
 
+import com.example.transfers_service.exception.AccountInactiveException;
+import com.example.transfers_service.exception.AccountNotFoundException;
+import com.example.transfers_service.exception.AccountOwnershipException;
 import com.example.transfers_service.exception.InsufficientBalanceException;
+import com.example.transfers_service.exception.InvalidTransferException;
+import com.example.transfers_service.exception.RateLimitExceededException;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -50,6 +55,35 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody()).containsEntry("message", "Saldo insuficiente. Detalle");
     }
 
+    //handleRateLimitExceeded_returnsTooManyRequests: Comprueba el manejo del rate limit (429 + Retry-After).
+    @Test
+    void handleRateLimitExceeded_returnsTooManyRequests() {
+        RateLimitExceededException ex = new RateLimitExceededException("Demasiadas solicitudes para la cuenta A1", 3);
+        ResponseEntity<Map<String, Object>> response = handler.handleRateLimitExceeded(ex);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst("Retry-After")).isEqualTo("3");
+        assertThat(response.getBody()).containsEntry("error", "demasiadas solicitudes");
+    }
+
+    //handleBusinessRejections_mapTo4xx: Cada rechazo de negocio tiene su 4xx, nunca un 500.
+    @Test
+    void handleBusinessRejections_mapTo4xx() {
+        assertThat(handler.handleInvalidTransfer(new InvalidTransferException("Moneda no soportada: JPY"))
+                .getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(handler.handleAccountOwnership(new AccountOwnershipException("no es su cuenta"))
+                .getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(handler.handleAccountNotFound(new AccountNotFoundException("Cuenta no existe: A9"))
+                .getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+        ResponseEntity<Map<String, Object>> inactive =
+                handler.handleAccountInactive(new AccountInactiveException("La cuenta A1 no está activa (BLOCKED)."));
+        assertThat(inactive.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(inactive.getBody())
+                .containsEntry("error", "cuenta inactiva")
+                .containsEntry("message", "La cuenta A1 no está activa (BLOCKED).");
+    }
+
     //handleGeneric_returnsInternalServerError: Verifica el manejo de excepciones genéricas.
     @Test
     void handleGeneric_returnsInternalServerError() {
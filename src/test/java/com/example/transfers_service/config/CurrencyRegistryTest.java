@@ -0,0 +1,82 @@
+package com.example.transfers_service.config;
+
+import com.example.transfers_service.dto.CurrencyCode;
+import com.example.transfers_service.exception.InvalidTransferException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CurrencyRegistryTest {
+
+    //defaults_supportPenAndUsdWithDenseIndexes: Por defecto PEN (base) y USD con índices 0 y 1.
+    @Test
+    void defaults_supportPenAndUsdWithDenseIndexes() {
+        CurrencyRegistry registry = CurrencyRegistry.defaults();
+
+        CurrencyCode pen = registry.require("PEN");
+        CurrencyCode usd = registry.require("usd");
+
+        assertThat(registry.size()).isEqualTo(2);
+        assertThat(pen.index()).isZero();
+        assertThat(usd.index()).isEqualTo(1);
+        assertThat(registry.base()).isSameAs(pen);
+        assertThat(registry.buyRate(usd)).isEqualByComparingTo("3.50");
+        assertThat(registry.sellRate(usd)).isEqualByComparingTo("3.80");
+        assertThat(usd.minorUnits()).isEqualTo(2);
+    }
+
+    //lookup_returnsSameInstanceForAnyCase: Cada moneda es una sola instancia, sin importar mayúsculas.
+    @Test
+    void lookup_returnsSameInstanceForAnyCase() {
+        CurrencyRegistry registry = CurrencyRegistry.defaults();
+
+        assertThat(registry.lookup("usd")).isSameAs(registry.lookup("USD")).isSameAs(registry.lookup("Usd"));
+        assertThat(registry.lookup("EUR")).isNull();
+        assertThatThrownBy(() -> registry.require("EUR"))
+                .isInstanceOf(InvalidTransferException.class)
+                .hasMessage("Moneda no soportada: EUR");
+    }
+
+    //configuredEur_isSupported: EUR se agrega solo con configuración.
+    @Test
+    void configuredEur_isSupported() {
+        CurrencyProperties properties = new CurrencyProperties();
+        properties.setDefinitions(List.of(
+                definition("PEN", 2, null, null),
+                definition("USD", 2, "3.50", "3.80"),
+                definition("EUR", 2, "3.90", "4.20")));
+
+        CurrencyRegistry registry = properties.toRegistry();
+
+        CurrencyCode eur = registry.require("EUR");
+        assertThat(eur.index()).isEqualTo(2);
+        assertThat(registry.sellRate(eur)).isEqualByComparingTo("4.20");
+    }
+
+    //invalidDefinitions_areRejectedAtStartup: Más de 2 decimales, base ausente o tasas faltantes fallan al arrancar.
+    @Test
+    void invalidDefinitions_areRejectedAtStartup() {
+        assertThrows(IllegalArgumentException.class, () -> new CurrencyRegistry("PEN", List.of(
+                new CurrencyRegistry.Definition("PEN", 2, null, null),
+                new CurrencyRegistry.Definition("KWD", 3, BigDecimal.TEN, BigDecimal.TEN))));
+        assertThrows(IllegalArgumentException.class, () -> new CurrencyRegistry("EUR", List.of(
+                new CurrencyRegistry.Definition("PEN", 2, null, null))));
+        assertThrows(IllegalArgumentException.class, () -> new CurrencyRegistry("PEN", List.of(
+                new CurrencyRegistry.Definition("PEN", 2, null, null),
+                new CurrencyRegistry.Definition("USD", 2, null, BigDecimal.TEN))));
+    }
+
+    private static CurrencyProperties.Definition definition(String code, int minorUnits, String buy, String sell) {
+        CurrencyProperties.Definition definition = new CurrencyProperties.Definition();
+        definition.setCode(code);
+        definition.setMinorUnits(minorUnits);
+        definition.setBuyRate(buy == null ? null : new BigDecimal(buy));
+        definition.setSellRate(sell == null ? null : new BigDecimal(sell));
+        return definition;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.transfers_service.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HikariPoolSizingConfigTest {
+
+    //resolvePoolSize_cappedByCpuFormula: Verifica que el pool no supere núcleos * 2 + 1.
+    @Test
+    void resolvePoolSize_cappedByCpuFormula() {
+        assertThat(HikariPoolSizingConfig.resolvePoolSize(200, 0, 8)).isEqualTo(17);
+    }
+
+    //resolvePoolSize_cappedByWorkerThreads: Comprueba que no haya más conexiones que hilos de trabajo.
+    @Test
+    void resolvePoolSize_cappedByWorkerThreads() {
+        assertThat(HikariPoolSizingConfig.resolvePoolSize(6, 0, 16)).isEqualTo(6);
+        assertThat(HikariPoolSizingConfig.resolvePoolSize(1, 0, 16)).isEqualTo(2);
+    }
+
+    //resolvePoolSize_explicitValueWins: Verifica que un tamaño explícito tenga prioridad.
+    @Test
+    void resolvePoolSize_explicitValueWins() {
+        assertThat(HikariPoolSizingConfig.resolvePoolSize(200, 40, 8)).isEqualTo(40);
+    }
+}
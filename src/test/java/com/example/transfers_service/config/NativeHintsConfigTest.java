@@ -0,0 +1,62 @@
+package com.example.transfers_service.config;
+
+import com.example.transfers_service.dto.AccountMetadataDto;
+import com.example.transfers_service.dto.TransferEventDto;
+import com.example.transfers_service.dto.external.ExternalAccountResponse;
+import com.example.transfers_service.dto.request.TransferData;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.entity.Movement;
+import com.example.transfers_service.entity.PrefixedUlidType;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeHintsConfigTest {
+
+    private final RuntimeHints hints = register();
+
+    private static RuntimeHints register() {
+        RuntimeHints hints = new RuntimeHints();
+        new NativeHintsConfig.TransferRuntimeHints().registerHints(hints, NativeHintsConfigTest.class.getClassLoader());
+        return hints;
+    }
+
+    //registerHints_coversJacksonDtosIncludingNestedTypes: TransferRequest y sus objetos anidados quedan accesibles.
+    @Test
+    void registerHints_coversJacksonDtosIncludingNestedTypes() throws Exception {
+        assertThat(RuntimeHintsPredicates.reflection().onType(TransferRequest.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onMethod(TransferData.class.getMethod("setCurrency", String.class))).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(ExternalAccountResponse.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(TransferEventDto.class)).accepts(hints);
+    }
+
+    //registerHints_coversHibernateReflection: Entidades, UserType de ids y proyección "select new".
+    @Test
+    void registerHints_coversHibernateReflection() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(Movement.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(PrefixedUlidType.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(AccountMetadataDto.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+    }
+
+    //registerHints_coversMappersAndSchemaScripts: Implementaciones de MapStruct y scripts de esquema.
+    @Test
+    void registerHints_coversMappersAndSchemaScripts() throws Exception {
+        for (String mapper : NativeHintsConfig.MAPPER_IMPLEMENTATIONS) {
+            Class.forName(mapper); // el nombre debe coincidir con la clase generada
+            assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(mapper))).accepts(hints);
+        }
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/migration/V1__baseline_schema.sql"))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/migration/V10__transfer_debit_currency.sql"))
+                .accepts(hints);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.transfers_service.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaDataSourceConfigTest {
+
+    // Dos instancias H2 independientes hacen de primario y réplica
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(
+                    DataSourceAutoConfiguration.class,
+                    DataSourceTransactionManagerAutoConfiguration.class,
+                    TransactionAutoConfiguration.class,
+                    JdbcTemplateAutoConfiguration.class))
+            .withUserConfiguration(ReadReplicaDataSourceConfig.class)
+            .withPropertyValues(
+                    "spring.datasource.driver-class-name=org.h2.Driver",
+                    "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=");
+
+    private static void createMarker(DataSource dataSource, String value) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists db_marker (name varchar(20))");
+        jdbc.execute("delete from db_marker");
+        jdbc.update("insert into db_marker (name) values (?)", value);
+    }
+
+    private static String readMarker(TxSupport ctx, boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(ctx.transactionManager);
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> ctx.jdbcTemplate.queryForObject("select name from db_marker", String.class));
+    }
+
+    private record TxSupport(PlatformTransactionManager transactionManager,
+                                                   JdbcTemplate jdbcTemplate) {
+    }
+
+    //readOnlyTransactions_goToReplica_writesGoToPrimary: Verifica el enrutamiento según readOnly.
+    @Test
+    void readOnlyTransactions_goToReplica_writesGoToPrimary() {
+        contextRunner
+                .withPropertyValues("transfers.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context.getBean(DataSource.class)).isInstanceOf(LazyConnectionDataSourceProxy.class);
+
+                    createMarker(context.getBean("primaryDataSource", DataSource.class), "PRIMARY");
+                    createMarker(context.getBean("replicaDataSource", DataSource.class), "REPLICA");
+
+                    var ctx = new TxSupport(
+                            context.getBean(PlatformTransactionManager.class),
+                            context.getBean(JdbcTemplate.class));
+
+                    assertThat(readMarker(ctx, true)).isEqualTo("REPLICA");
+                    assertThat(readMarker(ctx, false)).isEqualTo("PRIMARY");
+                });
+    }
+
+    //withoutReplicaUrl_usesSinglePrimaryDataSource: Comprueba que sin réplica configurada no cambie nada.
+    @Test
+    void withoutReplicaUrl_usesSinglePrimaryDataSource() {
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context).doesNotHaveBean("replicaDataSource");
+            assertThat(context.getBean(DataSource.class)).isNotInstanceOf(LazyConnectionDataSourceProxy.class);
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.transfers_service.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShardResolverTest {
+
+    private static final int ACCOUNTS = 30_000;
+
+    //shardFor_isDeterministic: La misma cuenta siempre cae en el mismo shard, aun con otro orden de shards.
+    @Test
+    void shardFor_isDeterministic() {
+        ShardResolver resolver = new ShardResolver(List.of("s0", "s1", "s2"), 128);
+        ShardResolver reordered = new ShardResolver(List.of("s2", "s0", "s1"), 128);
+
+        for (int i = 0; i < 1000; i++) {
+            String accountId = "ACC-" + i;
+            assertThat(resolver.shardFor(accountId))
+                    .isEqualTo(resolver.shardFor(accountId))
+                    .isEqualTo(reordered.shardFor(accountId));
+        }
+    }
+
+    //shardFor_spreadsAccountsEvenly: Con nodos virtuales ningún shard se aleja más de un 20% del promedio.
+    @Test
+    void shardFor_spreadsAccountsEvenly() {
+        List<String> shards = List.of("s0", "s1", "s2", "s3");
+        ShardResolver resolver = new ShardResolver(shards, 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            counts.merge(resolver.shardFor("ACC-" + i), 1, Integer::sum);
+        }
+
+        double expected = (double) ACCOUNTS / shards.size();
+        assertThat(counts).hasSize(shards.size());
+        counts.values().forEach(count -> assertThat(count).isBetween((int) (expected * 0.8), (int) (expected * 1.2)));
+    }
+
+    //addingShard_movesOnlyItsShareOfAccounts: Agregar un cuarto shard solo mueve cuentas hacia el nuevo, ~1/4 del total.
+    @Test
+    void addingShard_movesOnlyItsShareOfAccounts() {
+        ShardResolver before = new ShardResolver(List.of("s0", "s1", "s2"), 128);
+        ShardResolver after = new ShardResolver(List.of("s0", "s1", "s2", "s3"), 128);
+
+        int moved = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String accountId = "ACC-" + i;
+            String oldShard = before.shardFor(accountId);
+            String newShard = after.shardFor(accountId);
+            if (!oldShard.equals(newShard)) {
+                assertThat(newShard).isEqualTo("s3");
+                moved++;
+            }
+        }
+
+        assertThat((double) moved / ACCOUNTS).isBetween(0.15, 0.35);
+    }
+
+    //constructor_rejectsEmptyShardList: Sin shards no se puede construir el anillo.
+    @Test
+    void constructor_rejectsEmptyShardList() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardResolver(List.of(), 128));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.transfers_service.controller;
+
+import com.example.transfers_service.dto.AccountLockStatsDto;
+import com.example.transfers_service.dto.ConcurrencyLimitStatsDto;
+import com.example.transfers_service.dto.ExternalAccountCallStatsDto;
+import com.example.transfers_service.dto.OperationalStatsDto;
+import com.example.transfers_service.dto.TransferEventStatsDto;
+import com.example.transfers_service.service.OperationalStatsService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = OperationalStatsController.class)
+@Import(OperationalStatsControllerTest.TestConfig.class)
+class OperationalStatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @TestConfiguration
+    static class TestConfig {
+
+        @Bean
+        public OperationalStatsService operationalStatsService() {
+            OperationalStatsService service = Mockito.mock(OperationalStatsService.class);
+            Mockito.when(service.snapshot()).thenReturn(new OperationalStatsDto(
+                    new AccountLockStatsDto(1024, true, 3, 7, 100, 2, 15.0, 900.0),
+                    new ConcurrencyLimitStatsDto(20, 10, 4, 500, 6, 1, 0, 12.5, 10.0),
+                    new TransferEventStatsDto(1000, 12, 40, 65536, 8, Map.of("http", 940L), Map.of("http", 48L)),
+                    new ExternalAccountCallStatsDto(300, 15, 9, 2, 1, 42.0)));
+            return service;
+        }
+    }
+
+    //stats_exposesBackpressureCounters: Los descartes y la cola del flujo de eventos se leen por HTTP.
+    @Test
+    void stats_exposesBackpressureCounters() throws Exception {
+        mockMvc.perform(get("/ops/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events.dropped").value(12))
+                .andExpect(jsonPath("$.events.pending").value(40))
+                .andExpect(jsonPath("$.events.failed.http").value(48))
+                .andExpect(jsonPath("$.limiter.rejectedRetail").value(6))
+                .andExpect(jsonPath("$.accountLocks.timeouts").value(2))
+                .andExpect(jsonPath("$.externalAccounts.deadlineExceeded").value(1));
+    }
+}
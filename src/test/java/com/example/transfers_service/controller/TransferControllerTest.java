@@ -1,9 +1,25 @@
 package com.example.transfers_service.controller;
 
 import com.example.transfers_service.advice.GlobalExceptionHandler;
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.config.WireFormatConfig;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.dto.response.TransferDetailResponse;
 import com.example.transfers_service.dto.response.TransferResponse;
+import com.example.transfers_service.exception.RateLimitExceededException;
+import com.example.transfers_service.exception.InvalidTransferException;
+import com.example.transfers_service.exception.TransferNotFoundException;
+import com.example.transfers_service.service.AccountLockService;
+import com.example.transfers_service.service.ConcurrencyLimiterService;
+import com.example.transfers_service.service.RateLimiterService;
+import com.example.transfers_service.service.TransferQueryService;
 import com.example.transfers_service.service.TransferService;
+import com.example.transfers_service.service.TransferValidationService;
+import com.example.transfers_service.service.impl.AdaptiveConcurrencyLimiterServiceImpl;
+import com.example.transfers_service.service.impl.StripedAccountLockServiceImpl;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,17 +30,26 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.emptyString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 // WebMvcTest crea solo el slice web (controller, filtros, etc.)
 @WebMvcTest(controllers = TransferController.class)
-@Import({GlobalExceptionHandler.class, TransferControllerTest.TestConfig.class})
+@Import({GlobalExceptionHandler.class, WireFormatConfig.class, TransferControllerTest.TestConfig.class})
 class TransferControllerTest {
 
     @Autowired
@@ -37,6 +62,18 @@ class TransferControllerTest {
     @Autowired
     private TransferService transferService;
 
+    @Autowired
+    private RateLimiterService rateLimiterService;
+
+    @Autowired
+    private TransferQueryService transferQueryService;
+
+    @Autowired
+    private AccountLockService accountLockService;
+
+    @Autowired
+    private ConcurrencyLimiterService concurrencyLimiterService;
+
     /**
      * Configuración de test que registra un bean de TransferService como un mock de Mockito.
      * Así evitamos usar @MockBean (que es lo que te marca SonarQube).
@@ -49,6 +86,38 @@ class TransferControllerTest {
             // Creamos un mock de TransferService
             return Mockito.mock(TransferService.class);
         }
+
+        @Bean
+        public RateLimiterService rateLimiterService() {
+            return Mockito.mock(RateLimiterService.class);
+        }
+
+        @Bean
+        public TransferQueryService transferQueryService() {
+            return Mockito.mock(TransferQueryService.class);
+        }
+
+        // sin banco externo: la etapa previa a los locks solo ejecuta el resto
+        @Bean
+        public TransferValidationService transferValidationService() {
+            TransferValidationService validation = Mockito.mock(TransferValidationService.class);
+            Mockito.when(validation.withExternalDestination(any(), any()))
+                    .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+            return validation;
+        }
+
+        // implementación real con timeout corto: los demás tests pasan sin contención
+        @Bean
+        public AccountLockService accountLockService() {
+            return new StripedAccountLockServiceImpl(true, true, 16, 50);
+        }
+
+        // implementación real; carril bulk (>= 5000) de un solo cupo para poder saturarlo en el test
+        @Bean
+        public ConcurrencyLimiterService concurrencyLimiterService() {
+            return new AdaptiveConcurrencyLimiterServiceImpl(CurrencyRegistry.defaults(), true, 20, 4, 200, 2.0, 0.2, 10, 600, 0.05,
+                    BigDecimal.valueOf(5000), 1);
+        }
     }
 
     // createTransfer_returns201AndBody:
@@ -103,4 +172,246 @@ class TransferControllerTest {
                 .andExpect(jsonPath("$.['transferData.currency']", not(emptyString())))
                 .andExpect(jsonPath("$.['transferData.amount']", not(emptyString())));
     }
+
+    // createTransfer_nonPositiveAmount_returns400:
+    // Un monto negativo se rechaza con @Positive antes de llegar al servicio.
+    @Test
+    void createTransfer_nonPositiveAmount_returns400() throws Exception {
+        Mockito.reset(transferService);
+        String badJson = """
+        {
+          "customer": {"customerId":"C1"},
+          "sourceAccount": {"accountId":"A1"},
+          "destinationAccount": {"accountId":"A2"},
+          "transferData": {"currency":"PEN", "amount": -5.0, "description":"desc"}
+        }
+        """;
+
+        mockMvc.perform(post("/transfers/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(badJson))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.['transferData.amount']", is("El monto debe ser mayor que cero")));
+        Mockito.verifyNoInteractions(transferService);
+    }
+
+    // createTransfer_descriptionTooLong_returns400:
+    // Una descripción de más de 200 caracteres (transfers.description) se rechaza antes de llegar al servicio.
+    @Test
+    void createTransfer_descriptionTooLong_returns400() throws Exception {
+        Mockito.reset(transferService);
+        String badJson = """
+        {
+          "customer": {"customerId":"C1"},
+          "sourceAccount": {"accountId":"A1"},
+          "destinationAccount": {"accountId":"A2"},
+          "transferData": {"currency":"PEN", "amount": 5.0, "description":"%s"}
+        }
+        """.formatted("x".repeat(201));
+
+        mockMvc.perform(post("/transfers/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(badJson))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.['transferData.description']",
+                        is("La descripción no puede superar los 200 caracteres")));
+        Mockito.verifyNoInteractions(transferService);
+    }
+
+    // createTransfer_rateLimited_returns429WithRetryAfter:
+    // Verifica que una cuenta saturada se rechace con 429 sin llegar al servicio.
+    @Test
+    void createTransfer_rateLimited_returns429WithRetryAfter() throws Exception {
+        Mockito.reset(transferService);
+        Mockito.doThrow(new RateLimitExceededException("Demasiadas solicitudes para la cuenta A1", 2))
+                .when(rateLimiterService).checkTransferAllowed(any());
+
+        String requestJson = """
+        {
+          "customer": {"customerId":"C1"},
+          "sourceAccount": {"accountId":"A1"},
+          "destinationAccount": {"accountId":"A2"},
+          "transferData": {"currency":"PEN", "amount": 100.0, "description":"ok"}
+        }
+        """;
+
+        try {
+            mockMvc.perform(post("/transfers/create")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(requestJson))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "2"))
+                    .andExpect(jsonPath("$.error", is("demasiadas solicitudes")));
+
+            Mockito.verifyNoInteractions(transferService);
+        } finally {
+            Mockito.reset(rateLimiterService);
+        }
+    }
+
+    // createTransfer_cborRequest_returns201WithCborBody:
+    // Un productor batch envía y recibe CBOR por negociación de contenido; el servicio no cambia.
+    @Test
+    void createTransfer_cborRequest_returns201WithCborBody() throws Exception {
+        TransferResponse resp = new TransferResponse();
+        resp.setTransferId("TRX-CBOR");
+        resp.setStatus("EJECUTADA");
+        resp.setTransferType("ONLINE");
+        resp.setCommissionApplied(2.11);
+        Mockito.when(transferService.createTransfer(any())).thenReturn(resp);
+
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        byte[] body = cbor.writeValueAsBytes(Map.of(
+                "customer", Map.of("customerId", "C1"),
+                "sourceAccount", Map.of("accountId", "A1"),
+                "destinationAccount", Map.of("accountId", "A2"),
+                "transferData", Map.of("currency", "PEN", "amount", 100.0, "description", "ok")));
+
+        byte[] result = mockMvc.perform(post("/transfers/create")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode decoded = cbor.readTree(result);
+        assertThat(decoded.get("transferId").asText()).isEqualTo("TRX-CBOR");
+        assertThat(decoded.get("commissionApplied").asDouble()).isEqualTo(2.11);
+    }
+
+    // createTransfer_cborValidationError_returns400:
+    // Las validaciones aplican igual con CBOR y, sin Accept, el error se devuelve en JSON.
+    @Test
+    void createTransfer_cborValidationError_returns400() throws Exception {
+        byte[] body = new ObjectMapper(new CBORFactory()).writeValueAsBytes(Map.of(
+                "sourceAccount", Map.of("accountId", ""),
+                "destinationAccount", Map.of("accountId", "A2"),
+                "transferData", Map.of("currency", "PEN", "amount", 10.0)));
+
+        mockMvc.perform(post("/transfers/create")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.['sourceAccount.accountId']", not(emptyString())));
+    }
+
+    //getTransfer_returnsTypedAmountsAndSummary: La consulta devuelve las columnas tipadas y el detalle armado.
+    @Test
+    void getTransfer_returnsTypedAmountsAndSummary() throws Exception {
+        TransferDetailResponse detail = new TransferDetailResponse();
+        detail.setTransferId("TRX-1");
+        detail.setAmountSent(new BigDecimal("100.00"));
+        detail.setCurrencySent("USD");
+        detail.setTotalDebit(new BigDecimal("382.00"));
+        detail.setFxRateUsed(new BigDecimal("3.800000"));
+        detail.setSummary("pago | Usuario envió: 100.00 USD -> Debitado: 382.00 PEN");
+        Mockito.when(transferQueryService.getTransfer("TRX-1", "C1")).thenReturn(detail);
+
+        mockMvc.perform(get("/transfers/TRX-1").param("customerId", "C1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amountSent", is(100.00)))
+                .andExpect(jsonPath("$.currencySent", is("USD")))
+                .andExpect(jsonPath("$.fxRateUsed", is(3.8)))
+                .andExpect(jsonPath("$.summary", is("pago | Usuario envió: 100.00 USD -> Debitado: 382.00 PEN")));
+    }
+
+    //getTransfer_unknownId_returns404: Una transferencia inexistente responde 404.
+    @Test
+    void getTransfer_unknownId_returns404() throws Exception {
+        Mockito.when(transferQueryService.getTransfer("TRX-X", "C1"))
+                .thenThrow(new TransferNotFoundException("Transferencia no existe: TRX-X"));
+
+        mockMvc.perform(get("/transfers/TRX-X").param("customerId", "C1"))
+                .andExpect(status().isNotFound());
+    }
+
+    //getTransfer_withoutCustomer_returns400: Sin customerId la consulta se rechaza antes de leer la BD.
+    @Test
+    void getTransfer_withoutCustomer_returns400() throws Exception {
+        Mockito.when(transferQueryService.getTransfer("TRX-1", null))
+                .thenThrow(new InvalidTransferException("customerId es obligatorio"));
+
+        mockMvc.perform(get("/transfers/TRX-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //createTransfer_accountBusy_returns503WithRetryAfter: Si la cuenta sigue ocupada pasado el timeout, 503.
+    @Test
+    void createTransfer_accountBusy_returns503WithRetryAfter() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = CompletableFuture.supplyAsync(() ->
+                accountLockService.withAccountLocks("BUSY-1", null, () -> {
+                    holding.countDown();
+                    try {
+                        return release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        String requestJson = """
+        {
+          "customer": {"customerId":"C1"},
+          "sourceAccount": {"accountId":"BUSY-1"},
+          "destinationAccount": {"accountId":"A2"},
+          "transferData": {"currency":"PEN", "amount": 10.0, "description":"ok"}
+        }
+        """;
+        try {
+            mockMvc.perform(post("/transfers/create")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(requestJson))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.error", is("cuenta ocupada")));
+        } finally {
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    //createTransfer_overloaded_returns503WithRetryAfter: Sin cupo en el limitador, 503 inmediato sin llamar al servicio.
+    @Test
+    void createTransfer_overloaded_returns503WithRetryAfter() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = CompletableFuture.supplyAsync(() ->
+                concurrencyLimiterService.execute(new TransferRequest(), () -> {
+                    holding.countDown();
+                    try {
+                        return release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        String requestJson = """
+        {
+          "customer": {"customerId":"C1"},
+          "sourceAccount": {"accountId":"A1"},
+          "destinationAccount": {"accountId":"A2"},
+          "transferData": {"currency":"PEN", "amount": 8000.0, "description":"bulk"}
+        }
+        """;
+        try {
+            mockMvc.perform(post("/transfers/create")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(requestJson))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.error", is("servicio saturado")));
+            Mockito.verify(transferService, Mockito.never()).createTransfer(
+                    Mockito.argThat(r -> r.getTransferData() != null
+                            && "bulk".equals(r.getTransferData().getDescription())));
+        } finally {
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+    }
 }
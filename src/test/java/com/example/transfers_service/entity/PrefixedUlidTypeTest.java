@@ -0,0 +1,52 @@
+package com.example.transfers_service.entity;
+
+import com.github.f4b6a3.ulid.UlidCreator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrefixedUlidTypeTest {
+
+    //toBytes_fromBytes_roundTripKeepsPrefix: El texto con prefijo se guarda en 16 bytes y se recupera igual.
+    @Test
+    void toBytes_fromBytes_roundTripKeepsPrefix() {
+        String id = "TRX-" + UlidCreator.getUlid();
+
+        byte[] bytes = PrefixedUlidType.toBytes("TRX-", id);
+
+        assertThat(bytes).hasSize(16);
+        assertThat(PrefixedUlidType.fromBytes("TRX-", bytes)).isEqualTo(id);
+    }
+
+    //toBytes_preservesOrderOfMonotonicIds: El orden de bytes sigue el orden de generación (inserción al final del índice).
+    @Test
+    void toBytes_preservesOrderOfMonotonicIds() {
+        byte[] first = PrefixedUlidType.toBytes("MOV-", "MOV-" + UlidCreator.getMonotonicUlid());
+        byte[] second = PrefixedUlidType.toBytes("MOV-", "MOV-" + UlidCreator.getMonotonicUlid());
+
+        assertThat(Arrays.compareUnsigned(first, second)).isNegative();
+    }
+
+    //toBytes_rejectsWrongPrefixOrInvalidUlid: Ids ajenos al formato no se convierten en silencio.
+    @Test
+    void toBytes_rejectsWrongPrefixOrInvalidUlid() {
+        String ulid = UlidCreator.getUlid().toString();
+
+        assertThatThrownBy(() -> PrefixedUlidType.toBytes("TRX-", "MOV-" + ulid))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PrefixedUlidType.toBytes("TRX-", "TRX-R1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    //isBinary_acceptsOnlyKnownModes: Solo text y binary son modos válidos.
+    @Test
+    void isBinary_acceptsOnlyKnownModes() {
+        assertThat(PrefixedUlidType.isBinary("binary")).isTrue();
+        assertThat(PrefixedUlidType.isBinary("TEXT")).isFalse();
+        assertThatThrownBy(() -> PrefixedUlidType.isBinary("uuid"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
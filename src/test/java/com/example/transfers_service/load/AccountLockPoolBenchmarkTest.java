@@ -0,0 +1,210 @@
+package com.example.transfers_service.load;
+
+import com.example.transfers_service.H2Migrations;
+import com.example.transfers_service.TransferRequests;
+import com.example.transfers_service.TransfersServiceApplication;
+import com.example.transfers_service.dto.AccountLockStatsDto;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.BusinessException;
+import com.example.transfers_service.exception.RetryableException;
+import com.example.transfers_service.service.impl.StripedAccountLockServiceImpl;
+import com.example.transfers_service.service.impl.TransferServiceImpl;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Uso del pool de conexiones con una cuenta caliente, con y sin los locks por cuenta en la JVM.
+ * Muchos hilos transfieren desde la misma cuenta origen mientras unos pocos mueven cuentas frías.
+ * Sin locks, cada solicitud a la cuenta caliente toma una conexión y espera en el FOR UPDATE:
+ * el pool se llena de esperas y las cuentas frías hacen cola por conexión. Con locks, esas
+ * esperas ocurren en la JVM sin conexión. Se muestrea HikariPoolMXBean cada milisegundo.
+ * Misma puerta que TransferController, aplicada aquí sobre TransferServiceImpl.
+ * Ejecutar con: mvn test -Pload-tests
+ *
+ *   -Dlocks.hotThreads=24 -Dlocks.coldThreads=4 -Dlocks.pool=8 -Dlocks.hotTransfers=3000
+ */
+@Tag("load")
+class AccountLockPoolBenchmarkTest {
+
+    private static final int HOT_THREADS = Integer.getInteger("locks.hotThreads", 24);
+    private static final int COLD_THREADS = Integer.getInteger("locks.coldThreads", 4);
+    private static final int POOL = Integer.getInteger("locks.pool", 8);
+    private static final int HOT_TRANSFERS = Integer.getInteger("locks.hotTransfers", 3_000);
+    private static final int DESTINATIONS = 64;
+
+    //hotAccount_poolUtilizationWithAndWithoutJvmLocks: conexiones ocupadas, esperas por conexión y latencia de cuentas frías.
+    @Test
+    void hotAccount_poolUtilizationWithAndWithoutJvmLocks() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(TransfersServiceApplication.class)
+                .withPropertyValues(
+                        "spring.datasource.url=jdbc:h2:mem:account-locks;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"
+                                + ";INIT=RUNSCRIPT FROM 'classpath:db/migration/V1__baseline_schema.sql'",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL,
+                        "spring.datasource.hikari.connection-timeout=30000",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        // el runner no lee application.properties: sin esto Hibernate haría create-drop y,
+                        // si una conexión nueva del pool corre el INIT de V1 entre su DROP y su CREATE,
+                        // transfers queda sin las columnas de V8-V10
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "spring.jpa.show-sql=false",
+                        "external.account.service.url=http://localhost:1",
+                        // una sola cuenta origen con miles de transferencias: los límites y el riesgo la frenarían
+                        "transfers.limits.enabled=false",
+                        "transfers.fraud.enabled=false",
+                        "logging.level.root=WARN")
+                .withPropertyValues(H2Migrations.sqlInitProperties())
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    ConfigurableApplicationContext app = context.getSourceApplicationContext();
+                    seed(app.getBean(JdbcTemplate.class));
+
+                    Result without = run(app, "sin locks", new StripedAccountLockServiceImpl(false, true, 1024, 10_000));
+                    Result with = run(app, "con locks", new StripedAccountLockServiceImpl(true, true, 1024, 10_000));
+
+                    assertThat(with.awaitingConnection).isLessThan(without.awaitingConnection);
+                    assertThat(with.coldP99Micros).isLessThan(without.coldP99Micros);
+                });
+    }
+
+    private record Result(double avgActive, double saturated, double awaitingConnection, double coldP99Micros) {}
+
+    private static Result run(ConfigurableApplicationContext app, String label, StripedAccountLockServiceImpl locks)
+            throws Exception {
+        // por clase concreta: el escaneo también recoge los TransferService mock de las @TestConfiguration
+        TransferServiceImpl transferService = app.getBean(TransferServiceImpl.class);
+        HikariPoolMXBean pool = app.getBean(HikariDataSource.class).getHikariPoolMXBean();
+
+        AtomicInteger issued = new AtomicInteger();
+        AtomicBoolean hotDone = new AtomicBoolean();
+        LongAdder failures = new LongAdder();
+        LongAdder coldDone = new LongAdder();
+        Recorder cold = new Recorder(TimeUnit.SECONDS.toNanos(30), 3);
+
+        // muestreo del pool: conexiones activas e hilos esperando una conexión
+        LongAdder samples = new LongAdder();
+        LongAdder activeSum = new LongAdder();
+        LongAdder saturatedSamples = new LongAdder();
+        LongAdder awaitingSum = new LongAdder();
+        Thread sampler = new Thread(() -> {
+            while (!hotDone.get()) {
+                int active = pool.getActiveConnections();
+                samples.increment();
+                activeSum.add(active);
+                awaitingSum.add(pool.getThreadsAwaitingConnection());
+                if (active >= POOL) {
+                    saturatedSamples.increment();
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }, "pool-sampler");
+        sampler.setDaemon(true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(HOT_THREADS + COLD_THREADS);
+        List<Future<?>> hot = new ArrayList<>();
+        List<Future<?>> coldWorkers = new ArrayList<>();
+        long begin = System.nanoTime();
+        sampler.start();
+        for (int t = 0; t < HOT_THREADS; t++) {
+            hot.add(executor.submit(() -> {
+                int i;
+                while ((i = issued.getAndIncrement()) < HOT_TRANSFERS) {
+                    call(locks, transferService, request("HOT", "D" + (i % DESTINATIONS)), failures);
+                }
+                return null;
+            }));
+        }
+        for (int t = 0; t < COLD_THREADS; t++) {
+            int worker = t;
+            coldWorkers.add(executor.submit(() -> {
+                int i = 0;
+                while (!hotDone.get()) {
+                    long start = System.nanoTime();
+                    call(locks, transferService, request("COLD" + worker, "D" + (i++ % DESTINATIONS)), failures);
+                    cold.recordValue(System.nanoTime() - start);
+                    coldDone.increment();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : hot) {
+            worker.get();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        hotDone.set(true);
+        for (Future<?> worker : coldWorkers) {
+            worker.get();
+        }
+        sampler.join();
+        executor.shutdown();
+
+        Histogram coldLatency = cold.getIntervalHistogram();
+        long n = Math.max(1, samples.sum());
+        Result result = new Result(activeSum.sum() / (double) n, saturatedSamples.sum() / (double) n,
+                awaitingSum.sum() / (double) n, coldLatency.getValueAtPercentile(99) / 1e3);
+        AccountLockStatsDto stats = locks.stats();
+        System.out.printf("[load] %s: %d transferencias de la cuenta caliente en %.2f s (%.0f/s), %d de cuentas frías,"
+                        + " %d fallidas%n", label, HOT_TRANSFERS, seconds, HOT_TRANSFERS / seconds, coldDone.sum(),
+                failures.sum());
+        System.out.printf("[load] %s: pool %d -> activas prom. %.1f, saturado %.0f%% del tiempo,"
+                        + " hilos esperando conexión prom. %.1f%n", label, POOL, result.avgActive,
+                result.saturated * 100, result.awaitingConnection);
+        System.out.printf("[load] %s: cuentas frías µs p50 %.0f, p99 %.0f; locks JVM: cola máx %d, espera prom. %.0f µs%n",
+                label, coldLatency.getValueAtPercentile(50) / 1e3, result.coldP99Micros, stats.maxQueueDepth(),
+                stats.avgWaitMicros());
+        return result;
+    }
+
+    private static void call(StripedAccountLockServiceImpl locks, TransferServiceImpl transferService,
+                             TransferRequest request, LongAdder failures) {
+        try {
+            locks.withAccountLocks(request.getSourceAccount().getAccountId(),
+                    request.getDestinationAccount().getAccountId(),
+                    () -> transferService.createTransfer(request));
+        } catch (BusinessException | RetryableException | DataAccessException e) {
+            failures.increment();
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbc) {
+        jdbc.update("insert into accounts (account_id, customer_id, currency, balance, status)"
+                + " values ('HOT', 'C-HOT', 'PEN', 100000000, 'ACTIVE')");
+        for (int i = 0; i < COLD_THREADS; i++) {
+            jdbc.update("insert into accounts (account_id, customer_id, currency, balance, status)"
+                    + " values (?, ?, 'PEN', 100000000, 'ACTIVE')", "COLD" + i, "C-COLD" + i);
+        }
+        for (int i = 0; i < DESTINATIONS; i++) {
+            jdbc.update("insert into accounts (account_id, customer_id, currency, balance, status)"
+                    + " values (?, ?, 'PEN', 0, 'ACTIVE')", "D" + i, "C-D" + i);
+        }
+    }
+
+    private static TransferRequest request(String source, String destination) {
+        return TransferRequests.request(source.equals("HOT") ? "C-HOT" : "C-" + source, source, destination,
+                "PEN", 10.00, "hot");
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.transfers_service.load;
+
+import com.example.transfers_service.TransferRequests;
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.dto.ConcurrencyLimitStatsDto;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.ServiceOverloadedException;
+import com.example.transfers_service.service.impl.AdaptiveConcurrencyLimiterServiceImpl;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Goodput de createTransfer pasada la saturación, con y sin el límite de concurrencia adaptativo.
+ * Backend simulado: un pool de POOL conexiones (semáforo justo) y SERVICE_MS por transferencia, es
+ * decir capacidad = POOL / SERVICE_MS. Llegadas en lazo abierto a 0.5x, 1x, 2x y 4x esa capacidad
+ * sobre 200 hilos (como Tomcat); el cliente abandona a los SLO_MS. Goodput = respuestas exitosas
+ * dentro del SLO por segundo. Sin límite la cola crece sin tope y casi todo vence el SLO; con límite
+ * lo que excede se rechaza al instante (503) y lo admitido sigue dentro de su latencia normal.
+ * Una de cada BULK_EVERY transferencias es grande (>= bulk-threshold) y debe rechazarse antes.
+ * Ejecutar con: mvn test -Pload-tests
+ *
+ *   -Dlimiter.pool=8 -Dlimiter.serviceMs=20 -Dlimiter.seconds=4 -Dlimiter.sloMs=1000
+ */
+@Tag("load")
+class ConcurrencyLimiterGoodputBenchmarkTest {
+
+    private static final int POOL = Integer.getInteger("limiter.pool", 8);
+    private static final int SERVICE_MS = Integer.getInteger("limiter.serviceMs", 20);
+    private static final int SECONDS = Integer.getInteger("limiter.seconds", 4);
+    private static final long SLO_MS = Integer.getInteger("limiter.sloMs", 1_000);
+    private static final int SERVER_THREADS = 200;
+    private static final int BULK_EVERY = 5;
+    private static final double[] LOAD_FACTORS = {0.5, 1, 2, 4};
+
+    //goodput_staysFlatPastSaturationWithLimiter: goodput, rechazos y latencia por nivel de carga.
+    @Test
+    void goodput_staysFlatPastSaturationWithLimiter() throws Exception {
+        double capacity = POOL * 1000.0 / SERVICE_MS;
+        System.out.printf("[load] capacidad del backend simulado: %d conexiones x %d ms = %.0f/s, SLO %d ms%n",
+                POOL, SERVICE_MS, capacity, SLO_MS);
+
+        List<Level> without = new ArrayList<>();
+        for (double factor : LOAD_FACTORS) {
+            without.add(run("sin límite", null, factor, capacity));
+        }
+        AdaptiveConcurrencyLimiterServiceImpl limiter = new AdaptiveConcurrencyLimiterServiceImpl(CurrencyRegistry.defaults(),
+                true, 20, 4, 200, 2.0, 0.2, 10, 600, 0.5, BigDecimal.valueOf(5000), 1);
+        List<Level> with = new ArrayList<>();
+        for (double factor : LOAD_FACTORS) {
+            with.add(run("con límite", limiter, factor, capacity));
+        }
+
+        Level withAt1x = with.get(1);
+        Level withAt4x = with.get(3);
+        assertThat(withAt4x.goodput).isGreaterThanOrEqualTo(withAt1x.goodput * 0.8);
+        assertThat(withAt4x.goodput).isGreaterThan(without.get(3).goodput * 2);
+        assertThat(withAt4x.retailSuccess).isGreaterThan(withAt4x.bulkSuccess);
+    }
+
+    private record Level(double goodput, double retailSuccess, double bulkSuccess) {}
+
+    private static Level run(String label, AdaptiveConcurrencyLimiterServiceImpl limiter, double factor,
+                             double capacity) throws Exception {
+        Semaphore connections = new Semaphore(POOL, true);
+        ExecutorService server = Executors.newFixedThreadPool(SERVER_THREADS);
+        TransferRequest retail = request(100);
+        TransferRequest bulk = request(8_000);
+        LongAdder[] good = {new LongAdder(), new LongAdder()};
+        LongAdder[] sent = {new LongAdder(), new LongAdder()};
+        LongAdder rejected = new LongAdder();
+        LongAdder late = new LongAdder();
+        Recorder latency = new Recorder(TimeUnit.SECONDS.toNanos(60), 3);
+
+        Supplier<Boolean> work = () -> {
+            try {
+                connections.acquire();
+                try {
+                    Thread.sleep(SERVICE_MS);
+                } finally {
+                    connections.release();
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        };
+
+        // lazo abierto: las llegadas no esperan respuestas, se agenda contra el reloj
+        long interval = (long) (1e9 / (capacity * factor));
+        long begin = System.nanoTime();
+        long end = begin + TimeUnit.SECONDS.toNanos(SECONDS);
+        long next = begin;
+        long issued = 0;
+        while (next < end) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            int lane = issued++ % BULK_EVERY == 0 ? 1 : 0;
+            TransferRequest request = lane == 1 ? bulk : retail;
+            long arrival = next;
+            sent[lane].increment();
+            server.execute(() -> {
+                try {
+                    if (limiter == null) {
+                        work.get();
+                    } else {
+                        limiter.execute(request, work);
+                    }
+                    long elapsed = System.nanoTime() - arrival;
+                    latency.recordValue(elapsed);
+                    if (elapsed <= TimeUnit.MILLISECONDS.toNanos(SLO_MS)) {
+                        good[lane].increment();
+                    } else {
+                        late.increment();
+                    }
+                } catch (ServiceOverloadedException e) {
+                    rejected.increment();
+                } catch (IllegalStateException e) {
+                    // interrumpida al cerrar: el cliente ya abandonó
+                }
+            });
+            next += interval;
+        }
+        // pasado el SLO del último cliente, lo pendiente ya no cuenta: se descarta
+        Thread.sleep(SLO_MS);
+        server.shutdownNow();
+        server.awaitTermination(30, TimeUnit.SECONDS);
+
+        double seconds = (end - begin) / 1e9;
+        long total = sent[0].sum() + sent[1].sum();
+        long ok = good[0].sum() + good[1].sum();
+        Histogram histogram = latency.getIntervalHistogram();
+        Level level = new Level(ok / seconds, good[0].sum() / (double) Math.max(1, sent[0].sum()),
+                good[1].sum() / (double) Math.max(1, sent[1].sum()));
+        System.out.printf("[load] %s %.1fx (%.0f/s): goodput %.0f/s, 503 %d, fuera de SLO %d, sin responder %d;"
+                        + " éxito normal %.0f%%, grande %.0f%%; ms p50 %.0f, p99 %.0f%n",
+                label, factor, total / seconds, level.goodput, rejected.sum(), late.sum(),
+                total - ok - rejected.sum() - late.sum(), level.retailSuccess * 100, level.bulkSuccess * 100,
+                histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6);
+        if (limiter != null) {
+            ConcurrencyLimitStatsDto stats = limiter.stats();
+            System.out.printf("[load] %s %.1fx: límite %d (bulk %d), rtt corto %.1f ms, largo %.1f ms%n",
+                    label, factor, stats.limit(), stats.bulkLimit(), stats.shortRttMillis(), stats.longRttMillis());
+        }
+        return level;
+    }
+
+    private static TransferRequest request(double amount) {
+        return TransferRequests.amount("PEN", amount);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.transfers_service.load;
+
+import com.example.transfers_service.dto.ExternalAccountCallStatsDto;
+import com.example.transfers_service.service.impl.ExternalAccountServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latencia de cola de accountDestiny/{id} con y sin solicitudes de cobertura, contra un stub local
+ * con distribución de cola larga: 90% 2-5 ms, 8% 20-40 ms, 2% 300 ms (independiente por solicitud,
+ * como un banco con pausas de GC o colas internas). Con cobertura al p95 la segunda solicitud
+ * casi nunca cae en la cola, así el p99 pasa a ser ~p95 + mediana, con menos de 10% de solicitudes extra.
+ * Ejecutar con: mvn test -Pload-tests
+ *
+ *   -Dhedge.threads=4 -Dhedge.calls=3000
+ */
+@Tag("load")
+class ExternalAccountHedgingBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("hedge.threads", 4);
+    private static final int CALLS = Integer.getInteger("hedge.calls", 3_000);
+    private static final int WARMUP = 300;
+
+    //accountDestiny_hedgingCutsTailLatency: p50/p99/p999 por llamada y solicitudes extra enviadas.
+    @Test
+    void accountDestiny_hedgingCutsTailLatency() throws Exception {
+        // sin esto el stub responde en dos segmentos y el ACK retardado suma ~40 ms a cada llamada
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.createContext("/accountDestiny/", ExternalAccountHedgingBenchmarkTest::handle);
+        stub.start();
+        String url = "http://localhost:" + stub.getAddress().getPort();
+        try {
+            Histogram without = run("sin cobertura", service(url, false));
+            Histogram with = run("con cobertura", service(url, true));
+
+            assertThat(with.getValueAtPercentile(99)).isLessThan(without.getValueAtPercentile(99) / 2);
+            assertThat(with.getValueAtPercentile(99.9)).isLessThan(without.getValueAtPercentile(99.9) / 2);
+        } finally {
+            stub.stop(0);
+        }
+    }
+
+    private static ExternalAccountServiceImpl service(String url, boolean hedge) {
+        return new ExternalAccountServiceImpl(url, 8, 2_000, hedge, 95, 100, 5, 0.1, new ObjectMapper());
+    }
+
+    private static Histogram run(String label, ExternalAccountServiceImpl service) throws Exception {
+        try {
+            call(service, WARMUP, new Recorder(3));
+            ExternalAccountCallStatsDto before = service.stats();
+            Recorder recorder = new Recorder(TimeUnit.SECONDS.toNanos(10), 3);
+            long begin = System.nanoTime();
+            call(service, CALLS, recorder);
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            Histogram latency = recorder.getIntervalHistogram();
+            ExternalAccountCallStatsDto stats = service.stats();
+            long hedged = stats.hedged() - before.hedged();
+            System.out.printf("[load] %s: %d llamadas en %.2f s; ms p50 %.1f, p95 %.1f, p99 %.1f, p999 %.1f, max %.1f%n",
+                    label, CALLS, seconds, latency.getValueAtPercentile(50) / 1e6,
+                    latency.getValueAtPercentile(95) / 1e6, latency.getValueAtPercentile(99) / 1e6,
+                    latency.getValueAtPercentile(99.9) / 1e6, latency.getMaxValue() / 1e6);
+            System.out.printf("[load] %s: coberturas %d (%.1f%% extra), ganadas %d, denegadas %d, retraso %.1f ms%n",
+                    label, hedged, hedged * 100.0 / CALLS, stats.hedgeWins() - before.hedgeWins(),
+                    stats.hedgesDenied() - before.hedgesDenied(), stats.hedgeDelayMillis());
+            assertThat(hedged).isLessThanOrEqualTo((long) (CALLS * 0.1) + 10);
+            return latency;
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static void call(ExternalAccountServiceImpl service, int calls, Recorder recorder) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            workers.add(executor.submit(() -> {
+                for (int i = offset; i < calls; i += THREADS) {
+                    long start = System.nanoTime();
+                    service.validateExternalAccount("EXT-" + i);
+                    recorder.recordValue(System.nanoTime() - start);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        String accountId = exchange.getRequestURI().getPath().substring("/accountDestiny/".length());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int p = random.nextInt(100);
+        long delayMs = p < 90 ? random.nextLong(2, 6) : p < 98 ? random.nextLong(20, 41) : 300;
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = ("{\"externalAccountId\":\"" + accountId + "\",\"currency\":\"USD\",\"status\":\"ACTIVE\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        } catch (IOException e) {
+            // solicitud perdedora cancelada por el cliente
+        }
+    }
+}
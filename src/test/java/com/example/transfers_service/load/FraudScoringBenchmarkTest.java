@@ -0,0 +1,137 @@
+package com.example.transfers_service.load;
+
+import com.example.transfers_service.TransferRequests;
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.dto.AccountMetadataDto;
+import com.example.transfers_service.dto.FraudAssessmentDto;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.FraudSuspectedException;
+import com.example.transfers_service.service.impl.VelocityFraudScoringServiceImpl;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latencia de la etapa de riesgo en línea con tráfico mixto (destinos habituales y nuevos,
+ * algunas compras de divisa, cuentas con ráfagas) y varios hilos compitiendo por las mismas cuentas.
+ * Debe quedar por debajo del presupuesto (200 µs) en p99. Con el reloj real los días se comprimen en
+ * segundos y casi todas las cuentas acaban "calientes" (todas las señales activas): es el peor caso
+ * para la etapa, no una distribución realista de decisiones. Ejecutar con: mvn test -Pload-tests
+ *
+ *   -Dfraud.threads=4 -Dfraud.accounts=100000 -Dfraud.requests=2000000
+ */
+@Tag("load")
+class FraudScoringBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("fraud.threads", 4);
+    private static final int ACCOUNTS = Integer.getInteger("fraud.accounts", 100_000);
+    private static final int REQUESTS = Integer.getInteger("fraud.requests", 2_000_000);
+    private static final long BUDGET_MICROS = 200;
+    private static final int POOL = 4_096;
+
+    //screen_p99WithinLatencyBudget: p50/p99/p999 de screen() en µs con varios hilos.
+    @Test
+    void screen_p99WithinLatencyBudget() throws Exception {
+        VelocityFraudScoringServiceImpl service = new VelocityFraudScoringServiceImpl(null, CurrencyRegistry.defaults(), true, BUDGET_MICROS,
+                50, 80, 5, 10, 10, 5, 4, 65_536, 0, 168);
+        AccountMetadataDto[] sources = new AccountMetadataDto[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            sources[i] = new AccountMetadataDto("ACC-" + i, "CUS-" + i, i % 10 == 0 ? "USD" : "PEN", "ACTIVE");
+        }
+        // solicitudes preconstruidas: se mide screen(), no la creación de objetos
+        SplittableRandom seed = new SplittableRandom(42);
+        TransferRequest[] pool = new TransferRequest[POOL];
+        int[] sourceOf = new int[POOL];
+        for (int i = 0; i < POOL; i++) {
+            // 1 de cada 50 solicitudes sale de un puñado de cuentas "calientes"
+            sourceOf[i] = seed.nextInt(50) == 0 ? seed.nextInt(20) : seed.nextInt(ACCOUNTS);
+            String destination = seed.nextInt(4) == 0 ? "EXT-" + seed.nextInt(1_000_000) : "ACC-" + seed.nextInt(200);
+            pool[i] = request(sources[sourceOf[i]], destination, seed.nextInt(20) == 0 ? "USD" : "PEN",
+                    10 + seed.nextInt(2_000));
+        }
+
+        run(service, sources, pool, sourceOf, REQUESTS / 4); // calentamiento
+        Recorder recorder = new Recorder(TimeUnit.SECONDS.toNanos(1), 3);
+        Map<String, LongAdder> decisions = new ConcurrentHashMap<>();
+        long elapsed = run(service, sources, pool, sourceOf, REQUESTS, recorder, decisions);
+        Histogram latency = recorder.getIntervalHistogram();
+
+        Map<String, Long> counts = new TreeMap<>();
+        decisions.forEach((k, v) -> counts.put(k, v.sum()));
+        System.out.printf("[load] riesgo en línea: %d hilos, %d solicitudes en %.2f s -> %.0f/s; %s%n",
+                THREADS, latency.getTotalCount(), elapsed / 1e9, latency.getTotalCount() / (elapsed / 1e9), counts);
+        System.out.printf("[load] screen() µs: p50 %.2f, p99 %.2f, p999 %.2f, max %.2f (presupuesto %d)%n",
+                latency.getValueAtPercentile(50) / 1e3, latency.getValueAtPercentile(99) / 1e3,
+                latency.getValueAtPercentile(99.9) / 1e3, latency.getMaxValue() / 1e3, BUDGET_MICROS);
+        Path dir = Files.createDirectories(Path.of("target", "load"));
+        try (PrintStream out = new PrintStream(new FileOutputStream(dir.resolve("fraud-scoring.hgrm").toFile()))) {
+            latency.outputPercentileDistribution(out, 1000.0);
+        }
+
+        assertThat(latency.getValueAtPercentile(99)).isLessThan(TimeUnit.MICROSECONDS.toNanos(BUDGET_MICROS));
+        assertThat(counts.getOrDefault(VelocityFraudScoringServiceImpl.DECISION_FALLBACK, 0L))
+                .isLessThan(REQUESTS / 100);
+    }
+
+    private static long run(VelocityFraudScoringServiceImpl service, AccountMetadataDto[] sources,
+                            TransferRequest[] pool, int[] sourceOf, int requests) throws Exception {
+        return run(service, sources, pool, sourceOf, requests, new Recorder(3), new ConcurrentHashMap<>());
+    }
+
+    private static long run(VelocityFraudScoringServiceImpl service, AccountMetadataDto[] sources,
+                            TransferRequest[] pool, int[] sourceOf, int requests,
+                            Recorder recorder, Map<String, LongAdder> decisions) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        long begin = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            workers.add(executor.submit(() -> {
+                for (int i = offset; i < requests; i += THREADS) {
+                    int slot = i % POOL;
+                    String decision;
+                    long start = System.nanoTime();
+                    try {
+                        FraudAssessmentDto assessment = service.screen(pool[slot], sources[sourceOf[slot]]);
+                        decision = assessment.decision();
+                    } catch (FraudSuspectedException e) {
+                        decision = VelocityFraudScoringServiceImpl.DECISION_BLOCK;
+                    }
+                    recorder.recordValue(System.nanoTime() - start);
+                    decisions.computeIfAbsent(decision, d -> new LongAdder()).increment();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        return elapsed;
+    }
+
+    private static TransferRequest request(AccountMetadataDto source, String destination, String currency,
+                                           double amount) {
+        return TransferRequests.request(source.customerId(), source.accountId(), destination, currency, amount);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.transfers_service.load;
+
+import com.example.transfers_service.TransferRequests;
+import com.example.transfers_service.TransfersServiceApplication;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.service.TransferService;
+import com.example.transfers_service.service.impl.InMemoryTransferServiceImpl;
+import com.example.transfers_service.service.impl.TransferServiceImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput de la ruta JPA (lock pesimista por cuenta en BD) frente al motor en memoria
+ * (secuenciadores por partición + journal mapeado con fsync por lote), ambos sobre H2.
+ * Reporta transferencias/s totales y por núcleo usado. Ejecutar con: mvn test -Pload-tests
+ */
+@Tag("load")
+class InMemoryEngineBenchmarkTest {
+
+    private static final int ACCOUNTS = 1000;
+    private static final int CLIENT_THREADS = 16;
+    private static final int TRANSFERS_PER_THREAD = 1500;
+    private static final int ENGINE_PARTITIONS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private static final String[] COMMON_PROPERTIES = {
+            "spring.datasource.driver-class-name=org.h2.Driver",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+            "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.show-sql=false",
+            "spring.datasource.hikari.maximum-pool-size=" + CLIENT_THREADS,
+            "external.account.service.url=http://localhost:1"
+    };
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void engine_vsJpaPath_transfersPerSecondPerCore() {
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        double jpa = run("jpa", cores, TransferServiceImpl.class,
+                "spring.datasource.url=jdbc:h2:mem:bench-jpa;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        double engine = run("in-memory", ENGINE_PARTITIONS, InMemoryTransferServiceImpl.class,
+                "spring.datasource.url=jdbc:h2:mem:bench-engine;MODE=MySQL;DB_CLOSE_DELAY=-1"
+                        + ";INIT=RUNSCRIPT FROM 'classpath:db/migration/V5__engine_checkpoints.sql'",
+                "transfers.engine.enabled=true",
+                "transfers.engine.partitions=" + ENGINE_PARTITIONS,
+                "transfers.engine.journal.dir=" + journalDir,
+                "transfers.engine.journal.fsync=true");
+
+        System.out.printf("[load] in-memory vs jpa por núcleo: %.1fx%n", engine / jpa);
+        assertThat(engine).isGreaterThan(0);
+    }
+
+    // Devuelve transferencias/s por núcleo ocupado por la ruta de escritura
+    private double run(String label, int coresUsed, Class<? extends TransferService> serviceType,
+                       String... properties) {
+        AtomicReference<Double> perCore = new AtomicReference<>();
+        new ApplicationContextRunner()
+                .withUserConfiguration(TransfersServiceApplication.class)
+                .withPropertyValues(COMMON_PROPERTIES)
+                .withPropertyValues(properties)
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    ConfigurableApplicationContext app = context.getSourceApplicationContext();
+                    seedAccounts(app.getBean(JdbcTemplate.class));
+                    TransferService service = app.getBean(serviceType);
+
+                    workload(service, 200); // calentamiento
+                    long start = System.nanoTime();
+                    int done = workload(service, TRANSFERS_PER_THREAD);
+                    double seconds = (System.nanoTime() - start) / 1e9;
+
+                    double throughput = done / seconds;
+                    perCore.set(throughput / coresUsed);
+                    System.out.printf("[load] %-9s %d transferencias en %.2f s -> %.0f/s total, %.0f/s por núcleo (%d núcleos, %s)%n",
+                            label, done, seconds, throughput, throughput / coresUsed, coresUsed,
+                            service.getClass().getSimpleName());
+                });
+        return perCore.get();
+    }
+
+    private static void seedAccounts(JdbcTemplate jdbc) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            rows.add(new Object[]{"B" + i, "C" + i, 1_000_000.00});
+        }
+        jdbc.batchUpdate("insert into accounts (account_id, customer_id, currency, balance, status)"
+                + " values (?, ?, 'PEN', ?, 'ACTIVE')", rows);
+    }
+
+    private static int workload(TransferService service, int perThread) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENT_THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < CLIENT_THREADS; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                int ok = 0;
+                for (int n = 0; n < perThread; n++) {
+                    int from = ThreadLocalRandom.current().nextInt(ACCOUNTS);
+                    int to = (from + 1 + ThreadLocalRandom.current().nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    try {
+                        service.createTransfer(request(from, to));
+                        ok++;
+                    } catch (RuntimeException e) {
+                        // en la ruta JPA dos transferencias cruzadas pueden bloquearse mutuamente
+                    }
+                }
+                return ok;
+            }));
+        }
+        start.countDown();
+        int done = 0;
+        for (Future<Integer> result : results) {
+            done += result.get();
+        }
+        pool.shutdown();
+        return done;
+    }
+
+    private static TransferRequest request(int from, int to) {
+        return TransferRequests.request("C" + from, "B" + from, "B" + to, "PEN", 10.00, "benchmark");
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.transfers_service.load;
+
+import com.example.transfers_service.TransfersServiceApplication;
+import com.example.transfers_service.entity.Movement;
+import com.example.transfers_service.entity.Transfer;
+import com.example.transfers_service.repository.MovementRepository;
+import com.example.transfers_service.repository.TransferRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara la configuración JPA por defecto (application.properties) con la del perfil prod
+ * (batching de Hibernate, sin show-sql, plan cache, autocommit deshabilitado) sobre H2.
+ * Ejecutar con: mvn test -Pload-tests
+ */
+@Tag("load")
+class JpaProfileLoadTest {
+
+    private static final int TRANSFERS = 3000;
+    private static final int TRANSFERS_PER_TX = 20;
+
+    private static final String[] COMMON_PROPERTIES = {
+            "spring.datasource.driver-class-name=org.h2.Driver",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+            "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.properties.hibernate.generate_statistics=true",
+            "external.account.service.url=http://localhost:8085"
+    };
+
+    // Valores actuales de application.properties
+    private static final String[] DEFAULT_PROPERTIES = {
+            "spring.datasource.url=jdbc:h2:mem:load-default;DB_CLOSE_DELAY=-1",
+            "spring.jpa.show-sql=true"
+    };
+
+    // Mismos valores que application-prod.properties (salvo los específicos de MySQL)
+    private static final String[] TUNED_PROPERTIES = {
+            "spring.datasource.url=jdbc:h2:mem:load-tuned;DB_CLOSE_DELAY=-1",
+            "spring.jpa.show-sql=false",
+            "spring.jpa.open-in-view=false",
+            "spring.datasource.hikari.auto-commit=false",
+            "spring.jpa.properties.hibernate.connection.provider_disables_autocommit=true",
+            "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+            "spring.jpa.properties.hibernate.order_inserts=true",
+            "spring.jpa.properties.hibernate.order_updates=true",
+            "spring.jpa.properties.hibernate.query.plan_cache_max_size=2048",
+            "transfers.db.pool-sizing.auto=true",
+            "transfers.db.pool-sizing.worker-threads=16"
+    };
+
+    @Test
+    void tunedProfile_executesFewerStatements_andReportsThroughput() {
+        RunResult defaults = run("defaults", DEFAULT_PROPERTIES);
+        RunResult tuned = run("prod-tuned", TUNED_PROPERTIES);
+
+        System.out.printf("[load] speedup prod vs defaults: %.2fx%n",
+                (double) defaults.elapsed.toNanos() / tuned.elapsed.toNanos());
+
+        assertThat(tuned.preparedStatements).isLessThan(defaults.preparedStatements);
+    }
+
+    private RunResult run(String label, String[] profileProperties) {
+        AtomicReference<RunResult> result = new AtomicReference<>();
+        new ApplicationContextRunner()
+                .withUserConfiguration(TransfersServiceApplication.class)
+                .withPropertyValues(COMMON_PROPERTIES)
+                .withPropertyValues(profileProperties)
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    result.set(runWorkload(label, context.getSourceApplicationContext()));
+                });
+        return result.get();
+    }
+
+    private RunResult runWorkload(String label, ConfigurableApplicationContext context) {
+        TransferRepository transferRepository = context.getBean(TransferRepository.class);
+        MovementRepository movementRepository = context.getBean(MovementRepository.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        Statistics statistics = context.getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class).getStatistics();
+
+        // calentamiento
+        insertTransfers(tx, transferRepository, movementRepository, "W", 200);
+        statistics.clear();
+
+        long start = System.nanoTime();
+        insertTransfers(tx, transferRepository, movementRepository, "T", TRANSFERS);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        long prepared = statistics.getPrepareStatementCount();
+        System.out.printf("[load] %-11s %d transfers (+%d movements) in %d ms -> %.0f transfers/s, %d prepared statements%n",
+                label, TRANSFERS, TRANSFERS * 3, elapsed.toMillis(),
+                TRANSFERS / (elapsed.toNanos() / 1e9), prepared);
+        return new RunResult(elapsed, prepared);
+    }
+
+    private static void insertTransfers(TransactionTemplate tx,
+                                        TransferRepository transferRepository,
+                                        MovementRepository movementRepository,
+                                        String prefix,
+                                        int count) {
+        for (int batchStart = 0; batchStart < count; batchStart += TRANSFERS_PER_TX) {
+            int from = batchStart;
+            tx.executeWithoutResult(status -> {
+                for (int i = from; i < Math.min(from + TRANSFERS_PER_TX, count); i++) {
+                    String transferId = "TRX-" + prefix + i;
+                    transferRepository.save(transfer(transferId));
+                    movementRepository.save(movement(transferId, "MOV-" + prefix + i + "-1", -100.0, "OUT"));
+                    movementRepository.save(movement(transferId, "MOV-" + prefix + i + "-2", -2.0, "OUT"));
+                    movementRepository.save(movement(transferId, "MOV-" + prefix + i + "-3", 100.0, "IN"));
+                }
+            });
+        }
+    }
+
+    private static Transfer transfer(String transferId) {
+        Transfer transfer = new Transfer();
+        transfer.setTransferId(transferId);
+        transfer.setCustomerId("C1");
+        transfer.setSourceAccountId("A1");
+        transfer.setDestAccountNumber("A2");
+        transfer.setDestCurrency("PEN");
+        transfer.setAmount(100.0);
+        transfer.setDescription("carga");
+        transfer.setTransferDatetime(LocalDateTime.now());
+        transfer.setTransferType("ONLINE");
+        transfer.setStatus("EJECUTADA");
+        return transfer;
+    }
+
+    private static Movement movement(String transferId, String movementId, double amount, String type) {
+        Movement movement = new Movement();
+        movement.setMovementId(movementId);
+        movement.setAccountId(amount < 0 ? "A1" : "A2");
+        movement.setTransferId(transferId);
+        movement.setAmount(amount);
+        movement.setCurrency("PEN");
+        movement.setType(type);
+        movement.setDescription("carga");
+        movement.setMovementDt(LocalDateTime.now());
+        return movement;
+    }
+
+    private record RunResult(Duration elapsed, long preparedStatements) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.transfers_service.load;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Parámetros del arnés de carga, leídos de propiedades del sistema (-Dload.xxx=...).
+ * Las cuentas sembradas son ACC-0..ACC-(accounts-1), cada una del cliente CUS-i, en PEN.
+ * Por cada solicitud, en este orden:
+ *  - pairRatio: transferencia dentro de un par fijo ACC-2k <-> ACC-2k+1 en sentido aleatorio
+ *    (locks cruzados sobre las mismas filas).
+ *  - hotRatio: el origen es una de las hotAccounts primeras cuentas.
+ *  - externalRatio: el destino es EXT-n, resuelto contra el banco simulado.
+ */
+record LoadProfile(int accounts,
+                   int hotAccounts,
+                   double hotRatio,
+                   double pairRatio,
+                   double externalRatio,
+                   int threads,
+                   int requests,
+                   int warmupRequests,
+                   long bankLatencyMicros,
+                   long bankJitterMicros,
+                   double bankErrorRate,
+                   String datasourceUrl) {
+
+    static LoadProfile fromSystemProperties() {
+        return new LoadProfile(
+                Integer.getInteger("load.accounts", 10_000),
+                Integer.getInteger("load.hot-accounts", 10),
+                doubleProperty("load.hot-ratio", 0.2),
+                doubleProperty("load.pair-ratio", 0.05),
+                doubleProperty("load.external-ratio", 0.1),
+                Integer.getInteger("load.threads", 32),
+                Integer.getInteger("load.requests", 20_000),
+                Integer.getInteger("load.warmup-requests", 2_000),
+                Long.getLong("load.bank.latency-us", 5_000L),
+                Long.getLong("load.bank.jitter-us", 5_000L),
+                doubleProperty("load.bank.error-rate", 0.01),
+                System.getProperty("load.datasource.url"));
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    static String accountId(int index) {
+        return "ACC-" + index;
+    }
+
+    static String customerId(int index) {
+        return "CUS-" + index;
+    }
+
+    // {origen, destino} como índices; destino negativo = cuenta externa EXT-n
+    int[] nextPair(ThreadLocalRandom random) {
+        if (random.nextDouble() < pairRatio) {
+            int base = random.nextInt(accounts / 2) * 2;
+            return random.nextBoolean() ? new int[]{base, base + 1} : new int[]{base + 1, base};
+        }
+        int source = random.nextDouble() < hotRatio ? random.nextInt(hotAccounts) : random.nextInt(accounts);
+        if (random.nextDouble() < externalRatio) {
+            return new int[]{source, -1 - random.nextInt(accounts)};
+        }
+        int dest = random.nextInt(accounts - 1);
+        return new int[]{source, dest >= source ? dest + 1 : dest};
+    }
+
+    String describe() {
+        return String.format("%d cuentas (%d calientes, %.0f%%), pares %.0f%%, externas %.0f%%, %d hilos, "
+                        + "%d solicitudes; banco %d+%d us, errores %.1f%%",
+                accounts, hotAccounts, hotRatio * 100, pairRatio * 100, externalRatio * 100, threads,
+                requests, bankLatencyMicros, bankJitterMicros, bankErrorRate * 100);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.transfers_service.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compara inserción y consulta de historial entre una tabla movements sin particionar y otra
+ * particionada por mes (mismo esquema que V3__partition_transfers_movements.sql).
+ * Necesita un MySQL local; por defecto 1M filas, para la prueba completa usar 100M:
+ *
+ *   mvn test -Pload-tests -Dtest=PartitionedMovementsBenchmarkTest \
+ *       -Dbenchmark.mysql.url="jdbc:mysql://localhost:3306/transfer_bench?rewriteBatchedStatements=true" \
+ *       -Dbenchmark.mysql.user=root -Dbenchmark.mysql.password=... -Dbenchmark.rows=100000000
+ */
+@Tag("load")
+class PartitionedMovementsBenchmarkTest {
+
+    private static final int MONTHS = 24;
+    private static final int ACCOUNTS = 100_000;
+    private static final int BATCH = 5_000;
+    private static final int QUERIES = 2_000;
+    private static final YearMonth FIRST_MONTH = YearMonth.of(2025, 1);
+
+    @Test
+    void partitionedVsFlat_insertAndHistoryLatency() throws SQLException {
+        String url = System.getProperty("benchmark.mysql.url");
+        assumeTrue(url != null, "benchmark.mysql.url no definido: se omite el benchmark de particionado");
+        long rows = Long.getLong("benchmark.rows", 1_000_000L);
+
+        try (Connection con = DriverManager.getConnection(url,
+                System.getProperty("benchmark.mysql.user", "root"),
+                System.getProperty("benchmark.mysql.password", ""))) {
+            createTables(con);
+
+            double flatInsert = insertRows(con, "movements_bench_flat", rows);
+            double partInsert = insertRows(con, "movements_bench_part", rows);
+            System.out.printf("[load] insert %d rows: flat %.0f rows/s, partitioned %.0f rows/s%n",
+                    rows, flatInsert, partInsert);
+
+            long[] flatQuery = historyLatencies(con, "movements_bench_flat");
+            long[] partQuery = historyLatencies(con, "movements_bench_part");
+            System.out.printf("[load] 1-month history p50/p99 (us): flat %d/%d, partitioned %d/%d%n",
+                    percentile(flatQuery, 50), percentile(flatQuery, 99),
+                    percentile(partQuery, 50), percentile(partQuery, 99));
+
+            assertThat(explainPartitions(con)).doesNotContain(",");
+        }
+    }
+
+    private static void createTables(Connection con) throws SQLException {
+        StringBuilder partitions = new StringBuilder();
+        for (int i = 0; i < MONTHS; i++) {
+            YearMonth month = FIRST_MONTH.plusMonths(i);
+            partitions.append(String.format("PARTITION p%d%02d VALUES LESS THAN ('%s'), ",
+                    month.getYear(), month.getMonthValue(), month.plusMonths(1).atDay(1)));
+        }
+        String columns = "(movement_id VARCHAR(40) NOT NULL, account_id VARCHAR(30) NOT NULL, " +
+                "transfer_id VARCHAR(40), amount DOUBLE NOT NULL, currency VARCHAR(3) NOT NULL, " +
+                "type VARCHAR(30) NOT NULL, description VARCHAR(200), movement_dt DATETIME(6) NOT NULL, ";
+        try (Statement st = con.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS movements_bench_flat");
+            st.execute("DROP TABLE IF EXISTS movements_bench_part");
+            st.execute("CREATE TABLE movements_bench_flat " + columns +
+                    "PRIMARY KEY (movement_id), KEY idx_acc_dt (account_id, movement_dt)) ENGINE=InnoDB");
+            st.execute("CREATE TABLE movements_bench_part " + columns +
+                    "PRIMARY KEY (movement_id, movement_dt), KEY idx_acc_dt (account_id, movement_dt)) ENGINE=InnoDB " +
+                    "PARTITION BY RANGE COLUMNS (movement_dt) (" + partitions +
+                    "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+        }
+    }
+
+    private static double insertRows(Connection con, String table, long rows) throws SQLException {
+        con.setAutoCommit(false);
+        long seconds = (long) MONTHS * 30 * 24 * 3600;
+        LocalDateTime start = FIRST_MONTH.atDay(1).atStartOfDay();
+        long begin = System.nanoTime();
+        try (PreparedStatement ps = con.prepareStatement("INSERT INTO " + table +
+                " (movement_id, account_id, transfer_id, amount, currency, type, description, movement_dt)" +
+                " VALUES (?, ?, ?, ?, 'PEN', 'OUT', 'monto transferencia', ?)")) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (long i = 0; i < rows; i++) {
+                // ids y fechas crecientes, como los ULID de IdGeneratorServiceImpl
+                ps.setString(1, String.format("MOV-%020d", i));
+                ps.setString(2, "ACC-" + random.nextInt(ACCOUNTS));
+                ps.setString(3, "TRX-" + i / 3);
+                ps.setDouble(4, -random.nextInt(1, 5000));
+                ps.setTimestamp(5, Timestamp.valueOf(start.plusSeconds(i * seconds / rows)));
+                ps.addBatch();
+                if ((i + 1) % BATCH == 0) {
+                    ps.executeBatch();
+                    con.commit();
+                }
+            }
+            ps.executeBatch();
+            con.commit();
+        } finally {
+            con.setAutoCommit(true);
+        }
+        return rows / ((System.nanoTime() - begin) / 1e9);
+    }
+
+    private static long[] historyLatencies(Connection con, String table) throws SQLException {
+        long[] latencies = new long[QUERIES];
+        try (PreparedStatement ps = con.prepareStatement("SELECT * FROM " + table +
+                " WHERE account_id = ? AND movement_dt >= ? AND movement_dt < ? ORDER BY movement_dt DESC")) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < QUERIES; i++) {
+                YearMonth month = FIRST_MONTH.plusMonths(random.nextInt(MONTHS));
+                ps.setString(1, "ACC-" + random.nextInt(ACCOUNTS));
+                ps.setTimestamp(2, Timestamp.valueOf(month.atDay(1).atStartOfDay()));
+                ps.setTimestamp(3, Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+                long begin = System.nanoTime();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rs.getString(1);
+                    }
+                }
+                latencies[i] = (System.nanoTime() - begin) / 1_000;
+            }
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    // La consulta de un mes debe tocar una sola partición
+    private static String explainPartitions(Connection con) throws SQLException {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN SELECT * FROM movements_bench_part WHERE account_id = 'ACC-1' " +
+                     "AND movement_dt >= '2025-03-01' AND movement_dt < '2025-04-01'")) {
+            rs.next();
+            return rs.getString("partitions");
+        }
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)];
+    }
+}
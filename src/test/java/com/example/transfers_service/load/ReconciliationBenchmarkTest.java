@@ -0,0 +1,87 @@
+package com.example.transfers_service.load;
+
+import com.example.transfers_service.dto.ReconciliationReportDto;
+import com.example.transfers_service.service.impl.ReconciliationServiceImpl;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Conciliación saldos vs movements sobre H2 con millones de filas: movements/s con 1 hilo
+ * frente al ForkJoinPool con varios rangos en paralelo. Ejecutar con: mvn test -Pload-tests
+ *   -Dreconciliation.accounts=200000 -Dreconciliation.movements=5000000 -Dreconciliation.parallelism=8
+ */
+@Tag("load")
+class ReconciliationBenchmarkTest {
+
+    private static final int ACCOUNTS = Integer.getInteger("reconciliation.accounts", 100_000);
+    private static final int MOVEMENTS = Integer.getInteger("reconciliation.movements", 2_000_000);
+    private static final int PARALLELISM = Integer.getInteger("reconciliation.parallelism",
+            Runtime.getRuntime().availableProcessors());
+    private static final int RANGE_SIZE = Integer.getInteger("reconciliation.range-size", 5_000);
+    private static final int BROKEN_ACCOUNTS = 50;
+    private static final int SEED_CHUNK = 250_000;
+
+    // H2 en disco: millones de filas en memoria agotan el heap de surefire
+    @TempDir
+    Path dbDir;
+
+    //reconcile_sequentialVsParallelRanges: movements/s y discrepancias sembradas encontradas.
+    @Test
+    void reconcile_sequentialVsParallelRanges() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:file:" + dbDir.resolve("reconciliation").toAbsolutePath() + ";MODE=MySQL");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("RUNSCRIPT FROM 'classpath:db/migration/V1__baseline_schema.sql'");
+        jdbc.execute("RUNSCRIPT FROM 'classpath:db/migration/V7__reconciliation.sql'");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        long seedStart = System.nanoTime();
+        seed(jdbc);
+        System.out.printf("[load] sembradas %d cuentas y %d movements en %.1f s%n",
+                ACCOUNTS, MOVEMENTS, (System.nanoTime() - seedStart) / 1e9);
+
+        ReconciliationReportDto sequential = run(dataSource, transactionManager, 1);
+        ReconciliationReportDto parallel = run(dataSource, transactionManager, PARALLELISM);
+
+        System.out.printf("[load] speedup %d hilos vs 1: %.2fx%n", PARALLELISM,
+                parallel.movementsPerSecond() / sequential.movementsPerSecond());
+        assertThat(parallel.movements()).isEqualTo(MOVEMENTS);
+        assertThat(parallel.discrepancyCount()).isEqualTo(BROKEN_ACCOUNTS);
+    }
+
+    private static ReconciliationReportDto run(DataSource dataSource, DataSourceTransactionManager transactionManager,
+                                               int parallelism) {
+        ReconciliationReportDto report = new ReconciliationServiceImpl(
+                dataSource, transactionManager, RANGE_SIZE, parallelism, 1_000, 100).reconcile();
+        System.out.printf("[load] %d hilos, %d rangos: %d cuentas, %d movements en %d ms -> %.0f movements/s,"
+                        + " %d discrepancias%n",
+                parallelism, report.rangesTotal(), report.accounts(), report.movements(), report.elapsedMs(),
+                report.movementsPerSecond(), report.discrepancyCount());
+        return report;
+    }
+
+    // INSERT ... SELECT dentro de H2, por tramos para no acumular toda la carga en una transacción
+    private static void seed(JdbcTemplate jdbc) {
+        for (int from = 0; from < MOVEMENTS; from += SEED_CHUNK) {
+            int to = Math.min(from + SEED_CHUNK, MOVEMENTS) - 1;
+            jdbc.update("INSERT INTO movements (movement_id, account_id, transfer_id, amount, currency, type, description, movement_dt)"
+                    + " SELECT 'MOV-' || X, 'ACC-' || LPAD(CAST(MOD(X, " + ACCOUNTS + ") AS VARCHAR), 8, '0'), 'TRX-' || X,"
+                    + " CASE WHEN MOD(X, 3) = 0 THEN -12.35 ELSE 20.10 END, 'PEN', 'IN', 'seed', CURRENT_TIMESTAMP"
+                    + " FROM SYSTEM_RANGE(" + from + ", " + to + ")");
+        }
+        jdbc.update("INSERT INTO accounts (account_id, customer_id, currency, balance, status)"
+                + " SELECT account_id, 'CUS', 'PEN', ROUND(SUM(amount), 2), 'ACTIVE' FROM movements GROUP BY account_id");
+        // descuadres conocidos repartidos por el espacio de cuentas
+        jdbc.update("UPDATE accounts SET balance = balance + 0.01 WHERE MOD(CAST(SUBSTRING(account_id, 5) AS INT), "
+                + (ACCOUNTS / BROKEN_ACCOUNTS) + ") = 7");
+    }
+}
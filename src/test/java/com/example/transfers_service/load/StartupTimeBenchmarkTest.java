@@ -0,0 +1,91 @@
+package com.example.transfers_service.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tiempo de arranque (proceso lanzado hasta que el contexto termina el refresh) contra H2,
+ * con el perfil de Spring "startup". Compara JVM, JVM + AOT, JVM + AOT + CDS y, si existe, nativo.
+ *
+ *   mvn -Pfast-startup -DskipTests package
+ *   mvn -Pnative -DskipTests native:compile        (opcional, requiere GraalVM)
+ *   mvn test -Pload-tests -Dtest=StartupTimeBenchmarkTest -Dstartup.runs=10
+ */
+@Tag("load")
+class StartupTimeBenchmarkTest {
+
+    private static final Path CDS_DIR = Path.of("target", "cds");
+    private static final Path NATIVE_IMAGE = Path.of("target", "transfers-service");
+    private static final List<String> APP_ARGS = List.of("--spring.profiles.active=startup");
+
+    //startup_jvmVsCdsVsNative: mediana de arranque en milisegundos por modo.
+    @Test
+    void startup_jvmVsCdsVsNative() throws Exception {
+        Path jar = findJar();
+        assumeTrue(jar != null, "Falta target/cds: ejecutar antes mvn -Pfast-startup -DskipTests package");
+        int runs = Integer.getInteger("startup.runs", 5);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String exit = "-Dspring.context.exit=onRefresh";
+
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("jvm", List.of(java, exit, "-jar", jar.toString()));
+        modes.put("jvm+aot", List.of(java, exit, "-Dspring.aot.enabled=true", "-jar", jar.toString()));
+        modes.put("jvm+aot+cds", List.of(java, exit, "-Dspring.aot.enabled=true",
+                "-XX:SharedArchiveFile=" + CDS_DIR.resolve("application.jsa"), "-jar", jar.toString()));
+        if (Files.isExecutable(NATIVE_IMAGE)) {
+            modes.put("native", List.of(NATIVE_IMAGE.toString(), exit));
+        }
+
+        Map<String, Long> medians = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+            start(mode.getValue()); // calentamiento de la caché de disco
+            long[] times = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                times[i] = start(mode.getValue());
+            }
+            Arrays.sort(times);
+            medians.put(mode.getKey(), times[runs / 2]);
+        }
+
+        medians.forEach((mode, ms) -> System.out.printf("[load] arranque %-12s mediana %d ms (%d ejecuciones)%n",
+                mode, ms, runs));
+        assertThat(medians.get("jvm+aot+cds")).isPositive();
+    }
+
+    private static Path findJar() throws IOException {
+        if (!Files.isDirectory(CDS_DIR)) {
+            return null;
+        }
+        try (var files = Files.list(CDS_DIR)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".jar")).findFirst().orElse(null);
+        }
+    }
+
+    private static long start(List<String> command) throws Exception {
+        List<String> full = new ArrayList<>(command);
+        full.addAll(APP_ARGS);
+        long begin = System.nanoTime();
+        Process process = new ProcessBuilder(full)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(System.getProperty("java.io.tmpdir"), "transfers-startup.log"))
+                .start();
+        assertThat(process.waitFor(120, TimeUnit.SECONDS)).as("el proceso no terminó: %s", full).isTrue();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        assertThat(process.exitValue()).as("arranque fallido, ver transfers-startup.log: %s", full).isZero();
+        return elapsed;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.transfers_service.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Banco externo simulado en el mismo proceso: responde GET /accountDestiny/{id} como el servicio real
+ * (ExternalAccountResponse / ExternalAccountErrorResponse) con latencia y tasa de errores configurables.
+ * Los ids que empiezan por EXT- existen; el resto devuelve 404.
+ */
+class StubExternalBank implements AutoCloseable {
+
+    static final String EXTERNAL_PREFIX = "EXT-";
+    private static final String PATH = "/accountDestiny/";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMicros;
+    private final long jitterMicros;
+    private final double errorRate;
+
+    final LongAdder served = new LongAdder();
+    final LongAdder failed = new LongAdder();
+
+    StubExternalBank(int threads, long latencyMicros, long jitterMicros, double errorRate) throws IOException {
+        this.latencyMicros = latencyMicros;
+        this.jitterMicros = jitterMicros;
+        this.errorRate = errorRate;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.createContext(PATH, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            sleep();
+            String accountId = exchange.getRequestURI().getPath().substring(PATH.length());
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < errorRate) {
+                failed.increment();
+                send(exchange, 500, "{\"error\":\"INTERNAL\",\"message\":\"Falla simulada del banco\"}");
+            } else if (accountId.startsWith(EXTERNAL_PREFIX)) {
+                served.increment();
+                send(exchange, 200, "{\"externalAccountId\":\"" + accountId + "\",\"currency\":\"PEN\","
+                        + "\"holderName\":\"Titular " + accountId + "\",\"bankName\":\"Banco Stub\",\"status\":\"ACTIVE\"}");
+            } else {
+                served.increment();
+                send(exchange, 404, "{\"error\":\"NOT_FOUND\",\"message\":\"Cuenta no existe: " + accountId + "\"}");
+            }
+        }
+    }
+
+    private void sleep() {
+        long micros = latencyMicros + (jitterMicros > 0 ? ThreadLocalRandom.current().nextLong(jitterMicros) : 0);
+        if (micros > 0) {
+            try {
+                TimeUnit.MICROSECONDS.sleep(micros);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
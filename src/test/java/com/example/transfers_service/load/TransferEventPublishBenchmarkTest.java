@@ -0,0 +1,137 @@
+package com.example.transfers_service.load;
+
+import com.example.transfers_service.dto.TransferEventDto;
+import com.example.transfers_service.dto.TransferEventStatsDto;
+import com.example.transfers_service.service.impl.NdjsonFileTransferEventSink;
+import com.example.transfers_service.service.impl.RingBufferTransferEventPublisherImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latencia que el flujo de eventos agrega al hilo de la solicitud: publicar en el ring buffer
+ * (el sink NDJSON escribe en el hilo consumidor) contra escribir el mismo sink en línea,
+ * con varios hilos productores que publican en ráfagas de 'events.burst' cada milisegundo (carga
+ * abierta: a ritmo constante el consumidor debe seguir el paso sin descartes).
+ * Ejecutar con: mvn test -Pload-tests
+ *
+ *   -Devents.threads=4 -Devents.count=1000000 -Devents.burst=32
+ */
+@Tag("load")
+class TransferEventPublishBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("events.threads", 4);
+    private static final int EVENTS = Integer.getInteger("events.count", 1_000_000);
+    private static final int BURST = Integer.getInteger("events.burst", 32);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    //publish_addsNegligibleLatencyToRequestThread: p50/p99 de publicar vs escribir el sink en línea.
+    @Test
+    void publish_addsNegligibleLatencyToRequestThread() throws Exception {
+        Path dir = Files.createDirectories(Path.of("target", "load"));
+        TransferEventDto[] pool = new TransferEventDto[1024];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = TransferEventDto.builder()
+                    .type(TransferEventDto.TYPE_CREATED)
+                    .transferId("TRX-" + i)
+                    .customerId("CUS-" + i)
+                    .sourceAccountId("ACC-" + i)
+                    .destAccountId("ACC-" + (i + 1))
+                    .amount(new BigDecimal("125.40"))
+                    .currency("PEN")
+                    .status("EJECUTADA")
+                    .occurredAt(LocalDateTime.now())
+                    .build();
+        }
+
+        Files.deleteIfExists(dir.resolve("events-ring.ndjson"));
+        Files.deleteIfExists(dir.resolve("events-inline.ndjson"));
+        NdjsonFileTransferEventSink ringSink =
+                new NdjsonFileTransferEventSink(objectMapper, dir.resolve("events-ring.ndjson").toString());
+        RingBufferTransferEventPublisherImpl publisher =
+                new RingBufferTransferEventPublisherImpl(List.of(ringSink), true, 65_536, 256, 64);
+        publisher.start();
+        run(pool, EVENTS / 4, publisher::publishAfterCommit, new Recorder(3)); // calentamiento
+        Recorder ringRecorder = new Recorder(TimeUnit.SECONDS.toNanos(1), 3);
+        long ringElapsed = run(pool, EVENTS, publisher::publishAfterCommit, ringRecorder);
+        publisher.shutdown();
+        TransferEventStatsDto stats = publisher.stats();
+        Histogram ring = ringRecorder.getIntervalHistogram();
+
+        NdjsonFileTransferEventSink inlineSink =
+                new NdjsonFileTransferEventSink(objectMapper, dir.resolve("events-inline.ndjson").toString());
+        Consumer<TransferEventDto> inline = event -> {
+            synchronized (inlineSink) {
+                try {
+                    inlineSink.write(List.of(event));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        run(pool, EVENTS / 40, inline, new Recorder(3));
+        Recorder inlineRecorder = new Recorder(TimeUnit.SECONDS.toNanos(1), 3);
+        run(pool, EVENTS / 10, inline, inlineRecorder);
+        inlineSink.close();
+        Histogram direct = inlineRecorder.getIntervalHistogram();
+
+        System.out.printf("[load] eventos: %d hilos, %d publicados en %.2f s -> %.0f/s; %s%n", THREADS,
+                ring.getTotalCount(), ringElapsed / 1e9, ring.getTotalCount() / (ringElapsed / 1e9), stats);
+        System.out.printf("[load] publicar (ring buffer) ns: p50 %d, p99 %d, p999 %d%n",
+                ring.getValueAtPercentile(50), ring.getValueAtPercentile(99), ring.getValueAtPercentile(99.9));
+        System.out.printf("[load] sink en línea ns:        p50 %d, p99 %d, p999 %d%n",
+                direct.getValueAtPercentile(50), direct.getValueAtPercentile(99), direct.getValueAtPercentile(99.9));
+
+        assertThat(ring.getValueAtPercentile(99)).isLessThan(direct.getValueAtPercentile(99));
+        assertThat(ring.getValueAtPercentile(99)).isLessThan(TimeUnit.MICROSECONDS.toNanos(10));
+        assertThat(stats.delivered().get("file") + stats.dropped()).isEqualTo(EVENTS + EVENTS / 4);
+        assertThat(stats.dropped()).isLessThan(EVENTS / 100);
+    }
+
+    private static long run(TransferEventDto[] pool, int events, Consumer<TransferEventDto> publish,
+                            Recorder recorder) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        long begin = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            workers.add(executor.submit(() -> {
+                for (int i = offset; i < events; i += THREADS) {
+                    long start = System.nanoTime();
+                    publish.accept(pool[i % pool.length]);
+                    recorder.recordValue(System.nanoTime() - start);
+                    if ((i / THREADS) % BURST == BURST - 1) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+        return elapsed;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.transfers_service.load;
+
+import com.example.transfers_service.TransferRequests;
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.service.impl.SlidingWindowTransferLimitServiceImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Coste de la comprobación de límites acumulados y memoria por clave activa.
+ * El coste no debe depender de cuántas transferencias lleva la cuenta en la ventana
+ * (anillos de tamaño fijo), y la memoria crece solo con las claves activas.
+ * Ejecutar con: mvn test -Pload-tests [-Dlimits.keys=100000]
+ */
+@Tag("load")
+class TransferLimitBenchmarkTest {
+
+    private static final int KEYS = Integer.getInteger("limits.keys", 100_000);
+    private static final int CHECKS = 2_000_000;
+
+    //reserve_costIndependentOfHistory: ns por comprobación con 1 vs 1M transferencias previas en la ventana.
+    @Test
+    void reserve_costIndependentOfHistory() {
+        SlidingWindowTransferLimitServiceImpl fresh = service();
+        SlidingWindowTransferLimitServiceImpl busy = service();
+        TransferRequest request = request("C1", "A1");
+        for (int i = 0; i < 1_000_000; i++) {
+            busy.reserve(request);
+        }
+
+        measure(fresh, request("C2", "A2")); // calentamiento
+        double freshNs = measure(fresh, request("C3", "A3"));
+        double busyNs = measure(busy, request);
+
+        System.out.printf("[load] reserve: %.0f ns/op cuenta nueva, %.0f ns/op cuenta con 1M transferencias%n",
+                freshNs, busyNs);
+        assertThat(busyNs).isLessThan(freshNs * 3);
+    }
+
+    //memoryPerActiveKey: bytes de heap por clave activa (cliente + cuenta).
+    @Test
+    void memoryPerActiveKey() {
+        SlidingWindowTransferLimitServiceImpl service = service();
+        TransferRequest[] requests = new TransferRequest[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            requests[i] = request("C" + i, "A" + i);
+        }
+        long before = usedHeap();
+        for (TransferRequest r : requests) {
+            service.reserve(r);
+        }
+        long after = usedHeap();
+
+        double perKey = (after - before) / (2.0 * KEYS);
+        System.out.printf("[load] %d claves activas: %.0f bytes por clave (2 anillos: %d + %d buckets)%n",
+                2 * KEYS, perKey, 12, 24);
+        assertThat(perKey).isLessThan(1_024);
+    }
+
+    private static double measure(SlidingWindowTransferLimitServiceImpl service, TransferRequest request) {
+        long begin = System.nanoTime();
+        for (int i = 0; i < CHECKS; i++) {
+            service.reserve(request);
+        }
+        return (System.nanoTime() - begin) / (double) CHECKS;
+    }
+
+    private static SlidingWindowTransferLimitServiceImpl service() {
+        return new SlidingWindowTransferLimitServiceImpl(null, CurrencyRegistry.defaults(), true,
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    private static TransferRequest request(String customerId, String accountId) {
+        return TransferRequests.request(customerId, accountId, null, "PEN", 10.00);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.transfers_service.load;
+
+import com.example.transfers_service.H2Migrations;
+import com.example.transfers_service.TransfersServiceApplication;
+import com.example.transfers_service.repository.AccountRepository;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Arnés de carga de extremo a extremo: levanta el servicio completo (Tomcat en puerto aleatorio)
+ * contra H2 en modo MySQL o contra la BD de -Dload.datasource.url, siembra las cuentas, arranca
+ * StubExternalBank para accountDestiny/{id} y lanza POST /transfers/create con el sesgo de
+ * LoadProfile. Reporta throughput, p50/p99/p999 y la espera del lock PESSIMISTIC_WRITE de la cuenta
+ * en formato HdrHistogram (también en target/load/*.hgrm).
+ *
+ *   mvn test -Pload-tests -Dtest=TransferLoadHarnessTest -Dload.threads=64 -Dload.hot-ratio=0.5
+ *
+ * Cualquier otra propiedad de Spring (p. ej. -Dspring.datasource.hikari.maximum-pool-size=32)
+ * se toma de las propiedades del sistema y tiene prioridad sobre las de aquí.
+ */
+@Tag("load")
+class TransferLoadHarnessTest {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final int SEED_BATCH = 1_000;
+    private static final double SEED_BALANCE = 1_000_000_000d;
+
+    // Tiempo dentro de findAndLockByAccountId: SELECT ... FOR UPDATE, incluida la espera del lock
+    static final Recorder LOCK_WAIT = new Recorder(MAX_LATENCY_MICROS, 3);
+
+    //createTransfer_underSkewedLoad: throughput, latencias y espera de locks con cuentas calientes y banco externo.
+    @Test
+    void createTransfer_underSkewedLoad() throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        System.out.println("[load] perfil: " + profile.describe());
+
+        try (StubExternalBank bank = new StubExternalBank(profile.threads(), profile.bankLatencyMicros(),
+                profile.bankJitterMicros(), profile.bankErrorRate());
+             ConfigurableApplicationContext app = start(profile, bank)) {
+            seed(app.getBean(JdbcTemplate.class), profile);
+            URI endpoint = URI.create("http://127.0.0.1:"
+                    + app.getEnvironment().getProperty("local.server.port") + "/transfers/create");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            drive(client, endpoint, profile, profile.warmupRequests());
+            LOCK_WAIT.reset();
+            RunResult result = drive(client, endpoint, profile, profile.requests());
+            Histogram lockWait = LOCK_WAIT.getIntervalHistogram();
+
+            report(result, lockWait, bank);
+            assertThat(result.outcomes()).containsKey(201);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(LoadProfile profile, StubExternalBank bank) {
+        String url = profile.datasourceUrl() != null ? profile.datasourceUrl()
+                : "jdbc:h2:mem:load-harness;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"
+                + ";INIT=RUNSCRIPT FROM 'classpath:db/migration/V1__baseline_schema.sql'";
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.datasource.url=" + url,
+                "spring.jpa.show-sql=false",
+                "spring.jpa.open-in-view=false",
+                "transfers.ratelimit.enabled=false",
+                "transfers.limits.enabled=false",
+                "transfers.fraud.enabled=false",
+                "external.account.service.url=" + bank.baseUrl(),
+                "server.tomcat.threads.max=" + Math.max(200, profile.threads()),
+                "logging.level.root=WARN"));
+        if (profile.datasourceUrl() == null) {
+            properties.addAll(List.of(
+                    "spring.datasource.driver-class-name=org.h2.Driver",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=",
+                    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"));
+            properties.addAll(List.of(H2Migrations.sqlInitProperties()));
+        }
+        // Como argumentos de línea de comandos para ganar a application.properties,
+        // salvo las que ya vengan como propiedad del sistema
+        String[] args = properties.stream()
+                .filter(p -> System.getProperty(p.substring(0, p.indexOf('='))) == null)
+                .map(p -> "--" + p)
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(TransfersServiceApplication.class, LockWaitProbe.class).run(args);
+    }
+
+    private static void seed(JdbcTemplate jdbc, LoadProfile profile) {
+        jdbc.update("DELETE FROM accounts WHERE account_id LIKE 'ACC-%'");
+        for (int from = 0; from < profile.accounts(); from += SEED_BATCH) {
+            List<Object[]> rows = new ArrayList<>(SEED_BATCH);
+            for (int i = from; i < Math.min(from + SEED_BATCH, profile.accounts()); i++) {
+                rows.add(new Object[]{LoadProfile.accountId(i), LoadProfile.customerId(i), "PEN", SEED_BALANCE, "ACTIVE"});
+            }
+            jdbc.batchUpdate("INSERT INTO accounts (account_id, customer_id, currency, balance, status)"
+                    + " VALUES (?, ?, ?, ?, ?)", rows);
+        }
+    }
+
+    private static RunResult drive(HttpClient client, URI endpoint, LoadProfile profile, int requests)
+            throws Exception {
+        Recorder latency = new Recorder(MAX_LATENCY_MICROS, 3);
+        Map<Integer, LongAdder> outcomes = new ConcurrentHashMap<>();
+        AtomicInteger issued = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(profile.threads());
+        List<Future<?>> workers = new ArrayList<>();
+
+        long begin = System.nanoTime();
+        for (int t = 0; t < profile.threads(); t++) {
+            workers.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (issued.getAndIncrement() < requests) {
+                    HttpRequest request = HttpRequest.newBuilder(endpoint)
+                            .header("Content-Type", "application/json")
+                            .timeout(Duration.ofSeconds(60))
+                            .POST(HttpRequest.BodyPublishers.ofString(body(profile.nextPair(random))))
+                            .build();
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = -1; // error de red / timeout del cliente
+                    }
+                    latency.recordValue(Math.min(MAX_LATENCY_MICROS,
+                            TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)));
+                    outcomes.computeIfAbsent(status, s -> new LongAdder()).increment();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsed = System.nanoTime() - begin;
+        pool.shutdown();
+
+        Map<Integer, Long> counts = new TreeMap<>();
+        outcomes.forEach((status, count) -> counts.put(status, count.sum()));
+        return new RunResult(latency.getIntervalHistogram(), counts, elapsed);
+    }
+
+    private static String body(int[] pair) {
+        String dest = pair[1] < 0 ? StubExternalBank.EXTERNAL_PREFIX + (-1 - pair[1]) : LoadProfile.accountId(pair[1]);
+        return "{\"customer\":{\"customerId\":\"" + LoadProfile.customerId(pair[0]) + "\"},"
+                + "\"sourceAccount\":{\"accountId\":\"" + LoadProfile.accountId(pair[0]) + "\"},"
+                + "\"destinationAccount\":{\"accountId\":\"" + dest + "\"},"
+                + "\"transferData\":{\"currency\":\"PEN\",\"amount\":10.0,\"description\":\"carga\"}}";
+    }
+
+    private static void report(RunResult result, Histogram lockWait, StubExternalBank bank) throws Exception {
+        Histogram latency = result.latency();
+        double seconds = result.elapsedNanos() / 1e9;
+        System.out.printf("[load] %d solicitudes en %.1f s -> %.0f req/s; respuestas %s%n",
+                latency.getTotalCount(), seconds, latency.getTotalCount() / seconds, result.outcomes());
+        System.out.printf("[load] latencia ms: p50 %.2f, p99 %.2f, p999 %.2f, max %.2f%n",
+                latency.getValueAtPercentile(50) / 1e3, latency.getValueAtPercentile(99) / 1e3,
+                latency.getValueAtPercentile(99.9) / 1e3, latency.getMaxValue() / 1e3);
+        System.out.printf("[load] espera de lock ms (%d locks): p50 %.2f, p99 %.2f, p999 %.2f, max %.2f, total %.1f s%n",
+                lockWait.getTotalCount(), lockWait.getValueAtPercentile(50) / 1e3,
+                lockWait.getValueAtPercentile(99) / 1e3, lockWait.getValueAtPercentile(99.9) / 1e3,
+                lockWait.getMaxValue() / 1e3, lockWait.getMean() * lockWait.getTotalCount() / 1e6);
+        System.out.printf("[load] banco externo: %d respuestas, %d errores simulados%n",
+                bank.served.sum(), bank.failed.sum());
+
+        System.out.println("[load] distribución de latencia (ms):");
+        latency.outputPercentileDistribution(System.out, 1000.0);
+        Path dir = Files.createDirectories(Path.of("target", "load"));
+        write(dir.resolve("transfers-latency.hgrm"), latency);
+        write(dir.resolve("account-lock-wait.hgrm"), lockWait);
+    }
+
+    private static void write(Path file, Histogram histogram) throws Exception {
+        try (PrintStream out = new PrintStream(new FileOutputStream(file.toFile()))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private record RunResult(Histogram latency, Map<Integer, Long> outcomes, long elapsedNanos) {
+    }
+
+    /**
+     * Envuelve AccountRepository para medir findAndLockByAccountId, que es donde las transferencias
+     * concurrentes sobre la misma cuenta esperan el lock de fila.
+     */
+    @Configuration
+    static class LockWaitProbe {
+
+        @Bean
+        static BeanPostProcessor accountLockWaitProbe() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof AccountRepository)) {
+                        return bean;
+                    }
+                    ProxyFactory factory = new ProxyFactory(bean);
+                    factory.addAdvice((MethodInterceptor) invocation -> {
+                        if (!"findAndLockByAccountId".equals(invocation.getMethod().getName())) {
+                            return invocation.proceed();
+                        }
+                        long start = System.nanoTime();
+                        try {
+                            return invocation.proceed();
+                        } finally {
+                            LOCK_WAIT.recordValue(Math.min(MAX_LATENCY_MICROS,
+                                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)));
+                        }
+                    });
+                    return factory.getProxy();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.transfers_service.load;
+
+import com.example.transfers_service.TransfersServiceApplication;
+import com.example.transfers_service.entity.Movement;
+import com.example.transfers_service.repository.MovementRepository;
+import com.example.transfers_service.service.impl.IdGeneratorServiceImpl;
+import com.github.f4b6a3.ulid.UlidCreator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Claves ULID en texto ("MOV-..." en VARCHAR(40)) frente a ULID monótonos en BINARY(16):
+ * generación bajo contención, inserción por JPA sobre H2 y, con un MySQL local, tamaño de
+ * la PK y del índice secundario por transfer_id. Ejecutar con: mvn test -Pload-tests
+ *
+ *   -Dbenchmark.mysql.url="jdbc:mysql://localhost:3306/transfer_bench?rewriteBatchedStatements=true"
+ *   -Dbenchmark.mysql.user=root -Dbenchmark.mysql.password=... -Dbenchmark.rows=1000000
+ */
+@Tag("load")
+class UlidKeyBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int IDS_PER_THREAD = 200_000;
+    private static final int JPA_ROWS = 50_000;
+    private static final int JPA_BATCH = 500;
+    private static final int MYSQL_BATCH = 5_000;
+
+    //generation_underContention: ids/s con 16 hilos, ULID aleatorio frente a monótono.
+    @Test
+    void generation_underContention() throws Exception {
+        IdGeneratorServiceImpl random = new IdGeneratorServiceImpl("text");
+        IdGeneratorServiceImpl monotonic = new IdGeneratorServiceImpl("binary");
+
+        generate(random::nextMovementId); // calentamiento
+        generate(monotonic::nextMovementId);
+        double randomRate = generate(random::nextMovementId);
+        double monotonicRate = generate(monotonic::nextMovementId);
+
+        System.out.printf("[load] generación %d hilos: aleatorio %.0f ids/s, monótono %.0f ids/s%n",
+                THREADS, randomRate, monotonicRate);
+        assertThat(monotonicRate).isGreaterThan(0);
+    }
+
+    //jpaInsert_textVsBinaryKeys: filas/s insertando movements por JPA en cada modo (H2).
+    @Test
+    void jpaInsert_textVsBinaryKeys() {
+        double text = insertWithJpa("text");
+        double binary = insertWithJpa("binary");
+        System.out.printf("[load] JPA insert %d movements: text %.0f filas/s, binary %.0f filas/s%n",
+                JPA_ROWS, text, binary);
+    }
+
+    //mysqlIndexSize_textVsBinaryKeys: bytes de PK e índice por transfer_id en MySQL (opcional).
+    @Test
+    void mysqlIndexSize_textVsBinaryKeys() throws SQLException {
+        String url = System.getProperty("benchmark.mysql.url");
+        assumeTrue(url != null, "benchmark.mysql.url no definido: se omite la medición de índices en MySQL");
+        long rows = Long.getLong("benchmark.rows", 1_000_000L);
+
+        try (Connection con = DriverManager.getConnection(url,
+                System.getProperty("benchmark.mysql.user", "root"),
+                System.getProperty("benchmark.mysql.password", ""))) {
+            try (Statement st = con.createStatement()) {
+                st.execute("DROP TABLE IF EXISTS movements_bench_text");
+                st.execute("DROP TABLE IF EXISTS movements_bench_bin");
+                st.execute("CREATE TABLE movements_bench_text (movement_id VARCHAR(40) NOT NULL, "
+                        + "transfer_id VARCHAR(40), amount DOUBLE NOT NULL, PRIMARY KEY (movement_id), "
+                        + "KEY idx_transfer (transfer_id)) ENGINE=InnoDB");
+                st.execute("CREATE TABLE movements_bench_bin (movement_id BINARY(16) NOT NULL, "
+                        + "transfer_id BINARY(16), amount DOUBLE NOT NULL, PRIMARY KEY (movement_id), "
+                        + "KEY idx_transfer (transfer_id)) ENGINE=InnoDB");
+            }
+            double textRate = insertRows(con, "movements_bench_text", rows, false);
+            double binRate = insertRows(con, "movements_bench_bin", rows, true);
+            System.out.printf("[load] MySQL insert %d filas: text %.0f filas/s, binary %.0f filas/s%n",
+                    rows, textRate, binRate);
+
+            long[] text = sizes(con, "movements_bench_text");
+            long[] bin = sizes(con, "movements_bench_bin");
+            System.out.printf("[load] MySQL PK+datos / índices secundarios (MB): text %.1f/%.1f, binary %.1f/%.1f%n",
+                    text[0] / 1e6, text[1] / 1e6, bin[0] / 1e6, bin[1] / 1e6);
+            assertThat(bin[1]).isLessThan(text[1]);
+        }
+    }
+
+    private static double generate(Supplier<String> generator) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                int length = 0;
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    length += generator.get().length();
+                }
+                return length;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<Integer> result : results) {
+            assertThat(result.get()).isEqualTo(IDS_PER_THREAD * 26);
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        pool.shutdown();
+        return THREADS * (double) IDS_PER_THREAD / seconds;
+    }
+
+    private static double insertWithJpa(String mode) {
+        AtomicReference<Double> rate = new AtomicReference<>();
+        new ApplicationContextRunner()
+                .withUserConfiguration(TransfersServiceApplication.class)
+                .withPropertyValues(
+                        "spring.datasource.url=jdbc:h2:mem:ulid-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + JPA_BATCH,
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.show-sql=false",
+                        "external.account.service.url=http://localhost:1",
+                        "transfers.ids.mode=" + mode)
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    ConfigurableApplicationContext app = context.getSourceApplicationContext();
+                    MovementRepository repository = app.getBean(MovementRepository.class);
+                    IdGeneratorServiceImpl ids = app.getBean(IdGeneratorServiceImpl.class);
+                    String transferId = "TRX-" + ids.nextTransferId();
+
+                    long begin = System.nanoTime();
+                    for (int done = 0; done < JPA_ROWS; done += JPA_BATCH) {
+                        List<Movement> batch = new ArrayList<>(JPA_BATCH);
+                        for (int i = 0; i < JPA_BATCH; i++) {
+                            batch.add(movement("MOV-" + ids.nextMovementId(), transferId));
+                        }
+                        repository.saveAll(batch);
+                    }
+                    rate.set(JPA_ROWS / ((System.nanoTime() - begin) / 1e9));
+
+                    // la API sigue viendo el id con prefijo; en BD el tipo depende del modo
+                    Movement stored = repository.findAll().get(0);
+                    assertThat(stored.getMovementId()).startsWith("MOV-");
+                    assertThat(stored.getTransferId()).isEqualTo(transferId);
+                    assertThat(repository.findByTransferInRange(transferId,
+                            LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1)))
+                            .hasSize(JPA_ROWS);
+                    String type = app.getBean(JdbcTemplate.class).queryForObject(
+                            "select data_type from information_schema.columns"
+                                    + " where table_name = 'MOVEMENTS' and column_name = 'MOVEMENT_ID'", String.class);
+                    assertThat(type).containsIgnoringCase("binary".equals(mode) ? "BINARY" : "CHARACTER VARYING");
+                });
+        return rate.get();
+    }
+
+    private static Movement movement(String movementId, String transferId) {
+        Movement movement = new Movement();
+        movement.setMovementId(movementId);
+        movement.setAccountId("B1");
+        movement.setTransferId(transferId);
+        movement.setAmount(-10.00);
+        movement.setCurrency("PEN");
+        movement.setType("OUT");
+        movement.setDescription("benchmark");
+        movement.setMovementDt(LocalDateTime.now());
+        return movement;
+    }
+
+    private static double insertRows(Connection con, String table, long rows, boolean binary) throws SQLException {
+        con.setAutoCommit(false);
+        long begin = System.nanoTime();
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO " + table + " (movement_id, transfer_id, amount) VALUES (?, ?, ?)")) {
+            for (long i = 0; i < rows; i++) {
+                // texto: ULID aleatorio como en la ruta actual; binario: monótono
+                if (binary) {
+                    ps.setBytes(1, UlidCreator.getMonotonicUlid().toBytes());
+                    ps.setBytes(2, UlidCreator.getMonotonicUlid().toBytes());
+                } else {
+                    ps.setString(1, "MOV-" + UlidCreator.getUlid());
+                    ps.setString(2, "TRX-" + UlidCreator.getUlid());
+                }
+                ps.setDouble(3, -10.00);
+                ps.addBatch();
+                if ((i + 1) % MYSQL_BATCH == 0) {
+                    ps.executeBatch();
+                    con.commit();
+                }
+            }
+            ps.executeBatch();
+            con.commit();
+        }
+        con.setAutoCommit(true);
+        return rows / ((System.nanoTime() - begin) / 1e9);
+    }
+
+    // {data_length (PK clusterizada), index_length (índices secundarios)}
+    private static long[] sizes(Connection con, String table) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("ANALYZE TABLE " + table);
+            try (ResultSet rs = st.executeQuery("SELECT data_length, index_length FROM information_schema.tables"
+                    + " WHERE table_schema = DATABASE() AND table_name = '" + table + "'")) {
+                rs.next();
+                return new long[]{rs.getLong(1), rs.getLong(2)};
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.transfers_service.load;
+
+import com.example.transfers_service.TransferRequests;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.dto.response.TransferResponse;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Coste de leer un TransferRequest y escribir el TransferResponse con los mismos
+ * HttpMessageConverter que usa Spring MVC, en JSON frente a CBOR.
+ * Ejecutar con: mvn test -Pload-tests
+ */
+@Tag("load")
+class WireFormatBenchmarkTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    //parseAndSerialize_jsonVsCbor: peticiones/s y bytes por petición en cada formato.
+    @Test
+    void parseAndSerialize_jsonVsCbor() throws IOException {
+        MappingJackson2HttpMessageConverter json =
+                new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build());
+        MappingJackson2CborHttpMessageConverter cbor = new MappingJackson2CborHttpMessageConverter(
+                Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build());
+
+        byte[] jsonBody = json.getObjectMapper().writeValueAsBytes(request());
+        byte[] cborBody = cbor.getObjectMapper().writeValueAsBytes(request());
+        TransferResponse response = response();
+
+        run(json, MediaType.APPLICATION_JSON, jsonBody, response, WARMUP);
+        run(cbor, MediaType.APPLICATION_CBOR, cborBody, response, WARMUP);
+        double jsonRate = run(json, MediaType.APPLICATION_JSON, jsonBody, response, ITERATIONS);
+        double cborRate = run(cbor, MediaType.APPLICATION_CBOR, cborBody, response, ITERATIONS);
+
+        System.out.printf("[load] parse+serialize: JSON %.0f req/s (%d bytes), CBOR %.0f req/s (%d bytes), x%.2f%n",
+                jsonRate, jsonBody.length, cborRate, cborBody.length, cborRate / jsonRate);
+        assertThat(cborBody.length).isLessThan(jsonBody.length);
+    }
+
+    private static double run(AbstractJackson2HttpMessageConverter converter, MediaType type,
+                              byte[] body, TransferResponse response, int iterations) throws IOException {
+        long checksum = 0;
+        long begin = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            MockHttpInputMessage input = new MockHttpInputMessage(body);
+            input.getHeaders().setContentType(type);
+            TransferRequest parsed = (TransferRequest) converter.read(TransferRequest.class, input);
+
+            MockHttpOutputMessage output = new MockHttpOutputMessage();
+            converter.write(response, type, output);
+            checksum += parsed.getTransferData().getAmount().longValue() + output.getBodyAsBytes().length;
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        assertThat(checksum).isPositive();
+        return iterations / seconds;
+    }
+
+    private static TransferRequest request() {
+        return TransferRequests.request("CUS-0001", "ACC-0001-PEN", "ACC-0002-USD", "USD", 1250.75,
+                "Pago proveedor lote 42");
+    }
+
+    private static TransferResponse response() {
+        TransferResponse response = new TransferResponse();
+        response.setTransferId("TRX-01JDXQ5G8W9V1Z3M7Q9H4M0R2S");
+        response.setStatus("EJECUTADA");
+        response.setTransferType("ONLINE");
+        response.setCommissionApplied(2.11);
+        return response;
+    }
+}
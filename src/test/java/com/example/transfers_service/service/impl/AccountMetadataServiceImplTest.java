@@ -0,0 +1,104 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.AccountMetadataDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccountMetadataServiceImplTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final Map<String, AccountMetadataDto> table = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private AccountMetadataServiceImpl cache(int maxSize, long ttlMs) {
+        return new AccountMetadataServiceImpl(true, maxSize, ttlMs,
+                accountId -> {
+                    loads.incrementAndGet();
+                    return Optional.ofNullable(table.get(accountId));
+                },
+                clock::get);
+    }
+
+    private void account(String accountId, String customerId, String currency, String status) {
+        table.put(accountId, new AccountMetadataDto(accountId, customerId, currency, status));
+    }
+
+    //find_loadsOnce_thenServesFromCache: La segunda consulta no vuelve a la BD.
+    @Test
+    void find_loadsOnce_thenServesFromCache() {
+        account("A1", "C1", "PEN", "ACTIVE");
+        AccountMetadataServiceImpl service = cache(100, 60_000);
+
+        assertThat(service.find("A1")).map(AccountMetadataDto::customerId).contains("C1");
+        assertThat(service.find("A1")).map(AccountMetadataDto::currency).contains("PEN");
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    //find_missingAccount_isNotCached: Una cuenta inexistente se vuelve a buscar (puede darse de alta).
+    @Test
+    void find_missingAccount_isNotCached() {
+        AccountMetadataServiceImpl service = cache(100, 60_000);
+
+        assertThat(service.find("NEW")).isEmpty();
+        account("NEW", "C1", "USD", "ACTIVE");
+
+        assertThat(service.find("NEW")).isPresent();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    //find_afterTtl_reloads: Pasado el TTL se lee de nuevo y se ven los cambios hechos fuera de la app.
+    @Test
+    void find_afterTtl_reloads() {
+        account("A1", "C1", "PEN", "ACTIVE");
+        AccountMetadataServiceImpl service = cache(100, 1_000);
+        service.find("A1");
+
+        account("A1", "C1", "PEN", "BLOCKED");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_001));
+
+        assertThat(service.find("A1")).map(AccountMetadataDto::status).contains("BLOCKED");
+    }
+
+    //onAccountChanged_onlyEvictsWhenMetadataDiffers: Un cambio de saldo no invalida; un cambio de estado sí.
+    @Test
+    void onAccountChanged_onlyEvictsWhenMetadataDiffers() {
+        account("A1", "C1", "PEN", "ACTIVE");
+        AccountMetadataServiceImpl service = cache(100, 60_000);
+        service.find("A1");
+
+        service.onAccountChanged(new AccountMetadataDto("A1", "C1", "PEN", "ACTIVE"));
+        service.find("A1");
+        assertThat(loads.get()).isEqualTo(1);
+
+        account("A1", "C1", "PEN", "BLOCKED");
+        service.onAccountChanged(new AccountMetadataDto("A1", "C1", "PEN", "BLOCKED"));
+        assertThat(service.find("A1")).map(AccountMetadataDto::status).contains("BLOCKED");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    //find_keepsCacheBounded: Con más cuentas que max-size la caché no crece sin límite.
+    @Test
+    void find_keepsCacheBounded() {
+        AccountMetadataServiceImpl service = cache(50, 60_000);
+        for (int i = 0; i < 500; i++) {
+            account("A" + i, "C" + i, "PEN", "ACTIVE");
+            clock.incrementAndGet();
+            service.find("A" + i);
+        }
+
+        assertThat(service.size()).isLessThanOrEqualTo(50);
+        // la más reciente sigue en caché
+        int before = loads.get();
+        service.find("A499");
+        assertThat(loads.get()).isEqualTo(before);
+    }
+}
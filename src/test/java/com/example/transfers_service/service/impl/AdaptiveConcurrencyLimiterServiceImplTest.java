@@ -0,0 +1,193 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.TransferRequests;
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.dto.ConcurrencyLimitStatsDto;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.AccountBusyException;
+import com.example.transfers_service.exception.InsufficientBalanceException;
+import com.example.transfers_service.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+class AdaptiveConcurrencyLimiterServiceImplTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private AdaptiveConcurrencyLimiterServiceImpl limiter(int initialLimit, double bulkShare) {
+        return new AdaptiveConcurrencyLimiterServiceImpl(new AdaptiveConcurrencyLimiterServiceImpl.Settings(
+                true, initialLimit, 4, 200, 2.0, 0.2, 10, 600, bulkShare, 500_000, 1), CurrencyRegistry.defaults(), clock::get);
+    }
+
+    private static TransferRequest request(double amount) {
+        return TransferRequests.amount("PEN", amount);
+    }
+
+    // Ocupa 'depth' cupos anidando llamadas en el mismo hilo y ejecuta 'inner' con ellos ocupados
+    private static <T> T holding(AdaptiveConcurrencyLimiterServiceImpl limiter, int depth, Supplier<T> inner) {
+        if (depth == 0) {
+            return inner.get();
+        }
+        return limiter.execute(request(10), () -> holding(limiter, depth - 1, inner));
+    }
+
+    //onSample_risingLatency_shrinksLimit: Con la latencia muy por encima de la referencia el límite baja.
+    @Test
+    void onSample_risingLatency_shrinksLimit() {
+        AdaptiveConcurrencyLimiterServiceImpl limiter = limiter(40, 0.5);
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(10 * MILLIS, 40);
+        }
+        int steady = limiter.stats().limit();
+        assertThat(steady).isGreaterThanOrEqualTo(40);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(100 * MILLIS, 40);
+        }
+
+        assertThat(limiter.stats().limit()).isLessThan(steady / 2);
+        assertThat(limiter.stats().shortRttMillis()).isGreaterThan(limiter.stats().longRttMillis());
+    }
+
+    //onSample_latencyRecovers_limitGrowsBack: Cuando la latencia vuelve a la normal el límite vuelve a crecer.
+    @Test
+    void onSample_latencyRecovers_limitGrowsBack() {
+        AdaptiveConcurrencyLimiterServiceImpl limiter = limiter(40, 0.5);
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(10 * MILLIS, 40);
+        }
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(100 * MILLIS, 40);
+        }
+        int shrunk = limiter.stats().limit();
+
+        for (int i = 0; i < 200; i++) {
+            limiter.onSample(10 * MILLIS, limiter.stats().limit());
+        }
+
+        assertThat(limiter.stats().limit()).isGreaterThan(shrunk * 2);
+    }
+
+    //onSample_appLimited_doesNotGrow: Con menos de la mitad del límite en uso el límite no crece.
+    @Test
+    void onSample_appLimited_doesNotGrow() {
+        AdaptiveConcurrencyLimiterServiceImpl limiter = limiter(20, 0.5);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(10 * MILLIS, 2);
+        }
+
+        assertThat(limiter.stats().limit()).isEqualTo(20);
+    }
+
+    //execute_overLimit_rejectsImmediately: Sin cupo se lanza ServiceOverloadedException sin ejecutar el trabajo.
+    @Test
+    void execute_overLimit_rejectsImmediately() {
+        AdaptiveConcurrencyLimiterServiceImpl limiter = limiter(4, 0.5);
+        boolean[] ran = {false};
+
+        assertThatThrownBy(() -> holding(limiter, 4, () -> limiter.execute(request(10), () -> ran[0] = true)))
+                .isInstanceOf(ServiceOverloadedException.class)
+                .satisfies(e -> assertThat(((ServiceOverloadedException) e).getRetryAfterSeconds()).isEqualTo(1));
+
+        ConcurrencyLimitStatsDto stats = limiter.stats();
+        assertThat(ran[0]).isFalse();
+        assertThat(stats.rejectedRetail()).isEqualTo(1);
+        assertThat(stats.inFlight()).isZero();
+    }
+
+    //execute_bulkShedBeforeRetail: Con la mitad del límite ocupada se rechaza lo grande y pasa lo pequeño.
+    @Test
+    void execute_bulkShedBeforeRetail() {
+        AdaptiveConcurrencyLimiterServiceImpl limiter = limiter(10, 0.5);
+
+        assertThatThrownBy(() -> holding(limiter, 5, () -> limiter.execute(request(8_000), () -> "bulk")))
+                .isInstanceOf(ServiceOverloadedException.class);
+        assertThat(holding(limiter, 5, () -> limiter.execute(request(10), () -> "retail"))).isEqualTo("retail");
+        assertThat(holding(limiter, 4, () -> limiter.execute(request(8_000), () -> "bulk"))).isEqualTo("bulk");
+
+        ConcurrencyLimitStatsDto stats = limiter.stats();
+        assertThat(stats.bulkLimit()).isEqualTo(5);
+        assertThat(stats.rejectedBulk()).isEqualTo(1);
+        assertThat(stats.rejectedRetail()).isZero();
+    }
+
+    //execute_dataAccessTimeout_backsOffLimit: Un timeout de BD reduce el límite; un rechazo de negocio no.
+    @Test
+    void execute_dataAccessTimeout_backsOffLimit() {
+        AdaptiveConcurrencyLimiterServiceImpl limiter = limiter(20, 0.5);
+
+        assertThatThrownBy(() -> limiter.execute(request(10), () -> {
+            throw new InsufficientBalanceException("Saldo insuficiente");
+        })).isInstanceOf(InsufficientBalanceException.class);
+        assertThat(limiter.stats().limit()).isEqualTo(20);
+
+        assertThatThrownBy(() -> limiter.execute(request(10), () -> {
+            throw new QueryTimeoutException("lock wait timeout");
+        })).isInstanceOf(QueryTimeoutException.class);
+
+        ConcurrencyLimitStatsDto stats = limiter.stats();
+        assertThat(stats.limit()).isEqualTo(18);
+        assertThat(stats.dropped()).isEqualTo(1);
+        assertThat(stats.inFlight()).isZero();
+    }
+
+    //execute_retryableRejection_isNotALoadSignal: Un 503 de otra protección (cuenta ocupada) no mueve el límite.
+    @Test
+    void execute_retryableRejection_isNotALoadSignal() {
+        AdaptiveConcurrencyLimiterServiceImpl limiter = limiter(20, 0.5);
+
+        assertThatThrownBy(() -> limiter.execute(request(10), () -> {
+            throw new AccountBusyException("Cuenta ocupada", 1);
+        })).isInstanceOf(AccountBusyException.class);
+
+        ConcurrencyLimitStatsDto stats = limiter.stats();
+        assertThat(stats.limit()).isEqualTo(20);
+        assertThat(stats.dropped()).isZero();
+        assertThat(stats.longRttMillis()).isZero();
+        assertThat(stats.inFlight()).isZero();
+    }
+
+    //onSample_concurrentSamples_keepStateConsistent: Muestras desde varios hilos sin monitor dejan un estado válido.
+    @Test
+    void onSample_concurrentSamples_keepStateConsistent() throws InterruptedException {
+        AdaptiveConcurrencyLimiterServiceImpl limiter = limiter(40, 0.5);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    limiter.onSample(10 * MILLIS, 40);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        ConcurrencyLimitStatsDto stats = limiter.stats();
+        assertThat(stats.shortRttMillis()).isCloseTo(10.0, offset(0.01));
+        assertThat(stats.longRttMillis()).isCloseTo(10.0, offset(0.01));
+        assertThat(stats.limit()).isBetween(40, 200);
+    }
+
+    //execute_disabled_passesThrough: Deshabilitado no limita ni mide.
+    @Test
+    void execute_disabled_passesThrough() {
+        AdaptiveConcurrencyLimiterServiceImpl limiter = new AdaptiveConcurrencyLimiterServiceImpl(
+                new AdaptiveConcurrencyLimiterServiceImpl.Settings(false, 4, 4, 4, 2.0, 0.2, 10, 600, 0.5, 1, 1),
+                CurrencyRegistry.defaults(), clock::get);
+
+        assertThat(holding(limiter, 10, () -> limiter.execute(request(8_000), () -> "ok"))).isEqualTo("ok");
+        assertThat(limiter.stats().accepted()).isZero();
+    }
+}
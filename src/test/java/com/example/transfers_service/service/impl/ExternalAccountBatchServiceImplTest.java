@@ -0,0 +1,160 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.external.ExternalAccountBulkRequest;
+import com.example.transfers_service.dto.external.ExternalAccountResponse;
+import com.example.transfers_service.exception.ExternalAccountValidationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExternalAccountBatchServiceImplTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger bulkCalls = new AtomicInteger();
+
+    private HttpServer stub;
+    private ExternalAccountServiceImpl asyncService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.createContext("/accountDestiny/bulk", this::handleBulk);
+        stub.start();
+
+        asyncService = new ExternalAccountServiceImpl("http://localhost:" + stub.getAddress().getPort(), objectMapper,
+                new ExternalAccountServiceImpl.Settings(2, Duration.ofMillis(5000), false, 95,
+                        Duration.ofMillis(100), Duration.ofMillis(5), 0.1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncService.shutdown();
+        stub.stop(0);
+    }
+
+    // Stub del banco externo: devuelve todas las cuentas pedidas menos las que empiezan con "MISSING"
+    private void handleBulk(HttpExchange exchange) throws IOException {
+        bulkCalls.incrementAndGet();
+        ExternalAccountBulkRequest request =
+                objectMapper.readValue(exchange.getRequestBody(), ExternalAccountBulkRequest.class);
+
+        List<Map<String, String>> accounts = new ArrayList<>();
+        for (String id : request.getAccountIds()) {
+            if (!id.startsWith("MISSING")) {
+                accounts.add(Map.of("externalAccountId", id, "currency", "PEN", "status", "ACTIVE"));
+            }
+        }
+        byte[] bytes = objectMapper.writeValueAsBytes(Map.of("accounts", accounts));
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    //lookupsWithinWindow_areSentAsOneBulkRequest: Verifica que las consultas de la misma ventana se agrupen.
+    @Test
+    void lookupsWithinWindow_areSentAsOneBulkRequest() {
+        ExternalAccountBatchServiceImpl batcher = new ExternalAccountBatchServiceImpl(asyncService, 50, 100);
+
+        List<CompletableFuture<ExternalAccountResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(batcher.lookup("EXT-" + i));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertThat(bulkCalls.get()).isEqualTo(1);
+        for (int i = 0; i < 10; i++) {
+            assertThat(futures.get(i).join().getExternalAccountId()).isEqualTo("EXT-" + i);
+        }
+        batcher.shutdown();
+    }
+
+    //fullBatch_isSentWithoutWaitingForWindow: Comprueba que al llegar a maxBatchSize se envíe de inmediato.
+    @Test
+    void fullBatch_isSentWithoutWaitingForWindow() {
+        // ventana muy larga: si el lote no se enviara por tamaño, el test se quedaría esperando
+        ExternalAccountBatchServiceImpl batcher = new ExternalAccountBatchServiceImpl(asyncService, 60_000, 50);
+
+        List<CompletableFuture<ExternalAccountResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(batcher.lookup("EXT-" + i));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        // 200 consultas -> 4 round trips en lugar de 200
+        assertThat(bulkCalls.get()).isEqualTo(4);
+        assertThat(futures).allSatisfy(f -> assertThat(f.join().getStatus()).isEqualTo("ACTIVE"));
+        batcher.shutdown();
+    }
+
+    //missingAccount_failsOnlyThatCaller: Verifica que una cuenta ausente solo falle para su llamador.
+    @Test
+    void missingAccount_failsOnlyThatCaller() {
+        ExternalAccountBatchServiceImpl batcher = new ExternalAccountBatchServiceImpl(asyncService, 20, 100);
+
+        CompletableFuture<ExternalAccountResponse> ok = batcher.lookup("EXT-1");
+        CompletableFuture<ExternalAccountResponse> missing = batcher.lookup("MISSING-1");
+        CompletableFuture<ExternalAccountResponse> duplicate = batcher.lookup("EXT-1");
+
+        assertThat(ok.join().getExternalAccountId()).isEqualTo("EXT-1");
+        assertThat(duplicate.join().getExternalAccountId()).isEqualTo("EXT-1");
+        assertThatThrownBy(missing::join)
+                .hasCauseInstanceOf(ExternalAccountValidationException.class)
+                .cause()
+                .hasMessage("Cuenta externa no existe: MISSING-1");
+        assertThat(bulkCalls.get()).isEqualTo(1);
+        batcher.shutdown();
+    }
+
+    //sizeFlush_doesNotShortenNextWindow: Tras un envío por tamaño, la ventana siguiente espera su propio plazo.
+    @Test
+    void sizeFlush_doesNotShortenNextWindow() throws InterruptedException {
+        ExternalAccountBatchServiceImpl batcher = new ExternalAccountBatchServiceImpl(asyncService, 600, 2);
+
+        CompletableFuture<ExternalAccountResponse> first = batcher.lookup("EXT-1");
+        Thread.sleep(300);
+        batcher.lookup("EXT-2");
+        first.join();
+        // abre una ventana nueva ~300 ms después: el envío programado de la anterior (a los 600 ms)
+        // no debe llevársela; el suyo vence a los ~900 ms
+        CompletableFuture<ExternalAccountResponse> next = batcher.lookup("EXT-3");
+        Thread.sleep(450);
+
+        assertThat(next).isNotDone();
+        assertThat(next.join().getExternalAccountId()).isEqualTo("EXT-3");
+        assertThat(bulkCalls.get()).isEqualTo(2);
+        batcher.shutdown();
+    }
+
+    //batchingClient_waitsForLookupResult: El cliente por lote entrega la respuesta o el error de la cuenta pedida.
+    @Test
+    void batchingClient_waitsForLookupResult() {
+        ExternalAccountBatchServiceImpl batcher = new ExternalAccountBatchServiceImpl(asyncService, 20, 100);
+        BatchingExternalAccountServiceImpl client = new BatchingExternalAccountServiceImpl(batcher, null, 5000);
+
+        assertThat(client.validateExternalAccount("EXT-1").getExternalAccountId()).isEqualTo("EXT-1");
+        assertThatThrownBy(() -> client.validateExternalAccount("MISSING-1"))
+                .isInstanceOf(ExternalAccountValidationException.class)
+                .hasMessage("Cuenta externa no existe: MISSING-1");
+        batcher.shutdown();
+    }
+}
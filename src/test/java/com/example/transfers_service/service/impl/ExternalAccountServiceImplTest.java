@@ -0,0 +1,265 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.RequestDeadline;
+import com.example.transfers_service.dto.ExternalAccountCallStatsDto;
+import com.example.transfers_service.dto.external.ExternalAccountResponse;
+import com.example.transfers_service.exception.ExternalAccountValidationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExternalAccountServiceImplTest {
+
+    // La primera solicitud a una cuenta SLOW-* tarda esto; las siguientes responden al instante
+    private static final long SLOW_MS = 1_000;
+    // Las cuentas LATE-* tardan esto siempre
+    private static final long LATE_MS = 400;
+
+    private HttpServer stub;
+    private String url;
+    private ExternalAccountServiceImpl service;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<String> deadlineHeaders = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.createContext("/accountDestiny/", this::handle);
+        stub.start();
+        url = "http://localhost:" + stub.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+        stub.stop(0);
+    }
+
+    private ExternalAccountServiceImpl service(boolean hedge, double maxRatio) {
+        service = new ExternalAccountServiceImpl(url, new ObjectMapper(), new ExternalAccountServiceImpl.Settings(
+                2, Duration.ofMillis(3_000), hedge, 95, Duration.ofMillis(50), Duration.ofMillis(5), maxRatio));
+        return service;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String accountId = exchange.getRequestURI().getPath().substring("/accountDestiny/".length());
+        deadlineHeaders.add(exchange.getRequestHeaders().getFirst(ExternalAccountServiceImpl.DEADLINE_HEADER));
+        if (requests.getAndIncrement() == 0 && accountId.startsWith("SLOW")) {
+            sleep(SLOW_MS);
+        }
+        if (accountId.startsWith("LATE")) {
+            sleep(LATE_MS);
+        }
+
+        int status;
+        String body;
+        if (accountId.startsWith("NOTFOUND")) {
+            status = 404;
+            body = "{\"error\":\"NOT_FOUND\",\"message\":\"Cuenta externa no existe\"}";
+        } else if (accountId.startsWith("BROKEN")) {
+            status = 503;
+            body = "{}";
+        } else {
+            status = 200;
+            body = "{\"externalAccountId\":\"" + accountId + "\",\"currency\":\"USD\",\"status\":\"ACTIVE\"}";
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        } catch (IOException e) {
+            // el cliente canceló la solicitud perdedora
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long elapsedMs(long start) {
+        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+    }
+
+    //slowResponse_hedgeAnswersFirst: Si la primera solicitud se demora, la cobertura responde y gana.
+    @Test
+    void slowResponse_hedgeAnswersFirst() {
+        ExternalAccountServiceImpl service = service(true, 1.0);
+        long start = System.nanoTime();
+
+        ExternalAccountResponse response = service.validateExternalAccount("SLOW-1");
+
+        ExternalAccountCallStatsDto stats = service.stats();
+        assertThat(response.getExternalAccountId()).isEqualTo("SLOW-1");
+        assertThat(elapsedMs(start)).isLessThan(SLOW_MS / 2);
+        assertThat(requests.get()).isEqualTo(2);
+        assertThat(stats.hedged()).isEqualTo(1);
+        assertThat(stats.hedgeWins()).isEqualTo(1);
+    }
+
+    //hedgeBudgetExhausted_waitsForOriginal: Sin créditos de cobertura no se envía la segunda solicitud.
+    @Test
+    void hedgeBudgetExhausted_waitsForOriginal() {
+        ExternalAccountServiceImpl service = service(true, 0.1);
+        long start = System.nanoTime();
+
+        ExternalAccountResponse response = service.validateExternalAccount("SLOW-1");
+
+        ExternalAccountCallStatsDto stats = service.stats();
+        assertThat(response.getStatus()).isEqualTo("ACTIVE");
+        assertThat(elapsedMs(start)).isGreaterThanOrEqualTo(SLOW_MS);
+        assertThat(requests.get()).isEqualTo(1);
+        assertThat(stats.hedged()).isZero();
+        assertThat(stats.hedgesDenied()).isEqualTo(1);
+    }
+
+    //requestDeadline_boundsWaitAndIsPropagated: Se espera solo lo que queda del deadline y se informa al banco.
+    @Test
+    void requestDeadline_boundsWaitAndIsPropagated() {
+        ExternalAccountServiceImpl service = service(false, 0);
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> RequestDeadline.call(Duration.ofMillis(150),
+                () -> service.validateExternalAccount("SLOW-1")))
+                .isInstanceOf(ExternalAccountValidationException.class)
+                .hasMessage("Tiempo de espera agotado al validar la cuenta externa");
+
+        assertThat(elapsedMs(start)).isLessThan(SLOW_MS / 2);
+        assertThat(service.stats().deadlineExceeded()).isEqualTo(1);
+        assertThat(Long.parseLong(deadlineHeaders.get(0))).isBetween(1L, 150L);
+    }
+
+    //expiredDeadline_failsWithoutCalling: Con el deadline vencido no se llama al banco externo.
+    @Test
+    void expiredDeadline_failsWithoutCalling() {
+        ExternalAccountServiceImpl service = service(true, 1.0);
+
+        assertThatThrownBy(() -> RequestDeadline.call(Duration.ZERO, () -> service.validateExternalAccount("EXT-1")))
+                .isInstanceOf(ExternalAccountValidationException.class);
+
+        assertThat(requests.get()).isZero();
+        assertThat(service.stats().deadlineExceeded()).isEqualTo(1);
+    }
+
+    //clientError_mapsMessageFromBody: Un 4xx es una respuesta definitiva con el mensaje del cuerpo.
+    @Test
+    void clientError_mapsMessageFromBody() {
+        ExternalAccountServiceImpl service = service(true, 1.0);
+
+        assertThatThrownBy(() -> service.validateExternalAccount("NOTFOUND-1"))
+                .isInstanceOf(ExternalAccountValidationException.class)
+                .hasMessage("Cuenta externa no existe");
+    }
+
+    //hedgeDelay_followsObservedPercentile: Con respuestas rápidas el retraso baja del valor inicial.
+    @Test
+    void hedgeDelay_followsObservedPercentile() {
+        service = new ExternalAccountServiceImpl(url, new ObjectMapper(), new ExternalAccountServiceImpl.Settings(
+                2, Duration.ofMillis(3_000), true, 95, Duration.ofMillis(SLOW_MS), Duration.ofMillis(5), 0.1));
+        assertThat(service.stats().hedgeDelayMillis()).isEqualTo(SLOW_MS);
+        for (int i = 0; i < 64; i++) {
+            service.validateExternalAccount("EXT-" + i);
+        }
+
+        assertThat(service.stats().hedgeDelayMillis()).isLessThan(SLOW_MS / 2);
+        assertThat(service.stats().calls()).isEqualTo(64);
+    }
+
+    //interruptedCaller_cancelsPendingHedge: Si el llamador deja de esperar, la cobertura agendada no se envía.
+    @Test
+    void interruptedCaller_cancelsPendingHedge() throws InterruptedException {
+        service = new ExternalAccountServiceImpl(url, new ObjectMapper(), new ExternalAccountServiceImpl.Settings(
+                2, Duration.ofMillis(3_000), true, 95, Duration.ofMillis(300), Duration.ofMillis(5), 1.0));
+        Thread caller = new Thread(() -> {
+            try {
+                service.validateExternalAccount("SLOW-1");
+            } catch (ExternalAccountValidationException e) {
+                // interrumpida
+            }
+        });
+        caller.start();
+        Thread.sleep(100);
+        caller.interrupt();
+        caller.join();
+        Thread.sleep(400);
+
+        assertThat(requests.get()).isEqualTo(1);
+        assertThat(service.stats().hedged()).isZero();
+    }
+
+    //manyAsyncValidations_runConcurrentlyOnFewThreads: 100 validaciones de 400 ms con 2 hilos de cliente
+    //terminan en un tiempo cercano al de una sola llamada.
+    @Test
+    void manyAsyncValidations_runConcurrentlyOnFewThreads() {
+        ExternalAccountServiceImpl service = service(false, 0);
+        int calls = 100;
+        long start = System.nanoTime();
+
+        List<CompletableFuture<ExternalAccountResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            futures.add(service.validateExternalAccountAsync("LATE-" + i));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertThat(futures).allSatisfy(f -> assertThat(f.join().getStatus()).isEqualTo("ACTIVE"));
+        assertThat(futures.get(7).join().getExternalAccountId()).isEqualTo("LATE-7");
+        // En serie serían 40s; con 2 hilos bloqueantes, 20s
+        assertThat(elapsedMs(start)).isLessThan(calls * LATE_MS / 4);
+    }
+
+    //asyncDeadlineExceeded_failsWithValidationException: Se respeta el deadline de la llamada asíncrona.
+    @Test
+    void asyncDeadlineExceeded_failsWithValidationException() {
+        ExternalAccountServiceImpl service = service(false, 0);
+        long start = System.nanoTime();
+        CompletableFuture<ExternalAccountResponse> future =
+                service.validateExternalAccountAsync("SLOW-1", Duration.ofMillis(50));
+
+        assertThatThrownBy(future::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ExternalAccountValidationException.class)
+                .cause()
+                .hasMessage("Tiempo de espera agotado al validar la cuenta externa");
+        assertThat(elapsedMs(start)).isLessThan(SLOW_MS / 2);
+        assertThat(service.stats().deadlineExceeded()).isEqualTo(1);
+    }
+
+    //serverError_mapsGenericMessage: Un 5xx sin otra solicitud en curso se traduce en ExternalAccountValidationException.
+    @Test
+    void serverError_mapsGenericMessage() {
+        ExternalAccountServiceImpl service = service(false, 0);
+
+        assertThatThrownBy(() -> service.validateExternalAccountAsync("BROKEN-1").join())
+                .hasCauseInstanceOf(ExternalAccountValidationException.class)
+                .cause()
+                .hasMessage("Error en el servicio de validación de cuentas externas");
+    }
+}
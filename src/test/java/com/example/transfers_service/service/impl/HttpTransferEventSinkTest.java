@@ -0,0 +1,79 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.TransferEventDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HttpTransferEventSinkTest {
+
+    private HttpServer server;
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final List<String> contentTypes = new CopyOnWriteArrayList<>();
+    private final AtomicInteger status = new AtomicInteger(202);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // stub local del receptor de eventos
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/events", exchange -> {
+            bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            contentTypes.add(exchange.getRequestHeaders().getFirst("Content-Type"));
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private HttpTransferEventSink sink() {
+        return new HttpTransferEventSink(new ObjectMapper().findAndRegisterModules(),
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/events", 2000);
+    }
+
+    private static TransferEventDto event(String transferId) {
+        return TransferEventDto.builder()
+                .type(TransferEventDto.TYPE_CREATED)
+                .transferId(transferId)
+                .amount(BigDecimal.TEN)
+                .currency("PEN")
+                .build();
+    }
+
+    //write_postsWholeBatchAsNdjson: Un solo POST por lote con un evento por línea.
+    @Test
+    void write_postsWholeBatchAsNdjson() throws Exception {
+        sink().write(List.of(event("TRX-1"), event("TRX-2"), event("TRX-3")));
+
+        assertThat(bodies).hasSize(1);
+        assertThat(contentTypes.get(0)).startsWith("application/x-ndjson");
+        assertThat(bodies.get(0).split("\n")).hasSize(3)
+                .allSatisfy(line -> assertThat(line).startsWith("{").contains("\"type\":\"TransferCreated\""));
+        assertThat(bodies.get(0)).contains("\"transferId\":\"TRX-3\"");
+    }
+
+    //write_errorStatus_failsTheBatch: Un 5xx del receptor se propaga para contarlo como fallido.
+    @Test
+    void write_errorStatus_failsTheBatch() {
+        status.set(503);
+
+        assertThatThrownBy(() -> sink().write(List.of(event("TRX-1"))))
+                .isInstanceOf(RuntimeException.class);
+    }
+}
@@ -7,10 +7,11 @@ import java.util.Set;
 import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class IdGeneratorServiceImplTest {
 
-    private final IdGeneratorServiceImpl service = new IdGeneratorServiceImpl();
+    private final IdGeneratorServiceImpl service = new IdGeneratorServiceImpl("text");
 
     // ULID: 26 caracteres Base32 Crockford (sin I, L, O, U)
     private static final Pattern ULID_PATTERN =
@@ -75,4 +76,25 @@ class IdGeneratorServiceImplTest {
         assertThat(ULID_PATTERN.matcher(m).matches()).isTrue();
         assertThat(ULID_PATTERN.matcher(t).matches()).isTrue();
     }
-}
\ No newline at end of file
+
+    //binaryMode_generatesStrictlyIncreasingIds: En modo binary los ULID son monótonos aunque caigan en el mismo milisegundo.
+    @Test
+    void binaryMode_generatesStrictlyIncreasingIds() {
+        IdGeneratorServiceImpl monotonic = new IdGeneratorServiceImpl("binary");
+
+        String previous = monotonic.nextTransferId();
+        for (int i = 0; i < 1000; i++) {
+            String next = i % 2 == 0 ? monotonic.nextMovementId() : monotonic.nextTransferId();
+            assertThat(ULID_PATTERN.matcher(next).matches()).isTrue();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    //unknownMode_isRejected: Un valor distinto de text/binary falla al crear el servicio.
+    @Test
+    void unknownMode_isRejected() {
+        assertThatThrownBy(() -> new IdGeneratorServiceImpl("uuid"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,352 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.H2Migrations;
+import com.example.transfers_service.TransferRequests;
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.dto.AccountMetadataDto;
+import com.example.transfers_service.dto.FraudAssessmentDto;
+import com.example.transfers_service.dto.TransferEventDto;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.dto.response.TransferResponse;
+import com.example.transfers_service.exception.AccountInactiveException;
+import com.example.transfers_service.exception.FraudSuspectedException;
+import com.example.transfers_service.exception.InsufficientBalanceException;
+import com.example.transfers_service.exception.InvalidTransferException;
+import com.example.transfers_service.exception.ServiceOverloadedException;
+import com.example.transfers_service.exception.TransferLimitExceededException;
+import com.example.transfers_service.service.ExternalAccountService;
+import com.example.transfers_service.service.FraudScoringService;
+import com.example.transfers_service.service.TransferEventPublisher;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InMemoryTransferServiceImplTest {
+
+    @TempDir
+    Path journalDir;
+
+    private JdbcTemplate jdbc;
+    private DataSourceTransactionManager transactionManager;
+    private final List<InMemoryTransferServiceImpl> engines = new ArrayList<>();
+    private SlidingWindowTransferLimitServiceImpl limits = limits(0);
+    private final FraudScoringService fraud = mock(FraudScoringService.class);
+    private final TransferEventPublisher events = mock(TransferEventPublisher.class);
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:engine-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1"
+                + ";INIT=RUNSCRIPT FROM 'classpath:db/migration/V1__baseline_schema.sql'"
+                + "\\;RUNSCRIPT FROM 'classpath:db/migration/V5__engine_checkpoints.sql'");
+        H2Migrations.apply(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        when(fraud.screen(any(), any())).thenReturn(new FraudAssessmentDto(55,
+                VelocityFraudScoringServiceImpl.DECISION_REVIEW, List.of(), 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        engines.forEach(InMemoryTransferServiceImpl::halt);
+    }
+
+    private InMemoryTransferServiceImpl engine(long flushIntervalMs) {
+        InMemoryTransferServiceImpl engine = new InMemoryTransferServiceImpl(
+                jdbc, transactionManager, new IdGeneratorServiceImpl("text"), mock(ExternalAccountService.class),
+                limits, fraud, events, CurrencyRegistry.defaults(), journalDir.toString(), 4, 1024, 1, true, flushIntervalMs, 500, 5000, false, false, "text");
+        engine.start();
+        engines.add(engine);
+        return engine;
+    }
+
+    // Sin BD: contadores vacíos; accountHourlyCents 0 = sin límite
+    private static SlidingWindowTransferLimitServiceImpl limits(long accountHourlyCents) {
+        return new SlidingWindowTransferLimitServiceImpl(null, CurrencyRegistry.defaults(), true,
+                new SlidingWindowTransferLimitServiceImpl.Limits(0, 0),
+                new SlidingWindowTransferLimitServiceImpl.Limits(accountHourlyCents, 0),
+                System::currentTimeMillis);
+    }
+
+    private void insertAccount(String accountId, String customerId, String currency, double balance) {
+        jdbc.update("insert into accounts (account_id, customer_id, currency, balance, status) values (?, ?, ?, ?, 'ACTIVE')",
+                accountId, customerId, currency, balance);
+    }
+
+    private double balance(String accountId) {
+        return jdbc.queryForObject("select balance from accounts where account_id = ?", Double.class, accountId);
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbc.queryForObject(sql, Integer.class, args);
+    }
+
+    private static TransferRequest request(String customerId, String source, String destination,
+                                           String currency, double amount) {
+        return TransferRequests.request(customerId, source, destination, currency, amount, "pago");
+    }
+
+    //inactiveSource_isRejectedLikeJpaPath: Una cuenta origen no activa se rechaza antes de llegar al secuenciador.
+    @Test
+    void inactiveSource_isRejectedLikeJpaPath() {
+        insertAccount("A1", "C1", "PEN", 1000.00);
+        insertAccount("A2", "C2", "PEN", 0.00);
+        jdbc.update("update accounts set status = 'BLOCKED' where account_id = 'A1'");
+        InMemoryTransferServiceImpl engine = engine(10);
+
+        assertThrows(AccountInactiveException.class, () -> engine.createTransfer(request("C1", "A1", "A2", "PEN", 10.00)));
+        engine.shutdown();
+
+        assertThat(balance("A1")).isEqualTo(1000.00);
+        assertThat(count("select count(*) from transfers")).isZero();
+    }
+
+    //transfer_isFlushedToTables_withSameRowsAsJpaPath: Saldo, transfer y movimientos OUT/IN llegan a BD tras el volcado.
+    @Test
+    void transfer_isFlushedToTables_withSameRowsAsJpaPath() {
+        insertAccount("A1", "C1", "PEN", 1000.00);
+        insertAccount("A2", "C2", "USD", 100.00);
+        InMemoryTransferServiceImpl engine = engine(10);
+
+        TransferResponse response = engine.createTransfer(request("C1", "A1", "A2", "USD", 10.00));
+        engine.shutdown();
+
+        double charges = response.getCommissionApplied();
+        // 10 USD comprados con PEN a 3.80
+        assertThat(balance("A1")).isEqualTo(1000.00 - 38.00 - charges);
+        assertThat(balance("A2")).isEqualTo(110.00);
+        Map<String, Object> row = jdbc.queryForMap("select description, amount_sent, currency_sent, total_debit,"
+                + " debit_currency, fx_rate_used from transfers where transfer_id = ?", response.getTransferId());
+        assertThat(row.get("DESCRIPTION")).isEqualTo("pago");
+        assertThat((BigDecimal) row.get("AMOUNT_SENT")).isEqualByComparingTo("10.00");
+        assertThat(row.get("CURRENCY_SENT")).isEqualTo("USD");
+        assertThat((BigDecimal) row.get("TOTAL_DEBIT")).isEqualByComparingTo(BigDecimal.valueOf(38.00 + charges));
+        assertThat(row.get("DEBIT_CURRENCY")).isEqualTo("PEN");
+        assertThat((BigDecimal) row.get("FX_RATE_USED")).isEqualByComparingTo("3.80");
+        assertThat(count("select count(*) from movements where transfer_id = ? and type = 'OUT'", response.getTransferId()))
+                .isEqualTo(2);
+        assertThat(count("select count(*) from movements where transfer_id = ? and type = 'IN'", response.getTransferId()))
+                .isEqualTo(1);
+        assertThat(count("select count(*) from engine_checkpoints")).isEqualTo(1);
+    }
+
+    //insufficientBalance_isRejectedBySequencer: El secuenciador rechaza sin tocar saldos.
+    @Test
+    void insufficientBalance_isRejectedBySequencer() {
+        insertAccount("A1", "C1", "PEN", 50.00);
+        insertAccount("A2", "C2", "PEN", 0.00);
+        InMemoryTransferServiceImpl engine = engine(10);
+
+        assertThrows(InsufficientBalanceException.class,
+                () -> engine.createTransfer(request("C1", "A1", "A2", "PEN", 49.50)));
+        engine.shutdown();
+
+        assertThat(balance("A1")).isEqualTo(50.00);
+        assertThat(count("select count(*) from transfers")).isZero();
+    }
+
+    //limits_areEnforcedAndReleasedLikeJpaPath: El motor reserva los límites acumulados y los devuelve si el
+    //secuenciador rechaza la transferencia.
+    @Test
+    void limits_areEnforcedAndReleasedLikeJpaPath() {
+        insertAccount("A1", "C1", "PEN", 100.00);
+        insertAccount("A2", "C2", "PEN", 0.00);
+        limits = limits(10_000);
+        InMemoryTransferServiceImpl engine = engine(10);
+
+        engine.createTransfer(request("C1", "A1", "A2", "PEN", 40.00));
+        assertThrows(TransferLimitExceededException.class,
+                () -> engine.createTransfer(request("C1", "A1", "A2", "PEN", 70.00)));
+        assertThrows(InsufficientBalanceException.class,
+                () -> engine.createTransfer(request("C1", "A1", "A2", "PEN", 59.00)));
+        engine.shutdown();
+
+        assertThat(limits.accountTotal("A1", false)).isEqualTo(4_000);
+        assertThat(count("select count(*) from transfers")).isEqualTo(1);
+    }
+
+    //acceptedTransfer_isScreenedAndPublished: Pasa por el riesgo en línea y publica Created y Settled al aceptarse.
+    @Test
+    void acceptedTransfer_isScreenedAndPublished() {
+        insertAccount("A1", "C1", "PEN", 1000.00);
+        insertAccount("A2", "C2", "PEN", 0.00);
+        InMemoryTransferServiceImpl engine = engine(10);
+
+        TransferResponse response = engine.createTransfer(request("C1", "A1", "A2", "PEN", 10.00));
+        when(fraud.screen(any(), any())).thenThrow(new FraudSuspectedException("bloqueada"));
+        assertThrows(FraudSuspectedException.class,
+                () -> engine.createTransfer(request("C1", "A1", "A2", "PEN", 10.00)));
+        engine.shutdown();
+
+        ArgumentCaptor<AccountMetadataDto> source = ArgumentCaptor.forClass(AccountMetadataDto.class);
+        verify(fraud, times(2)).screen(any(), source.capture());
+        assertThat(source.getValue().currency()).isEqualTo("PEN");
+        ArgumentCaptor<TransferEventDto> published = ArgumentCaptor.forClass(TransferEventDto.class);
+        verify(events, times(2)).publishAfterCommit(published.capture());
+        assertThat(published.getAllValues()).extracting(TransferEventDto::type)
+                .containsExactly(TransferEventDto.TYPE_CREATED, TransferEventDto.TYPE_SETTLED);
+        assertThat(published.getValue().transferId()).isEqualTo(response.getTransferId());
+        assertThat(published.getValue().amount()).isEqualByComparingTo("10.00");
+        assertThat(count("select count(*) from transfers")).isEqualTo(1);
+        assertThat(count("select count(*) from transfers where fraud_decision = 'REVIEW' and fraud_score = 55"))
+                .isEqualTo(1);
+    }
+
+    //crashBeforeFlush_recoversByJournalReplay: Lo aceptado y no volcado se recupera del journal al reiniciar.
+    @Test
+    void crashBeforeFlush_recoversByJournalReplay() {
+        insertAccount("A1", "C1", "PEN", 1000.00);
+        insertAccount("A2", "C2", "PEN", 0.00);
+        // intervalo largo: solo se vuelca en el arranque
+        InMemoryTransferServiceImpl crashed = engine(3_600_000);
+
+        double charges = 0;
+        for (int i = 0; i < 5; i++) {
+            charges += crashed.createTransfer(request("C1", "A1", "A2", "PEN", 100.00)).getCommissionApplied();
+        }
+        crashed.halt();
+        assertThat(balance("A1")).isEqualTo(1000.00);
+        assertThat(count("select count(*) from transfers")).isZero();
+
+        InMemoryTransferServiceImpl recovered = engine(10);
+        // el saldo recuperado en memoria ya descuenta los 5 débitos
+        double available = 1000.00 - 500.00 - charges;
+        assertThrows(InsufficientBalanceException.class,
+                () -> recovered.createTransfer(request("C1", "A1", "A2", "PEN", available)));
+        recovered.createTransfer(request("C1", "A1", "A2", "PEN", 10.00));
+        recovered.shutdown();
+
+        assertThat(count("select count(*) from transfers")).isEqualTo(6);
+        assertThat(balance("A2")).isEqualTo(510.00);
+        assertThat(balance("A1")).isLessThan(available - 10.00 + 0.001);
+    }
+
+    //concurrentTransfers_conserveMoney: Con muchos hilos el total solo baja en las comisiones cobradas.
+    @Test
+    void concurrentTransfers_conserveMoney() throws Exception {
+        int accounts = 20;
+        for (int i = 0; i < accounts; i++) {
+            insertAccount("A" + i, "C" + i, "PEN", 1000.00);
+        }
+        InMemoryTransferServiceImpl engine = engine(5);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Double>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(pool.submit(() -> {
+                double charged = 0;
+                for (int n = 0; n < 300; n++) {
+                    int from = ThreadLocalRandom.current().nextInt(accounts);
+                    int to = (from + 1 + ThreadLocalRandom.current().nextInt(accounts - 1)) % accounts;
+                    try {
+                        charged += engine.createTransfer(request("C" + from, "A" + from, "A" + to, "PEN", 25.00))
+                                .getCommissionApplied();
+                    } catch (InsufficientBalanceException ignored) {
+                        // esperado cuando una cuenta se vacía
+                    }
+                }
+                return charged;
+            }));
+        }
+        double charged = 0;
+        for (Future<Double> result : results) {
+            charged += result.get();
+        }
+        pool.shutdown();
+        engine.shutdown();
+
+        double total = jdbc.queryForObject("select sum(balance) from accounts", Double.class);
+        assertThat(total).isCloseTo(accounts * 1000.00 - charged, offset(0.001));
+        assertThat(count("select count(*) from accounts where balance < 0")).isZero();
+    }
+
+    //longDescription_isRejectedBeforeSequencer: Un texto que transfers.description no admite no llega al journal.
+    @Test
+    void longDescription_isRejectedBeforeSequencer() {
+        insertAccount("A1", "C1", "PEN", 1000.00);
+        insertAccount("A2", "C2", "PEN", 0.00);
+        InMemoryTransferServiceImpl engine = engine(10);
+        TransferRequest request = request("C1", "A1", "A2", "PEN", 10.00);
+        request.getTransferData().setDescription("x".repeat(201));
+
+        assertThrows(InvalidTransferException.class, () -> engine.createTransfer(request));
+        engine.shutdown();
+
+        assertThat(balance("A1")).isEqualTo(1000.00);
+        assertThat(count("select count(*) from engine_checkpoints")).isZero();
+    }
+
+    //rejectedRecord_isParked_andFlushContinues: Un registro que la BD rechaza se aparta y el resto del lote se vuelca.
+    @Test
+    void rejectedRecord_isParked_andFlushContinues() throws Exception {
+        insertAccount("A1", "C1", "PEN", 1000.00);
+        insertAccount("A2", "C2", "PEN", 0.00);
+        // columna más corta que el texto de la segunda transferencia: la BD la rechaza en cada intento
+        jdbc.execute("alter table transfers alter column description varchar(10)");
+        InMemoryTransferServiceImpl engine = engine(3_600_000);
+
+        List<String> ids = new ArrayList<>();
+        double charges = 0;
+        for (String description : List.of("uno", "descripción larga", "tres")) {
+            TransferRequest request = request("C1", "A1", "A2", "PEN", 100.00);
+            request.getTransferData().setDescription(description);
+            TransferResponse response = engine.createTransfer(request);
+            ids.add(response.getTransferId());
+            charges += response.getCommissionApplied();
+        }
+        engine.flushAll();
+
+        assertThat(jdbc.queryForList("select transfer_id from transfers order by transfer_id", String.class))
+                .containsExactly(ids.get(0), ids.get(2));
+        assertThat(TransferJournal.parked(journalDir, engine.partitionOf("A1")))
+                .extracting(EngineTransfer::transferId).containsExactly(ids.get(1));
+        assertThat(count("select last_seq from engine_checkpoints")).isEqualTo(3);
+        assertThat(balance("A2")).isEqualTo(200.00);
+        engine.halt();
+
+        // al reiniciar el apartado sigue descontado en memoria aunque no esté en BD
+        InMemoryTransferServiceImpl restarted = engine(10);
+        double inMemory = 1000.00 - 300.00 - charges;
+        assertThrows(InsufficientBalanceException.class,
+                () -> restarted.createTransfer(request("C1", "A1", "A2", "PEN", inMemory + 10.00)));
+        assertThat(count("select count(*) from transfers")).isEqualTo(2);
+    }
+
+    //stoppedSequencer_answersOverloaded: Si el secuenciador ya no procesa el ring se responde 503, no 500.
+    @Test
+    void stoppedSequencer_answersOverloaded() {
+        insertAccount("A1", "C1", "PEN", 1000.00);
+        insertAccount("A2", "C2", "PEN", 0.00);
+        InMemoryTransferServiceImpl engine = engine(10);
+        engine.halt();
+
+        assertThrows(ServiceOverloadedException.class,
+                () -> engine.createTransfer(request("C1", "A1", "A2", "PEN", 10.00)));
+        assertThat(balance("A1")).isEqualTo(1000.00);
+    }
+}
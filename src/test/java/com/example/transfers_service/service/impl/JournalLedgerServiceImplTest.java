@@ -0,0 +1,163 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.dto.LedgerPostingDto;
+import com.example.transfers_service.entity.Account;
+import com.example.transfers_service.entity.AccountBalanceCheckpoint;
+import com.example.transfers_service.entity.JournalEntry;
+import com.example.transfers_service.repository.AccountBalanceCheckpointRepository;
+import com.example.transfers_service.repository.AccountRepository;
+import com.example.transfers_service.repository.JournalEntryRepository;
+import com.example.transfers_service.service.IdGeneratorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class JournalLedgerServiceImplTest {
+
+    @Mock private JournalEntryRepository journalEntryRepository;
+    @Mock private AccountBalanceCheckpointRepository checkpointRepository;
+    @Mock private AccountRepository accountRepository;
+    @Mock private IdGeneratorService idGeneratorService;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private JournalLedgerServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        AtomicInteger seq = new AtomicInteger();
+        when(idGeneratorService.nextMovementId()).thenAnswer(inv -> "ID" + seq.incrementAndGet());
+        service = new JournalLedgerServiceImpl(true, 60000, journalEntryRepository,
+                checkpointRepository, accountRepository, idGeneratorService, CurrencyRegistry.defaults(),
+                transactionManager);
+    }
+
+    private static LedgerPostingDto posting(String srcCur, String debit, String destCur, String credit,
+                                            String itf, boolean external) {
+        return LedgerPostingDto.builder()
+                .transferId("TRX-1")
+                .sourceAccountId("A1")
+                .sourceCurrency(srcCur)
+                .amountToDebit(new BigDecimal(debit))
+                .commission(new BigDecimal("2.00"))
+                .itf(new BigDecimal(itf))
+                .destinationAccountId("A2")
+                .destCurrency(destCur)
+                .amountToCredit(new BigDecimal(credit))
+                .externalDestination(external)
+                .dateTime(LocalDateTime.of(2024, 1, 2, 10, 0))
+                .build();
+    }
+
+    private static Map<String, BigDecimal> sumByCurrency(List<JournalEntry> entries) {
+        return entries.stream().collect(Collectors.groupingBy(JournalEntry::getCurrency,
+                Collectors.reducing(BigDecimal.ZERO, JournalEntry::getAmount, BigDecimal::add)));
+    }
+
+    private static BigDecimal sumForAccount(List<JournalEntry> entries, String accountId) {
+        return entries.stream().filter(e -> e.getAccountId().equals(accountId))
+                .map(JournalEntry::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    //buildEntries_sameCurrency_balancesWithoutFxLegs: Verifica una transferencia PEN->PEN cuadrada sin pasar por FX.
+    @Test
+    void buildEntries_sameCurrency_balancesWithoutFxLegs() {
+        List<JournalEntry> entries = service.buildEntries(posting("PEN", "100.00", "PEN", "100.00", "0", false));
+
+        assertThat(sumByCurrency(entries)).allSatisfy((cur, sum) -> assertThat(sum).isEqualByComparingTo("0"));
+        assertThat(entries).extracting(JournalEntry::getLegType).doesNotContain(JournalLedgerServiceImpl.LEG_FX);
+        assertThat(sumForAccount(entries, "A1")).isEqualByComparingTo("-102.00");
+        assertThat(sumForAccount(entries, "A2")).isEqualByComparingTo("100.00");
+        assertThat(entries).allSatisfy(e -> assertThat(e.getTransferId()).isEqualTo("TRX-1"));
+    }
+
+    //buildEntries_crossCurrencyWithItf_balancesPerCurrency: Comprueba el cuadre por moneda con FX e ITF.
+    @Test
+    void buildEntries_crossCurrencyWithItf_balancesPerCurrency() {
+        List<JournalEntry> entries = service.buildEntries(posting("PEN", "7600.00", "USD", "2000.00", "0.38", false));
+
+        Map<String, BigDecimal> sums = sumByCurrency(entries);
+        assertThat(sums).containsOnlyKeys("PEN", "USD");
+        assertThat(sums.values()).allSatisfy(sum -> assertThat(sum).isEqualByComparingTo("0"));
+        assertThat(sumForAccount(entries, "A1")).isEqualByComparingTo("-7602.38");
+        assertThat(sumForAccount(entries, "A2")).isEqualByComparingTo("2000.00");
+        assertThat(sumForAccount(entries, JournalLedgerServiceImpl.ITF_PAYABLE_ACCOUNT + "PEN")).isEqualByComparingTo("0.38");
+    }
+
+    //buildEntries_external_creditsClearingAccount: Verifica que el abono externo vaya a la cuenta de compensación.
+    @Test
+    void buildEntries_external_creditsClearingAccount() {
+        List<JournalEntry> entries = service.buildEntries(posting("PEN", "50.00", "PEN", "50.00", "0", true));
+
+        assertThat(sumForAccount(entries, "A2")).isEqualByComparingTo("0");
+        assertThat(sumForAccount(entries, JournalLedgerServiceImpl.EXTERNAL_CLEARING_ACCOUNT + "PEN"))
+                .isEqualByComparingTo("50.00");
+    }
+
+    //currentBalance_usesCheckpointPlusLaterEntries: Comprueba el saldo = checkpoint + asientos posteriores.
+    @Test
+    void currentBalance_usesCheckpointPlusLaterEntries() {
+        LocalDateTime cutoff = LocalDateTime.of(2024, 1, 1, 0, 0);
+        AccountBalanceCheckpoint checkpoint = new AccountBalanceCheckpoint();
+        checkpoint.setAccountId("A1");
+        checkpoint.setBalance(new BigDecimal("500.00"));
+        checkpoint.setCutoff(cutoff);
+        when(checkpointRepository.findById("A1")).thenReturn(Optional.of(checkpoint));
+        when(journalEntryRepository.sumSince("A1", cutoff)).thenReturn(new BigDecimal("-120.50"));
+
+        assertThat(service.currentBalance("A1")).isEqualByComparingTo("379.50");
+    }
+
+    //currentBalance_withoutCheckpoint_startsFromAccountBalance: Verifica el saldo de apertura desde accounts.balance.
+    @Test
+    void currentBalance_withoutCheckpoint_startsFromAccountBalance() {
+        Account account = new Account();
+        account.setAccountId("A1");
+        account.setBalance(1000.0);
+        when(checkpointRepository.findById("A1")).thenReturn(Optional.empty());
+        when(accountRepository.findById("A1")).thenReturn(Optional.of(account));
+        when(journalEntryRepository.sumSince(eq("A1"), any())).thenReturn(new BigDecimal("-102.00"));
+
+        assertThat(service.currentBalance("A1")).isEqualByComparingTo("898.00");
+    }
+
+    //checkpointBalances_rollsForwardPendingAccounts: Comprueba que el checkpoint acumule los asientos hasta el corte.
+    @Test
+    void checkpointBalances_rollsForwardPendingAccounts() {
+        LocalDateTime cutoff = LocalDateTime.of(2024, 2, 1, 0, 0);
+        when(journalEntryRepository.findAccountIdsPendingCheckpoint(cutoff)).thenReturn(List.of("LEDGER:FEE_INCOME:PEN"));
+        when(checkpointRepository.findById("LEDGER:FEE_INCOME:PEN")).thenReturn(Optional.empty());
+        when(accountRepository.findById("LEDGER:FEE_INCOME:PEN")).thenReturn(Optional.empty());
+        when(journalEntryRepository.sumBetween(eq("LEDGER:FEE_INCOME:PEN"), any(), eq(cutoff)))
+                .thenReturn(new BigDecimal("40.00"));
+
+        assertThat(service.checkpointBalances(cutoff)).isEqualTo(1);
+
+        ArgumentCaptor<AccountBalanceCheckpoint> captor = ArgumentCaptor.forClass(AccountBalanceCheckpoint.class);
+        verify(checkpointRepository).save(captor.capture());
+        assertThat(captor.getValue().getBalance()).isEqualByComparingTo("40.00");
+        assertThat(captor.getValue().getCutoff()).isEqualTo(cutoff);
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.H2Migrations;
+import com.example.transfers_service.TransferRequests;
+import com.example.transfers_service.TransfersServiceApplication;
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.dto.response.TransferResponse;
+import com.example.transfers_service.exception.BusinessException;
+import com.example.transfers_service.exception.InsufficientBalanceException;
+import com.example.transfers_service.service.TransferService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Conservación del dinero bajo concurrencia en la ruta JPA (TransferServiceImpl sobre H2 en modo MySQL).
+ * Muchos hilos hacen transferencias internas al azar entre pocas cuentas PEN y USD (contención alta,
+ * locks cruzados A<->B, saldos insuficientes) y al final se concilia al céntimo:
+ *  - saldo final - saldo inicial de cada cuenta = suma de sus movements;
+ *  - cada transferencia confirmada tiene su débito, comisión, ITF y abono tal como los calcula
+ *    TransferPricing, y no hay movements huérfanos;
+ *  - por moneda: variación de saldos + comisiones + posición FX del banco = 0.
+ * Tamaño por defecto pensado para la suite normal; para estresar:
+ *   mvn test -Dtest=MoneyConservationStressTest -Dstress.threads=32 -Dstress.transfers=50000
+ */
+class MoneyConservationStressTest {
+
+    private static final int THREADS = Integer.getInteger("stress.threads", 8);
+    private static final int TRANSFERS = Integer.getInteger("stress.transfers", 1_500);
+    private static final int ACCOUNTS = Integer.getInteger("stress.accounts", 12);
+
+    private static final String PRINCIPAL = "monto transferencia";
+
+    //concurrentTransfers_conserveMoneyToTheCent: Saldos, movements y transfers concilian exactamente.
+    @Test
+    void concurrentTransfers_conserveMoneyToTheCent() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(TransfersServiceApplication.class)
+                .withPropertyValues(
+                        "spring.datasource.url=jdbc:h2:mem:conservation;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"
+                                + ";INIT=RUNSCRIPT FROM 'classpath:db/migration/V1__baseline_schema.sql'",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.hikari.maximum-pool-size=" + THREADS,
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        // el runner no lee application.properties: sin esto Hibernate haría create-drop y,
+                        // si una conexión nueva del pool corre el INIT de V1 entre su DROP y su CREATE,
+                        // transfers queda sin las columnas de V8-V10
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "spring.jpa.show-sql=false",
+                        "external.account.service.url=http://localhost:1",
+                        // tráfico sintético muy repetitivo: la etapa de riesgo bloquearía casi todo
+                        "transfers.fraud.enabled=false")
+                .withPropertyValues(H2Migrations.sqlInitProperties())
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    run(context.getSourceApplicationContext());
+                });
+    }
+
+    private static void run(ConfigurableApplicationContext context) throws Exception {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        // por clase concreta: el escaneo también recoge los TransferService mock de las @TestConfiguration
+        TransferService transferService = context.getBean(TransferServiceImpl.class);
+
+        Map<String, BigDecimal> initial = seed(jdbc);
+        Map<String, TransferRequest> committed = new ConcurrentHashMap<>();
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        AtomicInteger issued = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (issued.getAndIncrement() < TRANSFERS) {
+                    TransferRequest request = randomRequest(random);
+                    String outcome;
+                    try {
+                        TransferResponse response = transferService.createTransfer(request);
+                        committed.put(response.getTransferId(), request);
+                        outcome = "ok";
+                    } catch (InsufficientBalanceException e) {
+                        outcome = "saldo insuficiente";
+                    } catch (PessimisticLockingFailureException e) {
+                        outcome = "lock timeout/deadlock";
+                    } catch (BusinessException e) {
+                        outcome = e.getClass().getSimpleName();
+                    }
+                    outcomes.computeIfAbsent(outcome, o -> new LongAdder()).increment();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        pool.shutdown();
+
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((k, v) -> counts.put(k, v.sum()));
+        assertThat(committed).isNotEmpty();
+        // las filas se bloquean en orden de account_id: A->B y B->A concurrentes no se bloquean en cruz
+        assertThat(counts).as("resultados por tipo").doesNotContainKey("lock timeout/deadlock");
+        reconcile(jdbc, new TransferPricing(context.getBean(CurrencyRegistry.class)), initial, committed);
+    }
+
+    private static Map<String, BigDecimal> seed(JdbcTemplate jdbc) {
+        Map<String, BigDecimal> initial = new HashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            // una de cada cuatro cuentas con poco saldo para ejercitar los rechazos
+            long cents = i % 4 == 3 ? random.nextLong(1_000, 50_000) : random.nextLong(5_000_000, 50_000_000);
+            BigDecimal balance = BigDecimal.valueOf(cents, 2);
+            jdbc.update("insert into accounts (account_id, customer_id, currency, balance, status)"
+                    + " values (?, ?, ?, ?, 'ACTIVE')", account(i), "C" + i, currency(i), balance.doubleValue());
+            initial.put(account(i), balance);
+        }
+        return initial;
+    }
+
+    private static String account(int i) {
+        return "S" + i;
+    }
+
+    private static String currency(int i) {
+        return i % 2 == 0 ? "PEN" : "USD";
+    }
+
+    private static TransferRequest randomRequest(ThreadLocalRandom random) {
+        int source = random.nextInt(ACCOUNTS);
+        int dest = random.nextInt(ACCOUNTS - 1);
+        dest = dest >= source ? dest + 1 : dest;
+
+        String currency = random.nextBoolean() ? "PEN" : "USD";
+        double amount = BigDecimal.valueOf(random.nextLong(1, 200_000), 2).doubleValue();
+        return TransferRequests.request("C" + source, account(source), account(dest), currency, amount, "stress");
+    }
+
+    private static void reconcile(JdbcTemplate jdbc,
+                                  TransferPricing pricing,
+                                  Map<String, BigDecimal> initial,
+                                  Map<String, TransferRequest> committed) {
+        Map<String, String> accountCurrency = new HashMap<>();
+        Map<String, BigDecimal> finalBalance = new HashMap<>();
+        jdbc.query("select account_id, currency, balance from accounts", rs -> {
+            accountCurrency.put(rs.getString(1), rs.getString(2));
+            finalBalance.put(rs.getString(1), cents(rs.getDouble(3)));
+        });
+
+        // 1) Cada saldo se explica exactamente por sus movements
+        Map<String, BigDecimal> movementSum = new HashMap<>();
+        Map<String, List<Object[]>> movementsByTransfer = new HashMap<>();
+        jdbc.query("select account_id, transfer_id, amount, type, description from movements", rs -> {
+            BigDecimal amount = cents(rs.getDouble(3));
+            movementSum.merge(rs.getString(1), amount, BigDecimal::add);
+            movementsByTransfer.computeIfAbsent(rs.getString(2), k -> new ArrayList<>())
+                    .add(new Object[]{rs.getString(1), amount, rs.getString(4), rs.getString(5)});
+        });
+        for (String account : initial.keySet()) {
+            BigDecimal delta = finalBalance.get(account).subtract(initial.get(account));
+            assertThat(delta).as("variación de saldo de %s frente a sus movements", account)
+                    .isEqualByComparingTo(movementSum.getOrDefault(account, BigDecimal.ZERO));
+        }
+
+        // 2) Cada transferencia confirmada, y solo ellas, tiene los movements que calcula TransferPricing
+        assertThat(movementsByTransfer.keySet()).as("movements sin transferencia confirmada")
+                .containsExactlyInAnyOrderElementsOf(committed.keySet());
+        Map<String, Timestamp> transferTimes = new HashMap<>();
+        jdbc.query("select transfer_id, transfer_datetime from transfers",
+                rs -> { transferTimes.put(rs.getString(1), rs.getTimestamp(2)); });
+        assertThat(transferTimes.keySet()).containsExactlyInAnyOrderElementsOf(committed.keySet());
+
+        Map<String, BigDecimal> fees = new TreeMap<>();
+        Map<String, BigDecimal> fxPosition = new TreeMap<>();
+        for (Map.Entry<String, TransferRequest> entry : committed.entrySet()) {
+            TransferRequest request = entry.getValue();
+            String sourceCur = accountCurrency.get(request.getSourceAccount().getAccountId());
+            String destCur = accountCurrency.get(request.getDestinationAccount().getAccountId());
+            String userCur = request.getTransferData().getCurrency();
+            BigDecimal userAmount = TransferPricing.userAmount(request.getTransferData().getAmount());
+
+            BigDecimal debit = pricing.amountToDebit(userAmount, userCur, sourceCur);
+            BigDecimal credit = cents(pricing.amountToCredit(userAmount, userCur, destCur));
+            TransferServiceImpl.ChargesData charges = pricing.charges(sourceCur, debit,
+                    transferTimes.get(entry.getKey()).toLocalDateTime());
+            BigDecimal fee = cents(charges.getCommission()).add(cents(charges.getItf()));
+            debit = cents(debit);
+
+            BigDecimal principalOut = BigDecimal.ZERO;
+            BigDecimal feesOut = BigDecimal.ZERO;
+            BigDecimal creditIn = BigDecimal.ZERO;
+            for (Object[] movement : movementsByTransfer.get(entry.getKey())) {
+                BigDecimal amount = (BigDecimal) movement[1];
+                if ("IN".equals(movement[2])) {
+                    assertThat(movement[0]).isEqualTo(request.getDestinationAccount().getAccountId());
+                    creditIn = creditIn.add(amount);
+                } else {
+                    assertThat(movement[0]).isEqualTo(request.getSourceAccount().getAccountId());
+                    if (PRINCIPAL.equals(movement[3])) {
+                        principalOut = principalOut.subtract(amount);
+                    } else {
+                        feesOut = feesOut.subtract(amount);
+                    }
+                }
+            }
+            assertThat(principalOut).as("débito de %s", entry.getKey()).isEqualByComparingTo(debit);
+            assertThat(feesOut).as("comisión + ITF de %s", entry.getKey()).isEqualByComparingTo(fee);
+            assertThat(creditIn).as("abono de %s", entry.getKey()).isEqualByComparingTo(credit);
+
+            fees.merge(sourceCur, fee, BigDecimal::add);
+            // el banco recibe el débito en la moneda origen y paga el abono en la moneda destino
+            fxPosition.merge(sourceCur, debit, BigDecimal::add);
+            fxPosition.merge(destCur, credit.negate(), BigDecimal::add);
+        }
+
+        // 3) Por moneda: lo que falta en las cuentas es exactamente comisiones + posición FX del banco
+        Map<String, BigDecimal> balanceDelta = new TreeMap<>();
+        initial.forEach((account, start) -> balanceDelta.merge(accountCurrency.get(account),
+                finalBalance.get(account).subtract(start), BigDecimal::add));
+        for (String currency : balanceDelta.keySet()) {
+            BigDecimal total = balanceDelta.get(currency)
+                    .add(fees.getOrDefault(currency, BigDecimal.ZERO))
+                    .add(fxPosition.getOrDefault(currency, BigDecimal.ZERO));
+            assertThat(total).as("conservación en %s", currency).isEqualByComparingTo(BigDecimal.ZERO);
+        }
+    }
+
+    private static BigDecimal cents(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal cents(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.transfers_service.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MpscRingBufferTest {
+
+    //offer_returnsFalseWhenFull_andPollFreesSlots: Capacidad acotada y reutilización de celdas.
+    @Test
+    void offer_returnsFalseWhenFull_andPollFreesSlots() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer(i)).isTrue();
+        }
+        assertThat(ring.offer(99)).isFalse();
+
+        assertThat(ring.poll()).isZero();
+        assertThat(ring.offer(4)).isTrue();
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(ring.drainTo(drained, 10)).isEqualTo(4);
+        assertThat(drained).containsExactly(1, 2, 3, 4);
+        assertThat(ring.poll()).isNull();
+    }
+
+    //concurrentProducers_noElementLostOrDuplicated: Varios productores y un consumidor ven cada elemento una sola vez.
+    @Test
+    void concurrentProducers_noElementLostOrDuplicated() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(1024);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+
+        Set<Integer> seen = new HashSet<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (seen.size() < producers * perProducer && System.nanoTime() < deadline) {
+            Integer value = ring.poll();
+            if (value != null) {
+                assertThat(seen.add(value)).isTrue();
+            }
+        }
+        pool.shutdown();
+
+        assertThat(seen).hasSize(producers * perProducer);
+    }
+
+    //constructor_requiresPowerOfTwo: La capacidad debe ser potencia de 2.
+    @Test
+    void constructor_requiresPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<>(100));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.TransferEventDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NdjsonFileTransferEventSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private static TransferEventDto event(String type, String transferId) {
+        return TransferEventDto.builder()
+                .type(type)
+                .transferId(transferId)
+                .sourceAccountId("A1")
+                .destAccountId("A2")
+                .amount(new BigDecimal("25.50"))
+                .currency("PEN")
+                .occurredAt(LocalDateTime.of(2025, 3, 4, 10, 15))
+                .build();
+    }
+
+    //write_appendsOneJsonLinePerEvent: Un objeto JSON por línea y los lotes siguientes se agregan al final.
+    @Test
+    void write_appendsOneJsonLinePerEvent(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("events").resolve("transfers.ndjson");
+        NdjsonFileTransferEventSink sink = new NdjsonFileTransferEventSink(objectMapper, file);
+
+        sink.write(List.of(event(TransferEventDto.TYPE_CREATED, "TRX-1"), event(TransferEventDto.TYPE_SETTLED, "TRX-1")));
+        sink.write(List.of(event(TransferEventDto.TYPE_CREATED, "TRX-2")));
+        sink.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(3);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("type").asText()).isEqualTo("TransferCreated");
+        assertThat(first.get("amount").decimalValue()).isEqualByComparingTo("25.50");
+        assertThat(first.get("occurredAt").asText()).isEqualTo("2025-03-04T10:15:00");
+        assertThat(objectMapper.readTree(lines.get(2)).get("transferId").asText()).isEqualTo("TRX-2");
+    }
+}
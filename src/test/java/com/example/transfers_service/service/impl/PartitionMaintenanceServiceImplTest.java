@@ -0,0 +1,167 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.ShardContext;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PartitionMaintenanceServiceImplTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2026-10-19T10:00:00Z"), ZoneOffset.UTC);
+
+    //monthsToCreate_fillsUpToHorizon: Verifica que se creen los meses faltantes hasta el horizonte.
+    @Test
+    void monthsToCreate_fillsUpToHorizon() {
+        TreeSet<YearMonth> existing = new TreeSet<>(List.of(YearMonth.of(2026, 10), YearMonth.of(2026, 11)));
+
+        assertThat(PartitionMaintenanceServiceImpl.monthsToCreate(YearMonth.of(2026, 10), existing, 3))
+                .containsExactly(YearMonth.of(2026, 12), YearMonth.of(2027, 1));
+    }
+
+    //monthsToArchive_returnsOnlyMonthsBeyondRetention: Comprueba que solo se archive lo que supera la retención.
+    @Test
+    void monthsToArchive_returnsOnlyMonthsBeyondRetention() {
+        TreeSet<YearMonth> existing = new TreeSet<>(List.of(
+                YearMonth.of(2024, 8), YearMonth.of(2024, 9), YearMonth.of(2024, 10), YearMonth.of(2026, 10)));
+
+        assertThat(PartitionMaintenanceServiceImpl.monthsToArchive(YearMonth.of(2026, 10), existing, 24))
+                .containsExactly(YearMonth.of(2024, 8), YearMonth.of(2024, 9));
+    }
+
+    //parsePartitionName_ignoresNonMonthlyPartitions: Verifica que p_history y pmax no se traten como meses.
+    @Test
+    void parsePartitionName_ignoresNonMonthlyPartitions() {
+        assertThat(PartitionMaintenanceServiceImpl.parsePartitionName("p202610")).isEqualTo(YearMonth.of(2026, 10));
+        assertThat(PartitionMaintenanceServiceImpl.parsePartitionName("p_history")).isNull();
+        assertThat(PartitionMaintenanceServiceImpl.parsePartitionName("pmax")).isNull();
+    }
+
+    private static JdbcTemplate archiveCandidate() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("transfers")))
+                .thenReturn(List.of("p_history", "p202409", "p202610", "p202611", "p202612", "p202701", "pmax"));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("movements")))
+                .thenReturn(List.of("p_history"));
+        return jdbcTemplate;
+    }
+
+    // estado de transfers_archive_202409 y de p202409 que ve archivePartition antes de cada paso
+    private static void archiveState(JdbcTemplate jdbcTemplate, boolean exists, boolean partitioned,
+                                     boolean archiveRows, boolean partitionRows) {
+        when(jdbcTemplate.queryForObject(PartitionMaintenanceServiceImpl.TABLE_EXISTS_SQL, Integer.class,
+                "transfers_archive_202409")).thenReturn(exists ? 1 : 0);
+        when(jdbcTemplate.queryForObject(PartitionMaintenanceServiceImpl.PARTITION_COUNT_SQL, Integer.class,
+                "transfers_archive_202409")).thenReturn(partitioned ? 5 : 0);
+        when(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM transfers_archive_202409)", Boolean.class))
+                .thenReturn(archiveRows);
+        when(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM transfers PARTITION (p202409))", Boolean.class))
+                .thenReturn(partitionRows);
+    }
+
+    private static List<String> executed(JdbcTemplate jdbcTemplate) {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeast(0)).execute(sql.capture());
+        return sql.getAllValues();
+    }
+
+    //maintainPartitions_issuesReorganizeAndExchange: Comprueba las sentencias DDL emitidas.
+    @Test
+    void maintainPartitions_issuesReorganizeAndExchange() {
+        JdbcTemplate jdbcTemplate = archiveCandidate();
+        // CREATE ... LIKE copia el particionado: la tabla recién creada aparece particionada
+        archiveState(jdbcTemplate, false, true, false, false);
+
+        new PartitionMaintenanceServiceImpl(jdbcTemplate, 3, 24, clock).maintainPartitions();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(sql.capture());
+        assertThat(sql.getAllValues()).containsExactly(
+                "CREATE TABLE IF NOT EXISTS transfers_archive_202409 LIKE transfers",
+                "ALTER TABLE transfers_archive_202409 REMOVE PARTITIONING",
+                "ALTER TABLE transfers EXCHANGE PARTITION p202409 WITH TABLE transfers_archive_202409",
+                "ALTER TABLE transfers DROP PARTITION p202409");
+    }
+
+    //maintainPartitions_createsNextMonthFromPmax: Verifica que se parta pmax para el mes siguiente.
+    @Test
+    void maintainPartitions_createsNextMonthFromPmax() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), anyString()))
+                .thenReturn(List.of("p_history", "p202610", "p202611", "p202612", "pmax"));
+
+        new PartitionMaintenanceServiceImpl(jdbcTemplate, 3, 24, clock).maintainPartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE movements REORGANIZE PARTITION pmax INTO ("
+                + "PARTITION p202701 VALUES LESS THAN ('2027-02-01'), PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+    }
+
+    //maintainPartitions_resumesArchiveAfterExchange: Si el intercambio ya se hizo, solo falta eliminar la partición.
+    @Test
+    void maintainPartitions_resumesArchiveAfterExchange() {
+        JdbcTemplate jdbcTemplate = archiveCandidate();
+        archiveState(jdbcTemplate, true, false, true, false);
+
+        new PartitionMaintenanceServiceImpl(jdbcTemplate, 3, 24, clock).maintainPartitions();
+
+        assertThat(executed(jdbcTemplate)).containsExactly("ALTER TABLE transfers DROP PARTITION p202409");
+    }
+
+    //maintainPartitions_resumesArchiveAfterRemovePartitioning: Con el archivo vacío y sin particiones, sigue el intercambio.
+    @Test
+    void maintainPartitions_resumesArchiveAfterRemovePartitioning() {
+        JdbcTemplate jdbcTemplate = archiveCandidate();
+        archiveState(jdbcTemplate, true, false, false, false);
+
+        new PartitionMaintenanceServiceImpl(jdbcTemplate, 3, 24, clock).maintainPartitions();
+
+        assertThat(executed(jdbcTemplate)).containsExactly(
+                "ALTER TABLE transfers EXCHANGE PARTITION p202409 WITH TABLE transfers_archive_202409",
+                "ALTER TABLE transfers DROP PARTITION p202409");
+    }
+
+    //maintainPartitions_keepsPartitionWithRowsAfterExchange: No se elimina una partición que aún tiene filas.
+    @Test
+    void maintainPartitions_keepsPartitionWithRowsAfterExchange() {
+        JdbcTemplate jdbcTemplate = archiveCandidate();
+        archiveState(jdbcTemplate, true, false, true, true);
+
+        new PartitionMaintenanceServiceImpl(jdbcTemplate, 3, 24, clock).maintainPartitions();
+
+        assertThat(executed(jdbcTemplate)).isEmpty();
+    }
+
+    //maintainPartitions_visitsEveryShard: Con sharding cada shard mantiene sus particiones, aunque otro falle.
+    @Test
+    void maintainPartitions_visitsEveryShard() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        List<String> visited = new ArrayList<>();
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("transfers"))).thenAnswer(invocation -> {
+            visited.add(ShardContext.current());
+            if ("shard-0".equals(ShardContext.current())) {
+                throw new IllegalStateException("shard caído");
+            }
+            return List.of("p_history", "p202610", "p202611", "p202612", "p202701", "pmax");
+        });
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("movements")))
+                .thenReturn(List.of("p_history", "p202610", "p202611", "p202612", "p202701", "pmax"));
+
+        new PartitionMaintenanceServiceImpl(jdbcTemplate, 3, 24, clock, List.of("shard-0", "shard-1"))
+                .maintainPartitions();
+
+        assertThat(visited).containsExactly("shard-0", "shard-1");
+        assertThat(ShardContext.current()).isNull();
+    }
+}
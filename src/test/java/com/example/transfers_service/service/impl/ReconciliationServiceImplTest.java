@@ -0,0 +1,219 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.ReconciliationDiscrepancyDto;
+import com.example.transfers_service.dto.ReconciliationReportDto;
+import com.example.transfers_service.config.ShardResolver;
+import com.example.transfers_service.config.ShardRoutingDataSource;
+import com.example.transfers_service.exception.ReconciliationRunNotFoundException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReconciliationServiceImplTest {
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = database();
+        jdbc = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    private static JdbcDataSource database() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:reconciliation-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1"
+                + ";INIT=RUNSCRIPT FROM 'classpath:db/migration/V1__baseline_schema.sql'");
+        // una sola vez: CREATE INDEX no es idempotente (INIT corre en cada conexión)
+        new JdbcTemplate(dataSource).execute("RUNSCRIPT FROM 'classpath:db/migration/V7__reconciliation.sql'");
+        return dataSource;
+    }
+
+    private ReconciliationServiceImpl service(int rangeSize) {
+        return new ReconciliationServiceImpl(jdbc, transactionManager, rangeSize, 3, 100,
+                Collections.singletonList(null));
+    }
+
+    private void account(String accountId, double balance) {
+        account(jdbc, accountId, balance);
+    }
+
+    private static void account(JdbcTemplate jdbc, String accountId, double balance) {
+        jdbc.update("insert into accounts (account_id, customer_id, currency, balance, status) values (?, 'C1', 'PEN', ?, 'ACTIVE')",
+                accountId, balance);
+    }
+
+    private void movement(String accountId, double amount) {
+        movement(accountId, amount, LocalDateTime.now());
+    }
+
+    private void movement(String accountId, double amount, LocalDateTime at) {
+        jdbc.update("insert into movements (movement_id, account_id, transfer_id, amount, currency, type, description, movement_dt)"
+                        + " values (?, ?, 'TRX-1', ?, 'PEN', ?, 'test', ?)",
+                "MOV-" + UUID.randomUUID(), accountId, amount, amount < 0 ? "OUT" : "IN", at);
+    }
+
+    //reconcile_balancedAccounts_reportNoDiscrepancies: Saldos = apertura + movements en todos los rangos.
+    @Test
+    void reconcile_balancedAccounts_reportNoDiscrepancies() {
+        for (int i = 0; i < 25; i++) {
+            account(String.format("A%02d", i), 10.10 * 3 - 0.05);
+            movement(String.format("A%02d", i), 10.10);
+            movement(String.format("A%02d", i), 10.10);
+            movement(String.format("A%02d", i), 10.10);
+            movement(String.format("A%02d", i), -0.05);
+        }
+        account("OPEN", 500.00);
+        jdbc.update("insert into account_opening_balances (account_id, balance, as_of) values ('OPEN', 500.00, ?)",
+                LocalDateTime.now());
+
+        ReconciliationReportDto report = service(4).reconcile();
+
+        assertThat(report.status()).isEqualTo(ReconciliationServiceImpl.STATUS_DONE);
+        assertThat(report.rangesTotal()).isEqualTo(7);
+        assertThat(report.rangesDone()).isEqualTo(7);
+        assertThat(report.accounts()).isEqualTo(26);
+        assertThat(report.movements()).isEqualTo(100);
+        assertThat(report.discrepancyCount()).isZero();
+    }
+
+    //reconcile_detectsMismatchesAndOrphanMovements: Diferencias de saldo y movements de cuentas inexistentes.
+    @Test
+    void reconcile_detectsMismatchesAndOrphanMovements() {
+        account("A1", 100.00);
+        movement("A1", 100.00);
+        account("A2", 50.00);
+        movement("A2", 49.99);
+        account("A3", 7.00); // sin movements ni apertura
+        movement("ZZ", -3.00); // cuenta inexistente, fuera del último límite
+
+        ReconciliationReportDto report = service(1).reconcile();
+
+        assertThat(report.discrepancyCount()).isEqualTo(3);
+        assertThat(report.discrepancies())
+                .extracting(ReconciliationDiscrepancyDto::accountId)
+                .containsExactly("A3", "ZZ", "A2"); // ordenadas por |diferencia|
+        ReconciliationDiscrepancyDto a2 = report.discrepancies().get(2);
+        assertThat(a2.difference()).isEqualByComparingTo("0.01");
+        assertThat(a2.movementCount()).isEqualTo(1);
+        assertThat(report.discrepancies().get(1).balance()).isNull();
+    }
+
+    //reconcile_afterArchivingMonth_reportsNoDiscrepancies: Los movements de una partición archivada siguen contando.
+    @Test
+    void reconcile_afterArchivingMonth_reportsNoDiscrepancies() {
+        LocalDateTime archived = LocalDateTime.of(2024, 9, 15, 10, 0);
+        account("A1", 150.00);
+        movement("A1", 100.00, archived);
+        movement("A1", 50.00);
+        account("A2", 20.00);
+        movement("A2", 20.00, archived);
+
+        // lo que deja el EXCHANGE PARTITION de PartitionMaintenanceServiceImpl: p202409 en su archivo
+        jdbc.execute("create table movements_archive_202409 as select * from movements where movement_dt < '2024-10-01'");
+        jdbc.update("delete from movements where movement_dt < '2024-10-01'");
+
+        ReconciliationReportDto report = service(1).reconcile();
+
+        assertThat(report.status()).isEqualTo(ReconciliationServiceImpl.STATUS_DONE);
+        assertThat(report.accounts()).isEqualTo(2);
+        assertThat(report.movements()).isEqualTo(3);
+        assertThat(report.discrepancyCount()).isZero();
+    }
+
+    //resume_processesOnlyPendingRanges: Los rangos ya terminados no se vuelven a leer.
+    @Test
+    void resume_processesOnlyPendingRanges() {
+        account("A1", 1.00);
+        account("B1", 2.00);
+        account("C1", 3.00);
+        ReconciliationServiceImpl service = service(1);
+        String runId = "REC-TEST";
+        service.prepareRun(runId);
+
+        // simulamos una corrida interrumpida: el rango 0 (A1) quedó DONE sin discrepancias
+        jdbc.update("update reconciliation_ranges set status = 'DONE', accounts = 1 where run_id = ? and range_no = 0", runId);
+        ReconciliationReportDto report = service.resume(runId);
+
+        assertThat(report.rangesDone()).isEqualTo(3);
+        assertThat(report.discrepancies())
+                .extracting(ReconciliationDiscrepancyDto::accountId)
+                .containsExactly("C1", "B1");
+        assertThat(jdbc.queryForObject("select status from reconciliation_runs where run_id = ?", String.class, runId))
+                .isEqualTo(ReconciliationServiceImpl.STATUS_DONE);
+    }
+
+    //resume_unknownRun_isRejected: No se puede reanudar una corrida que no existe (404).
+    @Test
+    void resume_unknownRun_isRejected() {
+        ReconciliationServiceImpl service = service(10);
+        assertThrows(ReconciliationRunNotFoundException.class, () -> service.resume("REC-NOPE"));
+    }
+
+    //reconcile_withoutAutoCommit_persistsRunStatus: Con auto-commit desactivado (prod) la corrida queda DONE.
+    @Test
+    void reconcile_withoutAutoCommit_persistsRunStatus() {
+        account("A1", 1.00);
+        DataSource manualCommit = new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = super.getConnection();
+                connection.setAutoCommit(false);
+                return connection;
+            }
+        };
+
+        ReconciliationReportDto report = new ReconciliationServiceImpl(manualCommit,
+                new DataSourceTransactionManager(manualCommit), 10, 2, 1000, 100).reconcile();
+
+        Map<String, Object> run = jdbc.queryForMap("select status, finished_at from reconciliation_runs where run_id = ?",
+                report.runId());
+        assertThat(run.get("STATUS")).isEqualTo(ReconciliationServiceImpl.STATUS_DONE);
+        assertThat(run.get("FINISHED_AT")).isNotNull();
+    }
+
+    //reconcile_sharded_coversEveryShard: Cada shard concilia sus cuentas y el reporte las suma.
+    @Test
+    void reconcile_sharded_coversEveryShard() {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put("shard-1", database());
+        shards.put("shard-2", database());
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(
+                new ShardResolver(List.of("shard-1", "shard-2"), 16), shards);
+        routing.afterPropertiesSet();
+        JdbcTemplate shard1 = new JdbcTemplate(shards.get("shard-1"));
+        JdbcTemplate shard2 = new JdbcTemplate(shards.get("shard-2"));
+        account(shard1, "A1", 1.00);
+        account(shard2, "B1", 2.00);
+        account(shard2, "B2", 0.00);
+
+        ReconciliationReportDto report = new ReconciliationServiceImpl(routing,
+                new DataSourceTransactionManager(routing), 1, 2, 1000, 100).reconcile();
+
+        assertThat(report.accounts()).isEqualTo(3);
+        assertThat(report.rangesTotal()).isEqualTo(3);
+        assertThat(report.discrepancies())
+                .extracting(ReconciliationDiscrepancyDto::accountId)
+                .containsExactly("B1", "A1");
+        assertThat(shard2.queryForObject("select status from reconciliation_runs where run_id = ?", String.class,
+                report.runId())).isEqualTo(ReconciliationServiceImpl.STATUS_DONE);
+    }
+}
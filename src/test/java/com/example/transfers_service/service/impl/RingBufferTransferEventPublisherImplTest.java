@@ -0,0 +1,236 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.TransferEventDto;
+import com.example.transfers_service.dto.TransferEventStatsDto;
+import com.example.transfers_service.service.TransferEventSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingBufferTransferEventPublisherImplTest {
+
+    private RingBufferTransferEventPublisherImpl publisher;
+
+    @AfterEach
+    void tearDown() {
+        if (publisher != null) {
+            publisher.shutdown();
+        }
+    }
+
+    private static TransferEventDto event(String transferId) {
+        return TransferEventDto.builder()
+                .type(TransferEventDto.TYPE_CREATED)
+                .transferId(transferId)
+                .customerId("C1")
+                .sourceAccountId("A1")
+                .destAccountId("A2")
+                .amount(new BigDecimal("10.00"))
+                .currency("PEN")
+                .status("EJECUTADA")
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    //publish_withoutTransaction_deliversInOrderToEverySink: Sin transacción se encola de inmediato.
+    @Test
+    void publish_withoutTransaction_deliversInOrderToEverySink() throws Exception {
+        RecordingSink first = new RecordingSink("a");
+        RecordingSink second = new RecordingSink("b");
+        publisher = new RingBufferTransferEventPublisherImpl(List.of(first, second), true, 1024, 64, 64);
+        publisher.start();
+
+        for (int i = 0; i < 100; i++) {
+            publisher.publishAfterCommit(event("TRX-" + i));
+        }
+
+        await(() -> second.events.size() == 100);
+        assertThat(first.events).extracting(TransferEventDto::transferId).startsWith("TRX-0", "TRX-1", "TRX-2");
+        assertThat(first.events).extracting(TransferEventDto::transferId).endsWith("TRX-99");
+        TransferEventStatsDto stats = publisher.stats();
+        assertThat(stats.published()).isEqualTo(100);
+        assertThat(stats.dropped()).isZero();
+        assertThat(stats.delivered()).containsEntry("a", 100L).containsEntry("b", 100L);
+    }
+
+    //publish_insideTransaction_onlyAfterCommit: Antes del commit no se entrega; un rollback no publica.
+    @Test
+    void publish_insideTransaction_onlyAfterCommit() throws Exception {
+        RecordingSink sink = new RecordingSink("a");
+        publisher = new RingBufferTransferEventPublisherImpl(List.of(sink), true, 1024, 64, 64);
+        publisher.start();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            publisher.publishAfterCommit(event("TRX-ROLLBACK"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            publisher.publishAfterCommit(event("TRX-COMMIT"));
+            assertThat(publisher.stats().published()).isZero();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        await(() -> sink.events.size() == 1);
+        assertThat(sink.events).extracting(TransferEventDto::transferId).containsExactly("TRX-COMMIT");
+    }
+
+    //publish_ringFull_dropsAndCountsWithoutBlocking: Con el consumidor atascado se descarta y se cuenta.
+    @Test
+    void publish_ringFull_dropsAndCountsWithoutBlocking() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink stuck = new RecordingSink("slow") {
+            @Override
+            public void write(List<TransferEventDto> batch) throws Exception {
+                release.await();
+                super.write(batch);
+            }
+        };
+        publisher = new RingBufferTransferEventPublisherImpl(List.of(stuck), true, 8, 4, 64);
+        publisher.start();
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            publisher.publishAfterCommit(event("TRX-" + i));
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        TransferEventStatsDto stats = publisher.stats();
+        assertThat(stats.published() + stats.dropped()).isEqualTo(100);
+        assertThat(stats.dropped()).isGreaterThanOrEqualTo(100 - 8 - 4);
+        assertThat(elapsed).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        release.countDown();
+        await(() -> stuck.events.size() == stats.published());
+    }
+
+    //deliver_failingSink_doesNotStopOthers: Un sink que falla cuenta el lote como fallido y los demás reciben.
+    @Test
+    void deliver_failingSink_doesNotStopOthers() throws Exception {
+        RecordingSink healthy = new RecordingSink("ok");
+        TransferEventSink broken = new TransferEventSink() {
+            @Override
+            public String name() {
+                return "broken";
+            }
+
+            @Override
+            public void write(List<TransferEventDto> batch) {
+                throw new IllegalStateException("destino caído");
+            }
+        };
+        publisher = new RingBufferTransferEventPublisherImpl(List.of(broken, healthy), true, 64, 16, 64);
+        publisher.start();
+
+        for (int i = 0; i < 10; i++) {
+            publisher.publishAfterCommit(event("TRX-" + i));
+        }
+
+        await(() -> healthy.events.size() == 10);
+        await(() -> publisher.stats().failed().get("broken") == 10L);
+    }
+
+    //isolatedSink_slowEndpointDoesNotStallOthers: Un sink remoto lento usa su propio hilo; los locales siguen.
+    @Test
+    void isolatedSink_slowEndpointDoesNotStallOthers() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink local = new RecordingSink("file");
+        RecordingSink remote = new RecordingSink("http") {
+            @Override
+            public boolean isolated() {
+                return true;
+            }
+
+            @Override
+            public void write(List<TransferEventDto> batch) throws Exception {
+                entered.countDown();
+                release.await();
+                super.write(batch);
+            }
+        };
+        publisher = new RingBufferTransferEventPublisherImpl(List.of(remote, local), true, 1024, 1, 2);
+        publisher.start();
+
+        publisher.publishAfterCommit(event("TRX-0"));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < 20; i++) {
+            publisher.publishAfterCommit(event("TRX-" + i));
+        }
+
+        await(() -> local.events.size() == 20);
+        assertThat(remote.events).isEmpty();
+        // uno en curso + dos en cola; el resto no cabe y falla solo para el sink remoto
+        await(() -> publisher.stats().failed().get("http") == 17L);
+        release.countDown();
+        await(() -> remote.events.size() == 3);
+        assertThat(publisher.stats().failed()).containsEntry("file", 0L);
+    }
+
+    //shutdown_drainsPendingEventsAndClosesSinks: Al apagar se entrega lo pendiente antes de cerrar.
+    @Test
+    void shutdown_drainsPendingEventsAndClosesSinks() {
+        RecordingSink sink = new RecordingSink("a");
+        publisher = new RingBufferTransferEventPublisherImpl(List.of(sink), true, 1024, 64, 64);
+        publisher.start();
+        for (int i = 0; i < 500; i++) {
+            publisher.publishAfterCommit(event("TRX-" + i));
+        }
+
+        publisher.shutdown();
+
+        assertThat(sink.events).hasSize(500);
+        assertThat(sink.closed).isTrue();
+        publisher.publishAfterCommit(event("TRX-LATE"));
+        assertThat(publisher.stats().dropped()).isEqualTo(1);
+    }
+
+    private static class RecordingSink implements TransferEventSink {
+        private final String name;
+        final List<TransferEventDto> events = new CopyOnWriteArrayList<>();
+        volatile boolean closed;
+
+        RecordingSink(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void write(List<TransferEventDto> batch) throws Exception {
+            events.addAll(batch);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.H2Migrations;
+import com.example.transfers_service.TransferRequests;
+import com.example.transfers_service.TransfersServiceApplication;
+import com.example.transfers_service.config.ShardContext;
+import com.example.transfers_service.config.ShardRoutingDataSource;
+import com.example.transfers_service.controller.TransferController;
+import com.example.transfers_service.dto.TransferEventDto;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.dto.response.TransferResponse;
+import com.example.transfers_service.entity.AppliedCredit;
+import com.example.transfers_service.entity.TransferIntent;
+import com.example.transfers_service.repository.AppliedCreditRepository;
+import com.example.transfers_service.service.ShardingService;
+import com.example.transfers_service.service.TransferEventSink;
+import com.example.transfers_service.service.TransferService;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tres BDs H2 como shards; el esquema de cada una sale de los scripts V1, V4 y V8-V11.
+ */
+class ShardedTransferServiceImplTest {
+
+    private static final String SHARD_INIT = ";MODE=MySQL;DB_CLOSE_DELAY=-1"
+            + ";INIT=RUNSCRIPT FROM 'classpath:db/migration/V1__baseline_schema.sql'"
+            + "\\;RUNSCRIPT FROM 'classpath:db/migration/V4__sharding_intents.sql'";
+
+    // BDs nuevas por prueba: V8-V11 no son idempotentes y se aplican una sola vez antes del contexto
+    private final String[] shardUrls = IntStream.range(0, 3)
+            .mapToObj(i -> "jdbc:h2:mem:shard" + i + "-" + UUID.randomUUID() + SHARD_INIT)
+            .toArray(String[]::new);
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(TransfersServiceApplication.class)
+            .withInitializer(context -> context.getBeanFactory()
+                    .registerSingleton("excludeTestConfigurations", new ExcludeTestConfigurations()))
+            .withPropertyValues(
+                    "spring.datasource.driver-class-name=org.h2.Driver",
+                    "spring.datasource.url=jdbc:h2:mem:shard-default;DB_CLOSE_DELAY=-1",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=",
+                    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                    "spring.jpa.hibernate.ddl-auto=none",
+                    "external.account.service.url=http://localhost:1",
+                    // primera evaluación con la JVM en frío: sin esto puede pasarse de los 200 µs (FALLBACK)
+                    "transfers.fraud.budget-micros=1000000",
+                    "transfers.sharding.enabled=true",
+                    "transfers.sharding.shards[0].name=shard-0",
+                    "transfers.sharding.shards[0].url=" + shardUrls[0],
+                    "transfers.sharding.shards[1].name=shard-1",
+                    "transfers.sharding.shards[1].url=" + shardUrls[1],
+                    "transfers.sharding.shards[2].name=shard-2",
+                    "transfers.sharding.shards[2].url=" + shardUrls[2]);
+
+    // ApplicationContextRunner no registra el filtro de Spring Boot Test: sin esto el escaneo recoge
+    // las @TestConfiguration de otras pruebas (p. ej. la validación simulada de TransferControllerTest)
+    private static final class ExcludeTestConfigurations extends TypeExcludeFilter {
+        @Override
+        public boolean match(MetadataReader reader, MetadataReaderFactory factory) {
+            return reader.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName());
+        }
+    }
+
+    @BeforeEach
+    void migrateShards() {
+        for (String url : shardUrls) {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL(url);
+            dataSource.setUser("sa");
+            H2Migrations.apply(dataSource);
+            H2Migrations.apply(dataSource, H2Migrations.SHARDING);
+        }
+    }
+
+    //crossShardTransfer_debitsSourceShard_creditsDestinationShard: El abono se aplica en el shard destino y la intención queda COMPLETADA.
+    @Test
+    void crossShardTransfer_debitsSourceShard_creditsDestinationShard() {
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            ShardRoutingDataSource routing = context.getBean(ShardRoutingDataSource.class);
+            String source = accountOnShard(routing, "X", "shard-0");
+            String destination = accountOnShard(routing, "X", "shard-1");
+            insertAccount(routing, source, "C1", 1000.00);
+            insertAccount(routing, destination, "C2", 500.00);
+
+            TransferResponse response = context.getBean(TransferService.class)
+                    .createTransfer(request("C1", source, destination, 100.00));
+
+            double charges = response.getCommissionApplied();
+            assertThat(balance(routing, source)).isEqualTo(900.00 - charges);
+            assertThat(balance(routing, destination)).isEqualTo(600.00);
+            assertThat(jdbc(routing, "shard-1").queryForObject(
+                    "select count(*) from movements where type = 'IN' and account_id = ?", Integer.class, destination))
+                    .isEqualTo(1);
+            assertThat(intentStatus(routing, "shard-0", response.getTransferId()))
+                    .isEqualTo(TransferIntent.STATUS_COMPLETED);
+            // la transferencia y sus movimientos OUT viven solo en el shard origen
+            assertThat(jdbc(routing, "shard-1").queryForObject("select count(*) from transfers", Integer.class))
+                    .isZero();
+        });
+    }
+
+    //controllerPath_sourceOnNonDefaultShard_isFound: Por el controlador, la validación previa al lock encuentra la cuenta origen fuera del primer shard.
+    @Test
+    void controllerPath_sourceOnNonDefaultShard_isFound() {
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            ShardRoutingDataSource routing = context.getBean(ShardRoutingDataSource.class);
+            String source = accountOnShard(routing, "V", "shard-1");
+            String destination = accountOnShard(routing, "V", "shard-2");
+            insertAccount(routing, source, "C1", 1000.00);
+            insertAccount(routing, destination, "C2", 500.00);
+
+            ResponseEntity<TransferResponse> response = context.getBean(TransferController.class)
+                    .createTransfer(request("C1", source, destination, 100.00), null);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            assertThat(balance(routing, destination)).isEqualTo(600.00);
+            assertThat(intentStatus(routing, "shard-1", response.getBody().getTransferId()))
+                    .isEqualTo(TransferIntent.STATUS_COMPLETED);
+        });
+    }
+
+    //crossShardTransfer_publishesSettledOnceCreditIsApplied: TransferSettled sale del camino que confirma el abono.
+    @Test
+    void crossShardTransfer_publishesSettledOnceCreditIsApplied() {
+        List<TransferEventDto> events = new CopyOnWriteArrayList<>();
+        TransferEventSink sink = new TransferEventSink() {
+            @Override
+            public String name() {
+                return "test";
+            }
+
+            @Override
+            public void write(List<TransferEventDto> batch) {
+                events.addAll(batch);
+            }
+        };
+        contextRunner.withBean("recordingSink", TransferEventSink.class, () -> sink).run(context -> {
+            assertThat(context).hasNotFailed();
+            ShardRoutingDataSource routing = context.getBean(ShardRoutingDataSource.class);
+            String source = accountOnShard(routing, "E", "shard-0");
+            String destination = accountOnShard(routing, "E", "shard-1");
+            insertAccount(routing, source, "C1", 1000.00);
+            insertAccount(routing, destination, "C2", 500.00);
+
+            TransferResponse response = context.getBean(TransferService.class)
+                    .createTransfer(request("C1", source, destination, 100.00));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(events).extracting(TransferEventDto::type)
+                    .containsExactly(TransferEventDto.TYPE_CREATED, TransferEventDto.TYPE_SETTLED);
+            assertThat(events.get(1).transferId()).isEqualTo(response.getTransferId());
+            assertThat(events.get(1).sourceCurrency()).isEqualTo("PEN");
+        });
+    }
+
+    //sameShardTransfer_staysLocal_withoutIntent: Si ambas cuentas comparten shard no se registra intención.
+    @Test
+    void sameShardTransfer_staysLocal_withoutIntent() {
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            ShardRoutingDataSource routing = context.getBean(ShardRoutingDataSource.class);
+            String source = accountOnShard(routing, "L", "shard-2");
+            String destination = accountOnShard(routing, "M", "shard-2");
+            insertAccount(routing, source, "C1", 1000.00);
+            insertAccount(routing, destination, "C2", 500.00);
+
+            context.getBean(TransferService.class).createTransfer(request("C1", source, destination, 50.00));
+
+            assertThat(balance(routing, destination)).isEqualTo(550.00);
+            assertThat(jdbc(routing, "shard-2").queryForObject("select count(*) from transfer_intents", Integer.class))
+                    .isZero();
+            // la decisión del riesgo en línea queda en la fila para el batch de revisión
+            assertThat(jdbc(routing, "shard-2").queryForObject("select fraud_decision from transfers", String.class))
+                    .isEqualTo(VelocityFraudScoringServiceImpl.DECISION_ALLOW);
+            assertThat(jdbc(routing, "shard-2").queryForObject("select debit_currency from transfers", String.class))
+                    .isEqualTo("PEN");
+        });
+    }
+
+    //missingDestination_compensatesSourceDebit: Si el abono no puede aplicarse se devuelve el débito en el origen.
+    @Test
+    void missingDestination_compensatesSourceDebit() {
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            ShardRoutingDataSource routing = context.getBean(ShardRoutingDataSource.class);
+            String source = accountOnShard(routing, "R", "shard-0");
+            String destination = accountOnShard(routing, "R", "shard-2");
+            insertAccount(routing, source, "C1", 898.00);
+
+            // estado tras el paso 1: débito hecho y la cuenta destino ya no existe en su shard
+            JdbcTemplate sourceShard = jdbc(routing, "shard-0");
+            LocalDateTime now = LocalDateTime.now();
+            sourceShard.update("insert into transfers (transfer_id, customer_id, source_account_id, dest_account_number,"
+                            + " dest_currency, amount, transfer_datetime, transfer_type, status)"
+                            + " values ('TRX-R1', 'C1', ?, ?, 'PEN', 100, ?, 'ONLINE', 'EJECUTADA')",
+                    source, destination, now);
+            sourceShard.update("insert into transfer_intents (transfer_id, source_shard, dest_shard, source_account_id,"
+                            + " source_currency, total_debit, dest_account_id, dest_currency, amount_to_credit,"
+                            + " status, attempts, created_at, updated_at)"
+                            + " values ('TRX-R1', 'shard-0', 'shard-2', ?, 'PEN', 102.00, ?, 'PEN', 100.00,"
+                            + " 'PENDIENTE', 0, ?, ?)",
+                    source, destination, now, now);
+
+            context.getBean(ShardingService.class).completePendingCredit("shard-0", "TRX-R1");
+
+            assertThat(balance(routing, source)).isEqualTo(1000.00);
+            assertThat(intentStatus(routing, "shard-0", "TRX-R1")).isEqualTo(TransferIntent.STATUS_COMPENSATED);
+            assertThat(sourceShard.queryForObject("select status from transfers where transfer_id = 'TRX-R1'", String.class))
+                    .isEqualTo(ShardingServiceImpl.STATUS_REVERSED);
+
+            // reintentar no vuelve a compensar
+            context.getBean(ShardingService.class).completePendingCredit("shard-0", "TRX-R1");
+            assertThat(balance(routing, source)).isEqualTo(1000.00);
+        });
+    }
+
+    //exhaustedIntent_withCreditApplied_completesWithoutRefund: Agotados los reintentos, un abono que sí llegó al destino completa la intención.
+    @Test
+    void exhaustedIntent_withCreditApplied_completesWithoutRefund() {
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            ShardRoutingDataSource routing = context.getBean(ShardRoutingDataSource.class);
+            String source = accountOnShard(routing, "E", "shard-0");
+            String destination = accountOnShard(routing, "E", "shard-2");
+            insertAccount(routing, source, "C1", 898.00);
+            insertAccount(routing, destination, "C2", 100.00);
+            insertExhaustedIntent(routing, "TRX-E1", source, destination);
+            // el abono se aplicó, pero la respuesta se perdió antes de marcar COMPLETADA
+            jdbc(routing, "shard-2").update("insert into applied_credits (transfer_id, applied_at, outcome)"
+                    + " values ('TRX-E1', ?, 'APLICADO')", LocalDateTime.now());
+
+            context.getBean(ShardingServiceImpl.class).recoverPendingCredits();
+
+            assertThat(intentStatus(routing, "shard-0", "TRX-E1")).isEqualTo(TransferIntent.STATUS_COMPLETED);
+            assertThat(balance(routing, source)).isEqualTo(898.00);
+            assertThat(jdbc(routing, "shard-0").queryForObject(
+                    "select status from transfers where transfer_id = 'TRX-E1'", String.class)).isEqualTo("EJECUTADA");
+        });
+    }
+
+    //exhaustedIntent_withoutCredit_fencesDestinationThenRefunds: Sin abono en el destino se deja la marca CANCELADO y recién se devuelve el débito.
+    @Test
+    void exhaustedIntent_withoutCredit_fencesDestinationThenRefunds() {
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            ShardRoutingDataSource routing = context.getBean(ShardRoutingDataSource.class);
+            String source = accountOnShard(routing, "F", "shard-0");
+            String destination = accountOnShard(routing, "F", "shard-2");
+            insertAccount(routing, source, "C1", 898.00);
+            insertAccount(routing, destination, "C2", 100.00);
+            insertExhaustedIntent(routing, "TRX-F1", source, destination);
+
+            context.getBean(ShardingServiceImpl.class).recoverPendingCredits();
+
+            assertThat(intentStatus(routing, "shard-0", "TRX-F1")).isEqualTo(TransferIntent.STATUS_COMPENSATED);
+            assertThat(balance(routing, source)).isEqualTo(1000.00);
+            assertThat(jdbc(routing, "shard-2").queryForObject(
+                    "select outcome from applied_credits where transfer_id = 'TRX-F1'", String.class))
+                    .isEqualTo("CANCELADO");
+
+            // un reintento tardío del abono ve la marca y no acredita
+            context.getBean(ShardingService.class).completePendingCredit("shard-0", "TRX-F1");
+            assertThat(balance(routing, destination)).isEqualTo(100.00);
+            assertThat(balance(routing, source)).isEqualTo(1000.00);
+        });
+    }
+
+    //appliedCredit_concurrentCancelledMarker_failsOnDuplicateKey: Una marca CANCELADO escrita después de la lectura de applyCredit no se pisa.
+    @Test
+    void appliedCredit_concurrentCancelledMarker_failsOnDuplicateKey() {
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            ShardRoutingDataSource routing = context.getBean(ShardRoutingDataSource.class);
+            TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            AppliedCredit applied = new AppliedCredit();
+            applied.setTransferId("TRX-C1");
+            applied.setAppliedAt(LocalDateTime.now());
+            applied.setOutcome(AppliedCredit.OUTCOME_APPLIED);
+            // fenceCredit deja la marca entre el findById y el save de applyCredit
+            jdbc(routing, "shard-2").update("insert into applied_credits (transfer_id, applied_at, outcome)"
+                    + " values ('TRX-C1', ?, 'CANCELADO')", LocalDateTime.now());
+
+            assertThatThrownBy(() -> ShardContext.run("shard-2", () -> tx.executeWithoutResult(status ->
+                    context.getBean(AppliedCreditRepository.class).save(applied))))
+                    .isInstanceOf(DataIntegrityViolationException.class);
+            assertThat(jdbc(routing, "shard-2").queryForObject(
+                    "select outcome from applied_credits where transfer_id = 'TRX-C1'", String.class))
+                    .isEqualTo(AppliedCredit.OUTCOME_CANCELLED);
+        });
+    }
+
+    // Estado tras el paso 1 con los reintentos agotados y la última actualización hace una hora
+    private static void insertExhaustedIntent(ShardRoutingDataSource routing, String transferId, String source,
+                                              String destination) {
+        JdbcTemplate sourceShard = jdbc(routing, "shard-0");
+        LocalDateTime before = LocalDateTime.now().minusHours(1);
+        sourceShard.update("insert into transfers (transfer_id, customer_id, source_account_id, dest_account_number,"
+                        + " dest_currency, amount, transfer_datetime, transfer_type, status)"
+                        + " values (?, 'C1', ?, ?, 'PEN', 100, ?, 'ONLINE', 'EJECUTADA')",
+                transferId, source, destination, before);
+        sourceShard.update("insert into transfer_intents (transfer_id, source_shard, dest_shard, source_account_id,"
+                        + " source_currency, total_debit, dest_account_id, dest_currency, amount_to_credit,"
+                        + " status, attempts, created_at, updated_at)"
+                        + " values (?, 'shard-0', 'shard-2', ?, 'PEN', 102.00, ?, 'PEN', 100.00,"
+                        + " 'PENDIENTE', 10, ?, ?)",
+                transferId, source, destination, before, before);
+    }
+
+    private static String accountOnShard(ShardRoutingDataSource routing, String prefix, String shard) {
+        return IntStream.range(0, 10_000)
+                .mapToObj(i -> prefix + i)
+                .filter(id -> routing.getResolver().shardFor(id).equals(shard))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static JdbcTemplate jdbc(ShardRoutingDataSource routing, String shard) {
+        return new JdbcTemplate(routing.dataSourceFor(shard));
+    }
+
+    private static void insertAccount(ShardRoutingDataSource routing, String accountId, String customerId, double balance) {
+        jdbc(routing, routing.getResolver().shardFor(accountId)).update(
+                "insert into accounts (account_id, customer_id, currency, balance, status) values (?, ?, 'PEN', ?, 'ACTIVE')",
+                accountId, customerId, balance);
+    }
+
+    private static double balance(ShardRoutingDataSource routing, String accountId) {
+        return jdbc(routing, routing.getResolver().shardFor(accountId))
+                .queryForObject("select balance from accounts where account_id = ?", Double.class, accountId);
+    }
+
+    private static String intentStatus(ShardRoutingDataSource routing, String shard, String transferId) {
+        return jdbc(routing, shard)
+                .queryForObject("select status from transfer_intents where transfer_id = ?", String.class, transferId);
+    }
+
+    private static TransferRequest request(String customerId, String source, String destination, double amount) {
+        return TransferRequests.request(customerId, source, destination, "PEN", amount, "prueba shards");
+    }
+}
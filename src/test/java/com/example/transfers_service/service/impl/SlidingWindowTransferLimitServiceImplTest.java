@@ -0,0 +1,216 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.H2Migrations;
+import com.example.transfers_service.TransferRequests;
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.config.ShardResolver;
+import com.example.transfers_service.config.ShardRoutingDataSource;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.TransferLimitExceededException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+
+class SlidingWindowTransferLimitServiceImplTest {
+
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+
+    private SlidingWindowTransferLimitServiceImpl limits(JdbcTemplate jdbc, long accountHourly, long accountDaily) {
+        return new SlidingWindowTransferLimitServiceImpl(
+                jdbc,
+                CurrencyRegistry.defaults(),
+                true,
+                new SlidingWindowTransferLimitServiceImpl.Limits(1_000_000, 5_000_000),
+                new SlidingWindowTransferLimitServiceImpl.Limits(accountHourly, accountDaily),
+                clock::get);
+    }
+
+    private static TransferRequest request(String customerId, String accountId, String currency, double amount) {
+        return TransferRequests.request(customerId, accountId, null, currency, amount);
+    }
+
+    private void advanceMinutes(long minutes) {
+        clock.addAndGet(TimeUnit.MINUTES.toMillis(minutes));
+    }
+
+    //reserve_overHourlyLimit_rejectsWithoutCounting: El rechazo de la cuenta no deja el monto sumado al cliente.
+    @Test
+    void reserve_overHourlyLimit_rejectsWithoutCounting() {
+        SlidingWindowTransferLimitServiceImpl service = limits(null, 10_000, 0);
+
+        service.reserve(request("C1", "A1", "PEN", 60.00));
+        assertThatThrownBy(() -> service.reserve(request("C1", "A1", "PEN", 50.00)))
+                .isInstanceOf(TransferLimitExceededException.class)
+                .hasMessageContaining("horario")
+                .hasMessageContaining("A1");
+
+        assertThat(service.accountTotal("A1", false)).isEqualTo(6_000);
+        assertThat(service.customerTotal("C1", false)).isEqualTo(6_000);
+        assertDoesNotThrow(() -> service.reserve(request("C1", "A1", "PEN", 40.00)));
+    }
+
+    //reserve_hourlySlidesButDailyStillCounts: Pasada la hora se libera la ventana horaria, no la diaria.
+    @Test
+    void reserve_hourlySlidesButDailyStillCounts() {
+        SlidingWindowTransferLimitServiceImpl service = limits(null, 10_000, 15_000);
+
+        service.reserve(request("C1", "A1", "PEN", 100.00));
+        advanceMinutes(65);
+        assertThat(service.accountTotal("A1", false)).isZero();
+        assertThat(service.accountTotal("A1", true)).isEqualTo(10_000);
+
+        assertThatThrownBy(() -> service.reserve(request("C1", "A1", "PEN", 60.00)))
+                .isInstanceOf(TransferLimitExceededException.class)
+                .hasMessageContaining("diario");
+
+        advanceMinutes(TimeUnit.HOURS.toMinutes(24));
+        assertDoesNotThrow(() -> service.reserve(request("C1", "A1", "PEN", 100.00)));
+    }
+
+    //reserve_foreignCurrency_countsInBaseCurrency: 10 USD cuentan como 35.00 PEN (tasa de compra).
+    @Test
+    void reserve_foreignCurrency_countsInBaseCurrency() {
+        SlidingWindowTransferLimitServiceImpl service = limits(null, 0, 0);
+
+        service.reserve(request("C1", "A1", "USD", 10.00));
+
+        assertThat(service.accountTotal("A1", true)).isEqualTo(3_500);
+    }
+
+    //reserve_rolledBackTransaction_releasesAmount: Si la transferencia hace rollback el monto se devuelve.
+    @Test
+    void reserve_rolledBackTransaction_releasesAmount() {
+        SlidingWindowTransferLimitServiceImpl service = limits(null, 10_000, 0);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.reserve(request("C1", "A1", "PEN", 80.00));
+            assertThat(service.accountTotal("A1", false)).isEqualTo(8_000);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(service.accountTotal("A1", false)).isZero();
+        assertThat(service.customerTotal("C1", false)).isZero();
+    }
+
+    private static JdbcTemplate database() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:limits-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1"
+                + ";INIT=RUNSCRIPT FROM 'classpath:db/migration/V1__baseline_schema.sql'");
+        H2Migrations.apply(dataSource);
+        return new JdbcTemplate(dataSource);
+    }
+
+    //rebuild_loadsLast24HoursOfTransfers: Los contadores se reconstruyen desde transfers al arrancar.
+    @Test
+    void rebuild_loadsLast24HoursOfTransfers() {
+        JdbcTemplate jdbc = database();
+        transfer(jdbc, "C1", "A1", 30.00, "PEN", 30);
+        transfer(jdbc, "C1", "A2", 10.00, "USD", 5 * 60);
+        transfer(jdbc, "C1", "A1", 500.00, "PEN", 2 * 24 * 60);
+
+        SlidingWindowTransferLimitServiceImpl service = limits(jdbc, 0, 0);
+        service.afterSingletonsInstantiated();
+
+        assertThat(service.accountTotal("A1", false)).isEqualTo(3_000);
+        assertThat(service.accountTotal("A1", true)).isEqualTo(3_000);
+        assertThat(service.accountTotal("A2", false)).isZero();
+        assertThat(service.customerTotal("C1", true)).isEqualTo(3_000 + 3_500);
+        assertThat(service.activeCounters()).isEqualTo(3);
+    }
+
+    //rebuild_sharded_loadsEveryShard: Cada transferencia vive en el shard de su cuenta origen; se leen todos.
+    @Test
+    void rebuild_sharded_loadsEveryShard() {
+        JdbcTemplate shard1 = database();
+        JdbcTemplate shard2 = database();
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put("shard-1", shard1.getDataSource());
+        shards.put("shard-2", shard2.getDataSource());
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(
+                new ShardResolver(List.of("shard-1", "shard-2"), 16), shards);
+        routing.afterPropertiesSet();
+        transfer(shard1, "C1", "A1", 30.00, "PEN", 30);
+        transfer(shard2, "C1", "B1", 20.00, "PEN", 30);
+
+        SlidingWindowTransferLimitServiceImpl service = new SlidingWindowTransferLimitServiceImpl(
+                new JdbcTemplate(routing), CurrencyRegistry.defaults(), true,
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+        service.afterSingletonsInstantiated();
+
+        assertThat(service.accountTotal("A1", true)).isEqualTo(3_000);
+        assertThat(service.accountTotal("B1", true)).isEqualTo(2_000);
+        assertThat(service.customerTotal("C1", true)).isEqualTo(5_000);
+    }
+
+    //rebuild_fxTransfer_countsAmountSent: Tras reiniciar se cuenta lo enviado por el usuario, como en reserve().
+    @Test
+    void rebuild_fxTransfer_countsAmountSent() {
+        JdbcTemplate jdbc = database();
+        // 100.00 PEN enviados a una cuenta USD: se acreditaron 26.32 USD
+        jdbc.update("insert into transfers (transfer_id, customer_id, source_account_id, dest_account_number,"
+                        + " dest_currency, amount, amount_sent, currency_sent, transfer_datetime, transfer_type, status)"
+                        + " values ('TRX-FX', 'C1', 'A1', 'EXT-1', 'USD', 26.32, 100.00, 'PEN', ?, 'ONLINE', 'EJECUTADA')",
+                Timestamp.valueOf(LocalDateTime.ofInstant(Instant.ofEpochMilli(clock.get()), ZoneId.systemDefault())));
+
+        SlidingWindowTransferLimitServiceImpl service = limits(jdbc, 0, 0);
+        service.afterSingletonsInstantiated();
+        SlidingWindowTransferLimitServiceImpl live = limits(null, 0, 0);
+        live.reserve(request("C1", "A1", "PEN", 100.00));
+
+        assertThat(service.accountTotal("A1", false)).isEqualTo(10_000).isEqualTo(live.accountTotal("A1", false));
+    }
+
+    //evictIdleCounters_keepsMemoryBoundedToActiveKeys: Sin montos en 24 h la clave se desaloja.
+    @Test
+    void evictIdleCounters_keepsMemoryBoundedToActiveKeys() {
+        SlidingWindowTransferLimitServiceImpl service = limits(null, 0, 0);
+        for (int i = 0; i < 1_000; i++) {
+            service.reserve(request("C" + i, "A" + i, "PEN", 1.00));
+        }
+        assertThat(service.activeCounters()).isEqualTo(2_000);
+
+        advanceMinutes(TimeUnit.HOURS.toMinutes(12));
+        service.reserve(request("C0", "A0", "PEN", 1.00));
+        advanceMinutes(TimeUnit.HOURS.toMinutes(13));
+        service.evictIdleCounters();
+
+        assertThat(service.activeCounters()).isEqualTo(2);
+        assertThat(service.accountTotal("A0", true)).isEqualTo(100);
+        // una clave desalojada vuelve a empezar desde cero
+        assertDoesNotThrow(() -> service.reserve(request("C5", "A5", "PEN", 1.00)));
+        assertThat(service.accountTotal("A5", true)).isEqualTo(100);
+    }
+
+    private void transfer(JdbcTemplate jdbc, String customerId, String accountId, double amount,
+                          String currency, long minutesAgo) {
+        LocalDateTime at = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(clock.get() - TimeUnit.MINUTES.toMillis(minutesAgo)), ZoneId.systemDefault());
+        jdbc.update("insert into transfers (transfer_id, customer_id, source_account_id, dest_account_number,"
+                        + " dest_currency, amount, transfer_datetime, transfer_type, status)"
+                        + " values (?, ?, ?, 'EXT-1', ?, ?, ?, 'ONLINE', 'EJECUTADA')",
+                "TRX-" + UUID.randomUUID(), customerId, accountId, currency, amount, Timestamp.valueOf(at));
+    }
+}
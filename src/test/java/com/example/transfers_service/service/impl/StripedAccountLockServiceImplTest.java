@@ -0,0 +1,164 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.AccountLockStatsDto;
+import com.example.transfers_service.exception.AccountBusyException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StripedAccountLockServiceImplTest {
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    // Ocupa la cuenta en otro hilo hasta que se libere 'release'
+    private static Future<?> hold(ExecutorService executor, StripedAccountLockServiceImpl locks, String accountId,
+                                  CountDownLatch holding, CountDownLatch release) {
+        return executor.submit(() -> locks.withAccountLocks(accountId, null, () -> {
+            holding.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+    }
+
+    //sameAccount_isSerialized: Nunca hay dos solicitudes de la misma cuenta dentro a la vez.
+    @Test
+    void sameAccount_isSerialized() throws Exception {
+        StripedAccountLockServiceImpl locks = new StripedAccountLockServiceImpl(true, true, 64, 5_000);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    locks.withAccountLocks("A1", "B" + i, () -> {
+                        maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                        Thread.yield();
+                        return inside.decrementAndGet();
+                    });
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+
+        assertThat(maxInside.get()).isEqualTo(1);
+        assertThat(locks.stats().timeouts()).isZero();
+    }
+
+    //differentAccounts_runConcurrently: Cuentas en distinto stripe no se esperan entre sí.
+    @Test
+    void differentAccounts_runConcurrently() throws Exception {
+        StripedAccountLockServiceImpl locks = new StripedAccountLockServiceImpl(true, true, 1024, 5_000);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = hold(executor, locks, "A1", holding, release);
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<String> other = executor.submit(() -> locks.withAccountLocks("A2", "A3", () -> "ok"));
+
+        assertThat(other.get(1, TimeUnit.SECONDS)).isEqualTo("ok");
+        release.countDown();
+        holder.get();
+        executor.shutdown();
+    }
+
+    //busyAccount_timesOutWithoutRunningWork: Pasado el timeout se rechaza y se cuenta.
+    @Test
+    void busyAccount_timesOutWithoutRunningWork() throws Exception {
+        StripedAccountLockServiceImpl locks = new StripedAccountLockServiceImpl(true, true, 64, 30);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = hold(executor, locks, "A1", holding, release);
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertThatThrownBy(() -> locks.withAccountLocks("B1", "A1", () -> ran.getAndSet(true)))
+                .isInstanceOf(AccountBusyException.class);
+
+        assertThat(ran).isFalse();
+        AccountLockStatsDto stats = locks.stats();
+        assertThat(stats.timeouts()).isEqualTo(1);
+        assertThat(stats.waiting()).isZero();
+        release.countDown();
+        holder.get();
+        executor.shutdown();
+    }
+
+    //fairLock_servesWaitersInArrivalOrder: Con fair=true los que esperan entran en orden de llegada.
+    @Test
+    void fairLock_servesWaitersInArrivalOrder() throws Exception {
+        StripedAccountLockServiceImpl locks = new StripedAccountLockServiceImpl(true, true, 64, 5_000);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = hold(executor, locks, "A1", holding, release);
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        List<Future<?>> waiters = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            int id = i;
+            waiters.add(executor.submit(() -> locks.withAccountLocks("A1", null, () -> order.add(id))));
+            await(() -> locks.stats().waiting() == id);
+        }
+        assertThat(locks.stats().maxQueueDepth()).isEqualTo(5);
+        release.countDown();
+        for (Future<?> waiter : waiters) {
+            waiter.get();
+        }
+        holder.get();
+        executor.shutdown();
+
+        assertThat(order).containsExactly(1, 2, 3, 4, 5);
+    }
+
+    //crossedTransfers_doNotDeadlock: A->B y B->A a la vez se ordenan por stripe.
+    @Test
+    void crossedTransfers_doNotDeadlock() throws Exception {
+        StripedAccountLockServiceImpl locks = new StripedAccountLockServiceImpl(true, false, 1024, 5_000);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> forward = executor.submit(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                locks.withAccountLocks("A", "B", () -> null);
+            }
+        });
+        Future<?> backward = executor.submit(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                locks.withAccountLocks("B", "A", () -> null);
+            }
+        });
+
+        forward.get(10, TimeUnit.SECONDS);
+        backward.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertThat(locks.stats().timeouts()).isZero();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.TransferRequests;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.RateLimitExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+
+class TokenBucketRateLimiterServiceImplTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    private TokenBucketRateLimiterServiceImpl limiter(int accountCapacity, double accountRefill) {
+        return new TokenBucketRateLimiterServiceImpl(
+                true,
+                new TokenBucketRateLimiterServiceImpl.BucketConfig(100, 100),
+                new TokenBucketRateLimiterServiceImpl.BucketConfig(accountCapacity, accountRefill),
+                clock::get);
+    }
+
+    private static TransferRequest request(String customerId, String accountId) {
+        return TransferRequests.request(customerId, accountId, null, null, null);
+    }
+
+    //allowsBurstUpToCapacity_thenRejects: Verifica que se permita la ráfaga configurada y luego se rechace con Retry-After.
+    @Test
+    void allowsBurstUpToCapacity_thenRejects() {
+        TokenBucketRateLimiterServiceImpl service = limiter(3, 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertDoesNotThrow(() -> service.checkTransferAllowed(request("C1", "A1")));
+        }
+
+        assertThatThrownBy(() -> service.checkTransferAllowed(request("C1", "A1")))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessageContaining("A1")
+                .satisfies(ex -> assertThat(((RateLimitExceededException) ex).getRetryAfterSeconds()).isEqualTo(1));
+    }
+
+    //refillsOverTime: Comprueba que el bucket se recargue según el ritmo configurado.
+    @Test
+    void refillsOverTime() {
+        TokenBucketRateLimiterServiceImpl service = limiter(1, 2);
+
+        service.checkTransferAllowed(request("C1", "A1"));
+        assertThatThrownBy(() -> service.checkTransferAllowed(request("C1", "A1")))
+                .isInstanceOf(RateLimitExceededException.class);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertDoesNotThrow(() -> service.checkTransferAllowed(request("C1", "A1")));
+    }
+
+    //keysAreIndependent: Verifica que una cuenta saturada no afecte a otras cuentas.
+    @Test
+    void keysAreIndependent() {
+        TokenBucketRateLimiterServiceImpl service = limiter(1, 1);
+
+        service.checkTransferAllowed(request("C1", "A1"));
+        assertThatThrownBy(() -> service.checkTransferAllowed(request("C1", "A1")))
+                .isInstanceOf(RateLimitExceededException.class);
+        assertDoesNotThrow(() -> service.checkTransferAllowed(request("C2", "A2")));
+    }
+
+    //evictIdleBuckets_removesOnlyRefilledBuckets: Comprueba que solo se eliminen los buckets inactivos.
+    @Test
+    void evictIdleBuckets_removesOnlyRefilledBuckets() {
+        TokenBucketRateLimiterServiceImpl service = limiter(5, 1);
+
+        service.checkTransferAllowed(request("C1", "A1"));
+        assertThat(service.activeBuckets()).isEqualTo(2);
+
+        service.evictIdleBuckets();
+        assertThat(service.activeBuckets()).isEqualTo(2);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        service.evictIdleBuckets();
+        assertThat(service.activeBuckets()).isZero();
+    }
+
+    //disabled_neverRejects: Verifica que con el limitador deshabilitado no se rechace nada.
+    @Test
+    void disabled_neverRejects() {
+        TokenBucketRateLimiterServiceImpl service = new TokenBucketRateLimiterServiceImpl(
+                false,
+                new TokenBucketRateLimiterServiceImpl.BucketConfig(1, 1),
+                new TokenBucketRateLimiterServiceImpl.BucketConfig(1, 1),
+                clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            assertDoesNotThrow(() -> service.checkTransferAllowed(request("C1", "A1")));
+        }
+        assertThat(service.activeBuckets()).isZero();
+    }
+
+    //accountRejected_refundsCustomerToken: Si la cuenta rechaza la solicitud, el token del cliente no se consume.
+    @Test
+    void accountRejected_refundsCustomerToken() {
+        TokenBucketRateLimiterServiceImpl service = new TokenBucketRateLimiterServiceImpl(
+                true,
+                new TokenBucketRateLimiterServiceImpl.BucketConfig(2, 1),
+                new TokenBucketRateLimiterServiceImpl.BucketConfig(1, 1),
+                clock::get);
+
+        service.checkTransferAllowed(request("C1", "A1"));
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> service.checkTransferAllowed(request("C1", "A1")))
+                    .isInstanceOf(RateLimitExceededException.class)
+                    .hasMessageContaining("A1");
+        }
+
+        // al cliente le queda un token de su ráfaga de 2 para otra cuenta
+        assertDoesNotThrow(() -> service.checkTransferAllowed(request("C1", "A2")));
+    }
+}
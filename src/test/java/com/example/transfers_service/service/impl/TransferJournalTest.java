@@ -0,0 +1,103 @@
+package com.example.transfers_service.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransferJournalTest {
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    private static EngineTransfer transfer(long seq) {
+        return new EngineTransfer(seq, "TRX-" + seq, "C1", "A1", "PEN", "A2", "PEN", false, "PEN",
+                10_000, 10_000, 200, 0, 10_200, 10_000, "ONLINE", "EJECUTADA", "pago ñandú " + seq,
+                LocalDateTime.of(2026, 10, 19, 10, 0, 0, 123_456_000), "REVIEW", 55);
+    }
+
+    private static long segmentCount(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    //replay_returnsRecordsAfterCheckpoint_withSameContent: Reabrir el journal devuelve lo escrito después del checkpoint.
+    @Test
+    void replay_returnsRecordsAfterCheckpoint_withSameContent() {
+        TransferJournal journal = new TransferJournal(dir, 0, SEGMENT_BYTES, true);
+        assertThat(journal.open(0)).isEmpty();
+        for (long seq = 1; seq <= 10; seq++) {
+            journal.append(transfer(seq));
+        }
+        journal.sync();
+        journal.close();
+
+        TransferJournal reopened = new TransferJournal(dir, 0, SEGMENT_BYTES, true);
+        List<EngineTransfer> pending = reopened.open(4);
+
+        assertThat(pending).extracting(EngineTransfer::seq).containsExactly(5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(pending.get(0)).isEqualTo(transfer(5));
+        assertThat(reopened.lastSeq()).isEqualTo(10);
+    }
+
+    //replay_discardsTornRecord: Un registro a medio escribir (crc inválido) no se reproduce.
+    @Test
+    void replay_discardsTornRecord() throws Exception {
+        TransferJournal journal = new TransferJournal(dir, 0, SEGMENT_BYTES, true);
+        journal.open(0);
+        journal.append(transfer(1));
+        journal.append(transfer(2));
+        journal.sync();
+        journal.close();
+
+        // se corrompe el último byte del segundo registro
+        Path segment = dir.resolve(TransferJournal.segmentName(0, 1));
+        try (RandomAccessFile raf = new RandomAccessFile(segment.toFile(), "rw")) {
+            raf.seek(0);
+            int firstLength = raf.readInt();
+            long secondStart = 8L + firstLength;
+            raf.seek(secondStart);
+            int secondLength = raf.readInt();
+            long lastByte = secondStart + 8 + secondLength - 1;
+            raf.seek(lastByte);
+            int value = raf.read();
+            raf.seek(lastByte);
+            raf.write(value ^ 0xFF);
+        }
+
+        TransferJournal reopened = new TransferJournal(dir, 0, SEGMENT_BYTES, true);
+        assertThat(reopened.open(0)).extracting(EngineTransfer::seq).containsExactly(1L);
+        // el siguiente registro reutiliza el seq descartado
+        assertThat(reopened.lastSeq()).isEqualTo(1);
+    }
+
+    //segments_roll_andFlushedOnesAreDeleted: Al llenarse se abre otro segmento y truncateUpTo borra los ya volcados.
+    @Test
+    void segments_roll_andFlushedOnesAreDeleted() throws Exception {
+        TransferJournal journal = new TransferJournal(dir, 0, 4 * 1024, false);
+        journal.open(0);
+        for (long seq = 1; seq <= 200; seq++) {
+            journal.append(transfer(seq));
+        }
+        long segments = segmentCount(dir);
+        assertThat(segments).isGreaterThan(2);
+
+        journal.truncateUpTo(200);
+        assertThat(segmentCount(dir)).isEqualTo(1); // solo queda el activo
+        journal.close();
+
+        TransferJournal reopened = new TransferJournal(dir, 0, 4 * 1024, false);
+        List<EngineTransfer> pending = reopened.open(200);
+        assertThat(pending).isEmpty();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.dto.CurrencyCode;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransferPricingTest {
+
+    private final TransferPricing pricing = new TransferPricing(CurrencyRegistry.defaults());
+
+    private static TransferPricing withEurAndJpy() {
+        return new TransferPricing(new CurrencyRegistry("PEN", List.of(
+                new CurrencyRegistry.Definition("PEN", 2, null, null),
+                new CurrencyRegistry.Definition("USD", 2, new BigDecimal("3.50"), new BigDecimal("3.80")),
+                new CurrencyRegistry.Definition("EUR", 2, new BigDecimal("3.90"), new BigDecimal("4.20")),
+                new CurrencyRegistry.Definition("JPY", 0, new BigDecimal("0.024"), new BigDecimal("0.026")))));
+    }
+
+    //penUsd_keepsPreviousRates: PEN/USD dan los mismos montos que las constantes anteriores.
+    @Test
+    void penUsd_keepsPreviousRates() {
+        BigDecimal hundred = new BigDecimal("100");
+
+        assertThat(pricing.amountToDebit(hundred, "USD", "PEN")).isEqualByComparingTo("380.000000");
+        assertThat(pricing.amountToDebit(hundred, "PEN", "USD")).isEqualByComparingTo("28.571429");
+        assertThat(pricing.convert(hundred, "USD", "PEN")).isEqualByComparingTo("350.000000");
+        assertThat(pricing.convert(hundred, "pen", "usd")).isEqualByComparingTo("26.315789");
+    }
+
+    //eur_crossRateGoesThroughBase: EUR -> USD compra EUR a base y vende USD desde base.
+    @Test
+    void eur_crossRateGoesThroughBase() {
+        TransferPricing pricing = withEurAndJpy();
+
+        // 100 EUR * 3.90 = 390 PEN / 3.80 = 102.631579 USD
+        assertThat(pricing.amountToCredit(new BigDecimal("100"), "EUR", "USD"))
+                .isEqualByComparingTo("102.631579");
+        // 100 EUR pedidos desde una cuenta PEN: 100 * 4.20
+        assertThat(pricing.amountToDebit(new BigDecimal("100"), "EUR", "PEN"))
+                .isEqualByComparingTo("420.000000");
+    }
+
+    //zeroMinorUnits_roundsToWholeUnits: Una moneda sin decimales se redondea a su unidad mínima.
+    @Test
+    void zeroMinorUnits_roundsToWholeUnits() {
+        TransferPricing pricing = withEurAndJpy();
+        CurrencyCode jpy = pricing.currency("JPY");
+
+        // 10 PEN / 0.026 = 384.615385 JPY -> 385
+        BigDecimal credit = pricing.amountToCredit(new BigDecimal("10"),
+                pricing.currency("PEN"), jpy);
+
+        assertThat(credit).isEqualByComparingTo("385");
+    }
+
+    //fxRateUsed_quotedRatePerDirection: Venta desde base, compra hacia base, cruzado entre divisas, null sin cambio.
+    @Test
+    void fxRateUsed_quotedRatePerDirection() {
+        TransferPricing pricing = withEurAndJpy();
+        CurrencyCode pen = pricing.currency("PEN");
+        CurrencyCode usd = pricing.currency("USD");
+        CurrencyCode eur = pricing.currency("EUR");
+
+        assertThat(pricing.fxRateUsed(pen, usd)).isEqualByComparingTo("3.80");
+        assertThat(pricing.fxRateUsed(usd, pen)).isEqualByComparingTo("3.50");
+        assertThat(pricing.fxRateUsed(eur, usd)).isEqualByComparingTo("1.026316");
+        assertThat(pricing.fxRateUsed(pen, pen)).isNull();
+    }
+
+    //itf_thresholdPerSourceCurrency: El umbral de ITF es el de la moneda de la cuenta origen; sin umbral no aplica.
+    @Test
+    void itf_thresholdPerSourceCurrency() {
+        TransferPricing pricing = withEurAndJpy();
+        LocalDateTime dateTime = LocalDateTime.of(2023, 1, 2, 10, 0);
+        BigDecimal amount = new BigDecimal("600.00");
+
+        assertThat(pricing.charges("PEN", amount, dateTime).getItf()).isEqualByComparingTo("0");
+        assertThat(pricing.charges("USD", amount, dateTime).getItf()).isEqualByComparingTo("0.03");
+        assertThat(pricing.charges("PEN", new BigDecimal("2000.00"), dateTime).getItf()).isEqualByComparingTo("0.10");
+        assertThat(pricing.charges("EUR", new BigDecimal("90000.00"), dateTime).getItf()).isEqualByComparingTo("0");
+    }
+}
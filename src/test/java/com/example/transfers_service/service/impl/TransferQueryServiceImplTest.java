@@ -0,0 +1,130 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.dto.response.TransferDetailResponse;
+import com.example.transfers_service.entity.Transfer;
+import com.example.transfers_service.exception.InvalidTransferException;
+import com.example.transfers_service.exception.TransferNotFoundException;
+import com.example.transfers_service.mapper.TransferMapper;
+import com.example.transfers_service.repository.TransferRepository;
+import com.github.f4b6a3.ulid.Ulid;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransferQueryServiceImplTest {
+
+    private final TransferRepository transferRepository = Mockito.mock(TransferRepository.class);
+    private final TransferQueryServiceImpl service = new TransferQueryServiceImpl(transferRepository,
+            Mappers.getMapper(TransferMapper.class));
+
+    private static Transfer transfer(String description) {
+        Transfer transfer = new Transfer();
+        transfer.setTransferId("TRX-1");
+        transfer.setCustomerId("C1");
+        transfer.setSourceAccountId("A1");
+        transfer.setDestAccountNumber("A2");
+        transfer.setDestCurrency("USD");
+        transfer.setAmount(10.00);
+        transfer.setDescription(description);
+        transfer.setTransferDatetime(LocalDateTime.of(2025, 3, 4, 10, 15));
+        transfer.setTransferType("ONLINE");
+        transfer.setStatus("EJECUTADA");
+        return transfer;
+    }
+
+    //getTransfer_rendersSummaryFromTypedColumns: El detalle se arma al consultar con la moneda guardada del débito.
+    @Test
+    void getTransfer_rendersSummaryFromTypedColumns() {
+        Transfer transfer = transfer("pago");
+        transfer.setAmountSent(new BigDecimal("10.00"));
+        transfer.setCurrencySent("USD");
+        transfer.setTotalDebit(new BigDecimal("40.00"));
+        transfer.setDebitCurrency("PEN");
+        transfer.setCommission(new BigDecimal("2.00"));
+        transfer.setItf(BigDecimal.ZERO);
+        transfer.setFxRateUsed(new BigDecimal("3.800000"));
+        when(transferRepository.findById("TRX-1")).thenReturn(Optional.of(transfer));
+
+        TransferDetailResponse detail = service.getTransfer("TRX-1", "C1");
+
+        assertThat(detail.getSourceCurrency()).isEqualTo("PEN");
+        assertThat(detail.getAmountCredited()).isEqualByComparingTo("10.00");
+        assertThat(detail.getFxRateUsed()).isEqualByComparingTo("3.80");
+        assertThat(detail.getDescription()).isEqualTo("pago");
+        assertThat(detail.getSummary()).isEqualTo("pago | Usuario envió: 10.00 USD -> Debitado: 40.00 PEN"
+                + " (Comisión: 2.00 PEN, ITF: 0.00 PEN) -> Acreditado: 10.00 USD");
+    }
+
+    //getTransfer_legacyRow_keepsStoredDescription: Filas anteriores a V8 ya traen el detalle en description.
+    @Test
+    void getTransfer_legacyRow_keepsStoredDescription() {
+        String legacy = "pago | Usuario envió: 10.00 USD -> Debitado: 40.00 PEN (Comisión: 2.00 PEN, ITF: 0.00 PEN)"
+                + " -> Acreditado: 10.00 USD";
+        when(transferRepository.findById("TRX-1")).thenReturn(Optional.of(transfer(legacy)));
+
+        TransferDetailResponse detail = service.getTransfer("TRX-1", "C1");
+
+        assertThat(detail.getAmountSent()).isNull();
+        assertThat(detail.getSourceCurrency()).isNull();
+        assertThat(detail.getSummary()).isEqualTo(legacy);
+    }
+
+    //getTransfer_unknownId_throwsNotFound: Un id inexistente es TransferNotFoundException (404).
+    @Test
+    void getTransfer_unknownId_throwsNotFound() {
+        when(transferRepository.findById("TRX-X")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.getTransfer("TRX-X", "C1"))
+                .isInstanceOf(TransferNotFoundException.class);
+    }
+
+    //getTransfer_otherCustomer_throwsNotFound: Otro cliente recibe lo mismo que con un id inexistente.
+    @Test
+    void getTransfer_otherCustomer_throwsNotFound() {
+        when(transferRepository.findById("TRX-1")).thenReturn(Optional.of(transfer("pago")));
+
+        assertThatThrownBy(() -> service.getTransfer("TRX-1", "C2"))
+                .isInstanceOf(TransferNotFoundException.class)
+                .hasMessage("Transferencia no existe: TRX-1");
+    }
+
+    //getTransfer_withoutCustomer_throwsInvalid: Sin customerId no se consulta la BD.
+    @Test
+    void getTransfer_withoutCustomer_throwsInvalid() {
+        assertThatThrownBy(() -> service.getTransfer("TRX-1", " "))
+                .isInstanceOf(InvalidTransferException.class);
+
+        verify(transferRepository, never()).findById(anyString());
+    }
+
+    //getTransfer_ulidId_boundsDatetimeForPartitionPruning: Con un id ULID se acota transfer_datetime al instante del id.
+    @Test
+    void getTransfer_ulidId_boundsDatetimeForPartitionPruning() {
+        Instant createdAt = Instant.parse("2025-03-04T15:15:00Z");
+        String transferId = "TRX-" + new Ulid(createdAt.toEpochMilli(), new byte[10]);
+        LocalDateTime local = LocalDateTime.ofInstant(createdAt, ZoneId.systemDefault());
+        Transfer transfer = transfer("pago");
+        transfer.setTransferId(transferId);
+        when(transferRepository.findByIdInRange(eq(transferId), any(), any())).thenReturn(Optional.of(transfer));
+
+        assertThat(service.getTransfer(transferId, "C1").getTransferId()).isEqualTo(transferId);
+
+        verify(transferRepository).findByIdInRange(transferId, local.minusDays(1), local.plusDays(1));
+        verify(transferRepository, never()).findById(anyString());
+    }
+}
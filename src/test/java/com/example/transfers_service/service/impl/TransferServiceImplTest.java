@@ -1,18 +1,31 @@
 package com.example.transfers_service.service.impl;
 
+import com.example.transfers_service.config.CurrencyRegistry;
 import com.example.transfers_service.dto.request.CustomerRef;
+import com.example.transfers_service.dto.request.TransferRequest;
 import com.example.transfers_service.entity.Account;
+import com.example.transfers_service.exception.AccountOwnershipException;
+import com.example.transfers_service.exception.InvalidTransferException;
+import com.example.transfers_service.exception.TransferLimitExceededException;
 import com.example.transfers_service.mapper.MovementMapper;
 import com.example.transfers_service.mapper.TransferMapper;
 import com.example.transfers_service.repository.AccountRepository;
 import com.example.transfers_service.repository.MovementRepository;
 import com.example.transfers_service.repository.TransferRepository;
+import com.example.transfers_service.service.FraudScoringService;
+import com.example.transfers_service.service.TransferEventPublisher;
 import com.example.transfers_service.service.IdGeneratorService;
+import com.example.transfers_service.service.LedgerService;
+import com.example.transfers_service.service.ShardingService;
+import com.example.transfers_service.service.TransferLimitService;
+import com.example.transfers_service.service.TransferValidationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.lang.reflect.InvocationTargetException;
@@ -20,9 +33,15 @@ import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import static com.example.transfers_service.TransferRequests.request;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class TransferServiceImplTest {
@@ -33,6 +52,13 @@ class TransferServiceImplTest {
     @Mock private IdGeneratorService idGeneratorService;
     @Mock private TransferMapper transferMapper;
     @Mock private MovementMapper movementMapper;
+    @Mock private LedgerService ledgerService;
+    @Mock private ShardingService shardingService;
+    @Mock private TransferValidationService transferValidationService;
+    @Mock private TransferLimitService transferLimitService;
+    @Mock private FraudScoringService fraudScoringService;
+    @Mock private TransferEventPublisher transferEventPublisher;
+    @Spy private CurrencyRegistry currencyRegistry = CurrencyRegistry.defaults();
 
     @InjectMocks
     private TransferServiceImpl service;
@@ -86,7 +112,7 @@ class TransferServiceImplTest {
                 () -> invokeValidateSourceAccountOwner(sourceAccount, null));
 
         assertThat(exception.getCause())
-                .isInstanceOf(IllegalArgumentException.class)
+                .isInstanceOf(InvalidTransferException.class)
                 .hasMessage("La información del cliente es obligatoria.");
     }
 
@@ -99,7 +125,7 @@ class TransferServiceImplTest {
                 () -> invokeValidateSourceAccountOwner(sourceAccount, customerRef));
 
         assertThat(exception.getCause())
-                .isInstanceOf(IllegalArgumentException.class)
+                .isInstanceOf(AccountOwnershipException.class)
                 .hasMessage("La cuenta origen no pertenece al cliente indicado en la solicitud.");
     }
 
@@ -112,6 +138,31 @@ class TransferServiceImplTest {
         method.invoke(service, account, customerRef);
     }
 
+    //createTransfer_rejectedByPreLockStage_neverLocks: Si la etapa previa rechaza, no se bloquea ninguna fila.
+    @Test
+    void createTransfer_rejectedByPreLockStage_neverLocks() {
+        TransferRequest request = request("C99", "A1", "A2", "PEN", 10.00);
+        when(transferValidationService.validateBeforeLock(request))
+                .thenThrow(new AccountOwnershipException("La cuenta origen no pertenece al cliente indicado en la solicitud."));
+
+        assertThatThrownBy(() -> service.createTransfer(request))
+                .isInstanceOf(AccountOwnershipException.class);
+        verify(accountRepository, never()).findAndLockByAccountId(any());
+    }
+
+    //createTransfer_overCumulativeLimit_neverLocks: Un límite horario/diario excedido se rechaza antes del lock.
+    @Test
+    void createTransfer_overCumulativeLimit_neverLocks() {
+        TransferRequest request = request("C1", "A1", "A2", "PEN", 10.00);
+        Mockito.doThrow(new TransferLimitExceededException("Límite diario de transferencias excedido para la cuenta A1"))
+                .when(transferLimitService).reserve(request);
+
+        assertThatThrownBy(() -> service.createTransfer(request))
+                .isInstanceOf(TransferLimitExceededException.class);
+        verify(accountRepository, never()).findAndLockByAccountId(any());
+        verify(transferEventPublisher, never()).publishAfterCommit(any());
+    }
+
     // Pruebas para calculateCharges
     @Test
     void calculateCharges_penTransferBelowThreshold_noItf() throws Exception {
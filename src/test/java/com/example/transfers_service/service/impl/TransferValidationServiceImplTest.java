@@ -0,0 +1,183 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.config.ShardContext;
+import com.example.transfers_service.dto.AccountMetadataDto;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.AccountInactiveException;
+import com.example.transfers_service.exception.AccountNotFoundException;
+import com.example.transfers_service.exception.AccountOwnershipException;
+import com.example.transfers_service.exception.InvalidTransferException;
+import com.example.transfers_service.config.ExternalAccountPrefetch;
+import com.example.transfers_service.dto.external.ExternalAccountResponse;
+import com.example.transfers_service.exception.ExternalAccountValidationException;
+import com.example.transfers_service.service.AccountMetadataService;
+import com.example.transfers_service.service.ExternalAccountService;
+import com.example.transfers_service.service.ShardingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static com.example.transfers_service.TransferRequests.request;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransferValidationServiceImplTest {
+
+    @Mock private AccountMetadataService accountMetadataService;
+    @Mock private ExternalAccountService externalAccountService;
+    @Mock private ShardingService shardingService;
+    @Spy private CurrencyRegistry currencyRegistry = CurrencyRegistry.defaults();
+
+    @InjectMocks
+    private TransferValidationServiceImpl service;
+
+    private void account(String accountId, String customerId, String currency, String status) {
+        when(accountMetadataService.find(accountId))
+                .thenReturn(Optional.of(new AccountMetadataDto(accountId, customerId, currency, status)));
+    }
+
+    //validRequest_returnsSourceMetadata: Una solicitud correcta pasa y devuelve los metadatos de origen.
+    @Test
+    void validRequest_returnsSourceMetadata() {
+        account("A1", "C1", "PEN", "ACTIVE");
+        account("A2", "C2", "USD", "ACTIVE");
+
+        AccountMetadataDto source = service.validateBeforeLock(request("C1", "A1", "A2", "PEN", 10.00));
+
+        assertThat(source.customerId()).isEqualTo("C1");
+    }
+
+    //nonPositiveAmount_rejectedWithoutLookup: Monto cero, negativo o NaN se rechaza sin consultar cuentas.
+    @Test
+    void nonPositiveAmount_rejectedWithoutLookup() {
+        for (Double amount : new Double[]{0.0, -5.0, Double.NaN, null}) {
+            assertThatThrownBy(() -> service.validateBeforeLock(request("C1", "A1", "A2", "PEN", amount)))
+                    .isInstanceOf(InvalidTransferException.class)
+                    .hasMessage("El monto debe ser mayor que cero.");
+        }
+        verify(accountMetadataService, never()).find(any());
+    }
+
+    //unsupportedCurrency_rejectedWithoutLookup: Moneda del usuario no soportada: 400 sin consultar cuentas.
+    @Test
+    void unsupportedCurrency_rejectedWithoutLookup() {
+        assertThatThrownBy(() -> service.validateBeforeLock(request("C1", "A1", "A2", "JPY", 10.00)))
+                .isInstanceOf(InvalidTransferException.class)
+                .hasMessage("Moneda no soportada: JPY");
+        verify(accountMetadataService, never()).find(any());
+    }
+
+    //wrongOwner_rejected: El titular incorrecto se rechaza con los metadatos cacheados.
+    @Test
+    void wrongOwner_rejected() {
+        account("A1", "C1", "PEN", "ACTIVE");
+
+        assertThatThrownBy(() -> service.validateBeforeLock(request("C99", "A1", "A2", "PEN", 10.00)))
+                .isInstanceOf(AccountOwnershipException.class)
+                .hasMessage("La cuenta origen no pertenece al cliente indicado en la solicitud.");
+    }
+
+    //inactiveAccounts_rejected: Origen o destino interno no activos se rechazan.
+    @Test
+    void inactiveAccounts_rejected() {
+        account("A1", "C1", "PEN", "BLOCKED");
+        assertThatThrownBy(() -> service.validateBeforeLock(request("C1", "A1", "A2", "PEN", 10.00)))
+                .isInstanceOf(AccountInactiveException.class)
+                .hasMessageContaining("A1");
+
+        account("A3", "C3", "PEN", "ACTIVE");
+        account("A4", "C4", "PEN", "CLOSED");
+        assertThatThrownBy(() -> service.validateBeforeLock(request("C3", "A3", "A4", "PEN", 10.00)))
+                .isInstanceOf(AccountInactiveException.class)
+                .hasMessageContaining("A4");
+    }
+
+    //unknownSource_rejected: Cuenta origen inexistente: AccountNotFoundException.
+    @Test
+    void unknownSource_rejected() {
+        when(accountMetadataService.find("A1")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.validateBeforeLock(request("C1", "A1", "A2", "PEN", 10.00)))
+                .isInstanceOf(AccountNotFoundException.class);
+    }
+
+    //businessExceptions_areStackless: Los rechazos no capturan stack trace.
+    @Test
+    void businessExceptions_areStackless() {
+        Throwable thrown = assertThrows(InvalidTransferException.class,
+                () -> service.validateBeforeLock(request(null, "A1", "A2", "PEN", 10.00)));
+
+        assertThat(thrown.getStackTrace()).isEmpty();
+        assertThat(new AccountNotFoundException("x").getStackTrace()).isEmpty();
+    }
+
+    //externalDestination_validatedOnceBeforeWork: La cuenta de otro banco se valida antes de 'work' y no se vuelve a llamar dentro.
+    @Test
+    void externalDestination_validatedOnceBeforeWork() {
+        account("A1", "C1", "PEN", "ACTIVE");
+        ExternalAccountResponse external = new ExternalAccountResponse();
+        external.setExternalAccountId("EXT-1");
+        external.setStatus("ACTIVE");
+        when(externalAccountService.validateExternalAccount("EXT-1")).thenReturn(external);
+
+        ExternalAccountResponse seen = service.withExternalDestination(request("C1", "A1", "EXT-1", "PEN", 10.00),
+                () -> ExternalAccountPrefetch.orElseValidate("EXT-1", () -> {
+                    throw new AssertionError("no debe llamar al banco con los locks tomados");
+                }));
+
+        assertThat(seen).isSameAs(external);
+        verify(externalAccountService, times(1)).validateExternalAccount("EXT-1");
+    }
+
+    //externalDestination_rejectionIsReplayed: Un rechazo del banco se relanza dentro sin otra llamada.
+    @Test
+    void externalDestination_rejectionIsReplayed() {
+        account("A1", "C1", "PEN", "ACTIVE");
+        when(externalAccountService.validateExternalAccount("EXT-1"))
+                .thenThrow(new ExternalAccountValidationException("Cuenta externa no existe"));
+
+        assertThatThrownBy(() -> service.withExternalDestination(request("C1", "A1", "EXT-1", "PEN", 10.00),
+                () -> ExternalAccountPrefetch.orElseValidate("EXT-1", ExternalAccountResponse::new)))
+                .isInstanceOf(ExternalAccountValidationException.class)
+                .hasMessage("Cuenta externa no existe");
+        verify(externalAccountService, times(1)).validateExternalAccount("EXT-1");
+    }
+
+    //internalDestination_skipsExternalBank: Un destino propio no llama al banco externo.
+    @Test
+    void internalDestination_skipsExternalBank() {
+        account("A1", "C1", "PEN", "ACTIVE");
+        account("A2", "C2", "PEN", "ACTIVE");
+
+        assertThat(service.withExternalDestination(request("C1", "A1", "A2", "PEN", 10.00), () -> "ok"))
+                .isEqualTo("ok");
+        verify(externalAccountService, never()).validateExternalAccount(any());
+    }
+
+    //sharding_readsMetadataOnSourceShard: Con sharding la validación previa al lock lee en el shard de la cuenta origen.
+    @Test
+    void sharding_readsMetadataOnSourceShard() {
+        when(shardingService.isEnabled()).thenReturn(true);
+        when(shardingService.shardFor("A1")).thenReturn("shard-1");
+        when(accountMetadataService.find("A1")).thenAnswer(invocation -> "shard-1".equals(ShardContext.current())
+                ? Optional.of(new AccountMetadataDto("A1", "C1", "PEN", "ACTIVE")) : Optional.empty());
+        account("A2", "C2", "PEN", "ACTIVE");
+
+        assertThat(service.withExternalDestination(request("C1", "A1", "A2", "PEN", 10.00), ShardContext::current))
+                .isNull();
+        verify(externalAccountService, never()).validateExternalAccount(any());
+    }
+}
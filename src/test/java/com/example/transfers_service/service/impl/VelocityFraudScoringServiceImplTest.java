@@ -0,0 +1,226 @@
+package com.example.transfers_service.service.impl;
+
+import com.example.transfers_service.TransferRequests;
+import com.example.transfers_service.config.CurrencyRegistry;
+import com.example.transfers_service.dto.AccountMetadataDto;
+import com.example.transfers_service.dto.FraudAssessmentDto;
+import com.example.transfers_service.dto.request.TransferRequest;
+import com.example.transfers_service.exception.FraudSuspectedException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VelocityFraudScoringServiceImplTest {
+
+    private static final AccountMetadataDto PEN_ACCOUNT = new AccountMetadataDto("A1", "C1", "PEN", "ACTIVE");
+
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    private VelocityFraudScoringServiceImpl service(JdbcTemplate jdbc, int blockScore) {
+        return new VelocityFraudScoringServiceImpl(jdbc, CurrencyRegistry.defaults(),
+                new VelocityFraudScoringServiceImpl.Settings(true, TimeUnit.MICROSECONDS.toNanos(200),
+                        50, blockScore, 5, 10, 10, 5, 4, 1 << 12, 30, TimeUnit.HOURS.toMillis(1)),
+                clock::get, nanoClock::get);
+    }
+
+    private static TransferRequest request(String destination, String currency, double amount) {
+        return TransferRequests.request("C1", "A1", destination, currency, amount);
+    }
+
+    // historial normal: 5 transferencias de 100 PEN al mismo destino, espaciadas
+    private void history(VelocityFraudScoringServiceImpl service) {
+        for (int i = 0; i < 5; i++) {
+            assertThat(service.screen(request("B1", "PEN", 100.00), PEN_ACCOUNT).decision())
+                    .isEqualTo(VelocityFraudScoringServiceImpl.DECISION_ALLOW);
+            clock.addAndGet(TimeUnit.MINUTES.toMillis(30));
+        }
+    }
+
+    //screen_usualTransfer_isAllowedWithoutSignals: Mismo destino, monto y moneda de siempre.
+    @Test
+    void screen_usualTransfer_isAllowedWithoutSignals() {
+        VelocityFraudScoringServiceImpl service = service(null, 80);
+        history(service);
+
+        FraudAssessmentDto assessment = service.screen(request("B1", "PEN", 120.00), PEN_ACCOUNT);
+
+        assertThat(assessment.score()).isZero();
+        assertThat(assessment.signals()).isEmpty();
+        assertThat(assessment.decision()).isEqualTo(VelocityFraudScoringServiceImpl.DECISION_ALLOW);
+    }
+
+    //screen_newDestinationAndUnusualFx_flagged: Destino nunca visto y primera compra de dólares.
+    @Test
+    void screen_newDestinationAndUnusualFx_flagged() {
+        VelocityFraudScoringServiceImpl service = service(null, 80);
+        history(service);
+
+        FraudAssessmentDto assessment = service.screen(request("B2", "USD", 20.00), PEN_ACCOUNT);
+
+        assertThat(assessment.signals()).containsExactly(
+                VelocityFraudScoringServiceImpl.SIGNAL_NEW_DESTINATION,
+                VelocityFraudScoringServiceImpl.SIGNAL_UNUSUAL_FX);
+        assertThat(assessment.score()).isEqualTo(40);
+        assertThat(assessment.decision()).isEqualTo(VelocityFraudScoringServiceImpl.DECISION_ALLOW);
+        // el mismo sentido de cambio ya no es inusual
+        assertThat(service.screen(request("B2", "USD", 20.00), PEN_ACCOUNT).signals()).isEmpty();
+    }
+
+    //screen_burstOfLargeTransfersToNewAccounts_isBlocked: Velocidad en número y monto + destino nuevo.
+    @Test
+    void screen_burstOfLargeTransfersToNewAccounts_isBlocked() {
+        VelocityFraudScoringServiceImpl service = service(null, 80);
+        history(service);
+
+        for (int i = 0; i < 5; i++) {
+            service.screen(request("B1", "PEN", 500.00), PEN_ACCOUNT);
+        }
+        assertThatThrownBy(() -> service.screen(request("MULE-1", "PEN", 500.00), PEN_ACCOUNT))
+                .isInstanceOf(FraudSuspectedException.class)
+                .hasMessageContaining(VelocityFraudScoringServiceImpl.SIGNAL_COUNT_VELOCITY)
+                .hasMessageContaining(VelocityFraudScoringServiceImpl.SIGNAL_AMOUNT_VELOCITY)
+                .hasMessageContaining(VelocityFraudScoringServiceImpl.SIGNAL_NEW_DESTINATION);
+    }
+
+    //screen_manyDistinctDestinationsInADay_flagsFanout: Más de 10 destinos distintos (HyperLogLog).
+    @Test
+    void screen_manyDistinctDestinationsInADay_flagsFanout() {
+        clock.set(TimeUnit.DAYS.toMillis(20_000) + TimeUnit.HOURS.toMillis(1)); // lejos del cambio de día
+        VelocityFraudScoringServiceImpl service = service(null, 101);
+        FraudAssessmentDto last = null;
+        for (int i = 0; i < 12; i++) {
+            last = service.screen(request("D" + i, "PEN", 10.00), PEN_ACCOUNT);
+            clock.addAndGet(TimeUnit.MINUTES.toMillis(20));
+        }
+
+        assertThat(last.signals()).contains(VelocityFraudScoringServiceImpl.SIGNAL_DESTINATION_FANOUT);
+        // al día siguiente se vuelve a contar desde cero
+        clock.addAndGet(TimeUnit.DAYS.toMillis(1));
+        assertThat(service.screen(request("D0", "PEN", 10.00), PEN_ACCOUNT).signals())
+                .doesNotContain(VelocityFraudScoringServiceImpl.SIGNAL_DESTINATION_FANOUT);
+    }
+
+    // cada lectura del reloj avanza 150 µs: toda evaluación se pasa del presupuesto de 200 µs
+    private VelocityFraudScoringServiceImpl slowService(int blockScore) {
+        return new VelocityFraudScoringServiceImpl(null, CurrencyRegistry.defaults(),
+                new VelocityFraudScoringServiceImpl.Settings(true, TimeUnit.MICROSECONDS.toNanos(200),
+                        50, blockScore, 5, 10, 10, 5, 4, 1 << 12, 30, TimeUnit.HOURS.toMillis(1)),
+                clock::get, () -> nanoClock.addAndGet(TimeUnit.MICROSECONDS.toNanos(150)));
+    }
+
+    //screen_overLatencyBudget_fallsBackWithoutBlocking: Fuera de presupuesto la transferencia sigue.
+    @Test
+    void screen_overLatencyBudget_fallsBackWithoutBlocking() {
+        VelocityFraudScoringServiceImpl slow = slowService(80);
+        slow.screen(request("B1", "PEN", 10.00), PEN_ACCOUNT);
+
+        FraudAssessmentDto assessment = slow.screen(request("B9", "PEN", 10.00), PEN_ACCOUNT);
+
+        assertThat(assessment.decision()).isEqualTo(VelocityFraudScoringServiceImpl.DECISION_FALLBACK);
+        assertThat(assessment.signals()).contains(VelocityFraudScoringServiceImpl.SIGNAL_NEW_DESTINATION);
+        assertThat(slow.fallbacks()).isEqualTo(2);
+    }
+
+    //screen_overLatencyBudget_keepsComputedBlock: Un BLOCK ya calculado no se degrada a FALLBACK.
+    @Test
+    void screen_overLatencyBudget_keepsComputedBlock() {
+        VelocityFraudScoringServiceImpl slow = slowService(20);
+        slow.screen(request("B1", "PEN", 10.00), PEN_ACCOUNT);
+
+        assertThatThrownBy(() -> slow.screen(request("B9", "PEN", 10.00), PEN_ACCOUNT))
+                .isInstanceOf(FraudSuspectedException.class)
+                .hasMessageContaining(VelocityFraudScoringServiceImpl.SIGNAL_NEW_DESTINATION);
+        assertThat(slow.fallbacks()).isEqualTo(1);
+    }
+
+    //screen_blockedTransfer_doesNotTrainSignals: El reintento de una bloqueada sigue siendo destino nuevo.
+    @Test
+    void screen_blockedTransfer_doesNotTrainSignals() {
+        VelocityFraudScoringServiceImpl service = service(null, 20);
+        history(service);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            assertThatThrownBy(() -> service.screen(request("MULE-1", "PEN", 100.00), PEN_ACCOUNT))
+                    .isInstanceOf(FraudSuspectedException.class)
+                    .hasMessageContaining(VelocityFraudScoringServiceImpl.SIGNAL_NEW_DESTINATION);
+        }
+    }
+
+    //screen_insideTransaction_learnsOnlyOnCommit: Una transferencia con rollback no deja su destino como conocido.
+    @Test
+    void screen_insideTransaction_learnsOnlyOnCommit() {
+        VelocityFraudScoringServiceImpl service = service(null, 80);
+        history(service);
+
+        assertThat(inTransaction(false, () -> service.screen(request("B2", "PEN", 100.00), PEN_ACCOUNT)).signals())
+                .containsExactly(VelocityFraudScoringServiceImpl.SIGNAL_NEW_DESTINATION);
+        assertThat(inTransaction(true, () -> service.screen(request("B2", "PEN", 100.00), PEN_ACCOUNT)).signals())
+                .containsExactly(VelocityFraudScoringServiceImpl.SIGNAL_NEW_DESTINATION);
+        assertThat(service.screen(request("B2", "PEN", 100.00), PEN_ACCOUNT).signals()).isEmpty();
+    }
+
+    // Simula el fin de la transacción de createTransfer: commit o rollback
+    private static <T> T inTransaction(boolean commit, Supplier<T> work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            T result = work.get();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (commit) {
+                TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            }
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, commit
+                    ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+            return result;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    //warmup_knownDestinationsAreNotNew: Tras un reinicio los destinos de transfers no cuentan como nuevos.
+    @Test
+    void warmup_knownDestinationsAreNotNew() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:fraud-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1"
+                + ";INIT=RUNSCRIPT FROM 'classpath:db/migration/V1__baseline_schema.sql'");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("insert into transfers (transfer_id, customer_id, source_account_id, dest_account_number,"
+                        + " dest_currency, amount, transfer_datetime, transfer_type, status)"
+                        + " values ('TRX-1', 'C1', 'A1', 'B7', 'PEN', 50, ?, 'ONLINE', 'EJECUTADA')",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(3)));
+        VelocityFraudScoringServiceImpl service = service(jdbc, 80);
+        service.afterSingletonsInstantiated();
+        service.screen(request("B1", "PEN", 10.00), PEN_ACCOUNT);
+
+        assertThat(service.screen(request("B7", "PEN", 10.00), PEN_ACCOUNT).signals()).isEmpty();
+        assertThat(service.screen(request("B8", "PEN", 10.00), PEN_ACCOUNT).signals())
+                .containsExactly(VelocityFraudScoringServiceImpl.SIGNAL_NEW_DESTINATION);
+    }
+
+    //evictIdleAccounts_dropsAccountsPastTtl: Las cuentas sin actividad dejan de ocupar memoria.
+    @Test
+    void evictIdleAccounts_dropsAccountsPastTtl() {
+        VelocityFraudScoringServiceImpl service = service(null, 80);
+        service.screen(request("B1", "PEN", 10.00), PEN_ACCOUNT);
+        assertThat(service.activeAccounts()).isEqualTo(1);
+
+        clock.addAndGet(TimeUnit.HOURS.toMillis(2));
+        service.evictIdleAccounts();
+
+        assertThat(service.activeAccounts()).isZero();
+    }
+}